@@ -26,6 +26,7 @@ import buildcraft.lib.registry.RegistryHelper;
 import buildcraft.lib.registry.TagManager;
 import buildcraft.lib.registry.TagManager.EnumTagType;
 import buildcraft.lib.registry.TagManager.TagEntry;
+import buildcraft.lib.world.BlockChangeListeners;
 
 import buildcraft.builders.addon.AddonFillingPlanner;
 import buildcraft.builders.snapshot.GlobalSavedDataSnapshots;
@@ -90,9 +91,10 @@ public class BCBuilders {
         BCBuildersProxy.getProxy().fmlPreInit();
 
         MinecraftForge.EVENT_BUS.register(BCBuildersEventDist.INSTANCE);
+        BlockChangeListeners.addListener(BCBuildersEventDist.INSTANCE::onBlockChange);
 
-        MessageManager.addMessageType(MessageSnapshotRequest.class, MessageSnapshotRequest.HANDLER, Side.SERVER);
-        MessageManager.addMessageType(MessageSnapshotResponse.class, MessageSnapshotResponse.HANDLER, Side.CLIENT);
+        MessageManager.addMessageType(MessageSnapshotRequest.class, MessageSnapshotRequest.HANDLER, Side.SERVER, Side.CLIENT);
+        MessageManager.addMessageType(MessageSnapshotResponse.class, MessageSnapshotResponse.HANDLER, Side.CLIENT, Side.SERVER);
     }
 
     @Mod.EventHandler
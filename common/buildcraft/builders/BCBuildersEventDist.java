@@ -37,8 +37,11 @@ import buildcraft.builders.client.ClientArchitectTables;
 import buildcraft.builders.item.ItemSchematicSingle;
 import buildcraft.builders.snapshot.Blueprint;
 import buildcraft.builders.snapshot.ClientSnapshots;
+import buildcraft.builders.snapshot.ITileForSnapshotBuilder;
 import buildcraft.builders.snapshot.Snapshot;
 import buildcraft.builders.snapshot.Snapshot.Header;
+import buildcraft.builders.snapshot.SnapshotBuilder;
+import buildcraft.builders.snapshot.SnapshotTransfers;
 import buildcraft.builders.tile.TileQuarry;
 
 public enum BCBuildersEventDist {
@@ -46,6 +49,7 @@ public enum BCBuildersEventDist {
 
     private static final UUID UUID_SINGLE_SCHEMATIC = new UUID(0xfd3b8c59b0a8b191L, 0x772ec006c1b0ffaaL);
     private final Map<World, Deque<WeakReference<TileQuarry>>> allQuarries = new WeakHashMap<>();
+    private final Map<World, Deque<WeakReference<ITileForSnapshotBuilder>>> allBuilders = new WeakHashMap<>();
 
     public void validateQuarry(TileQuarry quarry) {
         Deque<WeakReference<TileQuarry>> quarries = allQuarries.computeIfAbsent(quarry.getWorld(),
@@ -55,18 +59,50 @@ public enum BCBuildersEventDist {
     }
 
     public void invalidateQuarry(TileQuarry quarry) {
-        Deque<WeakReference<TileQuarry>> quarries = allQuarries.get(quarry.getWorld());
-        if (quarries == null) {
+        removeTile(allQuarries.get(quarry.getWorld()), quarry);
+        BCLog.logger.info("Removed quarry from checking list");
+    }
+
+    public void validateBuilder(ITileForSnapshotBuilder builder) {
+        allBuilders.computeIfAbsent(builder.getWorldBC(), k -> new LinkedList<>()).add(new WeakReference<>(builder));
+    }
+
+    public void invalidateBuilder(ITileForSnapshotBuilder builder) {
+        removeTile(allBuilders.get(builder.getWorldBC()), builder);
+    }
+
+    private static <T> void removeTile(Deque<WeakReference<T>> tiles, T tile) {
+        if (tiles == null) {
             // Odd.
             return;
         }
-        Iterator<WeakReference<TileQuarry>> iter = quarries.iterator();
+        Iterator<WeakReference<T>> iter = tiles.iterator();
         while (iter.hasNext()) {
-            WeakReference<TileQuarry> ref = iter.next();
-            TileQuarry pos = ref.get();
-            if (pos == null || pos == quarry) {
+            T existing = iter.next().get();
+            if (existing == null || existing == tile) {
                 iter.remove();
-                BCLog.logger.info("Removed quarry from checking list");
+            }
+        }
+    }
+
+    void onBlockChange(World world, BlockPos pos) {
+        Deque<WeakReference<TileQuarry>> quarries = allQuarries.get(world);
+        if (quarries != null) {
+            for (WeakReference<TileQuarry> ref : quarries) {
+                TileQuarry quarry = ref.get();
+                if (quarry != null) {
+                    quarry.onBlockChange(pos);
+                }
+            }
+        }
+        Deque<WeakReference<ITileForSnapshotBuilder>> builders = allBuilders.get(world);
+        if (builders != null && !world.isRemote) {
+            for (WeakReference<ITileForSnapshotBuilder> ref : builders) {
+                ITileForSnapshotBuilder tile = ref.get();
+                SnapshotBuilder<?> builder = tile == null ? null : tile.getBuilder();
+                if (builder != null) {
+                    builder.onBlockChange(pos);
+                }
             }
         }
     }
@@ -110,7 +146,7 @@ public enum BCBuildersEventDist {
                 Blueprint bpt = new Blueprint();
                 bpt.size = new BlockPos(1, 1, 1);
                 bpt.offset = BlockPos.ORIGIN;
-                bpt.data = new int[][][] { { { 0 } } };
+                bpt.data = new int[] { 0 };
                 bpt.palette.add(schematic);
                 bpt.header = new Header(bpt.computeHash(), UUID_SINGLE_SCHEMATIC, Date.from(Instant.EPOCH), "_item");
                 snapshot = bpt;
@@ -152,8 +188,18 @@ public enum BCBuildersEventDist {
     @SideOnly(Side.CLIENT)
     @SubscribeEvent
     public void onTickClientTick(TickEvent.ClientTickEvent event) {
-        if (event.phase == TickEvent.Phase.END && !Minecraft.getMinecraft().isGamePaused()) {
-            ClientArchitectTables.tick();
+        if (event.phase == TickEvent.Phase.END) {
+            SnapshotTransfers.get(Side.CLIENT).tick();
+            if (!Minecraft.getMinecraft().isGamePaused()) {
+                ClientArchitectTables.tick();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onTickServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            SnapshotTransfers.get(Side.SERVER).tick();
         }
     }
 }
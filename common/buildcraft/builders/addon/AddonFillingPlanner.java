@@ -7,6 +7,7 @@
 package buildcraft.builders.addon;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -36,15 +37,12 @@ public class AddonFillingPlanner extends Addon implements ISingleAddon {
     public boolean inverted;
     public Template.BuildingInfo buildingInfo;
 
-    public boolean[][][] getFillingPlan() {
-        BlockPos size = box.box.size();
-        boolean[][][] fillingPlan = Filling.INSTANCE.getFillingPlan(size, parameters);
-        if (inverted) {
-            fillingPlan = Filling.INSTANCE.invertFillingPlan(size, fillingPlan);
-        }
-        return fillingPlan;
+    /** @return The (shared) filling plan. This must not be modified. */
+    public BitSet getFillingPlan() {
+        return Filling.INSTANCE.getFillingPlan(box.box.size(), parameters, inverted);
     }
 
+    /** Replaces {@link #buildingInfo} with a new instance, which any filler using this addon checks for. */
     public void markDirty() {
         Template template = new Template();
         template.size = box.box.size();
@@ -8,12 +8,17 @@ package buildcraft.builders.filling;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.StreamSupport;
 
-import javax.vecmath.Point2i;
+import javax.annotation.Nullable;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 
 import net.minecraft.init.Items;
 import net.minecraft.item.Item;
@@ -22,10 +27,18 @@ import net.minecraft.item.ItemBlockSpecial;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 
+import buildcraft.builders.snapshot.Snapshot;
+
 public enum Filling {
     INSTANCE;
 
     private List<Item> itemBlocks = new ArrayList<>();
+    /** Plans are cached as fillers with the same box and parameters (or the same filler being reloaded) all need the
+     * same plan, and large plans are slow to generate. */
+    private final LoadingCache<PlanKey, BitSet> plans = CacheBuilder.newBuilder()
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .softValues()
+            .build(CacheLoader.from(this::generateFillingPlan));
 
     Filling() {
         StreamSupport.stream(Item.REGISTRY.spliterator(), false)
@@ -90,70 +103,177 @@ public enum Filling {
         return null;
     }
 
-    public boolean[][][] generateFillingPlanByFunction(BlockPos size, Function<BlockPos, Boolean> function) {
-        boolean[][][] fillingPlan = new boolean[size.getX()][size.getY()][size.getZ()];
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    fillingPlan[x][y][z] = function.apply(new BlockPos(x, y, z));
+    /** @return The filling plan for the given size and parameters, indexed with
+     *         {@link Snapshot#posToIndex(BlockPos, int, int, int)}. This is shared between every caller that asks for
+     *         the same plan, so it must not be modified. */
+    public BitSet getFillingPlan(BlockPos size, List<IParameter> parameters, boolean inverted) {
+        return plans.getUnchecked(new PlanKey(size, parameters, inverted));
+    }
+
+    private BitSet generateFillingPlan(PlanKey key) {
+        BitSet fillingPlan = generateFillingPlan(key.size, key.parameters);
+        if (key.inverted) {
+            fillingPlan.flip(0, key.size.getX() * key.size.getY() * key.size.getZ());
+        }
+        return fillingPlan;
+    }
+
+    private BitSet generateFillingPlan(BlockPos size, List<IParameter> parameters) {
+        int sx = size.getX(), sy = size.getY(), sz = size.getZ();
+        BitSet fillingPlan = new BitSet(sx * sy * sz);
+        if (sx <= 0 || sy <= 0 || sz <= 0) {
+            return fillingPlan;
+        }
+        EnumParameterPattern parameterPattern = (EnumParameterPattern) parameters.get(0);
+        EnumParameterType parameterType = (EnumParameterType) parameters.get(1);
+        boolean filled = parameterType == EnumParameterType.FILLED;
+        // Every shape is built up from the range of x values that it covers in each (y, z) row
+        int[] from = new int[sy * sz];
+        int[] to = new int[sy * sz];
+        if (parameterPattern == EnumParameterPattern.FRAME) {
+            if (filled) {
+                setFullRows(from, to, sx);
+                fillRows(fillingPlan, size, from, to, true, true, true);
+            } else {
+                // Only the edges: the whole row where both y and z are on a side, or both ends of the row where
+                // only one of them is
+                int i = 0;
+                for (int z = 0; z < sz; z++) {
+                    for (int y = 0; y < sy; y++) {
+                        int sides = (y == 0 || y == sy - 1 ? 1 : 0) + (z == 0 || z == sz - 1 ? 1 : 0);
+                        if (sides == 2) {
+                            fillingPlan.set(i, i + sx);
+                        } else if (sides == 1) {
+                            fillingPlan.set(i);
+                            fillingPlan.set(i + sx - 1);
+                        }
+                        i += sx;
+                    }
                 }
             }
+        } else if (parameterPattern == EnumParameterPattern.SQUARE) {
+            setFullRows(from, to, sx);
+            if (filled) {
+                fillRows(fillingPlan, size, from, to, false, false, false);
+            } else {
+                EnumFacing.Axis axis = ((EnumParameterAxis) parameters.get(2)).axis;
+                fillRows(fillingPlan, size, from, to, axis != EnumFacing.Axis.X, axis != EnumFacing.Axis.Y,
+                    axis != EnumFacing.Axis.Z);
+            }
+        } else if (parameterPattern == EnumParameterPattern.SPHERE) {
+            setEllipseRows(from, to, size, null);
+            fillRows(fillingPlan, size, from, to, !filled, !filled, !filled);
+        } else if (parameterPattern == EnumParameterPattern.CIRCLE) {
+            EnumFacing.Axis axis = ((EnumParameterAxis) parameters.get(2)).axis;
+            setEllipseRows(from, to, size, axis);
+            fillRows(fillingPlan, size, from, to, !filled && axis != EnumFacing.Axis.X,
+                !filled && axis != EnumFacing.Axis.Y, !filled && axis != EnumFacing.Axis.Z);
         }
         return fillingPlan;
     }
 
-    public boolean[][][] generateFillingPlanByFunctionInAxis(BlockPos size, EnumFacing.Axis axis, BiFunction<Point2i, Point2i, Boolean> function) {
-        switch (axis) {
-            case X:
-                return generateFillingPlanByFunction(size, pos -> function.apply(
-                        new Point2i(pos.getY(), pos.getZ()),
-                        new Point2i(size.getY(), size.getZ())
-                ));
-            case Y:
-                return generateFillingPlanByFunction(size, pos -> function.apply(
-                        new Point2i(pos.getX(), pos.getZ()),
-                        new Point2i(size.getX(), size.getZ())
-                ));
-            case Z:
-                return generateFillingPlanByFunction(size, pos -> function.apply(
-                        new Point2i(pos.getX(), pos.getY()),
-                        new Point2i(size.getX(), size.getY())
-                ));
-        }
-        return generateFillingPlanByFunction(size, pos -> false);
+    private static void setFullRows(int[] from, int[] to, int sx) {
+        Arrays.fill(from, 0);
+        Arrays.fill(to, sx - 1);
     }
 
-    public boolean[][][] getFillingPlan(BlockPos size, List<IParameter> parameters) {
-        EnumParameterPattern parameterPattern = (EnumParameterPattern) parameters.get(0);
-        BlockPos sizeS = size.add(-1, -1, -1);
-        if (parameterPattern == EnumParameterPattern.FRAME) {
-            EnumParameterType parameterType = (EnumParameterType) parameters.get(1);
-            return generateFillingPlanByFunction(size, pos ->
-                    parameterType == EnumParameterType.FILLED ?
-                            pos.getX() == 0 || pos.getX() == sizeS.getX() ||
-                                    pos.getY() == 0 || pos.getY() == sizeS.getY() ||
-                                    pos.getZ() == 0 || pos.getZ() == sizeS.getZ() :
-                            ((pos.getX() == 0 || pos.getX() == sizeS.getX()) && (pos.getY() == 0 || pos.getY() == sizeS.getY())) ||
-                                    ((pos.getY() == 0 || pos.getY() == sizeS.getY()) && (pos.getZ() == 0 || pos.getZ() == sizeS.getZ())) ||
-                                    ((pos.getZ() == 0 || pos.getZ() == sizeS.getZ()) && (pos.getX() == 0 || pos.getX() == sizeS.getX()))
-            );
+    /** Sets the range of every row to the part of it that is inside the ellipsoid that fits the given size, or (if an
+     * axis is given) the ellipse that fits the other two sides of it, extruded along that axis. */
+    private static void setEllipseRows(int[] from, int[] to, BlockPos size, @Nullable EnumFacing.Axis axis) {
+        int sx = size.getX(), sy = size.getY(), sz = size.getZ();
+        double rx = sx / 2.0, ry = sy / 2.0, rz = sz / 2.0;
+        int i = 0;
+        for (int z = 0; z < sz; z++) {
+            double dz = axis == EnumFacing.Axis.Z ? 0 : (z + 0.5 - rz) / rz;
+            for (int y = 0; y < sy; y++) {
+                double dy = axis == EnumFacing.Axis.Y ? 0 : (y + 0.5 - ry) / ry;
+                double remaining = 1 - dy * dy - dz * dz;
+                if (remaining < 0) {
+                    from[i] = 0;
+                    to[i] = -1;
+                } else if (axis == EnumFacing.Axis.X) {
+                    from[i] = 0;
+                    to[i] = sx - 1;
+                } else {
+                    double half = rx * Math.sqrt(remaining);
+                    from[i] = Math.max(0, (int) Math.ceil(rx - 0.5 - half));
+                    to[i] = Math.min(sx - 1, (int) Math.floor(rx - 0.5 + half));
+                }
+                i++;
+            }
         }
-        if (parameterPattern == EnumParameterPattern.SQUARE) {
-            EnumParameterType parameterType = (EnumParameterType) parameters.get(1);
-            if (parameterType == EnumParameterType.FILLED) {
-                return generateFillingPlanByFunction(size, pos -> true);
-            } else {
-                EnumParameterAxis parameterAxis = (EnumParameterAxis) parameters.get(2);
-                return generateFillingPlanByFunctionInAxis(size, parameterAxis.axis, (pos, sizeA) ->
-                        pos.getX() == 0 || pos.getX() == sizeA.getX() - 1 ||
-                                pos.getY() == 0 || pos.getY() == sizeA.getY() - 1
-                );
+    }
+
+    /** Sets every position between the given ranges of each row. If the shape is hollow in a direction then positions
+     * that have a neighbour inside the shape on both sides in that direction are left out.
+     *
+     * @param from The first x position in each row, indexed by {@code z * sizeY + y}.
+     * @param to The last x position in each row, or less than from if the row is empty. */
+    private static void fillRows(BitSet fillingPlan, BlockPos size, int[] from, int[] to, boolean hollowX,
+        boolean hollowY, boolean hollowZ) {
+        int sx = size.getX(), sy = size.getY(), sz = size.getZ();
+        int row = 0;
+        for (int z = 0; z < sz; z++) {
+            for (int y = 0; y < sy; y++, row++) {
+                int start = from[row], end = to[row];
+                if (start > end) {
+                    continue;
+                }
+                int offset = row * sx;
+                fillingPlan.set(offset + start, offset + end + 1);
+                if (!hollowX && !hollowY && !hollowZ) {
+                    continue;
+                }
+                // The inside is the part of this row that is also inside every neighbouring row
+                int innerStart = hollowX ? start + 1 : start;
+                int innerEnd = hollowX ? end - 1 : end;
+                if (hollowY) {
+                    if (y == 0 || y == sy - 1) {
+                        continue;
+                    }
+                    innerStart = Math.max(innerStart, Math.max(from[row - 1], from[row + 1]));
+                    innerEnd = Math.min(innerEnd, Math.min(to[row - 1], to[row + 1]));
+                }
+                if (hollowZ) {
+                    if (z == 0 || z == sz - 1) {
+                        continue;
+                    }
+                    innerStart = Math.max(innerStart, Math.max(from[row - sy], from[row + sy]));
+                    innerEnd = Math.min(innerEnd, Math.min(to[row - sy], to[row + sy]));
+                }
+                if (innerStart <= innerEnd) {
+                    fillingPlan.clear(offset + innerStart, offset + innerEnd + 1);
+                }
             }
         }
-        return generateFillingPlanByFunction(size, pos -> false);
     }
 
-    public boolean[][][] invertFillingPlan(BlockPos size, boolean[][][] fillingPlan) {
-        return generateFillingPlanByFunction(size, pos -> !fillingPlan[pos.getX()][pos.getY()][pos.getZ()]);
+    private static final class PlanKey {
+        final BlockPos size;
+        final List<IParameter> parameters;
+        final boolean inverted;
+
+        PlanKey(BlockPos size, List<IParameter> parameters, boolean inverted) {
+            this.size = size.toImmutable();
+            this.parameters = ImmutableList.copyOf(parameters);
+            this.inverted = inverted;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            PlanKey other = (PlanKey) obj;
+            return inverted == other.inverted && size.equals(other.size) && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return (size.hashCode() * 31 + parameters.hashCode()) * 31 + Boolean.hashCode(inverted);
+        }
     }
 }
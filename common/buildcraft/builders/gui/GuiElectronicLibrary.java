@@ -5,6 +5,7 @@
 package buildcraft.builders.gui;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.minecraft.util.ResourceLocation;
@@ -48,13 +49,13 @@ public class GuiElectronicLibrary extends GuiBC8<ContainerElectronicLibrary> {
                         25,
                         LocaleUtil.localize("gui.del")
                 )
-                        .setActive(container.tile.selected != null && getSnapshots().getSnapshotByHeader(container.tile.selected) != null)
+                        .setActive(getSnapshots().hasSnapshot(container.tile.selected))
                         .registerListener((button, buttonId, buttonKey) -> {
                                     if (container.tile.selected != null) {
-                                        Snapshot snapshot = getSnapshots().getSnapshotByHeader(container.tile.selected);
-                                        if (snapshot != null) {
+                                        Snapshot.Header header = container.tile.selected;
+                                        if (getSnapshots().hasSnapshot(header)) {
                                             container.sendSelectedToServer(null);
-                                            getSnapshots().snapshots.remove(snapshot);
+                                            getSnapshots().removeSnapshot(header);
                                             getSnapshots().markDirty();
                                             if (button instanceof GuiAbstractButton) {
                                                 ((GuiAbstractButton) button).setActive(false);
@@ -81,10 +82,10 @@ public class GuiElectronicLibrary extends GuiBC8<ContainerElectronicLibrary> {
                 container.tile.deltaProgressUp.getDynamic(partialTicks),
                 1
         );
-        iterateSnapshots((i, x, y, width, height, snapshot) ->
-                drawString(fontRenderer, snapshot.header.name, x, y, snapshot.header.equals(container.tile.selected) ? 0xffffa0 : 0xe0e0e0)
+        iterateSnapshots((i, x, y, width, height, header) ->
+                drawString(fontRenderer, header.name, x, y, header.equals(container.tile.selected) ? 0xffffa0 : 0xe0e0e0)
         );
-        delButton.setActive(container.tile.selected != null && getSnapshots().getSnapshotByHeader(container.tile.selected) != null);
+        delButton.setActive(getSnapshots().hasSnapshot(container.tile.selected));
     }
 
     private GlobalSavedDataSnapshots getSnapshots() {
@@ -92,8 +93,9 @@ public class GuiElectronicLibrary extends GuiBC8<ContainerElectronicLibrary> {
     }
 
     private void iterateSnapshots(ISnapshotIterator iterator) {
-        for (int i = 0; i < getSnapshots().snapshots.size(); i++) {
-            Snapshot parameter = getSnapshots().snapshots.get(i);
+        List<Snapshot.Header> headers = getSnapshots().getHeaders();
+        for (int i = 0; i < headers.size(); i++) {
+            Snapshot.Header parameter = headers.get(i);
             iterator.call(i, rootElement.getX() + 8, rootElement.getY() + 22 + i * 8, 154, 8, parameter);
         }
     }
@@ -101,9 +103,9 @@ public class GuiElectronicLibrary extends GuiBC8<ContainerElectronicLibrary> {
     @Override
     protected void mouseClicked(int mouseX, int mouseY, int mouseButton) throws IOException {
         AtomicBoolean found = new AtomicBoolean(false);
-        iterateSnapshots((i, x, y, width, height, snapshot) -> {
+        iterateSnapshots((i, x, y, width, height, header) -> {
             if (mouseX >= x && mouseX < x + width && mouseY >= y && mouseY < y + height) {
-                container.sendSelectedToServer(snapshot.header);
+                container.sendSelectedToServer(header);
                 delButton.setActive(true);
                 found.set(true);
             }
@@ -115,6 +117,6 @@ public class GuiElectronicLibrary extends GuiBC8<ContainerElectronicLibrary> {
 
     @FunctionalInterface
     private interface ISnapshotIterator {
-        void call(int i, int x, int y, int width, int height, Snapshot snapshot);
+        void call(int i, int x, int y, int width, int height, Snapshot.Header header);
     }
 }
@@ -18,7 +18,6 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.nbt.NBTTagInt;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.Rotation;
 import net.minecraft.util.math.BlockPos;
@@ -36,7 +35,8 @@ import buildcraft.lib.misc.data.Box;
 
 public class Blueprint extends Snapshot {
     public final List<ISchematicBlock<?>> palette = new ArrayList<>();
-    public int[][][] data;
+    /** The palette index of every block, by {@link #posToIndex(int, int, int)}. */
+    public int[] data;
     public final List<ISchematicEntity<?>> entities = new ArrayList<>();
 
     public Blueprint copy() {
@@ -45,14 +45,7 @@ public class Blueprint extends Snapshot {
         blueprint.facing = facing;
         blueprint.offset = offset;
         blueprint.palette.addAll(palette);
-        blueprint.data = new int[size.getX()][size.getY()][size.getZ()];
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    blueprint.data[x][y][z] = data[x][y][z];
-                }
-            }
-        }
+        blueprint.data = data.clone();
         blueprint.entities.addAll(entities);
         blueprint.header = header.withHash(blueprint.computeHash());
         return blueprint;
@@ -67,15 +60,9 @@ public class Blueprint extends Snapshot {
     public NBTTagCompound serializeNBT() {
         NBTTagCompound nbt = super.serializeNBT();
         nbt.setTag("palette", NBTUtilBC.writeCompoundList(palette.stream().map(SchematicBlockManager::writeToNBT)));
-        NBTTagList list = new NBTTagList();
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    list.appendTag(new NBTTagInt(data[x][y][z]));
-                }
-            }
-        }
-        nbt.setTag("data", list);
+        int bits = getBitsPerEntry(palette.size());
+        nbt.setByte("dataBits", (byte) bits);
+        nbt.setIntArray("dataPacked", pack(data, bits));
         nbt.setTag("entities", NBTUtilBC.writeCompoundList(entities.stream().map(SchematicEntityManager::writeToNBT)));
         return nbt;
     }
@@ -92,28 +79,47 @@ public class Blueprint extends Snapshot {
             // schematics through mod additions/deletions)
             palette.add(SchematicBlockManager.readFromNBT(schematicBlockTag));
         }
-        data = new int[size.getX()][size.getY()][size.getZ()];
-
-        NBTTagList list = nbt.hasKey("data", Constants.NBT.TAG_LIST) ? nbt.getTagList("data", Constants.NBT.TAG_INT)
-            : null;
-        int[] serializedData = nbt.hasKey("data", Constants.NBT.TAG_INT_ARRAY) ? nbt.getIntArray("data") : new int[0];
-        if (serializedData == null && list == null) {
-            throw new InvalidInputDataException("Can't read a blueprint with no data!");
-        }
-        int len = list == null ? serializedData.length : list.tagCount();
-        if (len != size.getX() * size.getY() * size.getZ()) {
-            throw new InvalidInputDataException("Pallette has length of " + len
-                + ", but we expected " + size.getX() * size.getY() * size.getZ() + size.toString());
-        }
-        int i = 0;
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    data[x][y][z] = list == null ? serializedData[i] : list.getIntAt(i);
-                    i++;
+        int volume = size.getX() * size.getY() * size.getZ();
+        if (nbt.hasKey("dataPacked", Constants.NBT.TAG_INT_ARRAY)) {
+            int bits = nbt.getByte("dataBits");
+            if (bits < 1 || bits > 32) {
+                throw new InvalidInputDataException("Can't read a blueprint with " + bits + " bits per block!");
+            }
+            int[] packed = nbt.getIntArray("dataPacked");
+            int perWord = 32 / bits;
+            if (packed.length != (volume + perWord - 1) / perWord) {
+                throw new InvalidInputDataException("Packed data has length of " + packed.length
+                    + ", but we expected " + (volume + perWord - 1) / perWord + " for " + size.toString());
+            }
+            data = unpack(packed, bits, volume);
+        } else {
+            // Legacy format: either a list of int tags or an int array, with one entry per block
+            NBTTagList list = nbt.hasKey("data", Constants.NBT.TAG_LIST) ? nbt.getTagList("data",
+                Constants.NBT.TAG_INT) : null;
+            int[] serializedData = nbt.hasKey("data", Constants.NBT.TAG_INT_ARRAY) ? nbt.getIntArray("data") : null;
+            if (serializedData == null && list == null) {
+                throw new InvalidInputDataException("Can't read a blueprint with no data!");
+            }
+            int len = list == null ? serializedData.length : list.tagCount();
+            if (len != volume) {
+                throw new InvalidInputDataException("Pallette has length of " + len
+                    + ", but we expected " + volume + size.toString());
+            }
+            if (list == null) {
+                data = serializedData;
+            } else {
+                data = new int[volume];
+                for (int i = 0; i < volume; i++) {
+                    data[i] = list.getIntAt(i);
                 }
             }
         }
+        for (int index : data) {
+            if (index < 0 || index >= palette.size()) {
+                throw new InvalidInputDataException("Palette index " + index + " is out of range for a palette of "
+                    + palette.size() + " entries!");
+            }
+        }
         for (NBTTagCompound schematicEntityTag : NBTUtilBC.readCompoundList(nbt.getTagList("entities",
             Constants.NBT.TAG_COMPOUND)).collect(Collectors.toList())) {
             entities.add(SchematicEntityManager.readFromNBT(schematicEntityTag));
@@ -125,6 +131,32 @@ public class Blueprint extends Snapshot {
         return EnumSnapshotType.BLUEPRINT;
     }
 
+    /** @return The number of bits needed to store every index of a palette with the given number of entries. */
+    static int getBitsPerEntry(int paletteSize) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
+    /** Packs every value into as few ints as possible, with {@code 32 / bits} values in each int. Values never
+     * straddle two ints, so any value can be read without looking at its neighbours. */
+    static int[] pack(int[] values, int bits) {
+        int perWord = 32 / bits;
+        int[] packed = new int[(values.length + perWord - 1) / perWord];
+        for (int i = 0; i < values.length; i++) {
+            packed[i / perWord] |= values[i] << (i % perWord * bits);
+        }
+        return packed;
+    }
+
+    static int[] unpack(int[] packed, int bits, int count) {
+        int perWord = 32 / bits;
+        int mask = bits == 32 ? -1 : (1 << bits) - 1;
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (packed[i / perWord] >>> (i % perWord * bits)) & mask;
+        }
+        return values;
+    }
+
     public class BuildingInfo {
         public final BlockPos basePos;
         public final Rotation rotation;
@@ -144,10 +176,11 @@ public class Blueprint extends Snapshot {
                 getSnapshot());
             Pair<List<List<ItemStack>>, List<List<FluidStack>>> requiredEntities = SchematicEntityManager
                 .computeRequired(getSnapshot());
+            int index = 0;
             for (int z = 0; z < getSnapshot().size.getZ(); z++) {
                 for (int y = 0; y < getSnapshot().size.getY(); y++) {
                     for (int x = 0; x < getSnapshot().size.getX(); x++) {
-                        ISchematicBlock<?> schematicBlock = palette.get(data[x][y][z]);
+                        ISchematicBlock<?> schematicBlock = palette.get(data[index++]);
                         BlockPos blockPos = new BlockPos(x, y, z).rotate(rotation).add(basePos).add(offset.rotate(
                             rotation));
                         if (schematicBlock.isAir()) {
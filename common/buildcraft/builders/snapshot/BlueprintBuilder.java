@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -134,6 +135,13 @@ public class BlueprintBuilder extends SnapshotBuilder<ITileForBlueprintBuilder>
             getBuildingInfo().toPlace.get(blockPos).canBuild(tile.getWorldBC(), blockPos);
     }
 
+    @Override
+    protected Set<BlockPos> getPlaceDependencies(BlockPos blockPos) {
+        return getBuildingInfo().toPlace.get(blockPos).getRequiredBlockOffsets().stream()
+            .map(blockPos::add)
+            .collect(Collectors.toSet());
+    }
+
     @Override
     protected List<ItemStack> getToPlaceItems(BlockPos blockPos) {
         return Optional.ofNullable(getBuildingInfo()).map(buildingInfo ->
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.builders.snapshot;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import net.minecraft.util.math.BlockPos;
+
+/** A fixed set of positions that are sorted once (by layer, then by distance) when the building info changes, along
+ * with which of them currently need work done to them. The candidates are stored in a {@link BitSet} indexed by
+ * priority, so finding the next few candidates doesn't need any sorting or filtering of the whole set.
+ * <p>
+ * Positions are only re-tested when they have been marked as dirty (usually by a block update), plus a few extra
+ * positions every tick in case a block was changed without any block update being sent. */
+class BuildQueueIndex {
+    private final BlockPos[] positions;
+    private final Map<BlockPos, Integer> indices = new HashMap<>();
+    private final BitSet candidates = new BitSet();
+    private final BitSet dirty = new BitSet();
+    private int verifyIndex = 0;
+
+    BuildQueueIndex(Collection<BlockPos> unsorted, Comparator<BlockPos> priority) {
+        positions = unsorted.stream().distinct().sorted(priority).toArray(BlockPos[]::new);
+        for (int i = 0; i < positions.length; i++) {
+            indices.put(positions[i], i);
+        }
+        // Everything needs to be tested before it can be used
+        dirty.set(0, positions.length);
+    }
+
+    void markDirty(BlockPos pos) {
+        Integer idx = indices.get(pos);
+        if (idx != null) {
+            dirty.set(idx);
+        }
+    }
+
+    /** Re-tests every dirty position, and then a further "toVerify" positions (cycling through all of them over
+     * multiple calls). */
+    void refresh(Predicate<BlockPos> isCandidate, int toVerify) {
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            candidates.set(i, isCandidate.test(positions[i]));
+        }
+        dirty.clear();
+        for (int i = 0; i < toVerify && i < positions.length; i++) {
+            if (verifyIndex >= positions.length) {
+                verifyIndex = 0;
+            }
+            recheck(verifyIndex++, isCandidate);
+        }
+    }
+
+    /** Immediately re-tests the given index.
+     *
+     * @return True if the position is (still) a candidate. */
+    boolean recheck(int idx, Predicate<BlockPos> isCandidate) {
+        boolean is = isCandidate.test(positions[idx]);
+        candidates.set(idx, is);
+        return is;
+    }
+
+    /** @return The index of the next candidate, starting at (and including) the given index, or -1 if there are no
+     *         more candidates. */
+    int nextCandidate(int from) {
+        return candidates.nextSetBit(from);
+    }
+
+    BlockPos get(int idx) {
+        return positions[idx];
+    }
+
+    boolean isCandidate(BlockPos pos) {
+        Integer idx = indices.get(pos);
+        return idx != null && candidates.get(idx);
+    }
+
+    int getCandidateCount() {
+        return candidates.cardinality();
+    }
+
+    int size() {
+        return positions.length;
+    }
+}
@@ -6,10 +6,10 @@
 
 package buildcraft.builders.snapshot;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.base.Predicates;
 
@@ -36,28 +36,52 @@ import buildcraft.api.schematics.ISchematicEntity;
 
 import buildcraft.lib.dimension.FakeWorldClient;
 import buildcraft.lib.dimension.FakeWorldServer;
-import buildcraft.lib.net.MessageManager;
 
 public enum ClientSnapshots {
     INSTANCE;
 
-    private final List<Snapshot> snapshots = new ArrayList<>();
-    private final List<Snapshot.Header> pending = new ArrayList<>();
+    /** How long to wait before asking the server again for a snapshot that it couldn't send. */
+    private static final long RETRY_DELAY_MS = 30_000;
+
+    private final Map<Snapshot.Header, Snapshot> snapshots = new HashMap<>();
+    private final Set<Snapshot.Header> pending = new HashSet<>();
+    /** Every snapshot that the server couldn't send, to when it failed (from {@link System#currentTimeMillis()}). */
+    private final Map<Snapshot.Header, Long> failed = new HashMap<>();
     private final Map<Snapshot.Header, FakeWorldClient> worlds = new HashMap<>();
     private final Map<Snapshot.Header, VertexBuffer> buffers = new HashMap<>();
 
     public Snapshot getSnapshot(Snapshot.Header header) {
-        Snapshot found = snapshots.stream().filter(snapshot -> snapshot.header.equals(header)).findFirst().orElse(null);
+        Snapshot found = snapshots.get(header);
         if (found == null && !pending.contains(header)) {
-            pending.add(header);
-            MessageManager.sendToServer(new MessageSnapshotRequest(header));
+            Long failTime = failed.get(header);
+            if (failTime != null) {
+                if (System.currentTimeMillis() - failTime < RETRY_DELAY_MS) {
+                    return null;
+                }
+                failed.remove(header);
+            }
+            // No need to ask the server for snapshots that we already have
+            found = GlobalSavedDataSnapshots.get(Side.CLIENT).getSnapshotByHeader(header);
+            if (found != null) {
+                snapshots.put(header, found);
+            } else {
+                pending.add(header);
+                SnapshotTransfers.get(Side.CLIENT).request(header, null, snapshot -> {
+                    if (snapshot == null) {
+                        pending.remove(header);
+                        failed.put(header, System.currentTimeMillis());
+                    } else {
+                        onSnapshotReceived(snapshot);
+                    }
+                });
+            }
         }
         return found;
     }
 
     public void onSnapshotReceived(Snapshot snapshot) {
         pending.remove(snapshot.header);
-        snapshots.add(snapshot);
+        snapshots.put(snapshot.header, snapshot);
     }
 
     @SideOnly(Side.CLIENT)
@@ -86,7 +110,7 @@ public enum ClientSnapshots {
                 for (int z = 0; z < snapshot.size.getZ(); z++) {
                     for (int y = 0; y < snapshot.size.getY(); y++) {
                         for (int x = 0; x < snapshot.size.getX(); x++) {
-                            if (((Template) snapshot).data[x][y][z]) {
+                            if (((Template) snapshot).data.get(snapshot.posToIndex(x, y, z))) {
                                 localWorld.setBlockState(
                                     new BlockPos(x, y, z).add(FakeWorldServer.BLUEPRINT_OFFSET),
                                     Blocks.QUARTZ_BLOCK.getDefaultState()
@@ -11,29 +11,61 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 import net.minecraft.world.World;
 
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.relauncher.Side;
 
+import buildcraft.api.core.BCLog;
+import buildcraft.api.core.InvalidInputDataException;
+
 import buildcraft.lib.misc.HashUtil;
 import buildcraft.lib.misc.StringUtilBC;
 import buildcraft.lib.nbt.NbtSquisher;
 
+/** Every snapshot that has been saved on one side. Only the headers of the snapshots are kept in memory (and are saved
+ * to an index file next to the snapshots, so that they don't have to be read from every snapshot on startup). Full
+ * snapshots are read when they are needed, and the most recently used ones are cached until memory is needed. */
 public class GlobalSavedDataSnapshots {
     public static final String SNAPSHOT_FILE_EXTENSION = ".bcnbt";
+    private static final String INDEX_FILE_NAME = "snapshots.index";
+    private static final int MAX_CACHED = 16;
 
     private static final Map<Side, GlobalSavedDataSnapshots> INSTANCES = new EnumMap<>(Side.class);
-    public final List<Snapshot> snapshots = new ArrayList<>();
     private final File snapshotsFile;
+    private final File indexFile;
+    /** Every stored snapshot, in the order that they were found or added. */
+    private final Map<Snapshot.Header, IndexEntry> index = new LinkedHashMap<>();
+    private List<Snapshot.Header> headers = null;
+    private boolean indexDirty = false;
+    private final Map<Snapshot.Header, SoftReference<Snapshot>> cache =
+        new LinkedHashMap<Snapshot.Header, SoftReference<Snapshot>>(MAX_CACHED, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Snapshot.Header, SoftReference<Snapshot>> eldest) {
+                return size() > MAX_CACHED;
+            }
+        };
+    /** Snapshots that couldn't be written to disk, so they can't be read back later. */
+    private final Map<Snapshot.Header, Snapshot> unsaved = new HashMap<>();
 
     private GlobalSavedDataSnapshots(Side side) {
         snapshotsFile = new File(FMLCommonHandler.instance().getSavesDirectory().getParentFile(), "snapshots-" + side
@@ -47,7 +79,8 @@ public class GlobalSavedDataSnapshots {
             throw new IllegalStateException("The snapshots directory was a file! We can't use this!\n\tfile = "
                 + snapshotsFile);
         }
-        readSnapshots();
+        indexFile = new File(snapshotsFile, INDEX_FILE_NAME);
+        readIndex();
     }
 
     public static void reInit(Side side) {
@@ -66,7 +99,7 @@ public class GlobalSavedDataSnapshots {
     }
 
     public void exportSnapshot(Snapshot.Header header, File folder) {
-        Snapshot snapshot = snapshots.stream().filter(s -> header.equals(s.header)).findAny().orElse(null);
+        Snapshot snapshot = getSnapshotByHeader(header);
         if (snapshot != null) {
             String fileName = header.name + SNAPSHOT_FILE_EXTENSION;
             fileName = StringUtilBC.replaceCharactersForFilename(fileName);
@@ -74,51 +107,223 @@ public class GlobalSavedDataSnapshots {
         }
     }
 
-    private void writeSnapshots() {
-        for (Snapshot snapshot : snapshots) {
-            String hashName = HashUtil.convertHashToString(snapshot.header.hash);
-            File snapshotFile = new File(snapshotsFile, hashName + SNAPSHOT_FILE_EXTENSION);
-            writeSingleSnapshot(snapshot, snapshotFile);
+    /** Saves the given snapshot, if a snapshot with the same hash hasn't already been saved. */
+    public void addSnapshot(Snapshot snapshot) {
+        Snapshot.Header header = snapshot.header;
+        if (index.containsKey(header)) {
+            return;
+        }
+        String hashName = HashUtil.convertHashToString(header.hash);
+        File snapshotFile = new File(snapshotsFile, hashName + SNAPSHOT_FILE_EXTENSION);
+        if (!writeSingleSnapshot(snapshot, snapshotFile)) {
+            unsaved.put(header, snapshot);
+        }
+        index.put(header, new IndexEntry(header, snapshotFile));
+        cache.put(header, new SoftReference<>(snapshot));
+        headers = null;
+        indexDirty = true;
+    }
+
+    public void removeSnapshot(Snapshot.Header header) {
+        IndexEntry entry = index.remove(header);
+        cache.remove(header);
+        unsaved.remove(header);
+        if (entry != null) {
+            File snapshotFile = new File(snapshotsFile, entry.fileName);
+            // Files are named by the hash, so another header can still be stored in the same file
+            if (!isFileUsed(entry.fileName) && snapshotFile.exists() && !snapshotFile.delete()) {
+                BCLog.logger.warn("[builders.snapshots] Failed to delete the snapshot file " + snapshotFile);
+            }
+            headers = null;
+            indexDirty = true;
         }
     }
 
-    private static void writeSingleSnapshot(Snapshot snapshot, File snapshotFile) {
+    private boolean isFileUsed(String fileName) {
+        for (IndexEntry entry : index.values()) {
+            if (entry.fileName.equals(fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return True if the snapshot was written to the file (or the file already existed), false if it failed. */
+    private static boolean writeSingleSnapshot(Snapshot snapshot, File snapshotFile) {
         if (!snapshotFile.exists()) {
             try (FileOutputStream fos = new FileOutputStream(snapshotFile)) {
                 NbtSquisher.squishVanilla(Snapshot.writeToNBT(snapshot), fos);
             } catch (IOException io) {
                 IOException ex = new IOException("Failed to write the snapshot file" + snapshotFile, io);
                 ex.printStackTrace();
+                return false;
             }
         }
+        return true;
     }
 
-    private void readSnapshots() {
+    @Nullable
+    private static Snapshot readSingleSnapshot(File snapshotFile) {
+        try (FileInputStream fis = new FileInputStream(snapshotFile)) {
+            NBTTagCompound nbt;
+            if (snapshotFile.getName().endsWith(SNAPSHOT_FILE_EXTENSION)) {
+                nbt = NbtSquisher.expand(fis);
+            } else {
+                // 7.99.4 + back compat
+                nbt = CompressedStreamTools.read(new DataInputStream(fis));
+            }
+            return Snapshot.readFromNBT(nbt);
+        } catch (IOException e) {
+            IOException ex = new IOException("Failed to read the snapshot " + snapshotFile, e);
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /** Reads the headers of every snapshot from the index file, only reading the snapshots themselves if they aren't in
+     * the index (or have changed since it was written). */
+    private void readIndex() {
+        // More than one header can be stored in the same file
+        ListMultimap<String, IndexEntry> known = ArrayListMultimap.create();
+        try {
+            NBTTagCompound nbt = CompressedStreamTools.read(indexFile);
+            if (nbt != null) {
+                NBTTagList list = nbt.getTagList("entries", Constants.NBT.TAG_COMPOUND);
+                for (int i = 0; i < list.tagCount(); i++) {
+                    IndexEntry entry = new IndexEntry(list.getCompoundTagAt(i));
+                    known.put(entry.fileName, entry);
+                }
+            }
+        } catch (IOException e) {
+            BCLog.logger.warn("[builders.snapshots] Failed to read the snapshot index " + indexFile
+                + ", rebuilding it (" + e.getMessage() + ")");
+            known.clear();
+        }
+
+        int used = 0;
         File[] files = snapshotsFile.listFiles();
         if (files != null) {
             for (File snapshotFile : files) {
-                try (FileInputStream fis = new FileInputStream(snapshotFile)) {
-                    NBTTagCompound nbt;
-                    if (snapshotFile.getName().endsWith(SNAPSHOT_FILE_EXTENSION)) {
-                        nbt = NbtSquisher.expand(fis);
-                    } else {
-                        // 7.99.4 + back compat
-                        nbt = CompressedStreamTools.read(new DataInputStream(fis));
+                if (snapshotFile.isDirectory() || snapshotFile.equals(indexFile)) {
+                    continue;
+                }
+                List<IndexEntry> entries = known.get(snapshotFile.getName());
+                if (!entries.isEmpty() && entries.stream().allMatch(e -> e.matches(snapshotFile))) {
+                    used += entries.size();
+                    for (IndexEntry entry : entries) {
+                        index.putIfAbsent(entry.header, entry);
+                    }
+                } else {
+                    Snapshot snapshot = readSingleSnapshot(snapshotFile);
+                    if (snapshot == null) {
+                        continue;
                     }
-                    snapshots.add(Snapshot.readFromNBT(nbt));
-                } catch (IOException e) {
-                    IOException ex = new IOException("Failed to read the snapshot " + snapshotFile, e);
-                    ex.printStackTrace();
+                    index.putIfAbsent(snapshot.header, new IndexEntry(snapshot.header, snapshotFile));
+                    indexDirty = true;
                 }
             }
         }
+        if (used != known.size()) {
+            // Some snapshots have been deleted
+            indexDirty = true;
+        }
+        writeIndex();
+    }
+
+    private void writeIndex() {
+        if (!indexDirty) {
+            return;
+        }
+        indexDirty = false;
+        NBTTagList list = new NBTTagList();
+        for (IndexEntry entry : index.values()) {
+            list.appendTag(entry.writeToNBT());
+        }
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setTag("entries", list);
+        try {
+            CompressedStreamTools.write(nbt, indexFile);
+        } catch (IOException io) {
+            IOException ex = new IOException("Failed to write the snapshot index " + indexFile, io);
+            ex.printStackTrace();
+        }
     }
 
     public void markDirty() {
-        writeSnapshots();
+        writeIndex();
+    }
+
+    /** @return The headers of every stored snapshot. */
+    public List<Snapshot.Header> getHeaders() {
+        if (headers == null) {
+            headers = Collections.unmodifiableList(new ArrayList<>(index.keySet()));
+        }
+        return headers;
+    }
+
+    public boolean hasSnapshot(Snapshot.Header header) {
+        return header != null && index.containsKey(header);
     }
 
+    @Nullable
     public Snapshot getSnapshotByHeader(Snapshot.Header header) {
-        return snapshots.stream().filter(snapshot -> snapshot.header.equals(header)).findFirst().orElse(null);
+        if (header == null) {
+            return null;
+        }
+        SoftReference<Snapshot> ref = cache.get(header);
+        Snapshot snapshot = ref == null ? null : ref.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        snapshot = unsaved.get(header);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        IndexEntry entry = index.get(header);
+        if (entry == null) {
+            return null;
+        }
+        snapshot = readSingleSnapshot(new File(snapshotsFile, entry.fileName));
+        if (snapshot != null) {
+            cache.put(header, new SoftReference<>(snapshot));
+        }
+        return snapshot;
+    }
+
+    /** The header of a snapshot, and where it is stored. */
+    private static final class IndexEntry {
+        final Snapshot.Header header;
+        final String fileName;
+        final long length, lastModified;
+
+        IndexEntry(Snapshot.Header header, File file) {
+            this.header = header;
+            this.fileName = file.getName();
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        IndexEntry(NBTTagCompound nbt) throws InvalidInputDataException {
+            header = new Snapshot.Header(nbt.getCompoundTag("header"));
+            if (header.hash == null || header.hash.length != HashUtil.DIGEST_LENGTH) {
+                throw new InvalidInputDataException("Invalid hash in the index entry " + nbt);
+            }
+            fileName = nbt.getString("file");
+            length = nbt.getLong("length");
+            lastModified = nbt.getLong("modified");
+        }
+
+        NBTTagCompound writeToNBT() {
+            NBTTagCompound nbt = new NBTTagCompound();
+            nbt.setTag("header", header.serializeNBT());
+            nbt.setString("file", fileName);
+            nbt.setLong("length", length);
+            nbt.setLong("modified", lastModified);
+            return nbt;
+        }
+
+        boolean matches(File file) {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
     }
 }
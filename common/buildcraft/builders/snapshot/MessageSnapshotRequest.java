@@ -10,32 +10,38 @@ import io.netty.buffer.ByteBuf;
 
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
-import net.minecraftforge.fml.relauncher.Side;
 
 import buildcraft.lib.net.PacketBufferBC;
 
+/** Asks for (the rest of) a snapshot, starting from the given offset. This is sent both to start a transfer, and to
+ * acknowledge every chunk that has been received. See {@link SnapshotTransfers}. */
 public class MessageSnapshotRequest implements IMessage {
     private Snapshot.Header header;
+    private int offset;
 
     public MessageSnapshotRequest() {
     }
 
-    public MessageSnapshotRequest(Snapshot.Header header) {
+    public MessageSnapshotRequest(Snapshot.Header header, int offset) {
         this.header = header;
+        this.offset = offset;
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
         header.writeToByteBuf(new PacketBufferBC(buf));
+        buf.writeInt(offset);
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
         header = new Snapshot.Header(new PacketBufferBC(buf));
+        offset = buf.readInt();
     }
 
-    public static final IMessageHandler<MessageSnapshotRequest, MessageSnapshotResponse> HANDLER = (message, ctx) -> {
-        Snapshot snapshot = GlobalSavedDataSnapshots.get(Side.SERVER).getSnapshotByHeader(message.header);
-        return snapshot != null ? new MessageSnapshotResponse(snapshot) : null;
+    public static final IMessageHandler<MessageSnapshotRequest, IMessage> HANDLER = (message, ctx) -> {
+        SnapshotTransfers.get(ctx.side).onRequest(message.header, message.offset, ctx.side.isServer() ? ctx
+            .getServerHandler().player : null);
+        return null;
     };
 }
@@ -6,58 +6,62 @@
 
 package buildcraft.builders.snapshot;
 
-import java.io.IOException;
-
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.ByteBufOutputStream;
-
-import net.minecraft.nbt.CompressedStreamTools;
 
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 
+import buildcraft.lib.net.PacketBufferBC;
+
+/** A single chunk of a snapshot, as requested by a {@link MessageSnapshotRequest}. See {@link SnapshotTransfers}. */
 public class MessageSnapshotResponse implements IMessage {
-    private Snapshot snapshot;
+    private static final byte[] NO_BYTES = new byte[0];
+
+    Snapshot.Header header;
+    /** The length of the whole serialised snapshot, or -1 if the sender doesn't have it. */
+    int total;
+    /** The hash of the whole serialised snapshot. */
+    byte[] digest;
+    int offset;
+    byte[] chunk;
 
     public MessageSnapshotResponse() {
     }
 
-    public MessageSnapshotResponse(Snapshot snapshot) {
-        this.snapshot = snapshot;
+    public MessageSnapshotResponse(Snapshot.Header header, int total, byte[] digest, int offset, byte[] chunk) {
+        this.header = header;
+        this.total = total;
+        this.digest = digest;
+        this.offset = offset;
+        this.chunk = chunk;
+    }
+
+    static MessageSnapshotResponse missing(Snapshot.Header header) {
+        return new MessageSnapshotResponse(header, -1, NO_BYTES, 0, NO_BYTES);
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
-
-//        byte[] bytes = NbtSquisher.squishBuildCraftV1(Snapshot.writeToNBT(snapshot));
-//        buf.writeInt(bytes.length);
-//        buf.writeBytes(bytes);
-//        try {
-//            CompressedStreamTools.write(Snapshot.writeToNBT(snapshot), new ByteBufOutputStream(buf));
-//        } catch (IOException e) {
-//            throw new RuntimeException(e);
-//        }
-        try {
-            CompressedStreamTools.writeCompressed(Snapshot.writeToNBT(snapshot), new ByteBufOutputStream(buf));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        PacketBufferBC buffer = new PacketBufferBC(buf);
+        header.writeToByteBuf(buffer);
+        buffer.writeInt(total);
+        buffer.writeByteArray(digest);
+        buffer.writeInt(offset);
+        buffer.writeByteArray(chunk);
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
-        try {
-//            snapshot = Snapshot.readFromNBT(NbtSquisher.expand(buf.readBytes(buf.readInt()).array()));
-//            snapshot = Snapshot.readFromNBT(CompressedStreamTools.read(new ByteBufInputStream(buf), NBTSizeTracker.INFINITE));
-            snapshot = Snapshot.readFromNBT(CompressedStreamTools.readCompressed(new ByteBufInputStream(buf)));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        PacketBufferBC buffer = new PacketBufferBC(buf);
+        header = new Snapshot.Header(buffer);
+        total = buffer.readInt();
+        digest = buffer.readByteArray(64);
+        offset = buffer.readInt();
+        chunk = buffer.readByteArray(SnapshotTransfers.CHUNK_SIZE);
     }
 
     public static final IMessageHandler<MessageSnapshotResponse, IMessage> HANDLER = (message, ctx) -> {
-        ClientSnapshots.INSTANCE.onSnapshotReceived(message.snapshot);
+        SnapshotTransfers.get(ctx.side).onResponse(message, ctx.side.isServer() ? ctx.getServerHandler().player : null);
         return null;
     };
 }
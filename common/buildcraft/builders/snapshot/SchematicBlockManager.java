@@ -76,10 +76,7 @@ public class SchematicBlockManager {
                 for (int x = 0; x < blueprint.size.getX(); x++) {
                     BlockPos pos = new BlockPos(x, y, z).add(FakeWorldServer.BLUEPRINT_OFFSET);
                     ISchematicBlock<?> schematicBlock = blueprint.palette.get(
-                        blueprint.data
-                            [pos.getX() - FakeWorldServer.BLUEPRINT_OFFSET.getX()]
-                            [pos.getY() - FakeWorldServer.BLUEPRINT_OFFSET.getY()]
-                            [pos.getZ() - FakeWorldServer.BLUEPRINT_OFFSET.getZ()]
+                        blueprint.data[blueprint.posToIndex(x, y, z)]
                     );
                     IBlockState blockState = world.getBlockState(pos);
                     Block block = blockState.getBlock();
@@ -92,6 +92,16 @@ public abstract class Snapshot {
 
     abstract public EnumSnapshotType getType();
 
+    /** @return The index of the given position in per-block data that is ordered by x, then y, then z. This is the
+     *         same order that the data is serialised in. */
+    public int posToIndex(int x, int y, int z) {
+        return posToIndex(size, x, y, z);
+    }
+
+    public static int posToIndex(BlockPos size, int x, int y, int z) {
+        return (z * size.getY() + y) * size.getX() + x;
+    }
+
     public final byte[] computeHash() {
         return computeHash(writeToNBT(this));
     }
@@ -8,15 +8,21 @@ package buildcraft.builders.snapshot;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
-import java.util.function.Predicate;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
@@ -32,6 +38,7 @@ import buildcraft.lib.misc.FakePlayerUtil;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.data.Box;
 import buildcraft.lib.net.PacketBufferBC;
+import buildcraft.lib.world.BlockChangeListeners;
 
 public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
     private static final int MAX_QUEUE_SIZE = 64;
@@ -47,6 +54,15 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
     public Vec3d prevRobotPos = null;
     public int leftToBreak;
     public int leftToPlace;
+    private BuildQueueIndex breakIndex = null;
+    private BuildQueueIndex placeIndex = null;
+    /** Maps every position to the positions to place that depend on it in {@link #canPlace(BlockPos)}. */
+    private Multimap<BlockPos, BlockPos> placeDependants = HashMultimap.create();
+    /**
+     * Indices (in {@link #placeIndex}) of the positions that couldn't get their items, and so are skipped until
+     * {@link #onInventoryChange()} is called.
+     */
+    private final BitSet waitingForItems = new BitSet();
 
     protected SnapshotBuilder(T tile) {
         this.tile = tile;
@@ -58,6 +74,13 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
 
     protected abstract boolean canPlace(BlockPos blockPos);
 
+    /**
+     * @return Every other position that {@link #canPlace(BlockPos)} looks at for the given position
+     */
+    protected Set<BlockPos> getPlaceDependencies(BlockPos blockPos) {
+        return Collections.emptySet();
+    }
+
     /**
      * @return items
      */
@@ -92,6 +115,79 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
             .add(new Vec3d(0.5, 1, 0.5));
     }
 
+    /**
+     * Sorts every position that might need to be broken or placed into its final building order. This only happens
+     * when the building info changes, rather than every tick.
+     */
+    private void rebuildIndices() {
+        BlockPos center = getBox() == null ? tile.getBuilderPos() : getBox().center();
+        BlockPos builderPos = tile.getBuilderPos();
+        breakIndex = new BuildQueueIndex(
+            Stream.concat(getToBreak().stream(), getToPlace().stream()).collect(Collectors.toList()),
+            Comparator.comparingDouble(blockPos ->
+                Math.pow(blockPos.getX() - center.getX(), 2) +
+                    Math.pow(blockPos.getZ() - center.getZ(), 2) +
+                    100_000 - Math.abs(blockPos.getY() - builderPos.getY()) * 100_000
+            )
+        );
+        placeIndex = new BuildQueueIndex(
+            getToPlace(),
+            Comparator.comparingDouble(blockPos ->
+                100_000 - (Math.pow(blockPos.getX() - builderPos.getX(), 2) +
+                    Math.pow(blockPos.getZ() - builderPos.getZ(), 2)) +
+                    Math.abs(blockPos.getY() - builderPos.getY()) * 100_000
+            )
+        );
+        placeDependants = HashMultimap.create();
+        for (BlockPos blockPos : getToPlace()) {
+            for (BlockPos dependency : getPlaceDependencies(blockPos)) {
+                placeDependants.put(dependency, blockPos);
+            }
+        }
+        waitingForItems.clear();
+    }
+
+    private boolean needsBreaking(BlockPos blockPos) {
+        return !tile.getWorldBC().isAirBlock(blockPos) &&
+            !isBlockCorrect(blockPos) &&
+            BlockUtil.getFluidWithFlowing(tile.getWorldBC(), blockPos) == null;
+    }
+
+    private boolean needsPlacing(BlockPos blockPos) {
+        return !isBlockCorrect(blockPos) && canPlace(blockPos);
+    }
+
+    /**
+     * Should be called whenever the building info changes, so that the build order is recalculated.
+     */
+    public void invalidate() {
+        breakIndex = null;
+        placeIndex = null;
+        placeDependants.clear();
+        waitingForItems.clear();
+    }
+
+    /**
+     * Called whenever a block changes in the world, so that it is re-tested before it is next used.
+     */
+    public void onBlockChange(BlockPos blockPos) {
+        if (breakIndex != null) {
+            breakIndex.markDirty(blockPos);
+        }
+        if (placeIndex != null) {
+            placeIndex.markDirty(blockPos);
+            placeDependants.get(blockPos).forEach(placeIndex::markDirty);
+        }
+    }
+
+    /**
+     * Should be called whenever the items (or fluids) that can be used for placing change, so that the positions that
+     * were waiting for them are tried again.
+     */
+    public void onInventoryChange() {
+        waitingForItems.clear();
+    }
+
     /**
      * @return true is building is finished, false otherwise
      */
@@ -132,63 +228,57 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
         breakTasks.removeIf(breakTask -> tile.getWorldBC().isAirBlock(breakTask.pos) || isBlockCorrect(breakTask.pos));
         placeTasks.removeIf(placeTask -> isBlockCorrect(placeTask.pos));
 
+        if (breakIndex == null || placeIndex == null) {
+            rebuildIndices();
+        }
+        breakIndex.refresh(this::needsBreaking, BlockChangeListeners.VERIFY_PER_TICK);
+        placeIndex.refresh(this::needsPlacing, BlockChangeListeners.VERIFY_PER_TICK);
+
         boolean isDone = true;
 
         if (tile.canExcavate()) {
-            List<BlockPos> blocks = Stream.concat(getToBreak().stream(), getToPlace().stream())
-                .sorted(Comparator.comparing(blockPos ->
-                    Math.pow(blockPos.getX() - getBox().center().getX(), 2) +
-                        Math.pow(blockPos.getZ() - getBox().center().getZ(), 2) +
-                        100_000 - Math.abs(blockPos.getY() - tile.getBuilderPos().getY()) * 100_000
-                ))
-                .filter(blockPos -> breakTasks.stream().map(BreakTask::getPos).noneMatch(Predicate.isEqual(blockPos)))
-                .filter(blockPos -> !tile.getWorldBC().isAirBlock(blockPos))
-                .filter(blockPos -> !isBlockCorrect(blockPos))
-                .filter(blockPos -> BlockUtil.getFluidWithFlowing(tile.getWorldBC(), blockPos) == null)
-                .collect(Collectors.toList());
-            leftToBreak = blocks.size();
-            if (!blocks.isEmpty()) {
+            Set<BlockPos> queued = new HashSet<>();
+            breakTasks.forEach(breakTask -> queued.add(breakTask.pos));
+            leftToBreak = breakIndex.getCandidateCount() - (int) queued.stream().filter(breakIndex::isCandidate).count();
+            if (leftToBreak > 0) {
                 isDone = false;
             }
-            blocks.stream()
-                .map(blockPos ->
-                    new BreakTask(
-                        blockPos,
-                        0
-                    )
-                )
-                .limit(MAX_QUEUE_SIZE - breakTasks.size())
-                .forEach(breakTasks::add);
+            for (int i = breakIndex.nextCandidate(0); i >= 0 && breakTasks.size() < MAX_QUEUE_SIZE;
+                i = breakIndex.nextCandidate(i + 1)) {
+                BlockPos blockPos = breakIndex.get(i);
+                if (!queued.contains(blockPos) && breakIndex.recheck(i, this::needsBreaking)) {
+                    breakTasks.add(new BreakTask(blockPos, 0));
+                }
+            }
         }
 
         {
-            List<BlockPos> blocks = getToPlace().stream()
-                .sorted(Comparator.comparing(blockPos ->
-                    100_000 - (Math.pow(blockPos.getX() - tile.getBuilderPos().getX(), 2) +
-                        Math.pow(blockPos.getZ() - tile.getBuilderPos().getZ(), 2)) +
-                        Math.abs(blockPos.getY() - tile.getBuilderPos().getY()) * 100_000
-                ))
-                .filter(blockPos -> placeTasks.stream().map(PlaceTask::getPos).noneMatch(Predicate.isEqual(blockPos)))
-                .filter(blockPos -> !isBlockCorrect(blockPos))
-                .filter(this::canPlace)
-                .collect(Collectors.toList());
-            leftToPlace = blocks.size();
+            Set<BlockPos> queued = new HashSet<>();
+            placeTasks.forEach(placeTask -> queued.add(placeTask.pos));
+            leftToPlace = placeIndex.getCandidateCount() - (int) queued.stream().filter(placeIndex::isCandidate).count();
             if ((!tile.canExcavate() || breakTasks.isEmpty())) {
-                if (!blocks.isEmpty()) {
+                for (int i = placeIndex.nextCandidate(0); i >= 0; i = placeIndex.nextCandidate(i + 1)) {
+                    if (waitingForItems.get(i)) {
+                        isDone = false;
+                        // Skip the whole run of waiting positions at once
+                        i = waitingForItems.nextClearBit(i) - 1;
+                        continue;
+                    }
+                    BlockPos blockPos = placeIndex.get(i);
+                    if (queued.contains(blockPos) || !placeIndex.recheck(i, this::needsPlacing)) {
+                        continue;
+                    }
                     isDone = false;
+                    if (placeTasks.size() >= MAX_QUEUE_SIZE) {
+                        break;
+                    }
+                    List<ItemStack> items = getToPlaceItems(blockPos);
+                    if (items != null && !items.contains(ItemStack.EMPTY)) {
+                        placeTasks.add(new PlaceTask(blockPos, items, 0));
+                    } else {
+                        waitingForItems.set(i);
+                    }
                 }
-                blocks.stream()
-                    .map(blockPos ->
-                        new PlaceTask(
-                            blockPos,
-                            getToPlaceItems(blockPos),
-                            0
-                        )
-                    )
-                    .filter(placeTask -> placeTask.items != null)
-                    .filter(placeTask -> !placeTask.items.contains(ItemStack.EMPTY))
-                    .limit(MAX_QUEUE_SIZE - placeTasks.size())
-                    .forEach(placeTasks::add);
             }
         }
 
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.builders.snapshot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.relauncher.Side;
+
+import buildcraft.api.core.BCLog;
+import buildcraft.api.data.NbtSquishConstants;
+
+import buildcraft.lib.misc.HashUtil;
+import buildcraft.lib.nbt.NbtSquisher;
+import buildcraft.lib.net.MessageManager;
+
+/** Sends snapshots over the network in small chunks spread out over several ticks, rather than as a single message
+ * that could be many megabytes long.
+ * <p>
+ * Every transfer is identified by the header (and so the hash) of the snapshot. The receiver sends a
+ * {@link MessageSnapshotRequest} with the number of bytes it has so far, both to start a transfer and to acknowledge
+ * every {@link MessageSnapshotResponse} chunk, so the sender never has more than a few chunks waiting to be
+ * acknowledged. If a transfer stalls (for example after reconnecting) the receiver asks again from wherever it got to.
+ * <p>
+ * There is one instance per side: the server sends to (and receives from) every player, and the client only ever
+ * talks to the server. */
+public class SnapshotTransfers {
+    static final int CHUNK_SIZE = 8 * 1024;
+    /** The most bytes that can be sent but not yet acknowledged, for each transfer. */
+    private static final int MAX_UNACKED = 4 * CHUNK_SIZE;
+    /** The most bytes that will be sent to each player (or the server) every tick, across every transfer. */
+    private static final int BYTES_PER_TICK = 2 * CHUNK_SIZE;
+    /** How many ticks a transfer can go without any progress before it is abandoned (outgoing) or resumed
+     * (incoming). */
+    private static final int TIMEOUT = 20 * 30;
+    private static final int MAX_ATTEMPTS = 3;
+    /** The largest (compressed) snapshot that will be accepted. This stops the other side from making this allocate an
+     * arbitrarily large array. */
+    private static final int MAX_SNAPSHOT_SIZE = 16 * 1024 * 1024;
+
+    private static final Map<Side, SnapshotTransfers> INSTANCES = new EnumMap<>(Side.class);
+
+    private final Side side;
+    private final List<Outgoing> outgoing = new ArrayList<>();
+    private final Map<Snapshot.Header, Incoming> incoming = new HashMap<>();
+    /** Callbacks for finished incoming transfers. These are run at the end of {@link #tick()}, outside of the lock, so
+     * that the callbacks are free to start new requests. */
+    private final List<Runnable> finished = new ArrayList<>();
+    private long ticks = 0;
+
+    private SnapshotTransfers(Side side) {
+        this.side = side;
+    }
+
+    public static synchronized SnapshotTransfers get(Side side) {
+        return INSTANCES.computeIfAbsent(side, SnapshotTransfers::new);
+    }
+
+    /** Asks the other side for the snapshot with the given header. The callback is called on the main thread when it
+     * has arrived, or with null if the other side doesn't have it (or it couldn't be transferred).
+     *
+     * @param from The player to ask, if this is the server. Ignored on the client. */
+    public synchronized void request(Snapshot.Header header, @Nullable EntityPlayerMP from,
+        Consumer<Snapshot> callback) {
+        Incoming in = incoming.get(header);
+        if (in == null) {
+            in = new Incoming(header, from);
+            incoming.put(header, in);
+            in.lastActivity = ticks;
+            send(new MessageSnapshotRequest(header, 0), from);
+        }
+        in.callbacks.add(callback);
+    }
+
+    /** Called when the other side wants (more of) a snapshot that is stored on this side. */
+    synchronized void onRequest(Snapshot.Header header, int offset, @Nullable EntityPlayerMP to) {
+        Outgoing out = null;
+        for (Outgoing o : outgoing) {
+            if (o.to == to && o.header.equals(header)) {
+                out = o;
+                break;
+            }
+        }
+        if (out == null) {
+            Snapshot snapshot = GlobalSavedDataSnapshots.get(side).getSnapshotByHeader(header);
+            if (snapshot == null) {
+                send(MessageSnapshotResponse.missing(header), to);
+                return;
+            }
+            byte[] data =
+                NbtSquisher.squish(Snapshot.writeToNBT(snapshot), NbtSquishConstants.BUILDCRAFT_V1_COMPRESSED);
+            out = new Outgoing(header, to, data);
+            outgoing.add(out);
+        }
+        out.lastActivity = ticks;
+        offset = Math.max(0, Math.min(offset, out.data.length));
+        if (offset <= out.acked) {
+            // The receiver has lost (or never got) what we sent after this, so start again from here
+            out.sent = offset;
+        }
+        out.acked = offset;
+        out.sent = Math.max(out.sent, offset);
+    }
+
+    /** Called when a chunk of a snapshot that this side asked for arrives.
+     *
+     * @param from The player that sent the chunk, if this is the server. */
+    synchronized void onResponse(MessageSnapshotResponse message, @Nullable EntityPlayerMP from) {
+        Incoming in = incoming.get(message.header);
+        if (in == null || in.from != from) {
+            // Either we didn't ask for it, or we asked someone else
+            return;
+        }
+        in.lastActivity = ticks;
+        if (message.total < 0) {
+            incoming.remove(in.header);
+            finish(in, null);
+            return;
+        }
+        if (message.total > MAX_SNAPSHOT_SIZE) {
+            BCLog.logger.warn("[builders.snapshots] Refusing to receive the snapshot " + in.header
+                + " as it is too big (" + message.total + " bytes)");
+            incoming.remove(in.header);
+            finish(in, null);
+            return;
+        }
+        if (in.data == null || in.data.length != message.total || !Arrays.equals(in.digest, message.digest)) {
+            // The first chunk, or the sender's data has changed since we last asked (for example after a restart)
+            in.data = new byte[message.total];
+            in.digest = message.digest;
+            in.received = 0;
+            if (message.offset != 0) {
+                send(new MessageSnapshotRequest(in.header, 0), in.from);
+                return;
+            }
+        }
+        if (message.offset != in.received || in.received + message.chunk.length > in.data.length) {
+            // Sent before we asked to rewind, so we can ignore it
+            return;
+        }
+        System.arraycopy(message.chunk, 0, in.data, in.received, message.chunk.length);
+        in.received += message.chunk.length;
+        send(new MessageSnapshotRequest(in.header, in.received), in.from);
+        if (in.received < in.data.length) {
+            return;
+        }
+        if (!Arrays.equals(HashUtil.computeHash(in.data), in.digest)) {
+            BCLog.logger.warn(
+                "[builders.snapshots] The snapshot " + in.header + " was corrupted in transfer, retrying.");
+            in.data = null;
+            in.received = 0;
+            retry(in);
+            return;
+        }
+        incoming.remove(in.header);
+        Snapshot snapshot;
+        try {
+            snapshot = Snapshot.readFromNBT(NbtSquisher.expand(in.data));
+        } catch (IOException e) {
+            BCLog.logger.warn("[builders.snapshots] Failed to read the transferred snapshot " + in.header, e);
+            snapshot = null;
+        }
+        finish(in, snapshot);
+    }
+
+    private void retry(Incoming in) {
+        in.attempts++;
+        if (in.attempts >= MAX_ATTEMPTS) {
+            incoming.remove(in.header);
+            finish(in, null);
+            return;
+        }
+        in.lastActivity = ticks;
+        send(new MessageSnapshotRequest(in.header, in.data == null ? 0 : in.received), in.from);
+    }
+
+    private void finish(Incoming in, @Nullable Snapshot snapshot) {
+        finished.add(() -> in.callbacks.forEach(callback -> callback.accept(snapshot)));
+    }
+
+    public void tick() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            ticks++;
+            sendChunks();
+            for (Incoming in : new ArrayList<>(incoming.values())) {
+                if (ticks - in.lastActivity > TIMEOUT) {
+                    if (in.from != null && !isConnected(in.from)) {
+                        incoming.remove(in.header);
+                        finish(in, null);
+                    } else {
+                        // Resume from wherever we got to
+                        retry(in);
+                    }
+                }
+            }
+            if (finished.isEmpty()) {
+                return;
+            }
+            toRun = new ArrayList<>(finished);
+            finished.clear();
+        }
+        toRun.forEach(Runnable::run);
+    }
+
+    private void sendChunks() {
+        Map<EntityPlayerMP, int[]> sentTo = new IdentityHashMap<>();
+        Iterator<Outgoing> iter = outgoing.iterator();
+        while (iter.hasNext()) {
+            Outgoing out = iter.next();
+            if (out.acked >= out.data.length || ticks - out.lastActivity > TIMEOUT || (out.to != null && !isConnected(
+                out.to))) {
+                iter.remove();
+                continue;
+            }
+            int[] budget = sentTo.computeIfAbsent(out.to, p -> new int[] { BYTES_PER_TICK });
+            while (budget[0] > 0 && out.sent < out.data.length && out.sent - out.acked < MAX_UNACKED) {
+                int length = Math.min(CHUNK_SIZE, out.data.length - out.sent);
+                byte[] chunk = Arrays.copyOfRange(out.data, out.sent, out.sent + length);
+                send(new MessageSnapshotResponse(out.header, out.data.length, out.digest, out.sent, chunk), out.to);
+                out.sent += length;
+                budget[0] -= length;
+            }
+        }
+    }
+
+    private static boolean isConnected(EntityPlayerMP player) {
+        MinecraftServer server = player.getServer();
+        return server != null && server.getPlayerList().getPlayerByUUID(player.getUniqueID()) == player;
+    }
+
+    private void send(IMessage message, @Nullable EntityPlayerMP to) {
+        if (side == Side.SERVER) {
+            if (to != null) {
+                MessageManager.sendTo(message, to);
+            }
+        } else {
+            MessageManager.sendToServer(message);
+        }
+    }
+
+    private static final class Outgoing {
+        final Snapshot.Header header;
+        final EntityPlayerMP to;
+        final byte[] data;
+        final byte[] digest;
+        int sent = 0, acked = 0;
+        long lastActivity;
+
+        Outgoing(Snapshot.Header header, EntityPlayerMP to, byte[] data) {
+            this.header = header;
+            this.to = to;
+            this.data = data;
+            this.digest = HashUtil.computeHash(data);
+        }
+    }
+
+    private static final class Incoming {
+        final Snapshot.Header header;
+        final EntityPlayerMP from;
+        final List<Consumer<Snapshot>> callbacks = new ArrayList<>();
+        byte[] data, digest;
+        int received = 0;
+        int attempts = 0;
+        long lastActivity;
+
+        Incoming(Snapshot.Header header, EntityPlayerMP from) {
+            this.header = header;
+            this.from = from;
+        }
+    }
+}
@@ -7,6 +7,7 @@
 package buildcraft.builders.snapshot;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -20,7 +21,8 @@ import buildcraft.api.enums.EnumSnapshotType;
 import buildcraft.lib.misc.data.Box;
 
 public class Template extends Snapshot {
-    public boolean[][][] data;
+    /** Which positions should be filled, indexed by {@link #posToIndex(int, int, int)}. */
+    public BitSet data;
 
     public Template copy() {
         Template template = new Template();
@@ -28,14 +30,7 @@ public class Template extends Snapshot {
         template.size = size;
         template.facing = facing;
         template.offset = offset;
-        template.data = new boolean[size.getX()][size.getY()][size.getZ()];
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    template.data[x][y][z] = data[x][y][z];
-                }
-            }
-        }
+        template.data = (BitSet) data.clone();
         return template;
     }
 
@@ -43,13 +38,8 @@ public class Template extends Snapshot {
     public NBTTagCompound serializeNBT() {
         NBTTagCompound nbt = super.serializeNBT();
         byte[] serializedData = new byte[size.getX() * size.getY() * size.getZ()];
-        int i = 0;
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    serializedData[i++] = data[x][y][z] ? (byte) 1 : (byte) 0;
-                }
-            }
+        for (int i = data.nextSetBit(0); i >= 0 && i < serializedData.length; i = data.nextSetBit(i + 1)) {
+            serializedData[i] = 1;
         }
         nbt.setByteArray("data", serializedData);
         return nbt;
@@ -58,7 +48,6 @@ public class Template extends Snapshot {
     @Override
     public void deserializeNBT(NBTTagCompound nbt) throws InvalidInputDataException {
         super.deserializeNBT(nbt);
-        data = new boolean[size.getX()][size.getY()][size.getZ()];
         byte[] serializedData = nbt.getByteArray("data");
         if (serializedData.length != size.getX() * size.getY() * size.getZ()) {
             throw new InvalidInputDataException(
@@ -66,12 +55,10 @@ public class Template extends Snapshot {
                     ", but we expected " + size.getX() * size.getY() * size.getZ() + size.toString()
             );
         }
-        int i = 0;
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    data[x][y][z] = serializedData[i++] != 0;
-                }
+        data = new BitSet(serializedData.length);
+        for (int i = 0; i < serializedData.length; i++) {
+            if (serializedData[i] != 0) {
+                data.set(i);
             }
         }
     }
@@ -91,13 +78,14 @@ public class Template extends Snapshot {
         public BuildingInfo(BlockPos basePos, Rotation rotation) {
             this.basePos = basePos;
             this.rotation = rotation;
+            int i = 0;
             for (int z = 0; z < getSnapshot().size.getZ(); z++) {
                 for (int y = 0; y < getSnapshot().size.getY(); y++) {
                     for (int x = 0; x < getSnapshot().size.getX(); x++) {
                         BlockPos blockPos = new BlockPos(x, y, z).rotate(rotation)
                             .add(basePos)
                             .add(offset.rotate(rotation));
-                        if (!data[x][y][z]) {
+                        if (!data.get(i++)) {
                             toBreak.add(blockPos);
                         } else {
                             toPlace.add(blockPos);
@@ -8,6 +8,7 @@ package buildcraft.builders.tile;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -80,9 +81,9 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
 
     private EnumSnapshotType snapshotType = EnumSnapshotType.BLUEPRINT;
     public final Box box = new Box();
-    private boolean[][][] templateScannedBlocks;
+    private BitSet templateScannedBlocks;
     private final List<ISchematicBlock<?>> blueprintScannedPalette = new ArrayList<>();
-    private int[][][] blueprintScannedData;
+    private int[] blueprintScannedData;
     private final List<ISchematicEntity<?>> blueprintScannedEntities = new ArrayList<>();
     private BoxIterator boxIterator;
     private boolean isValid = false;
@@ -190,8 +191,8 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         BlockPos size = box.size();
         if (templateScannedBlocks == null || blueprintScannedData == null) {
             boxIterator = new BoxIterator(box, EnumAxisOrder.XZY.getMinToMaxOrder(), true);
-            templateScannedBlocks = new boolean[size.getX()][size.getY()][size.getZ()];
-            blueprintScannedData = new int[size.getX()][size.getY()][size.getZ()];
+            templateScannedBlocks = new BitSet(size.getX() * size.getY() * size.getZ());
+            blueprintScannedData = new int[size.getX() * size.getY() * size.getZ()];
         }
 
         // Read from world
@@ -199,7 +200,8 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         BlockPos schematicIndex = worldScanPos.subtract(box.min());
         if (snapshotType == EnumSnapshotType.TEMPLATE) {
             boolean solid = !world.isAirBlock(worldScanPos);
-            templateScannedBlocks[schematicIndex.getX()][schematicIndex.getY()][schematicIndex.getZ()] = solid;
+            templateScannedBlocks.set(Snapshot.posToIndex(size, schematicIndex.getX(), schematicIndex.getY(),
+                schematicIndex.getZ()), solid);
         }
         if (snapshotType == EnumSnapshotType.BLUEPRINT) {
             ISchematicBlock<?> schematicBlock = readSchematicBlock(worldScanPos);
@@ -208,7 +210,7 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
                 index = blueprintScannedPalette.size();
                 blueprintScannedPalette.add(schematicBlock);
             }
-            blueprintScannedData[schematicIndex.getX()][schematicIndex.getY()][schematicIndex.getZ()] = index;
+            blueprintScannedData[Snapshot.posToIndex(size, schematicIndex.getX(), schematicIndex.getY(), schematicIndex.getZ())] = index;
         }
 
         createAndSendMessage(NET_SCAN, buffer -> MessageUtil.writeBlockPos(buffer, worldScanPos));
@@ -262,7 +264,7 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
 
         snapshot.header = new Header(snapshot.computeHash(), getOwner().getId(), new Date(), name);
         GlobalSavedDataSnapshots store = GlobalSavedDataSnapshots.get(world);
-        store.snapshots.add(snapshot);
+        store.addSnapshot(snapshot);
         store.markDirty();
         ItemStack stackIn = invSnapshotIn.getStackInSlot(0);
         stackIn.setCount(stackIn.getCount() - 1);
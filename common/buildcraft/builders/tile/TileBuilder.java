@@ -61,6 +61,7 @@ import buildcraft.lib.tile.TileBC_Neptune;
 import buildcraft.lib.tile.item.ItemHandlerManager.EnumAccess;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
 
+import buildcraft.builders.BCBuildersEventDist;
 import buildcraft.builders.BCBuildersItems;
 import buildcraft.builders.item.ItemSnapshot;
 import buildcraft.builders.snapshot.Blueprint;
@@ -102,7 +103,12 @@ public class TileBuilder extends TileBC_Neptune implements ITickable, IDebuggabl
 
     public TileBuilder() {
         for (int i = 1; i <= 4; i++) {
-            tankManager.add(new Tank("fluid" + i, Fluid.BUCKET_VOLUME * 8, this));
+            tankManager.add(new Tank("fluid" + i, Fluid.BUCKET_VOLUME * 8, this) {
+                @Override
+                protected void onContentsChanged() {
+                    blueprintBuilder.onInventoryChange();
+                }
+            });
         }
         caps.addProvider(new MjCapabilityHelper(new MjBatteryReciver(battery)));
         caps.addCapabilityInstance(CapUtil.CAP_FLUIDS, tankManager, EnumPipePart.VALUES);
@@ -132,6 +138,10 @@ public class TileBuilder extends TileBC_Neptune implements ITickable, IDebuggabl
                 sendNetworkUpdate(NET_SNAPSHOT_TYPE);
             }
         }
+        if (itemHandler == invResources) {
+            templateBuilder.onInventoryChange();
+            blueprintBuilder.onInventoryChange();
+        }
         super.onSlotChange(itemHandler, slot, before, after);
     }
 
@@ -159,6 +169,8 @@ public class TileBuilder extends TileBC_Neptune implements ITickable, IDebuggabl
         if (currentBox == null) {
             currentBox = new Box();
         }
+        templateBuilder.invalidate();
+        blueprintBuilder.invalidate();
     }
 
     private void updateBasePoses() {
@@ -195,6 +207,18 @@ public class TileBuilder extends TileBC_Neptune implements ITickable, IDebuggabl
         updateBasePoses();
     }
 
+    @Override
+    public void validate() {
+        super.validate();
+        BCBuildersEventDist.INSTANCE.validateBuilder(this);
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        BCBuildersEventDist.INSTANCE.invalidateBuilder(this);
+    }
+
     @Override
     public void update() {
         battery.tick(getWorld(), getPos());
@@ -8,7 +8,6 @@ import java.io.IOException;
 import javax.annotation.Nonnull;
 
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ITickable;
 
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -16,13 +15,11 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
 import buildcraft.api.core.EnumPipePart;
-import buildcraft.api.data.NbtSquishConstants;
 
 import buildcraft.lib.delta.DeltaInt;
 import buildcraft.lib.delta.DeltaManager;
 import buildcraft.lib.misc.StackUtil;
 import buildcraft.lib.misc.data.IdAllocator;
-import buildcraft.lib.nbt.NbtSquisher;
 import buildcraft.lib.net.MessageManager;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
@@ -32,6 +29,7 @@ import buildcraft.lib.tile.item.ItemHandlerSimple;
 import buildcraft.builders.BCBuildersItems;
 import buildcraft.builders.snapshot.GlobalSavedDataSnapshots;
 import buildcraft.builders.snapshot.Snapshot;
+import buildcraft.builders.snapshot.SnapshotTransfers;
 
 public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
     public static final IdAllocator IDS = TileBC_Neptune.IDS.makeChild("library");
@@ -112,12 +110,14 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
 
     // How networking works here:
     // down:
-    // 1. server sends NET_DOWN with snapshot to clients
-    // 2. clients add snapshot to their local database
+    // 1. server sends NET_DOWN with the header of the snapshot to clients
+    // 2. clients that don't already have it ask the server for it through SnapshotTransfers
+    // 3. clients add snapshot to their local database once it has arrived
     // up:
     // 1. server sends empty NET_UP to clients
-    // 2. client who have selected snapshot sends NET_UP with it back to server
-    // 3. server adds snapshot to its database
+    // 2. client who have selected snapshot sends NET_UP with its header back to server
+    // 3. if the server doesn't already have it, it asks that client for it through SnapshotTransfers
+    // 4. server adds snapshot to its database
 
     @Override
     public void writePayload(int id, PacketBufferBC buffer, Side side) {
@@ -131,14 +131,9 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
             }
             if (id == NET_DOWN) {
                 Snapshot.Header header = BCBuildersItems.snapshot.getHeader(invDownIn.getStackInSlot(0));
-                if (header != null) {
-                    Snapshot snapshot = GlobalSavedDataSnapshots.get(world).getSnapshotByHeader(header);
-                    if (snapshot != null) {
-                        buffer.writeBoolean(true);
-                        NbtSquisher.squish(Snapshot.writeToNBT(snapshot), NbtSquishConstants.BUILDCRAFT_V1_COMPRESSED, buffer);
-                    } else {
-                        buffer.writeBoolean(false);
-                    }
+                if (header != null && GlobalSavedDataSnapshots.get(world).hasSnapshot(header)) {
+                    buffer.writeBoolean(true);
+                    header.writeToByteBuf(buffer);
                 } else {
                     buffer.writeBoolean(false);
                 }
@@ -148,14 +143,9 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
         }
         if (side == Side.CLIENT) {
             if (id == NET_UP) {
-                if (selected != null) {
-                    Snapshot snapshot = GlobalSavedDataSnapshots.get(world).getSnapshotByHeader(selected);
-                    if (snapshot != null) {
-                        buffer.writeBoolean(true);
-                        NbtSquisher.squish(Snapshot.writeToNBT(snapshot), NbtSquishConstants.BUILDCRAFT_V1_COMPRESSED, buffer);
-                    } else {
-                        buffer.writeBoolean(false);
-                    }
+                if (selected != null && GlobalSavedDataSnapshots.get(world).hasSnapshot(selected)) {
+                    buffer.writeBoolean(true);
+                    selected.writeToByteBuf(buffer);
                 } else {
                     buffer.writeBoolean(false);
                 }
@@ -177,9 +167,15 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
             }
             if (id == NET_DOWN) {
                 if (buffer.readBoolean()) {
-                    Snapshot snapshot = Snapshot.readFromNBT(NbtSquisher.expand(buffer));
-                    store.snapshots.add(snapshot);
-                    store.markDirty();
+                    Snapshot.Header header = new Snapshot.Header(buffer);
+                    if (!store.hasSnapshot(header)) {
+                        SnapshotTransfers.get(Side.CLIENT).request(header, null, snapshot -> {
+                            if (snapshot != null) {
+                                store.addSnapshot(snapshot);
+                                store.markDirty();
+                            }
+                        });
+                    }
                 }
             }
             if (id == NET_UP) {
@@ -189,14 +185,30 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
         if (side == Side.SERVER) {
             if (id == NET_UP) {
                 if (buffer.readBoolean()) {
-                    NBTTagCompound nbt = NbtSquisher.expand(buffer);
-                    Snapshot snapshot = Snapshot.readFromNBT(nbt);
-                    invUpIn.setStackInSlot(0, StackUtil.EMPTY);
-                    store.snapshots.add(snapshot);
-                    store.markDirty();
-                    invUpOut.setStackInSlot(0, BCBuildersItems.snapshot.getUsed(snapshot.getType(), snapshot.header));
+                    Snapshot.Header header = new Snapshot.Header(buffer);
+                    Snapshot snapshot = store.getSnapshotByHeader(header);
+                    if (snapshot != null) {
+                        onUploaded(snapshot);
+                    } else {
+                        SnapshotTransfers.get(Side.SERVER).request(header, ctx.getServerHandler().player, uploaded -> {
+                            if (uploaded != null && !isInvalid()) {
+                                store.addSnapshot(uploaded);
+                                store.markDirty();
+                                onUploaded(uploaded);
+                            }
+                        });
+                    }
                 }
             }
         }
     }
+
+    private void onUploaded(Snapshot snapshot) {
+        if (invUpIn.getStackInSlot(0).isEmpty() || !invUpOut.getStackInSlot(0).isEmpty()) {
+            // Already finished (several clients can upload the same snapshot)
+            return;
+        }
+        invUpIn.setStackInSlot(0, StackUtil.EMPTY);
+        invUpOut.setStackInSlot(0, BCBuildersItems.snapshot.getUsed(snapshot.getType(), snapshot.header));
+    }
 }
@@ -24,6 +24,7 @@ import net.minecraft.world.World;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
+import net.minecraftforge.items.IItemHandlerModifiable;
 
 import buildcraft.api.core.EnumPipePart;
 import buildcraft.api.inventory.IItemTransactor;
@@ -44,6 +45,7 @@ import buildcraft.lib.tile.item.ItemHandlerManager.EnumAccess;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
 import buildcraft.lib.tile.item.StackInsertionFunction;
 
+import buildcraft.builders.BCBuildersEventDist;
 import buildcraft.builders.addon.AddonFillingPlanner;
 import buildcraft.builders.filling.Filling;
 import buildcraft.builders.snapshot.ITileForTemplateBuilder;
@@ -75,6 +77,8 @@ public class TileFiller extends TileBC_Neptune implements ITickable, IDebuggable
     private boolean canExcavate = true;
     public AddonFillingPlanner addon;
     public TemplateBuilder builder = new TemplateBuilder(this);
+    /** The building info that {@link #builder} was last used with, to find out when the addon changes it. */
+    private Template.BuildingInfo builtInfo = null;
 
     public TileFiller() {
         caps.addProvider(new MjCapabilityHelper(new MjBatteryReciver(battery)));
@@ -112,10 +116,36 @@ public class TileFiller extends TileBC_Neptune implements ITickable, IDebuggable
         }
     }
 
+    @Override
+    public void validate() {
+        super.validate();
+        BCBuildersEventDist.INSTANCE.validateBuilder(this);
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        BCBuildersEventDist.INSTANCE.invalidateBuilder(this);
+    }
+
+    @Override
+    protected void onSlotChange(IItemHandlerModifiable handler, int slot, @Nonnull ItemStack before,
+        @Nonnull ItemStack after) {
+        super.onSlotChange(handler, slot, before, after);
+        if (handler == invResources) {
+            builder.onInventoryChange();
+        }
+    }
+
     @Override
     public void update() {
         battery.tick(getWorld(), getPos());
         battery.addPowerChecking(64 * MjAPI.MJ, false);
+        if (!world.isRemote && getTemplateBuildingInfo() != builtInfo) {
+            // The addon replaces its building info whenever it is changed
+            builtInfo = getTemplateBuildingInfo();
+            builder.invalidate();
+        }
         if (addon != null || world.isRemote) {
             builder.tick();
         }
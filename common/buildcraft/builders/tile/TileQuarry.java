@@ -9,12 +9,14 @@ package buildcraft.builders.tile;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 
@@ -72,6 +74,7 @@ import buildcraft.lib.misc.data.EnumAxisOrder;
 import buildcraft.lib.mj.MjBatteryReciver;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
+import buildcraft.lib.world.BlockChangeListeners;
 
 import buildcraft.builders.BCBuildersBlocks;
 import buildcraft.builders.BCBuildersEventDist;
@@ -81,6 +84,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
     public final Box frameBox = new Box();
     private final Box miningBox = new Box();
     private BoxIterator boxIterator;
+    private final FrameTracker frameTracker = new FrameTracker();
     public Task currentTask = null;
     public Vec3d drillPos;
     public Vec3d clientDrillPos;
@@ -215,6 +219,14 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         miningBox.reset();
         miningBox.setMin(new BlockPos(min.getX() + 1, 0, min.getZ() + 1));
         miningBox.setMax(new BlockPos(max.getX() - 1, max.getY() - 1, max.getZ() - 1));
+        frameTracker.invalidate();
+    }
+
+    /** Called whenever a block changes in the world that this quarry is in. */
+    public void onBlockChange(BlockPos changed) {
+        if (!world.isRemote && frameBox.isInitialized()) {
+            frameTracker.markDirty(changed);
+        }
     }
 
     private boolean canNotMine(BlockPos blockPos) {
@@ -251,6 +263,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         if (!frameBox.isInitialized() || !miningBox.isInitialized()) {
             return;
         }
+        frameTracker.tick();
         BlockPos min = frameBox.min();
         BlockPos max = frameBox.max();
 
@@ -307,53 +320,22 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             return;
         }
 
-        List<BlockPos> breakPoses = new ArrayList<>();
-
-        for (int x = min.getX(); x <= max.getX(); x++) {
-            for (int y = min.getY(); y <= max.getY(); y++) {
-                for (int z = min.getZ(); z <= max.getZ(); z++) {
-                    BlockPos framePos = new BlockPos(x, y, z);
-                    boolean shouldBeFrame = ((x == min.getX() || x == max.getX()) && (y == min.getY() || y == max.getY())) ||
-                        ((y == min.getY() || y == max.getY()) && (z == min.getZ() || z == max.getZ())) ||
-                        ((z == min.getZ() || z == max.getZ()) && (x == min.getX() || x == max.getX()));
-                    Block block = world.getBlockState(framePos).getBlock();
-                    if (((block != Blocks.AIR && !shouldBeFrame) ||
-                        (block != BCBuildersBlocks.frame && block != Blocks.AIR && shouldBeFrame)) && !canSkip(framePos)) {
-                        breakPoses.add(framePos);
-                    }
-                }
-            }
-        }
-
-        if (breakPoses.size() > 0) {
-            double closestDistance = Double.MAX_VALUE;
-            BlockPos closestPos = null;
-
-            for (BlockPos breakPos : breakPoses) {
-                double distance = breakPos.distanceSq(pos);
-
-                if (distance < closestDistance) {
-                    closestDistance = distance;
-                    closestPos = breakPos;
-                }
-            }
-
-            if (!canNotMine(closestPos)) {
+        BlockPos breakPos = frameTracker.getNextBreakPos();
+        if (breakPos != null) {
+            if (!canNotMine(breakPos)) {
                 drillPos = null;
-                currentTask = new TaskBreakBlock(closestPos);
+                currentTask = new TaskBreakBlock(breakPos);
                 sendNetworkUpdate(NET_RENDER_DATA);
             }
             return;
         }
 
-        for (BlockPos framePos : getFramePositions()) {
-            Block block = world.getBlockState(framePos).getBlock();
-            if (block == Blocks.AIR) {
-                drillPos = null;
-                currentTask = new TaskAddFrame(framePos);
-                sendNetworkUpdate(NET_RENDER_DATA);
-                return;
-            }
+        BlockPos framePos = frameTracker.getNextFramePos();
+        if (framePos != null) {
+            drillPos = null;
+            currentTask = new TaskAddFrame(framePos);
+            sendNetworkUpdate(NET_RENDER_DATA);
+            return;
         }
 
         if ((boxIterator == null || drillPos == null) && miningBox.isInitialized()) {
@@ -416,6 +398,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         super.readFromNBT(nbt);
         miningBox.initialize(nbt.getCompoundTag("box"));
         frameBox.initialize(nbt.getCompoundTag("frame"));
+        frameTracker.invalidate();
         boxIterator = BoxIterator.readFromNbt(nbt.getCompoundTag("box_iterator"));
         battery.deserializeNBT(nbt.getCompoundTag("mj_battery"));
 
@@ -492,6 +475,10 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         left.add("miningBox:");
         left.add(" - min = " + miningBox.min());
         left.add(" - max = " + miningBox.max());
+        left.add("frameTracker:");
+        left.add(" - to break = " + frameTracker.toBreak.size());
+        left.add(" - missing frames = " + frameTracker.missingFrames.cardinality());
+        left.add(" - to check = " + (frameTracker.needsFullScan ? "all" : frameTracker.toCheck.size()));
         left.add("current = " + (boxIterator == null ? "null" : boxIterator.getCurrent()));
         if (currentTask != null) {
             left.add("task:");
@@ -516,6 +503,151 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         return Double.MAX_VALUE;
     }
 
+    /** Tracks every position inside {@link #frameBox} that needs to be broken, and every frame position that is
+     * missing its frame. The whole box is only scanned when it changes (or when the quarry is loaded): after that
+     * positions are only re-checked when a block update is received for them. A few positions are also re-verified
+     * every tick (see {@link BlockChangeListeners#VERIFY_PER_TICK}). */
+    private class FrameTracker {
+        private final Set<BlockPos> toBreak = new HashSet<>();
+        private final Set<BlockPos> toCheck = new HashSet<>();
+        /** Indexed by the positions in {@link #framePositions}, set if that position needs a frame. */
+        private final BitSet missingFrames = new BitSet();
+        private final Map<BlockPos, Integer> frameIndices = new HashMap<>();
+        private final BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
+        private List<BlockPos> framePositions = Collections.emptyList();
+        private boolean needsFullScan = true;
+        private int verifyIndex;
+
+        void invalidate() {
+            needsFullScan = true;
+            toBreak.clear();
+            toCheck.clear();
+            missingFrames.clear();
+            frameIndices.clear();
+            framePositions = Collections.emptyList();
+            verifyIndex = 0;
+        }
+
+        void markDirty(BlockPos changed) {
+            if (!needsFullScan && isInFrameBox(changed)) {
+                toCheck.add(changed.toImmutable());
+            }
+        }
+
+        void tick() {
+            if (needsFullScan) {
+                fullScan();
+                return;
+            }
+            if (!toCheck.isEmpty()) {
+                for (BlockPos p : toCheck) {
+                    check(p);
+                }
+                toCheck.clear();
+            }
+            BlockPos min = frameBox.min();
+            BlockPos size = frameBox.size();
+            int volume = size.getX() * size.getY() * size.getZ();
+            for (int i = 0; i < BlockChangeListeners.VERIFY_PER_TICK && i < volume; i++) {
+                if (verifyIndex >= volume) {
+                    verifyIndex = 0;
+                }
+                int idx = verifyIndex++;
+                int x = idx % size.getX();
+                int y = (idx / size.getX()) % size.getY();
+                int z = idx / (size.getX() * size.getY());
+                check(checkPos.setPos(min.getX() + x, min.getY() + y, min.getZ() + z));
+            }
+        }
+
+        private void fullScan() {
+            needsFullScan = false;
+            framePositions = getFramePositions();
+            for (int i = 0; i < framePositions.size(); i++) {
+                frameIndices.put(framePositions.get(i), i);
+            }
+            BlockPos min = frameBox.min();
+            BlockPos max = frameBox.max();
+            for (int x = min.getX(); x <= max.getX(); x++) {
+                for (int y = min.getY(); y <= max.getY(); y++) {
+                    for (int z = min.getZ(); z <= max.getZ(); z++) {
+                        check(checkPos.setPos(x, y, z));
+                    }
+                }
+            }
+        }
+
+        private boolean isInFrameBox(BlockPos p) {
+            BlockPos min = frameBox.min();
+            BlockPos max = frameBox.max();
+            return p.getX() >= min.getX() && p.getX() <= max.getX()//
+                && p.getY() >= min.getY() && p.getY() <= max.getY()//
+                && p.getZ() >= min.getZ() && p.getZ() <= max.getZ();
+        }
+
+        /** Re-checks a single position, updating {@link #toBreak} and {@link #missingFrames}.
+         * 
+         * @param p The position to check. This may be mutable.
+         * @return True if the position still needs work done to it (either breaking or a frame placed). */
+        private boolean check(BlockPos p) {
+            BlockPos min = frameBox.min();
+            BlockPos max = frameBox.max();
+            int x = p.getX(), y = p.getY(), z = p.getZ();
+            boolean shouldBeFrame = ((x == min.getX() || x == max.getX()) && (y == min.getY() || y == max.getY())) ||
+                ((y == min.getY() || y == max.getY()) && (z == min.getZ() || z == max.getZ())) ||
+                ((z == min.getZ() || z == max.getZ()) && (x == min.getX() || x == max.getX()));
+            Block block = world.getBlockState(p).getBlock();
+            boolean needsWork = false;
+            if (((block != Blocks.AIR && !shouldBeFrame) ||
+                (block != BCBuildersBlocks.frame && block != Blocks.AIR && shouldBeFrame)) && !canSkip(p)) {
+                toBreak.add(p.toImmutable());
+                needsWork = true;
+            } else {
+                toBreak.remove(p);
+            }
+            Integer frameIndex = frameIndices.get(p);
+            if (frameIndex != null) {
+                missingFrames.set(frameIndex, block == Blocks.AIR);
+                needsWork |= block == Blocks.AIR;
+            }
+            return needsWork;
+        }
+
+        /** @return The closest position to the quarry that needs to be broken, or null if there are none. */
+        BlockPos getNextBreakPos() {
+            while (!toBreak.isEmpty()) {
+                double closestDistance = Double.MAX_VALUE;
+                BlockPos closestPos = null;
+                for (BlockPos breakPos : toBreak) {
+                    double distance = breakPos.distanceSq(pos);
+                    if (distance < closestDistance) {
+                        closestDistance = distance;
+                        closestPos = breakPos;
+                    }
+                }
+                // The block might have been changed without a block update, so make sure that it's still valid
+                if (check(closestPos) && toBreak.contains(closestPos)) {
+                    return closestPos;
+                }
+            }
+            return null;
+        }
+
+        /** @return The first frame position (in building order) that doesn't have a frame, or null if the frame is
+         *         complete. */
+        BlockPos getNextFramePos() {
+            int idx;
+            while ((idx = missingFrames.nextSetBit(0)) >= 0) {
+                BlockPos framePos = framePositions.get(idx);
+                check(framePos);
+                if (missingFrames.get(idx)) {
+                    return framePos;
+                }
+            }
+            return null;
+        }
+    }
+
     private enum EnumTaskType {
         BREAK_BLOCK((quarry, nbt) -> quarry.new TaskBreakBlock(nbt)),
         ADD_FRAME((quarry, nbt) -> quarry.new TaskAddFrame(nbt)),
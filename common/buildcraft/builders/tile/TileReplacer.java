@@ -63,7 +63,7 @@ public class TileReplacer extends TileBC_Neptune implements ITickable {
                         newBlueprint.replace(from, to);
                         Header nHeader = new Header(newBlueprint.computeHash(), getOwner().getId(), new Date(), header.name);
                         newBlueprint.header = nHeader;
-                        store.snapshots.add(newBlueprint);
+                        store.addSnapshot(newBlueprint);
                         store.markDirty();
                         invSnapshot.setStackInSlot(
                             0,
@@ -23,6 +23,7 @@ import buildcraft.lib.BCLibConfig;
 import buildcraft.lib.BCLibConfig.TimeGap;
 import buildcraft.lib.config.EnumRestartRequirement;
 import buildcraft.lib.config.FileConfigManager;
+import buildcraft.lib.expression.BytecodeExpressionCompiler;
 import buildcraft.lib.misc.ConfigUtil;
 import buildcraft.lib.registry.RegistryHelper;
 
@@ -54,6 +55,8 @@ public class BCCoreConfig {
     private static Property propUseLongLocalizedName;
     private static Property propDisplayTimeGap;
     private static Property propItemLifespan;
+    private static Property propItemRenderDetailDistance;
+    private static Property propCompileExpressions;
     private static Property propMarkerMaxDistance;
     private static Property propNetworkUpdateRate;
 
@@ -134,6 +137,17 @@ public class BCCoreConfig {
         ConfigUtil.setEnumProperty(propDisplayTimeGap, TimeGap.values());
         none.setTo(propDisplayTimeGap);
 
+        propItemRenderDetailDistance = config.get(display, "itemRenderDetailDistance", 32);
+        propItemRenderDetailDistance.setMinValue(0).setMaxValue(256);
+        propItemRenderDetailDistance.setComment(
+            "How far away, in blocks, should items in pipes be drawn with their full model? Items further away are drawn as simple cubes. (0 = always use the full model)");
+        none.setTo(propItemRenderDetailDistance);
+
+        propCompileExpressions = config.get(general, "compileExpressions", true);
+        propCompileExpressions.setComment(
+            "Should the expressions used by animated models be compiled to java bytecode? Disable this if models render incorrectly.");
+        game.setTo(propCompileExpressions);
+
         propItemLifespan = config.get(general, "itemLifespan", 60);
         propItemLifespan.setMinValue(5).setMaxValue(600);
         propItemLifespan.setComment(
@@ -189,6 +203,7 @@ public class BCCoreConfig {
         BCLibConfig.useBucketsFlow = propUseBucketsFlow.getBoolean();
         BCLibConfig.useLongLocalizedName = propUseLongLocalizedName.getBoolean();
         BCLibConfig.itemLifespan = propItemLifespan.getInt();
+        BCLibConfig.itemRenderDetailDistance = propItemRenderDetailDistance.getInt();
         markerMaxDistance = propMarkerMaxDistance.getInt();
         BCLibConfig.colourBlindMode = propColourBlindMode.getBoolean();
         BCLibConfig.displayTimeGap = ConfigUtil.parseEnumForConfig(propDisplayTimeGap.getString(), TimeGap.values(), TimeGap.TICKS);
@@ -196,6 +211,7 @@ public class BCCoreConfig {
         if (EnumRestartRequirement.GAME.hasBeenRestarted(restarted)) {
             worldGen = propWorldGen.getBoolean();
             worldGenWaterSpring = propWorldGenWaterSpring.getBoolean();
+            BytecodeExpressionCompiler.enabled = propCompileExpressions.getBoolean();
         }
         BCLibConfig.refreshConfigs();
         if (config.hasChanged()) {
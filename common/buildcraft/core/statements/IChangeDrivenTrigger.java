@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.core.statements;
+
+import java.util.Set;
+
+/** A trigger whose result only depends on a few known inputs. Gates only re-evaluate these triggers when one of their
+ * inputs might have changed, rather than every tick. Triggers that don't implement this are evaluated every tick. */
+public interface IChangeDrivenTrigger {
+    /** @return Every input that can change the result of this trigger. An empty set means that the result never
+     *         changes. */
+    Set<Input> getInputs();
+
+    enum Input {
+        /** The power state of any wire in the same pipe. */
+        WIRE,
+        /** The redstone signal going into the pipe. */
+        REDSTONE,
+        /** Any block or tile next to the pipe, or any pluggable in the pipe. */
+        NEIGHBOUR
+    }
+}
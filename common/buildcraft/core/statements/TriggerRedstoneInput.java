@@ -5,6 +5,9 @@
  */
 package buildcraft.core.statements;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import buildcraft.api.statements.IStatement;
 import buildcraft.api.statements.IStatementContainer;
 import buildcraft.api.statements.IStatementParameter;
@@ -18,7 +21,8 @@ import buildcraft.lib.misc.LocaleUtil;
 import buildcraft.core.BCCoreSprites;
 import buildcraft.core.BCCoreStatements;
 
-public class TriggerRedstoneInput extends BCStatement implements ITriggerInternal {
+public class TriggerRedstoneInput extends BCStatement implements ITriggerInternal, IChangeDrivenTrigger {
+    private static final Set<Input> INPUTS = EnumSet.of(Input.REDSTONE);
 
     boolean active;
 
@@ -68,6 +72,11 @@ public class TriggerRedstoneInput extends BCStatement implements ITriggerInterna
         }
     }
 
+    @Override
+    public Set<Input> getInputs() {
+        return INPUTS;
+    }
+
     @Override
     public IStatement[] getPossible() {
         return BCCoreStatements.TRIGGER_REDSTONE;
@@ -6,6 +6,9 @@
 
 package buildcraft.core.statements;
 
+import java.util.Collections;
+import java.util.Set;
+
 import buildcraft.api.statements.IStatementContainer;
 import buildcraft.api.statements.IStatementParameter;
 import buildcraft.api.statements.ITriggerInternal;
@@ -15,7 +18,7 @@ import buildcraft.lib.misc.LocaleUtil;
 
 import buildcraft.core.BCCoreSprites;
 
-public class TriggerTrue extends BCStatement implements ITriggerInternal {
+public class TriggerTrue extends BCStatement implements ITriggerInternal, IChangeDrivenTrigger {
 
     public TriggerTrue() {
         super("buildcraftcore:trigger.true");
@@ -31,6 +34,11 @@ public class TriggerTrue extends BCStatement implements ITriggerInternal {
         return true;
     }
 
+    @Override
+    public Set<Input> getInputs() {
+        return Collections.emptySet();
+    }
+
     @Override
     public String getDescription() {
         return LocaleUtil.localize("gate.trigger.true");
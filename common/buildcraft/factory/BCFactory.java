@@ -18,6 +18,7 @@ import buildcraft.lib.registry.RegistryHelper;
 import buildcraft.lib.registry.TagManager;
 import buildcraft.lib.registry.TagManager.EnumTagType;
 import buildcraft.lib.registry.TagManager.TagEntry;
+import buildcraft.lib.world.BlockChangeListeners;
 
 import buildcraft.core.BCCore;
 
@@ -43,6 +44,7 @@ public class BCFactory {
         NetworkRegistry.INSTANCE.registerGuiHandler(INSTANCE, BCFactoryProxy.getProxy());
 
         MinecraftForge.EVENT_BUS.register(BCFactoryEventDist.INSTANCE);
+        BlockChangeListeners.addListener(BCFactoryEventDist.INSTANCE::onBlockChange);
     }
 
     @Mod.EventHandler
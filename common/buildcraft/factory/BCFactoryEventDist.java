@@ -6,6 +6,16 @@
 
 package buildcraft.factory;
 
+import java.lang.ref.WeakReference;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
 import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.relauncher.Side;
@@ -13,10 +23,44 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 
 import buildcraft.factory.client.render.RenderMiningWell;
 import buildcraft.factory.client.render.RenderPump;
+import buildcraft.factory.tile.TilePump;
 
 public enum BCFactoryEventDist {
     INSTANCE;
 
+    private final Map<World, Deque<WeakReference<TilePump>>> allPumps = new WeakHashMap<>();
+
+    public void validatePump(TilePump pump) {
+        allPumps.computeIfAbsent(pump.getWorld(), k -> new LinkedList<>()).add(new WeakReference<>(pump));
+    }
+
+    public void invalidatePump(TilePump pump) {
+        Deque<WeakReference<TilePump>> pumps = allPumps.get(pump.getWorld());
+        if (pumps == null) {
+            return;
+        }
+        Iterator<WeakReference<TilePump>> iter = pumps.iterator();
+        while (iter.hasNext()) {
+            TilePump existing = iter.next().get();
+            if (existing == null || existing == pump) {
+                iter.remove();
+            }
+        }
+    }
+
+    void onBlockChange(World world, BlockPos pos) {
+        Deque<WeakReference<TilePump>> pumps = allPumps.get(world);
+        if (pumps == null) {
+            return;
+        }
+        for (WeakReference<TilePump> ref : pumps) {
+            TilePump pump = ref.get();
+            if (pump != null) {
+                pump.onBlockChange(pos);
+            }
+        }
+    }
+
     @SubscribeEvent
     @SideOnly(Side.CLIENT)
     public void textureStitchPost(TextureStitchEvent.Post event) {
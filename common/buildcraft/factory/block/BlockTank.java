@@ -8,6 +8,7 @@ package buildcraft.factory.block;
 
 import java.util.List;
 
+import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.properties.IProperty;
 import net.minecraft.block.state.IBlockState;
@@ -89,6 +90,14 @@ public class BlockTank extends BlockBCTile_Neptune implements ICustomPipeConnect
                 );
     }
 
+    @Override
+    public void neighborChanged(IBlockState state, World world, BlockPos pos, Block blockIn, BlockPos fromPos) {
+        TileEntity tile = world.getTileEntity(pos);
+        if (tile instanceof TileTank) {
+            ((TileTank) tile).onNeighbourChange(fromPos);
+        }
+    }
+
     @Override
     public boolean hasComparatorInputOverride(IBlockState state) {
         return true;
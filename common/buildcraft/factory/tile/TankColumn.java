@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.factory.tile;
+
+import java.util.List;
+
+import net.minecraft.util.math.BlockPos;
+
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.capability.FluidTankProperties;
+import net.minecraftforge.fluids.capability.IFluidTankProperties;
+
+import buildcraft.api.core.IFluidFilter;
+
+import buildcraft.lib.fluid.Tank;
+
+/** A single vertical stack of {@link TileTank}'s, shared between every tank in the stack. This caches the tanks (so
+ * fluid operations don't need to look up any tiles) along with the total amount of fluid stored.
+ * <p>
+ * Every fluid change to the tanks must go through this (or happen before this is created) otherwise the cached totals
+ * will be incorrect. */
+final class TankColumn {
+    /** Ordered bottom to top. */
+    private final TileTank[] tiles;
+    private final Tank[] tanks;
+    private final int bottomY;
+    private final int capacity;
+
+    private FluidStack fluid;
+    private int amount;
+    /** Every tank below this index is full. */
+    private int lowestNotFull;
+    /** Every tank above this index is empty. */
+    private int highestNotEmpty;
+    private boolean valid = true;
+
+    TankColumn(List<TileTank> column) {
+        tiles = column.toArray(new TileTank[column.size()]);
+        tanks = new Tank[tiles.length];
+        int cap = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            tanks[i] = tiles[i].tank;
+            cap += tanks[i].getCapacity();
+        }
+        capacity = cap;
+        bottomY = tiles[0].getPos().getY();
+        recalculate();
+    }
+
+    private void recalculate() {
+        fluid = null;
+        amount = 0;
+        lowestNotFull = tanks.length;
+        highestNotEmpty = -1;
+        for (int i = 0; i < tanks.length; i++) {
+            Tank t = tanks[i];
+            if (!t.isFull() && lowestNotFull == tanks.length) {
+                lowestNotFull = i;
+            }
+            if (!t.isEmpty()) {
+                highestNotEmpty = i;
+                amount += t.getFluidAmount();
+                if (fluid == null) {
+                    fluid = new FluidStack(t.getFluid(), 0);
+                }
+            }
+        }
+    }
+
+    boolean isValid() {
+        return valid;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /** @return True if the given position (directly above or below one of the tanks in this column) now disagrees with
+     *         this column about whether it holds one of its tanks. */
+    boolean isStale(BlockPos changed, TileTank actual) {
+        int idx = changed.getY() - bottomY;
+        TileTank expected = idx >= 0 && idx < tiles.length ? tiles[idx] : null;
+        return expected != actual;
+    }
+
+    /** @return A new array with new properties every call, as callers are free to modify the returned stack. */
+    IFluidTankProperties[] getTankProperties() {
+        FluidStack total = fluid == null ? null : new FluidStack(fluid, amount);
+        return new IFluidTankProperties[] { new FluidTankProperties(total, capacity) };
+    }
+
+    int fill(FluidStack resource, boolean doFill) {
+        if (resource == null || resource.amount <= 0) {
+            return 0;
+        }
+        if (fluid != null && !fluid.isFluidEqual(resource)) {
+            return 0;
+        }
+        int filled = 0;
+        for (int i = lowestNotFull; i < tanks.length; i++) {
+            int remaining = resource.amount - filled;
+            FluidStack toFill = remaining == resource.amount ? resource : new FluidStack(resource, remaining);
+            int tankFilled = tanks[i].fill(toFill, doFill);
+            if (tankFilled > 0) {
+                filled += tankFilled;
+                if (doFill) {
+                    highestNotEmpty = Math.max(highestNotEmpty, i);
+                }
+                if (filled >= resource.amount) {
+                    break;
+                }
+            }
+        }
+        if (doFill && filled > 0) {
+            if (fluid == null) {
+                fluid = new FluidStack(resource, 0);
+            }
+            amount += filled;
+            while (lowestNotFull < tanks.length && tanks[lowestNotFull].isFull()) {
+                lowestNotFull++;
+            }
+        }
+        return filled;
+    }
+
+    FluidStack drain(IFluidFilter filter, int maxDrain, boolean doDrain) {
+        if (maxDrain <= 0) {
+            return null;
+        }
+        FluidStack total = null;
+        for (int i = highestNotEmpty; i >= 0; i--) {
+            int realMax = maxDrain - (total == null ? 0 : total.amount);
+            if (realMax <= 0) {
+                break;
+            }
+            FluidStack drained = tanks[i].drain(filter, realMax, doDrain);
+            if (drained == null) continue;
+            if (total == null) {
+                total = drained.copy();
+                total.amount = 0;
+            }
+            total.amount += drained.amount;
+            if (doDrain) {
+                lowestNotFull = Math.min(lowestNotFull, i);
+            }
+        }
+        if (doDrain && total != null) {
+            amount -= total.amount;
+            while (highestNotEmpty >= 0 && tanks[highestNotEmpty].isEmpty()) {
+                highestNotEmpty--;
+            }
+            if (amount <= 0) {
+                amount = 0;
+                fluid = null;
+            }
+        }
+        return total;
+    }
+
+    int size() {
+        return tanks.length;
+    }
+}
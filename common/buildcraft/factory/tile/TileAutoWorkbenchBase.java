@@ -21,6 +21,7 @@ import buildcraft.api.tiles.TilesAPI;
 
 import buildcraft.lib.delta.DeltaInt;
 import buildcraft.lib.delta.DeltaManager;
+import buildcraft.lib.inventory.InventoryCounter;
 import buildcraft.lib.tile.TileBC_Neptune;
 import buildcraft.lib.tile.item.ItemHandlerManager;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
@@ -34,6 +35,7 @@ public abstract class TileAutoWorkbenchBase extends TileBC_Neptune implements IT
     public final ItemHandlerSimple invResult;
     public final ItemHandlerSimple invOverflow;
     private final WorkbenchCrafting crafting;
+    private final InventoryCounter materialCounter = new InventoryCounter();
     private int progress = -1;
     public IRecipe currentRecipe;
     private List<ItemStack> requirements = null;
@@ -102,6 +104,11 @@ public abstract class TileAutoWorkbenchBase extends TileBC_Neptune implements IT
         return crafting;
     }
 
+    @Override
+    public InventoryCounter getMaterialCounter() {
+        return materialCounter;
+    }
+
     @Override
     public IRecipe getCurrentRecipe() {
         return currentRecipe;
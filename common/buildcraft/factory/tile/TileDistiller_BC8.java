@@ -44,6 +44,7 @@ import buildcraft.lib.misc.data.AverageLong;
 import buildcraft.lib.misc.data.ModelVariableData;
 import buildcraft.lib.mj.MjBatteryReciver;
 import buildcraft.lib.net.PacketBufferBC;
+import buildcraft.lib.recipe.RefineryRecipeRegistry;
 import buildcraft.lib.tile.TileBC_Neptune;
 
 import buildcraft.core.BCCoreConfig;
@@ -77,6 +78,10 @@ public class TileDistiller_BC8 extends TileBC_Neptune implements ITickable, IDeb
     public final ModelVariableData clientModelData = new ModelVariableData();
 
     private IDistillationRecipe currentRecipe;
+    /** The fluid that {@link #currentRecipe} was looked up for, and the
+     * {@link RefineryRecipeRegistry#getChangeCount()} at the time. */
+    private FluidStack currentRecipeFluid;
+    private int currentRecipeChanges;
     private long distillPower = 0;
     private boolean isActive = false;
     private final AverageLong powerAvg = new AverageLong(100);
@@ -180,8 +185,7 @@ public class TileDistiller_BC8 extends TileBC_Neptune implements ITickable, IDeb
         powerAvg.tick();
         changedSinceNetUpdate |= avgNow / MjAPI.MJ != powerAvg.getAverageLong() / MjAPI.MJ;
 
-        currentRecipe = BuildcraftRecipeRegistry.refineryRecipes.getDistilationRegistry().getRecipeForInput(tankIn
-            .getFluid());
+        updateRecipe();
         if (currentRecipe == null) {
             mjBattery.addPowerChecking(distillPower, false);
             distillPower = 0;
@@ -227,6 +231,18 @@ public class TileDistiller_BC8 extends TileBC_Neptune implements ITickable, IDeb
         }
     }
 
+    private void updateRecipe() {
+        FluidStack fluid = tankIn.getFluid();
+        int changes = RefineryRecipeRegistry.INSTANCE.getChangeCount();
+        boolean sameFluid = fluid == null ? currentRecipeFluid == null : fluid.isFluidEqual(currentRecipeFluid);
+        if (sameFluid && changes == currentRecipeChanges) {
+            return;
+        }
+        currentRecipe = BuildcraftRecipeRegistry.refineryRecipes.getDistilationRegistry().getRecipeForInput(fluid);
+        currentRecipeFluid = fluid == null ? null : fluid.copy();
+        currentRecipeChanges = changes;
+    }
+
     @Override
     @SideOnly(Side.CLIENT)
     public void getDebugInfo(List<String> left, List<String> right, EnumFacing side) {
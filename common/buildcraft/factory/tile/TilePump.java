@@ -7,21 +7,11 @@
 package buildcraft.factory.tile;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.concurrent.TimeUnit;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.math.IntMath;
 
 import net.minecraft.nbt.NBTTagCompound;
@@ -45,8 +35,21 @@ import buildcraft.lib.mj.MjRedstoneBatteryReceiver;
 import buildcraft.lib.net.PacketBufferBC;
 
 import buildcraft.factory.BCFactoryBlocks;
+import buildcraft.factory.BCFactoryEventDist;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
 
 public class TilePump extends TileMiner {
+    private static final int MAX_DISTANCE = 64;
+    private static final EnumFacing[] SEARCH_DIRECTIONS = {
+            EnumFacing.UP,
+            EnumFacing.NORTH,
+            EnumFacing.SOUTH,
+            EnumFacing.WEST,
+            EnumFacing.EAST
+    };
+
     private final Tank tank = new Tank("tank", 16 * Fluid.BUCKET_VOLUME, this);
     private boolean queueBuilt = false;
     private Queue<BlockPos> queue = new PriorityQueue<>(
@@ -54,7 +57,9 @@ public class TilePump extends TileMiner {
                     IntMath.pow(blockPos.getX() - pos.getX(), 2) + IntMath.pow(blockPos.getZ() - pos.getZ(), 2)
             ).reversed()
     );
-    private Map<BlockPos, List<BlockPos>> paths = new HashMap<>();
+    /** Maps every (packed) fluid position found to the position that it was found from. The first position below the
+     * pump maps to itself. */
+    private final Long2LongOpenHashMap parents = new Long2LongOpenHashMap();
 
     public TilePump() {
         tank.setCanFill(false);
@@ -68,74 +73,115 @@ public class TilePump extends TileMiner {
 
     private void buildQueue() {
         queue.clear();
-        paths.clear();
-        List<BlockPos> nextPosesToCheck = new ArrayList<>();
-        List<List<BlockPos>> nextPaths = new ArrayList<>();
-        List<BlockPos> checkedButFlowingPoses = new ArrayList<>();
-        LoadingCache<BlockPos, Optional<Fluid>> fluidCache = CacheBuilder.newBuilder()
-                .expireAfterAccess(10, TimeUnit.SECONDS)
-                .build(CacheLoader.from(blockPos -> Optional.ofNullable(BlockUtil.getFluidWithFlowing(world, blockPos))));
-        int y = pos.getY() - 1;
-        if (nextPosesToCheck.isEmpty()) {
-            for (; y >= 0; y--) {
-                BlockPos posToCheck = new BlockPos(pos.getX(), y, pos.getZ());
-                if (fluidCache.getUnchecked(posToCheck).isPresent()) {
-                    if (!queue.contains(posToCheck)) {
-                        nextPosesToCheck.add(posToCheck);
-                        nextPaths.add(new ArrayList<>(Collections.singletonList(posToCheck)));
-                        break;
-                    }
-                } else if (!world.isAirBlock(posToCheck) && world.getBlockState(posToCheck).getBlock() != BCFactoryBlocks.tube) {
-                    break;
+        parents.clear();
+        BlockPos start = null;
+        for (int y = pos.getY() - 1; y >= 0; y--) {
+            BlockPos posToCheck = new BlockPos(pos.getX(), y, pos.getZ());
+            if (BlockUtil.getFluidWithFlowing(world, posToCheck) != null) {
+                start = posToCheck;
+                break;
+            } else if (!world.isAirBlock(posToCheck) && world.getBlockState(posToCheck).getBlock() != BCFactoryBlocks.tube) {
+                break;
+            }
+        }
+        if (start == null) {
+            return;
+        }
+        // Every position is only ever visited once, and stores the position it was reached from rather than the
+        // whole path, so this is linear in the number of fluid blocks found.
+        LongArrayFIFOQueue toCheck = new LongArrayFIFOQueue();
+        long startPacked = start.toLong();
+        parents.put(startPacked, startPacked);
+        toCheck.enqueue(startPacked);
+        while (!toCheck.isEmpty()) {
+            long packed = toCheck.dequeueLong();
+            BlockPos posToCheck = BlockPos.fromLong(packed);
+            if (BlockUtil.getFluid(world, posToCheck) != null) {
+                queue.add(posToCheck);
+            }
+            Fluid fluid = BlockUtil.getFluidWithFlowing(world, posToCheck);
+            if (fluid == null) {
+                continue;
+            }
+            for (EnumFacing side : SEARCH_DIRECTIONS) {
+                BlockPos offsetPos = posToCheck.offset(side);
+                if (!isInRange(offsetPos)) {
+                    continue;
+                }
+                long offsetPacked = offsetPos.toLong();
+                if (!parents.containsKey(offsetPacked) && BlockUtil.getFluidWithFlowing(world, offsetPos) == fluid) {
+                    parents.put(offsetPacked, packed);
+                    toCheck.enqueue(offsetPacked);
                 }
             }
-            if (nextPosesToCheck.isEmpty()) {
-                return;
+        }
+    }
+
+    private boolean isInRange(BlockPos blockPos) {
+        int dx = blockPos.getX() - pos.getX();
+        int dz = blockPos.getZ() - pos.getZ();
+        return dx * dx + dz * dz <= MAX_DISTANCE * MAX_DISTANCE;
+    }
+
+    private boolean hasFluid(long packed) {
+        return BlockUtil.getFluidWithFlowing(world, BlockPos.fromLong(packed)) != null;
+    }
+
+    /** @param ignored A packed position that the path is not allowed to contain, or {@link Long#MIN_VALUE} if any
+     *            position is allowed.
+     * @return True if every position on the path from the given position back to the pump contains fluid. */
+    private boolean isPathValid(long packed, long ignored) {
+        // Guard against loops, which can only happen if a repair went wrong
+        for (int i = 0; i <= parents.size(); i++) {
+            if (packed == ignored || !hasFluid(packed)) {
+                return false;
             }
+            long parent = parents.get(packed);
+            if (parent == packed) {
+                return true;
+            }
+            packed = parent;
         }
-        while (!nextPosesToCheck.isEmpty()) {
-            List<BlockPos> nextPosesToCheckCopy = new ArrayList<>(nextPosesToCheck);
-            nextPosesToCheck.clear();
-            List<List<BlockPos>> nextPathsCopy = new ArrayList<>(nextPaths);
-            nextPaths.clear();
-            int i = 0;
-            for (BlockPos posToCheck : nextPosesToCheckCopy) {
-                List<BlockPos> path = nextPathsCopy.get(i);
-                if (!queue.contains(posToCheck)) {
-                    if (BlockUtil.getFluid(world, posToCheck) != null) {
-                        queue.add(posToCheck);
-                        paths.put(posToCheck, path);
-                    } else {
-                        checkedButFlowingPoses.add(posToCheck);
-                    }
-                }
+        return false;
+    }
 
-                for (EnumFacing side : new EnumFacing[] {
-                        EnumFacing.UP,
-                        EnumFacing.NORTH,
-                        EnumFacing.SOUTH,
-                        EnumFacing.WEST,
-                        EnumFacing.EAST
-                }) {
-                    BlockPos offsetPos = posToCheck.offset(side);
-                    if (Math.pow(offsetPos.getX() - pos.getX(), 2) + Math.pow(offsetPos.getZ() - pos.getZ(), 2) > Math.pow(64, 2)) {
-                        continue;
-                    }
-                    if (fluidCache.getUnchecked(posToCheck).isPresent()
-                            && Objects.equals(fluidCache.getUnchecked(offsetPos), fluidCache.getUnchecked(posToCheck))
-                            && !queue.contains(offsetPos)
-                            && !checkedButFlowingPoses.contains(offsetPos)) {
-                        List<BlockPos> currentPath = new ArrayList<>(path);
-                        currentPath.add(offsetPos);
-                        if (!nextPosesToCheck.contains(offsetPos) && !nextPosesToCheckCopy.contains(offsetPos)) {
-                            nextPosesToCheck.add(offsetPos);
-                            nextPaths.add(currentPath);
-                        }
+    /** Attempts to fix the path to the given position after one of the blocks on it has changed (usually by
+     * re-routing around the block through a neighbouring position that still has a valid path), rather than
+     * rebuilding the whole queue.
+     *
+     * @return True if the path is now valid. */
+    private boolean repairPath(BlockPos blockPos) {
+        long child = blockPos.toLong();
+        if (!hasFluid(child)) {
+            return false;
+        }
+        for (int i = 0; i <= parents.size(); i++) {
+            long parent = parents.get(child);
+            if (parent == child) {
+                return true;
+            }
+            if (!hasFluid(parent)) {
+                BlockPos childPos = BlockPos.fromLong(child);
+                for (EnumFacing side : SEARCH_DIRECTIONS) {
+                    // Parents are always below, or next to, their children
+                    long neighbour = childPos.offset(side.getOpposite()).toLong();
+                    if (neighbour != parent && parents.containsKey(neighbour) && isPathValid(neighbour, child)) {
+                        parents.put(child, neighbour);
+                        return true;
                     }
                 }
-
-                i++;
+                return false;
             }
+            child = parent;
+        }
+        return false;
+    }
+
+    /** Called whenever a block changes in the world that this pump is in. */
+    public void onBlockChange(BlockPos changed) {
+        if (queue.isEmpty() && currentPos == null && changed.getY() < pos.getY() && isInRange(changed)) {
+            // Something might have flowed into range since we last looked
+            queueBuilt = false;
         }
     }
 
@@ -152,6 +198,10 @@ public class TilePump extends TileMiner {
                 return;
             }
         }
+        if (currentPos != null) {
+            // We've just run out of positions, but more fluid might have flowed in since the queue was built
+            queueBuilt = false;
+        }
         currentPos = null;
         updateLength();
     }
@@ -163,6 +213,18 @@ public class TilePump extends TileMiner {
         }
     }
 
+    @Override
+    public void validate() {
+        super.validate();
+        BCFactoryEventDist.INSTANCE.validatePump(this);
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        BCFactoryEventDist.INSTANCE.invalidatePump(this);
+    }
+
     @Override
     public void update() {
         if (!queueBuilt && !world.isRemote) {
@@ -184,13 +246,12 @@ public class TilePump extends TileMiner {
                 return;
             }
             long target = 10000000;
-            if (currentPos != null && paths.containsKey(currentPos)) {
+            if (currentPos != null && parents.containsKey(currentPos.toLong())) {
                 progress += battery.extractPower(0, target - progress);
                 if (progress >= target) {
                     FluidStack drain = BlockUtil.drainBlock(world, currentPos, false);
                     if (drain != null &&
-                            paths.get(currentPos).stream()
-                                    .allMatch(blockPos -> BlockUtil.getFluidWithFlowing(world, blockPos) != null) &&
+                            (isPathValid(currentPos.toLong(), Long.MIN_VALUE) || repairPath(currentPos)) &&
                             canDrain(currentPos)) {
                         tank.fillInternal(drain, true);
                         progress = 0;
@@ -210,13 +271,11 @@ public class TilePump extends TileMiner {
                             nextPos();
                         }
                     } else {
-                        buildQueue();
                         nextPos();
                     }
                     prevResult = true;
                 }
             } else {
-                buildQueue();
                 nextPos();
             }
         }
@@ -266,5 +325,6 @@ public class TilePump extends TileMiner {
         super.getDebugInfo(left, right, side);
         left.add("fluid = " + tank.getDebugString());
         left.add("queue size = " + queue.size());
+        left.add("fluid blocks found = " + parents.size());
     }
 }
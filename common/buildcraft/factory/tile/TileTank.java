@@ -8,7 +8,6 @@ package buildcraft.factory.tile;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import net.minecraft.entity.EntityLivingBase;
@@ -20,7 +19,6 @@ import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
 
 import net.minecraftforge.fluids.FluidStack;
-import net.minecraftforge.fluids.capability.FluidTankProperties;
 import net.minecraftforge.fluids.capability.IFluidTankProperties;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
@@ -40,12 +38,16 @@ import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
 
 import buildcraft.core.BCCoreConfig;
+import buildcraft.factory.block.BlockTank;
 
 public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable, IFluidHandlerAdv {
     public static final IdAllocator IDS = TileBC_Neptune.IDS.makeChild("tank");
     public static final int NET_FLUID_DELTA = IDS.allocId("FLUID_DELTA");
 
     public Tank tank = new Tank("tank", 16000, this);
+    /** The column of tanks that this is a part of. Only created when it's first needed, and shared between every
+     * tank in the column. */
+    private TankColumn column;
 
     private int lastSentAmount = -1;
     private boolean lastSentFluid = false;
@@ -113,7 +115,7 @@ public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable,
 
                     int used = moveTo.tank.fill(tankUp.tank.getFluid(), true);
                     if (used > 0) {
-                        tankUp.drain(used, true);
+                        tankUp.tank.drain(used, true);
                     }
 
                     moveTo = tankUp;
@@ -122,6 +124,8 @@ public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable,
                     break;
                 }
             }
+            // The fluid was moved around without going through the column, so its totals are wrong
+            invalidateColumn();
         }
     }
 
@@ -131,6 +135,7 @@ public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable,
     public void readFromNBT(NBTTagCompound nbt) {
         super.readFromNBT(nbt);
         tank.deserializeNBT(nbt.getCompoundTag("tank"));
+        invalidateColumn();
     }
 
     @Override
@@ -160,6 +165,7 @@ public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable,
         if (side == Side.CLIENT) {
             if (id == NET_RENDER_DATA) {
                 tank.readFromBuffer(buffer);
+                invalidateColumn();
                 target = tank.getClientAmount();
                 lastMessageMinus1 = lastMessage = world.getTotalWorldTime();
             } else if (id == NET_FLUID_DELTA) {
@@ -176,6 +182,7 @@ public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable,
     @SideOnly(Side.CLIENT)
     public void getDebugInfo(List<String> left, List<String> right, EnumFacing side) {
         left.add("fluid = " + tank.getDebugString());
+        left.add("column = " + (column == null ? "none" : column.size() + " tanks"));
         if (world.isRemote) {
             left.add("shown = " + amount + ", target = " + target);
             left.add("lastMsg = " + lastMessage + ", lastMsg-1 = " + lastMessageMinus1 + ", diff = " + (lastMessage - lastMessageMinus1));
@@ -208,81 +215,72 @@ public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable,
         return null;
     }
 
-    private List<Tank> getTanks() {
-        List<Tank> tanks = new ArrayList<>();
-        BlockPos currentPos = pos;
-        while (true) {
-            Tank tankUp = getTank(currentPos);
-            if (tankUp != null) {
-                tanks.add(tankUp);
-            } else {
-                break;
+    /** @return The {@link TankColumn} that this tank is a part of, creating it (for every tank in the column) if
+     *         necessary. */
+    private TankColumn getColumn() {
+        if (column == null || !column.isValid()) {
+            BlockPos bottom = pos;
+            while (getTank(bottom.down()) != null) {
+                bottom = bottom.down();
             }
-            currentPos = currentPos.up();
+            List<TileTank> tiles = new ArrayList<>();
+            BlockPos currentPos = bottom;
+            while (true) {
+                TileEntity tile = world.getTileEntity(currentPos);
+                if (tile instanceof TileTank) {
+                    tiles.add((TileTank) tile);
+                } else {
+                    break;
+                }
+                currentPos = currentPos.up();
+            }
+            TankColumn newColumn = new TankColumn(tiles);
+            for (TileTank tile : tiles) {
+                tile.column = newColumn;
+            }
+        }
+        return column;
+    }
+
+    private void invalidateColumn() {
+        if (column != null) {
+            column.invalidate();
+            column = null;
         }
-        currentPos = pos.down();
-        while (true) {
-            Tank tankBelow = getTank(currentPos);
-            if (tankBelow != null) {
-                tanks.add(0, tankBelow);
-            } else {
-                break;
+    }
+
+    /** Called by {@link BlockTank#neighborChanged} whenever a neighbouring block changes. */
+    public void onNeighbourChange(BlockPos fromPos) {
+        if (column != null && fromPos.getX() == pos.getX() && fromPos.getZ() == pos.getZ()) {
+            TileEntity tile = world.getTileEntity(fromPos);
+            if (column.isStale(fromPos, tile instanceof TileTank ? (TileTank) tile : null)) {
+                invalidateColumn();
             }
-            currentPos = currentPos.down();
         }
-        return tanks;
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        invalidateColumn();
+    }
+
+    @Override
+    public void onChunkUnload() {
+        super.onChunkUnload();
+        invalidateColumn();
     }
 
     // IFluidHandler
 
     @Override
     public IFluidTankProperties[] getTankProperties() {
-        List<Tank> tanks = getTanks();
-        Tank bottom = tanks.get(0);
-        FluidStack total = bottom.getFluid();
-        int capacity = 0;
-        if (total == null) {
-            for (Tank t : tanks) {
-                capacity += t.getCapacity();
-            }
-        } else {
-            total = total.copy();
-            total.amount = 0;
-            for (Tank t : tanks) {
-                FluidStack other = t.getFluid();
-                if (other != null) {
-                    total.amount += other.amount;
-                }
-                capacity += t.getCapacity();
-            }
-        }
-        return new IFluidTankProperties[] { new FluidTankProperties(total, capacity) };
+        return getColumn().getTankProperties();
     }
 
     @Override
     public int fill(FluidStack resource, boolean doFill) {
-        if (resource == null || resource.amount <= 0) {
-            return 0;
-        }
-        int filled = 0;
-        List<Tank> tanks = getTanks();
-        for (Tank t : tanks) {
-            FluidStack current = t.getFluid();
-            if (current != null && !current.isFluidEqual(resource)) {
-                return 0;
-            }
-        }
-        for (Tank t : tanks) {
-            int tankFilled = t.fill(resource, doFill);
-            if (tankFilled > 0) {
-                resource.amount -= tankFilled;
-                filled += tankFilled;
-                if (resource.amount == 0) {
-                    break;
-                }
-            }
-        }
-        return filled;
+        return getColumn().fill(resource, doFill);
     }
 
     @Override
@@ -302,26 +300,7 @@ public class TileTank extends TileBC_Neptune implements ITickable, IDebuggable,
 
     @Override
     public FluidStack drain(IFluidFilter filter, int maxDrain, boolean doDrain) {
-        if (maxDrain <= 0) {
-            return null;
-        }
-        List<Tank> tanks = getTanks();
-        // The returned list is ordered bottom -> top, but we want top -> bottom
-        Collections.reverse(tanks);
-        FluidStack total = null;
-        for (Tank t : tanks) {
-            int realMax = maxDrain - (total == null ? 0 : total.amount);
-            if (realMax <= 0) {
-                break;
-            }
-            FluidStack drained = t.drain(filter, realMax, doDrain);
-            if (drained == null) continue;
-            if (total == null) {
-                total = drained.copy();
-                total.amount = 0;
-            }
-            total.amount += drained.amount;
-        }
-        return total;
+        return getColumn().drain(filter, maxDrain, doDrain);
     }
+
 }
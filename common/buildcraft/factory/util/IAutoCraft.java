@@ -13,7 +13,7 @@ import net.minecraft.item.crafting.IRecipe;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
-import buildcraft.lib.misc.CraftingUtil;
+import buildcraft.lib.inventory.InventoryCounter;
 import buildcraft.lib.misc.InventoryUtil;
 import buildcraft.lib.misc.StackUtil;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
@@ -28,19 +28,20 @@ public interface IAutoCraft {
 
     WorkbenchCrafting getWorkbenchCrafting();
 
+    /** @return The counts of every item in {@link #getInvMaterials()}. */
+    InventoryCounter getMaterialCounter();
+
     IRecipe getCurrentRecipe();
 
     void setCurrentRecipe(IRecipe recipe);
 
+    /** Finds the recipe for the blueprint, if it has changed since the last call. */
     default void updateRecipe() {
-        ItemStack old = getOutput();
-        IRecipe newRecipe = CraftingUtil.findMatchingRecipe(getWorkbenchCrafting(), getWorldForAutoCrafting());
-        setCurrentRecipe(newRecipe);
-        if (newRecipe == null || StackUtil.canMerge(old, getOutput())) {
-            setRequirements(null);
-        }
-        if (getRequirements() == null && getCurrentRecipe() != null) {
-            setRequirements(StackUtil.mergeSameItems(getInvBlueprint().stacks));
+        WorkbenchCrafting crafting = getWorkbenchCrafting();
+        if (crafting.updateRecipe(getWorldForAutoCrafting())) {
+            IRecipe recipe = crafting.getRecipe();
+            setCurrentRecipe(recipe);
+            setRequirements(recipe == null ? null : crafting.getRequirements());
         }
     }
 
@@ -85,7 +86,9 @@ public interface IAutoCraft {
     }
 
     default boolean hasMaterials() {
-        return getCurrentRecipe() != null && getCurrentRecipe().matches(getWorkbenchCrafting(), getWorldForAutoCrafting()) && StackUtil.containsAll(getRequirements(), StackUtil.mergeSameItems(getInvMaterials().stacks));
+        InventoryCounter materials = getMaterialCounter();
+        materials.update(getInvMaterials().stacks);
+        return getCurrentRecipe() != null && materials.containsAll(getRequirements());
     }
 
     default boolean canWork() {
@@ -93,6 +96,6 @@ public interface IAutoCraft {
     }
 
     default ItemStack getOutput() {
-        return getCurrentRecipe() == null ? ItemStack.EMPTY : getCurrentRecipe().getCraftingResult(getWorkbenchCrafting());
+        return getCurrentRecipe() == null ? ItemStack.EMPTY : getWorkbenchCrafting().getOutput();
     }
 }
@@ -6,13 +6,23 @@
 
 package buildcraft.factory.util;
 
+import java.util.List;
+
 import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
 
+import buildcraft.lib.inventory.InventoryCounter;
+import buildcraft.lib.misc.CraftingUtil;
+import buildcraft.lib.misc.StackUtil;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
 
 public class WorkbenchCrafting extends InventoryCrafting {
     private final ItemHandlerSimple invBlueprint;
+    private final InventoryCounter blueprintCounter = new InventoryCounter();
+    private IRecipe recipe;
+    private ItemStack output = StackUtil.EMPTY;
 
     public WorkbenchCrafting(int width, int height, ItemHandlerSimple invBlueprint) {
         super(null, width, height);
@@ -23,4 +33,30 @@ public class WorkbenchCrafting extends InventoryCrafting {
     public ItemStack getStackInSlot(int index) {
         return invBlueprint.getStackInSlot(index);
     }
+
+    /** Finds the recipe again, but only if the blueprint has changed since the last call.
+     *
+     * @return True if the blueprint changed. */
+    public boolean updateRecipe(World world) {
+        if (!blueprintCounter.update(invBlueprint.stacks)) {
+            return false;
+        }
+        recipe = CraftingUtil.findMatchingRecipe(this, world);
+        output = recipe == null ? StackUtil.EMPTY : recipe.getCraftingResult(this);
+        return true;
+    }
+
+    public IRecipe getRecipe() {
+        return recipe;
+    }
+
+    /** @return The result of the current recipe. This must not be modified. */
+    public ItemStack getOutput() {
+        return output;
+    }
+
+    /** @return Every different item in the blueprint, with the total count of each one. */
+    public List<ItemStack> getRequirements() {
+        return blueprintCounter.getTotals();
+    }
 }
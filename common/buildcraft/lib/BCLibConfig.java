@@ -56,6 +56,11 @@ public class BCLibConfig {
     /** If true then ItemRenderUtil.renderItemStack will use the facing parameter to rotate the item */
     public static RenderRotation rotateTravelingItems = RenderRotation.ENABLED;
 
+    /** Items that are rendered further away than this many blocks (by things that support it, like pipes) are drawn as
+     * a simple cube with the item's particle texture rather than with the full item model. 0 means that the full
+     * model is always used. */
+    public static int itemRenderDetailDistance = 32;
+
     public static ChunkLoaderType chunkLoadingType = ChunkLoaderType.AUTO;
 
     public static ChunkLoaderLevel chunkLoadingLevel = ChunkLoaderLevel.SELF_TILES;
@@ -30,6 +30,7 @@ import net.minecraftforge.fml.common.gameevent.TickEvent.ServerTickEvent;
 import net.minecraftforge.fml.common.network.FMLNetworkEvent.ClientConnectedToServerEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
+import net.minecraftforge.oredict.OreDictionary.OreRegisterEvent;
 
 import buildcraft.lib.client.model.ModelHolderRegistry;
 import buildcraft.lib.client.reload.ReloadManager;
@@ -39,10 +40,12 @@ import buildcraft.lib.client.render.laser.LaserRenderer_BC8;
 import buildcraft.lib.client.sprite.SpriteHolderRegistry;
 import buildcraft.lib.debug.BCAdvDebugging;
 import buildcraft.lib.marker.MarkerCache;
+import buildcraft.lib.misc.CraftingUtil;
 import buildcraft.lib.misc.FakePlayerUtil;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.data.ModelVariableData;
 import buildcraft.lib.net.cache.BuildCraftObjectCaches;
+import buildcraft.lib.world.BlockChangeListeners;
 
 public enum BCLibEventDist {
     INSTANCE;
@@ -57,14 +60,26 @@ public enum BCLibEventDist {
         }
     }
 
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        BlockChangeListeners.onWorldLoad(event.getWorld());
+    }
+
     @SubscribeEvent
     public void onWorldUnload(WorldEvent.Unload event) {
         MarkerCache.onWorldUnload(event.getWorld());
+        BlockChangeListeners.onWorldUnload(event.getWorld());
         if (event.getWorld() instanceof WorldServer) {
             FakePlayerUtil.INSTANCE.unloadWorld((WorldServer) event.getWorld());
         }
     }
 
+    @SubscribeEvent
+    public void onOreRegister(OreRegisterEvent event) {
+        // The recipe index only reads the ore dictionary when it is built
+        CraftingUtil.invalidateRecipeIndex();
+    }
+
     @SubscribeEvent
     @SideOnly(Side.CLIENT)
     public void onConnectToServer(ClientConnectedToServerEvent event) {
@@ -8,7 +8,11 @@ package buildcraft.lib.client.model;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -29,6 +33,11 @@ import buildcraft.lib.client.reload.ReloadManager;
 import buildcraft.lib.client.reload.ReloadSource;
 import buildcraft.lib.client.reload.SourceType;
 import buildcraft.lib.expression.FunctionContext;
+import buildcraft.lib.expression.api.IExpressionNode;
+import buildcraft.lib.expression.api.IExpressionNode.INodeBoolean;
+import buildcraft.lib.expression.api.IExpressionNode.INodeDouble;
+import buildcraft.lib.expression.api.IExpressionNode.INodeLong;
+import buildcraft.lib.expression.api.IExpressionNode.INodeString;
 import buildcraft.lib.expression.node.value.ITickableNode;
 import buildcraft.lib.misc.SpriteUtil;
 
@@ -39,10 +48,15 @@ import buildcraft.transport.BCTransportModels;
  * that you define all models inside of static initialiser block. For a complete usage example look in
  * {@link BCTransportModels}. <br>
  * The json model definition of a variable model matches the vanilla format, except that any of the static numbers may
- * be replaced with an expression, that may use any of the variables you have defined. */
+ * be replaced with an expression, that may use any of the variables you have defined. <br>
+ * The quads are cached by the values of the variables that the model uses, so the arrays returned by
+ * {@link #getCutoutQuads()} and {@link #getTranslucentQuads()} are shared and must not be modified. */
 public class ModelHolderVariable extends ModelHolder {
+    private static final int MAX_CACHED = 64;
+
     private final FunctionContext context;
     private JsonVariableModel rawModel;
+    private BakedModel bakedModel;
     private boolean unseen = true;
 
     public ModelHolderVariable(String modelLocation, FunctionContext context) {
@@ -58,6 +72,7 @@ public class ModelHolderVariable extends ModelHolder {
     @Override
     protected void onTextureStitchPre(Set<ResourceLocation> toRegisterSprites) {
         rawModel = null;
+        bakedModel = null;
         failReason = null;
 
         try {
@@ -97,20 +112,18 @@ public class ModelHolderVariable extends ModelHolder {
 
     @Override
     protected void onModelBake() {
-        // NO-OP: we bake every time get{Cutout/Translucent}Quads is called as this is a variable model
+        // The sprites have changed, so none of the cached quads are valid any more
+        bakedModel = null;
     }
 
-    private MutableQuad[] bakePart(JsonVariableModelPart[] a) {
-        List<MutableQuad> list = new ArrayList<>();
-        for (JsonVariableModelPart part : a) {
-            part.addQuads(list, this::lookupTexture);
-        }
-        for (JsonModelRule rule : rawModel.rules) {
-            if (rule.when.evaluate()) {
-                rule.apply(list);
-            }
+    private BakedModel getBakedModel() {
+        // Read once, as chunk builder threads can call this while the model is being reloaded
+        BakedModel baked = bakedModel;
+        if (baked == null) {
+            baked = new BakedModel(rawModel);
+            bakedModel = baked;
         }
-        return list.toArray(new MutableQuad[list.size()]);
+        return baked;
     }
 
     private TexturedFace lookupTexture(String lookup) {
@@ -155,7 +168,7 @@ public class ModelHolderVariable extends ModelHolder {
             printNoModelWarning();
             return MutableQuad.EMPTY_ARRAY;
         }
-        return bakePart(rawModel.cutoutElements);
+        return getBakedModel().getQuads(0);
     }
 
     public MutableQuad[] getTranslucentQuads() {
@@ -163,6 +176,160 @@ public class ModelHolderVariable extends ModelHolder {
             printNoModelWarning();
             return MutableQuad.EMPTY_ARRAY;
         }
-        return bakePart(rawModel.translucentElements);
+        return getBakedModel().getQuads(1);
+    }
+
+    /** The elements of {@link #rawModel} that never change baked once, and the quads for the most recently used
+     * inputs. Models can be used from chunk builder threads as well as the client thread, so the cache is only ever
+     * used while holding this object's lock. */
+    private final class BakedModel {
+        final JsonModelRule[] rules;
+        /** True if every rule is static, in which case the static quads already have the rules applied. */
+        final boolean staticRules;
+        final Layer[] layers;
+        final IExpressionNode[] inputs;
+        final double[] tolerances;
+        /** False if any double input has no tolerance. Such an input (usually an animation) is different almost every
+         * frame, so caching the quads for it would only waste time and memory. */
+        final boolean cacheable;
+        final Map<InputKey, MutableQuad[][]> cache = new LinkedHashMap<InputKey, MutableQuad[][]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<InputKey, MutableQuad[][]> eldest) {
+                return size() > MAX_CACHED;
+            }
+        };
+
+        BakedModel(JsonVariableModel model) {
+            rules = model.rules;
+            boolean allStatic = true;
+            for (JsonModelRule rule : rules) {
+                allStatic &= rule.isStatic();
+            }
+            staticRules = allStatic;
+            layers = new Layer[] { new Layer(model.cutoutElements), new Layer(model.translucentElements) };
+            inputs = model.inputs;
+            tolerances = model.inputTolerances;
+            boolean canCache = true;
+            for (int i = 0; i < inputs.length; i++) {
+                canCache &= !(inputs[i] instanceof INodeDouble) || tolerances[i] > 0;
+            }
+            cacheable = canCache;
+        }
+
+        synchronized MutableQuad[] getQuads(int layer) {
+            if (!cacheable) {
+                return layers[layer].bake();
+            }
+            InputKey key = new InputKey(inputs.length);
+            key.read(inputs, tolerances);
+            MutableQuad[][] quads = cache.get(key);
+            if (quads == null) {
+                quads = new MutableQuad[layers.length][];
+                cache.put(key, quads);
+            }
+            if (quads[layer] == null) {
+                quads[layer] = layers[layer].bake();
+            }
+            return quads[layer];
+        }
+
+        void applyRules(List<MutableQuad> quads) {
+            for (JsonModelRule rule : rules) {
+                if (rule.when.evaluate()) {
+                    rule.apply(quads);
+                }
+            }
+        }
+
+        /** Either the cutout or the translucent elements. */
+        final class Layer {
+            final JsonVariableModelPart[] parts;
+            /** The quads of each static part, or null for the parts that need to be baked every time. */
+            final MutableQuad[][] staticQuads;
+
+            Layer(JsonVariableModelPart[] parts) {
+                this.parts = parts;
+                staticQuads = new MutableQuad[parts.length][];
+                for (int i = 0; i < parts.length; i++) {
+                    if (parts[i].isStatic()) {
+                        List<MutableQuad> list = new ArrayList<>();
+                        parts[i].addQuads(list, ModelHolderVariable.this::lookupTexture);
+                        if (staticRules) {
+                            applyRules(list);
+                        }
+                        staticQuads[i] = list.toArray(new MutableQuad[list.size()]);
+                    }
+                }
+            }
+
+            MutableQuad[] bake() {
+                List<MutableQuad> list = new ArrayList<>();
+                for (int i = 0; i < parts.length; i++) {
+                    MutableQuad[] quads = staticQuads[i];
+                    if (quads == null) {
+                        int start = list.size();
+                        parts[i].addQuads(list, ModelHolderVariable.this::lookupTexture);
+                        if (staticRules) {
+                            applyRules(list.subList(start, list.size()));
+                        }
+                    } else if (staticRules) {
+                        Collections.addAll(list, quads);
+                    } else {
+                        // The rules change the quads, so they have to be copied first
+                        for (MutableQuad q : quads) {
+                            list.add(new MutableQuad(q));
+                        }
+                    }
+                }
+                if (!staticRules) {
+                    applyRules(list);
+                }
+                return list.toArray(new MutableQuad[list.size()]);
+            }
+        }
+    }
+
+    /** The current values of a model's inputs, rounded to their tolerances. */
+    private static final class InputKey {
+        final long[] values;
+        final String[] strings;
+        int hash;
+
+        InputKey(int count) {
+            values = new long[count];
+            strings = new String[count];
+        }
+
+        void read(IExpressionNode[] inputs, double[] tolerances) {
+            for (int i = 0; i < inputs.length; i++) {
+                IExpressionNode node = inputs[i];
+                double tolerance = tolerances[i];
+                if (node instanceof INodeDouble) {
+                    double value = ((INodeDouble) node).evaluate();
+                    values[i] = tolerance > 0 ? Math.round(value / tolerance) : Double.doubleToLongBits(value);
+                } else if (node instanceof INodeLong) {
+                    long value = ((INodeLong) node).evaluate();
+                    values[i] = tolerance > 0 ? Math.round(value / tolerance) : value;
+                } else if (node instanceof INodeBoolean) {
+                    values[i] = ((INodeBoolean) node).evaluate() ? 1 : 0;
+                } else if (node instanceof INodeString) {
+                    strings[i] = ((INodeString) node).evaluate();
+                }
+            }
+            hash = Arrays.hashCode(values) * 31 + Arrays.hashCode(strings);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof InputKey)) return false;
+            InputKey other = (InputKey) obj;
+            return hash == other.hash && Arrays.equals(values, other.values) && Arrays.equals(strings, other.strings);
+        }
     }
 }
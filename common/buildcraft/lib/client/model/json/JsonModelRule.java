@@ -37,6 +37,10 @@ public abstract class JsonModelRule {
         this.when = when;
     }
 
+    /** @return True if this rule will always make the same changes, as none of its expressions depend on any
+     *         variables. */
+    public abstract boolean isStatic();
+
     public static JsonModelRule deserialize(JsonElement json, FunctionContext fnCtx, ResourceLoaderContext ctx) {
         if (!json.isJsonObject()) {
             throw new JsonSyntaxException("Expected an object, got " + json);
@@ -89,6 +93,11 @@ public abstract class JsonModelRule {
             this.origin = origin;
         }
 
+        @Override
+        public boolean isStatic() {
+            return JsonVariableModelPart.isConstant(when, from, to) && JsonVariableModelPart.isConstant(origin);
+        }
+
         @Override
         public void apply(List<MutableQuad> quads) {
             EnumFacing faceFrom = evaluateFace(from);
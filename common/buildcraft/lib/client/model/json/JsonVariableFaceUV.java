@@ -42,6 +42,11 @@ public class JsonVariableFaceUV {
         }
     }
 
+    public boolean isStatic() {
+        return JsonVariableModelPart.isConstant(uv) && JsonVariableModelPart.isConstant(textureRotation, visible,
+            texture);
+    }
+
     private static INodeString readVariableString(JsonObject json, String memeber, FunctionContext fnCtx) {
         if (!json.has(memeber)) {
             throw new JsonSyntaxException("Required member " + memeber + " in '" + json + "'");
@@ -11,11 +11,13 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
@@ -31,6 +33,7 @@ import buildcraft.lib.client.model.ModelUtil;
 import buildcraft.lib.client.model.ResourceLoaderContext;
 import buildcraft.lib.expression.FunctionContext;
 import buildcraft.lib.expression.InternalCompiler;
+import buildcraft.lib.expression.api.IConstantNode;
 import buildcraft.lib.expression.api.IExpressionNode;
 import buildcraft.lib.expression.api.InvalidExpressionException;
 import buildcraft.lib.expression.api.NodeType;
@@ -49,6 +52,14 @@ public class JsonVariableModel {
     public final JsonModelRule[] rules;
     private final ITickableNode.Source[] variablesArray;
     public final JsonVariableModelPart[] cutoutElements, translucentElements;
+    /** Every non-constant node that the elements and rules read, so the quads only need to be baked again when one of
+     * these changes. */
+    public final IExpressionNode[] inputs;
+    /** How much each of the {@link #inputs} can change by before the quads need to be baked again, or 0 if any
+     * change matters. Declared in the "tolerances" object, as a map of variable name to tolerance. The quads of a model
+     * with a double input that has no tolerance are never cached. */
+    public final double[] inputTolerances;
+    private final Map<IExpressionNode, Double> tolerances;
 
     public static JsonVariableModel deserialize(ResourceLocation from, FunctionContext fnCtx) throws JsonParseException, IOException {
         return deserialize(from, fnCtx, new ResourceLoaderContext());
@@ -89,6 +100,8 @@ public class JsonVariableModel {
         List<JsonVariableModelPart> cutout = new ArrayList<>();
         List<JsonVariableModelPart> translucent = new ArrayList<>();
         List<JsonModelRule> rulesP = new ArrayList<>();
+        Set<IExpressionNode> inputSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        tolerances = new IdentityHashMap<>();
 
         if (obj.has("values")) {
             fnCtx = new FunctionContext(fnCtx);
@@ -110,6 +123,8 @@ public class JsonVariableModel {
                 textures.putAll(parent.textures);
             }
             variables.putAll(parent.variables);
+            Collections.addAll(inputSet, parent.inputs);
+            tolerances.putAll(parent.tolerances);
             if (!JsonUtils.getBoolean(obj, "cutout_replace", false)) {
                 Collections.addAll(cutout, parent.cutoutElements);
             }
@@ -128,6 +143,10 @@ public class JsonVariableModel {
             putVariables(JsonUtils.getJsonObject(obj, "variables"), fnCtx);
         }
         variablesArray = variables.values().toArray(new ITickableNode.Source[0]);
+        if (obj.has("tolerances")) {
+            putTolerances(JsonUtils.getJsonObject(obj, "tolerances"), fnCtx);
+        }
+        fnCtx = new InputRecorder(fnCtx, inputSet);
 
         boolean require = cutout.isEmpty() && translucent.isEmpty();
         if (obj.has("elements")) {
@@ -148,6 +167,26 @@ public class JsonVariableModel {
             }
         }
         rules = rulesP.toArray(new JsonModelRule[rulesP.size()]);
+        inputs = inputSet.toArray(new IExpressionNode[inputSet.size()]);
+        inputTolerances = new double[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputTolerances[i] = tolerances.getOrDefault(inputs[i], 0.0);
+        }
+    }
+
+    private void putTolerances(JsonObject values, FunctionContext fnCtx) {
+        for (Entry<String, JsonElement> entry : values.entrySet()) {
+            String name = entry.getKey();
+            IExpressionNode node = fnCtx.getVariable(name);
+            if (node == null) {
+                throw new JsonSyntaxException("Unknown variable '" + name + "' for a tolerance");
+            }
+            double tolerance = JsonUtils.getFloat(entry.getValue(), name);
+            if (tolerance < 0) {
+                throw new JsonSyntaxException("Expected a positive tolerance for '" + name + "', got " + tolerance);
+            }
+            tolerances.put(node, tolerance);
+        }
     }
 
     private void deserializeTextures(JsonElement elem) {
@@ -276,6 +315,25 @@ public class JsonVariableModel {
         return nodes;
     }
 
+    /** Records every non-constant variable that is looked up through it. */
+    private static class InputRecorder extends FunctionContext {
+        private final Set<IExpressionNode> inputs;
+
+        InputRecorder(FunctionContext parent, Set<IExpressionNode> inputs) {
+            super(parent);
+            this.inputs = inputs;
+        }
+
+        @Override
+        public IExpressionNode getVariable(String name) {
+            IExpressionNode node = super.getVariable(name);
+            if (node != null && !(node instanceof IConstantNode)) {
+                inputs.add(node);
+            }
+            return node;
+        }
+    }
+
     public interface ITextureGetter {
         ModelUtil.TexturedFace get(String location);
     }
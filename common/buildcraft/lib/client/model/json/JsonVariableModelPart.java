@@ -19,6 +19,8 @@ import buildcraft.lib.client.model.ResourceLoaderContext;
 import buildcraft.lib.client.model.json.JsonVariableModel.ITextureGetter;
 import buildcraft.lib.expression.FunctionContext;
 import buildcraft.lib.expression.GenericExpressionCompiler;
+import buildcraft.lib.expression.api.IConstantNode;
+import buildcraft.lib.expression.api.IExpressionNode;
 import buildcraft.lib.expression.api.IExpressionNode.INodeBoolean;
 import buildcraft.lib.expression.api.IExpressionNode.INodeDouble;
 import buildcraft.lib.expression.api.IExpressionNode.INodeLong;
@@ -31,6 +33,19 @@ public abstract class JsonVariableModelPart {
 
     public abstract void addQuads(List<MutableQuad> to, ITextureGetter spriteLookup);
 
+    /** @return True if {@link #addQuads(List, ITextureGetter)} will always add the same quads, as none of the
+     *         expressions in this part depend on any variables. */
+    public abstract boolean isStatic();
+
+    public static boolean isConstant(IExpressionNode... nodes) {
+        for (IExpressionNode node : nodes) {
+            if (!(node instanceof IConstantNode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static JsonVariableModelPart deserialiseModelPart(JsonElement json, FunctionContext fnCtx, ResourceLoaderContext ctx) {
         if (!json.isJsonObject()) {
             throw new JsonSyntaxException("Expected an object, got " + json);
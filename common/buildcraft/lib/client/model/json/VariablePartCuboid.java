@@ -46,6 +46,19 @@ public class VariablePartCuboid extends VariablePartCuboidBase {
         }
     }
 
+    @Override
+    public boolean isStatic() {
+        if (!super.isStatic()) {
+            return false;
+        }
+        for (JsonVariableFaceUV face : faces.values()) {
+            if (!face.isStatic()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     protected VariableFaceData getFaceData(EnumFacing side, ITextureGetter spriteLookup) {
         JsonVariableFaceUV var = faces.get(side);
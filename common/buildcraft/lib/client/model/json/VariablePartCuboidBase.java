@@ -44,6 +44,11 @@ public abstract class VariablePartCuboidBase extends JsonVariableModelPart {
         colour = obj.has("colour") ? readVariableLong(obj, "colour", fnCtx) : new NodeConstantLong(-1);
     }
 
+    @Override
+    public boolean isStatic() {
+        return isConstant(from) && isConstant(to) && isConstant(visible, shade, light, colour);
+    }
+
     @Override
     public void addQuads(List<MutableQuad> addTo, ITextureGetter spriteLookup) {
         if (visible.evaluate()) {
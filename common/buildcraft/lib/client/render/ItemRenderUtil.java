@@ -6,8 +6,14 @@
 
 package buildcraft.lib.client.render;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
+import javax.vecmath.Point3f;
+import javax.vecmath.Tuple3f;
 import javax.vecmath.Vector3f;
 
 import com.google.common.cache.CacheBuilder;
@@ -26,6 +32,7 @@ import net.minecraft.client.renderer.VertexBuffer;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.entity.RenderEntityItem;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.client.renderer.texture.TextureUtil;
 import net.minecraft.entity.item.EntityItem;
@@ -36,6 +43,8 @@ import net.minecraft.util.EnumFacing;
 import buildcraft.api.core.EnumPipePart;
 
 import buildcraft.lib.BCLibConfig;
+import buildcraft.lib.client.model.ModelUtil;
+import buildcraft.lib.client.model.ModelUtil.UvFaceData;
 import buildcraft.lib.client.model.MutableQuad;
 import buildcraft.lib.misc.ItemStackKey;
 
@@ -102,6 +111,27 @@ public class ItemRenderUtil {
 
     private static boolean inBatch = false;
 
+    /** The model and transformed quads of every stack that has been rendered, so that only the light needs to change
+     * each frame. Callers (like pipes, which get their stacks from the client item cache) render the same stack
+     * instances every frame, and {@link ItemStack} doesn't override {@link Object#equals(Object)}, so this is keyed
+     * by identity and entries go away when the stack does. */
+    private static final Map<ItemStack, CachedItem> cachedItems = new WeakHashMap<>();
+    private static final MutableQuad renderQuad = new MutableQuad();
+
+    /** Clears the cached quads of every item. This should be called whenever models are baked. */
+    public static void clearItemCache() {
+        cachedItems.clear();
+    }
+
+    private static CachedItem getCachedItem(ItemStack stack) {
+        CachedItem cached = cachedItems.get(stack);
+        if (cached == null || cached.anaglyph != EntityRenderer.anaglyphEnable) {
+            cached = new CachedItem(stack);
+            cachedItems.put(stack, cached);
+        }
+        return cached;
+    }
+
     /** Used to render a lot of items in sequential order. Assumes that you don't change the glstate inbetween calls.
      * You must call {@link #endItemBatch()} after your have rendered all of the items. */
     public static void renderItemStack(double x, double y, double z, ItemStack stack, int lightc, EnumFacing dir, VertexBuffer vb) {
@@ -113,37 +143,10 @@ public class ItemRenderUtil {
         }
         dir = BCLibConfig.rotateTravelingItems.changeFacing(dir);
 
-        IBakedModel model = Minecraft.getMinecraft().getRenderItem().getItemModelMesher().getItemModel(stack);
-        model = model.getOverrides().handleItemState(model, stack, null, null);
-        boolean requireGl = stack.hasEffect() || model.isBuiltInRenderer();
-
-        if (vb != null && !requireGl) {
-            vb.setTranslation(x, y, z);
-            float scale = 0.30f;
-
-            MutableQuad q = new MutableQuad(-1, null);
-            for (EnumPipePart part : EnumPipePart.VALUES) {
-                for (BakedQuad quad : model.getQuads(null, part.face, 0)) {
-                    q.fromBakedItem(quad);
-                    q.translated(-0.5, -0.5, -0.5);
-                    q.scaled(scale);
-                    q.rotate(EnumFacing.SOUTH, dir, 0, 0, 0);
-                    if (quad.hasTintIndex()) {
-                        int colour = Minecraft.getMinecraft().getItemColors().getColorFromItemstack(stack, quad.getTintIndex());
-                        if (EntityRenderer.anaglyphEnable) {
-                            colour = TextureUtil.anaglyphColor(colour);
-                        }
-                        q.multColouri(colour, colour >> 8, colour >> 16, 0xFF);
-                    }
-                    q.lighti(lightc);
-                    Vector3f normal = q.getCalculatedNormal();
-                    q.normalvf(normal);
-                    q.multShade();
-                    q.render(vb);
-                }
-            }
+        CachedItem cached = getCachedItem(stack);
 
-            vb.setTranslation(0, 0, 0);
+        if (vb != null && !cached.requireGl) {
+            renderQuads(x, y, z, cached.getQuads(stack, dir), lightc, vb);
             return;
         }
 
@@ -156,7 +159,26 @@ public class ItemRenderUtil {
             RenderHelper.disableStandardItemLighting();
         }
         OpenGlHelper.setLightmapTextureCoords(OpenGlHelper.lightmapTexUnit, lightc % (float) 0x1_00_00, lightc / (float) 0x1_00_00);
-        Minecraft.getMinecraft().getRenderItem().renderItem(stack, model);
+        Minecraft.getMinecraft().getRenderItem().renderItem(stack, cached.model);
+    }
+
+    /** Renders a cube with the particle texture of the stack's model, rather than the full model. This is meant for
+     * items that are too far away to see properly, and is always rendered into the given {@link VertexBuffer}. */
+    public static void renderItemStackSimple(double x, double y, double z, ItemStack stack, int lightc, VertexBuffer vb) {
+        if (stack.isEmpty()) {
+            return;
+        }
+        renderQuads(x, y, z, getCachedItem(stack).getSimpleQuads(), lightc, vb);
+    }
+
+    private static void renderQuads(double x, double y, double z, MutableQuad[] quads, int lightc, VertexBuffer vb) {
+        vb.setTranslation(x, y, z);
+        for (MutableQuad q : quads) {
+            renderQuad.copyFrom(q);
+            renderQuad.lighti(lightc);
+            renderQuad.render(vb);
+        }
+        vb.setTranslation(0, 0, 0);
     }
 
     public static void endItemBatch() {
@@ -165,4 +187,70 @@ public class ItemRenderUtil {
             GL11.glPopMatrix();
         }
     }
+
+    private static final class CachedItem {
+        final IBakedModel model;
+        final boolean requireGl;
+        final boolean anaglyph = EntityRenderer.anaglyphEnable;
+        /** The quads for each (already rotated) direction, created when they are first needed. */
+        final MutableQuad[][] quads = new MutableQuad[6][];
+        MutableQuad[] simpleQuads;
+
+        CachedItem(ItemStack stack) {
+            IBakedModel baseModel = Minecraft.getMinecraft().getRenderItem().getItemModelMesher().getItemModel(stack);
+            model = baseModel.getOverrides().handleItemState(baseModel, stack, null, null);
+            requireGl = stack.hasEffect() || model.isBuiltInRenderer();
+        }
+
+        MutableQuad[] getQuads(ItemStack stack, EnumFacing dir) {
+            MutableQuad[] array = quads[dir.ordinal()];
+            if (array == null) {
+                float scale = 0.30f;
+                List<MutableQuad> list = new ArrayList<>();
+                for (EnumPipePart part : EnumPipePart.VALUES) {
+                    for (BakedQuad quad : model.getQuads(null, part.face, 0)) {
+                        MutableQuad q = new MutableQuad(-1, null);
+                        q.fromBakedItem(quad);
+                        q.translated(-0.5, -0.5, -0.5);
+                        q.scaled(scale);
+                        q.rotate(EnumFacing.SOUTH, dir, 0, 0, 0);
+                        if (quad.hasTintIndex()) {
+                            int colour = Minecraft.getMinecraft().getItemColors().getColorFromItemstack(stack, quad.getTintIndex());
+                            if (anaglyph) {
+                                colour = TextureUtil.anaglyphColor(colour);
+                            }
+                            q.multColouri(colour, colour >> 8, colour >> 16, 0xFF);
+                        }
+                        Vector3f normal = q.getCalculatedNormal();
+                        q.normalvf(normal);
+                        q.multShade();
+                        list.add(q);
+                    }
+                }
+                array = list.toArray(new MutableQuad[list.size()]);
+                quads[dir.ordinal()] = array;
+            }
+            return array;
+        }
+
+        MutableQuad[] getSimpleQuads() {
+            if (simpleQuads == null) {
+                TextureAtlasSprite sprite = model.getParticleTexture();
+                UvFaceData uvs = new UvFaceData();
+                uvs.minU = sprite.getMinU();
+                uvs.maxU = sprite.getMaxU();
+                uvs.minV = sprite.getMinV();
+                uvs.maxV = sprite.getMaxV();
+                Tuple3f center = new Point3f();
+                Tuple3f radius = new Vector3f(0.15f, 0.15f, 0.15f);
+                simpleQuads = new MutableQuad[6];
+                for (EnumFacing face : EnumFacing.VALUES) {
+                    MutableQuad q = ModelUtil.createFace(face, center, radius, uvs);
+                    q.setCalculatedDiffuse();
+                    simpleQuads[face.ordinal()] = q;
+                }
+            }
+            return simpleQuads;
+        }
+    }
 }
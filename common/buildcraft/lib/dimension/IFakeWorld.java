@@ -42,7 +42,7 @@ public interface IFakeWorld {
                             z == blueprint.size.getZ()) {
                         setBlockState(pos, useStone ? Blocks.STONE.getDefaultState() : Blocks.AIR.getDefaultState());
                     } else {
-                        ISchematicBlock<?> schematicBlock = blueprint.palette.get(blueprint.data[x][y][z]);
+                        ISchematicBlock<?> schematicBlock = blueprint.palette.get(blueprint.data[blueprint.posToIndex(x, y, z)]);
                         schematicBlock.buildWithoutChecks((World) this, pos);
                     }
                 }
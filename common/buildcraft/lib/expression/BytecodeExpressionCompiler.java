@@ -0,0 +1,535 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.expression;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import buildcraft.lib.expression.api.IConstantNode;
+import buildcraft.lib.expression.api.IExpressionNode;
+import buildcraft.lib.expression.api.IExpressionNode.INodeBoolean;
+import buildcraft.lib.expression.api.IExpressionNode.INodeDouble;
+import buildcraft.lib.expression.api.IExpressionNode.INodeLong;
+import buildcraft.lib.expression.api.IVariableNode;
+import buildcraft.lib.expression.node.binary.BiNodeToBooleanType;
+import buildcraft.lib.expression.node.binary.BiNodeType;
+import buildcraft.lib.expression.node.binary.NodeBinaryBoolean;
+import buildcraft.lib.expression.node.binary.NodeBinaryDouble;
+import buildcraft.lib.expression.node.binary.NodeBinaryDoubleToBoolean;
+import buildcraft.lib.expression.node.binary.NodeBinaryLong;
+import buildcraft.lib.expression.node.binary.NodeBinaryLongToBoolean;
+import buildcraft.lib.expression.node.cast.NodeCastLongToDouble;
+import buildcraft.lib.expression.node.condition.NodeConditionalBoolean;
+import buildcraft.lib.expression.node.condition.NodeConditionalDouble;
+import buildcraft.lib.expression.node.condition.NodeConditionalLong;
+import buildcraft.lib.expression.node.func.NodeFuncDoubleDoubleToDouble;
+import buildcraft.lib.expression.node.func.NodeFuncDoubleToDouble;
+import buildcraft.lib.expression.node.func.NodeFuncDoubleToLong;
+import buildcraft.lib.expression.node.func.NodeFuncLongLongToLong;
+import buildcraft.lib.expression.node.func.NodeFuncLongToLong;
+import buildcraft.lib.expression.node.unary.NodeBooleanInvert;
+import buildcraft.lib.expression.node.unary.NodeUnaryDouble;
+import buildcraft.lib.expression.node.unary.NodeUnaryLong;
+import buildcraft.lib.expression.node.unary.UnaryNodeType;
+import buildcraft.lib.expression.node.value.NodeConstantBoolean;
+import buildcraft.lib.expression.node.value.NodeConstantDouble;
+import buildcraft.lib.expression.node.value.NodeConstantLong;
+import buildcraft.lib.expression.node.value.NodeVariableBoolean;
+import buildcraft.lib.expression.node.value.NodeVariableDouble;
+import buildcraft.lib.expression.node.value.NodeVariableLong;
+
+/** Compiles trees of expression nodes into a single class (per expression) so that evaluating them doesn't have to go
+ * through a virtual call for every node.
+ * <p>
+ * Constants, variables, arithmetic, comparisons, conditionals and casts are turned directly into bytecode. Variables
+ * are bound to fields of the generated class, which read the {@code value} of the variable node directly, and functions
+ * of one or two numbers (such as {@code sin(x)}) call their function object directly with the compiled arguments. Every
+ * other node (generic functions, strings, stateful nodes...) is kept as it is and called from the generated code, so
+ * the compiled expression always gives exactly the same result as the tree that it was compiled from.
+ * <p>
+ * Every generated class is defined by its own class loader, so it can be unloaded as soon as the expression that it was
+ * compiled from is no longer used (for example when resource packs are reloaded). */
+public class BytecodeExpressionCompiler {
+
+    /** Modifiable field to disable compiling, in which case every method in this class returns the node that it was
+     * given. Set from the main BuildCraft config. */
+    public static boolean enabled = true;
+
+    private static final String PACKAGE = "buildcraft/lib/expression/compiled/";
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private static final String TYPE_DOUBLE = Type.getInternalName(INodeDouble.class);
+    private static final String TYPE_LONG = Type.getInternalName(INodeLong.class);
+    private static final String TYPE_BOOLEAN = Type.getInternalName(INodeBoolean.class);
+
+    public static INodeDouble compile(INodeDouble node) {
+        return (INodeDouble) compile(node, CompiledDouble.class, 'D');
+    }
+
+    public static INodeLong compile(INodeLong node) {
+        return (INodeLong) compile(node, CompiledLong.class, 'J');
+    }
+
+    public static INodeBoolean compile(INodeBoolean node) {
+        return (INodeBoolean) compile(node, CompiledBoolean.class, 'Z');
+    }
+
+    private static IExpressionNode compile(IExpressionNode node, Class<?> base, char returnType) {
+        if (!enabled || node instanceof CompiledNode || !isWorthCompiling(node)) {
+            return node;
+        }
+        try {
+            ExpressionDebugManager.debugStart("Compiling " + node + " to bytecode");
+            Generator gen = new Generator(base, returnType);
+            gen.emitEvaluate(node);
+            Class<?> cls = new DefiningClassLoader().define(gen.className, gen.finish());
+            Object[] args = gen.fields.toArray();
+            IExpressionNode compiled = (IExpressionNode) cls.getConstructor(IExpressionNode.class, Object[].class)
+                .newInstance(node, args);
+            ExpressionDebugManager.debugEnd("Compiled to " + cls.getName() + " with " + args.length + " fields");
+            return compiled;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // Very large expressions can exceed the maximum method size, and the tree works for everything anyway
+            ExpressionDebugManager.debugEnd("Unable to compile: " + e);
+            return node;
+        }
+    }
+
+    /** @return True if compiling the given node would remove at least one virtual call. Constants, variables and nodes
+     *         that can't be compiled would only be slower if they were wrapped, and so would a function whose
+     *         arguments all have to be called anyway. */
+    private static boolean isWorthCompiling(IExpressionNode node) {
+        if (node instanceof IConstantNode || node instanceof IVariableNode || !isCompilable(node)) {
+            return false;
+        }
+        IExpressionNode[] args = getFunctionArgs(node);
+        if (args == null) {
+            return true;
+        }
+        for (IExpressionNode arg : args) {
+            if (arg instanceof IVariableNode || isWorthCompiling(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return The arguments of the given node if it is a function that can be called directly, or null if it
+     *         isn't. */
+    private static IExpressionNode[] getFunctionArgs(IExpressionNode node) {
+        if (node instanceof NodeFuncDoubleToDouble.Func) {
+            return new IExpressionNode[] { ((NodeFuncDoubleToDouble.Func) node).arg };
+        } else if (node instanceof NodeFuncDoubleDoubleToDouble.Func) {
+            NodeFuncDoubleDoubleToDouble.Func func = (NodeFuncDoubleDoubleToDouble.Func) node;
+            return new IExpressionNode[] { func.a, func.b };
+        } else if (node instanceof NodeFuncDoubleToLong.Func) {
+            return new IExpressionNode[] { ((NodeFuncDoubleToLong.Func) node).arg };
+        } else if (node instanceof NodeFuncLongToLong.Func) {
+            return new IExpressionNode[] { ((NodeFuncLongToLong.Func) node).arg };
+        } else if (node instanceof NodeFuncLongLongToLong.Func) {
+            NodeFuncLongLongToLong.Func func = (NodeFuncLongLongToLong.Func) node;
+            return new IExpressionNode[] { func.a, func.b };
+        }
+        return null;
+    }
+
+    private static boolean isCompilable(IExpressionNode node) {
+        if (getFunctionArgs(node) != null) {
+            return true;
+        } else if (node instanceof NodeBinaryDouble) {
+            return getDoubleOpcode(((NodeBinaryDouble) node).func) != -1;
+        } else if (node instanceof NodeBinaryLong) {
+            return getLongOpcode(((NodeBinaryLong) node).func) != -1;
+        } else if (node instanceof NodeBinaryBoolean) {
+            return getBooleanOpcode(((NodeBinaryBoolean) node).func) != -1;
+        } else if (node instanceof NodeBinaryDoubleToBoolean) {
+            return getComparison(((NodeBinaryDoubleToBoolean) node).func) != null;
+        } else if (node instanceof NodeBinaryLongToBoolean) {
+            return getComparison(((NodeBinaryLongToBoolean) node).func) != null;
+        } else if (node instanceof NodeUnaryDouble) {
+            return ((NodeUnaryDouble) node).func == UnaryNodeType.NEGATE.doubleFunc;
+        } else if (node instanceof NodeUnaryLong) {
+            NodeUnaryLong unary = (NodeUnaryLong) node;
+            return unary.func == UnaryNodeType.NEGATE.longFunc || unary.func == UnaryNodeType.BITWISE_INVERT.longFunc;
+        }
+        return node instanceof NodeBooleanInvert//
+            || node instanceof NodeConditionalDouble//
+            || node instanceof NodeConditionalLong//
+            || node instanceof NodeConditionalBoolean//
+            || node instanceof NodeCastLongToDouble;
+    }
+
+    private static int getDoubleOpcode(Object func) {
+        if (func == BiNodeType.ADD.doubleFunc) return Opcodes.DADD;
+        if (func == BiNodeType.SUB.doubleFunc) return Opcodes.DSUB;
+        if (func == BiNodeType.MUL.doubleFunc) return Opcodes.DMUL;
+        if (func == BiNodeType.DIV.doubleFunc) return Opcodes.DDIV;
+        if (func == BiNodeType.MOD.doubleFunc) return Opcodes.DREM;
+        return -1;
+    }
+
+    private static int getLongOpcode(Object func) {
+        if (func == BiNodeType.ADD.longFunc) return Opcodes.LADD;
+        if (func == BiNodeType.SUB.longFunc) return Opcodes.LSUB;
+        if (func == BiNodeType.MUL.longFunc) return Opcodes.LMUL;
+        if (func == BiNodeType.DIV.longFunc) return Opcodes.LDIV;
+        if (func == BiNodeType.MOD.longFunc) return Opcodes.LREM;
+        if (func == BiNodeType.AND.longFunc) return Opcodes.LAND;
+        if (func == BiNodeType.OR.longFunc) return Opcodes.LOR;
+        if (func == BiNodeType.XOR.longFunc) return Opcodes.LXOR;
+        // The names of these two are the wrong way round, but the functions are what matter
+        if (func == BiNodeType.SHIFT_RIGHT.longFunc) return Opcodes.LSHL;
+        if (func == BiNodeType.SHIFT_LEFT.longFunc) return Opcodes.LSHR;
+        return -1;
+    }
+
+    /** @return The opcode that combines two booleans (as ints) in the same way as the given function. (Both sides are
+     *         always evaluated, as they are by the tree). */
+    private static int getBooleanOpcode(Object func) {
+        if (func == BiNodeType.AND.booleanFunction) return Opcodes.IAND;
+        if (func == BiNodeType.OR.booleanFunction) return Opcodes.IOR;
+        if (func == BiNodeType.XOR.booleanFunction) return Opcodes.IXOR;
+        if (func == BiNodeToBooleanType.NOT_EQUAL.booleanFunction) return Opcodes.IXOR;
+        if (func == BiNodeToBooleanType.EQUAL.booleanFunction) return Opcodes.NOP;
+        return -1;
+    }
+
+    private static BiNodeToBooleanType getComparison(Object func) {
+        for (BiNodeToBooleanType type : BiNodeToBooleanType.values()) {
+            if (func == type.doubleFunc || func == type.longFunc) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static final class Generator {
+        final String className = PACKAGE + "Expression" + NEXT_ID.incrementAndGet();
+        final String superName;
+        final char returnType;
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        final MethodVisitor mv;
+        /** Every object that the generated class holds a field for, in the order of the fields. */
+        final List<Object> fields = new ArrayList<>();
+        final List<String> fieldTypes = new ArrayList<>();
+        final Map<Object, Integer> fieldIndices = new IdentityHashMap<>();
+
+        Generator(Class<?> base, char returnType) {
+            this.superName = Type.getInternalName(base);
+            this.returnType = returnType;
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+                superName, null);
+            mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", "()" + returnType, null, null);
+            mv.visitCode();
+        }
+
+        void emitEvaluate(IExpressionNode node) {
+            emit(node);
+            mv.visitInsn(returnType == 'D' ? Opcodes.DRETURN : returnType == 'J' ? Opcodes.LRETURN : Opcodes.IRETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        byte[] finish() {
+            for (int i = 0; i < fields.size(); i++) {
+                cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "f" + i, "L" + fieldTypes.get(i) + ";", null,
+                    null).visitEnd();
+            }
+            String ctorDesc = "(" + Type.getDescriptor(IExpressionNode.class) + "[Ljava/lang/Object;)V";
+            MethodVisitor ctor = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", ctorDesc, null, null);
+            ctor.visitCode();
+            ctor.visitVarInsn(Opcodes.ALOAD, 0);
+            ctor.visitVarInsn(Opcodes.ALOAD, 1);
+            ctor.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>",
+                "(" + Type.getDescriptor(IExpressionNode.class) + ")V", false);
+            for (int i = 0; i < fields.size(); i++) {
+                ctor.visitVarInsn(Opcodes.ALOAD, 0);
+                ctor.visitVarInsn(Opcodes.ALOAD, 2);
+                ctor.visitLdcInsn(i);
+                ctor.visitInsn(Opcodes.AALOAD);
+                ctor.visitTypeInsn(Opcodes.CHECKCAST, fieldTypes.get(i));
+                ctor.visitFieldInsn(Opcodes.PUTFIELD, className, "f" + i, "L" + fieldTypes.get(i) + ";");
+            }
+            ctor.visitInsn(Opcodes.RETURN);
+            ctor.visitMaxs(0, 0);
+            ctor.visitEnd();
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        /** Loads the field that holds the given object onto the stack, adding a new field if necessary. */
+        void loadField(Object obj, String type) {
+            Integer index = fieldIndices.get(obj);
+            if (index == null) {
+                index = fields.size();
+                fields.add(obj);
+                fieldTypes.add(type);
+                fieldIndices.put(obj, index);
+            }
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, className, "f" + index, "L" + fieldTypes.get(index) + ";");
+        }
+
+        /** Adds instructions that leave the value of the given node on the stack. */
+        void emit(IExpressionNode node) {
+            if (node instanceof NodeConstantDouble) {
+                mv.visitLdcInsn(((NodeConstantDouble) node).value);
+            } else if (node instanceof NodeConstantLong) {
+                mv.visitLdcInsn(((NodeConstantLong) node).value);
+            } else if (node instanceof NodeConstantBoolean) {
+                mv.visitInsn(((NodeConstantBoolean) node).value ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+            } else if (node instanceof NodeVariableDouble) {
+                emitVariable(node, NodeVariableDouble.class, "D");
+            } else if (node instanceof NodeVariableLong) {
+                emitVariable(node, NodeVariableLong.class, "J");
+            } else if (node instanceof NodeVariableBoolean) {
+                emitVariable(node, NodeVariableBoolean.class, "Z");
+            } else if (!isCompilable(node)) {
+                emitCall(node);
+            } else if (node instanceof NodeBinaryDouble) {
+                NodeBinaryDouble bin = (NodeBinaryDouble) node;
+                emit(bin.left);
+                emit(bin.right);
+                mv.visitInsn(getDoubleOpcode(bin.func));
+            } else if (node instanceof NodeBinaryLong) {
+                NodeBinaryLong bin = (NodeBinaryLong) node;
+                int opcode = getLongOpcode(bin.func);
+                emit(bin.left);
+                emit(bin.right);
+                if (opcode == Opcodes.LSHL || opcode == Opcodes.LSHR) {
+                    // Shifts take an int distance, but only use the lowest 6 bits (the same as shifting by a long)
+                    mv.visitInsn(Opcodes.L2I);
+                }
+                mv.visitInsn(opcode);
+            } else if (node instanceof NodeBinaryBoolean) {
+                NodeBinaryBoolean bin = (NodeBinaryBoolean) node;
+                int opcode = getBooleanOpcode(bin.func);
+                emit(bin.left);
+                emit(bin.right);
+                if (opcode == Opcodes.NOP) {
+                    // l == r is the same as !(l ^ r)
+                    mv.visitInsn(Opcodes.IXOR);
+                    mv.visitInsn(Opcodes.ICONST_1);
+                    mv.visitInsn(Opcodes.IXOR);
+                } else {
+                    mv.visitInsn(opcode);
+                }
+            } else if (node instanceof NodeBinaryDoubleToBoolean) {
+                NodeBinaryDoubleToBoolean bin = (NodeBinaryDoubleToBoolean) node;
+                BiNodeToBooleanType type = getComparison(bin.func);
+                emit(bin.left);
+                emit(bin.right);
+                // The same as javac: NaN must make every comparison false (apart from !=)
+                boolean less = type == BiNodeToBooleanType.LESS_THAN//
+                    || type == BiNodeToBooleanType.LESS_THAN_OR_EQUAL;
+                mv.visitInsn(less ? Opcodes.DCMPG : Opcodes.DCMPL);
+                emitCompareResult(type);
+            } else if (node instanceof NodeBinaryLongToBoolean) {
+                NodeBinaryLongToBoolean bin = (NodeBinaryLongToBoolean) node;
+                emit(bin.left);
+                emit(bin.right);
+                mv.visitInsn(Opcodes.LCMP);
+                emitCompareResult(getComparison(bin.func));
+            } else if (node instanceof NodeUnaryDouble) {
+                emit(((NodeUnaryDouble) node).from);
+                mv.visitInsn(Opcodes.DNEG);
+            } else if (node instanceof NodeUnaryLong) {
+                NodeUnaryLong unary = (NodeUnaryLong) node;
+                emit(unary.from);
+                if (unary.func == UnaryNodeType.NEGATE.longFunc) {
+                    mv.visitInsn(Opcodes.LNEG);
+                } else {
+                    mv.visitLdcInsn(-1L);
+                    mv.visitInsn(Opcodes.LXOR);
+                }
+            } else if (node instanceof NodeBooleanInvert) {
+                emit(((NodeBooleanInvert) node).from);
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.IXOR);
+            } else if (node instanceof NodeConditionalDouble) {
+                NodeConditionalDouble cond = (NodeConditionalDouble) node;
+                emitConditional(cond.condition, cond.ifTrue, cond.ifFalse);
+            } else if (node instanceof NodeConditionalLong) {
+                NodeConditionalLong cond = (NodeConditionalLong) node;
+                emitConditional(cond.condition, cond.ifTrue, cond.ifFalse);
+            } else if (node instanceof NodeConditionalBoolean) {
+                NodeConditionalBoolean cond = (NodeConditionalBoolean) node;
+                emitConditional(cond.condition, cond.ifTrue, cond.ifFalse);
+            } else if (node instanceof NodeCastLongToDouble) {
+                emit(((NodeCastLongToDouble) node).from);
+                mv.visitInsn(Opcodes.L2D);
+            } else if (node instanceof NodeFuncDoubleToDouble.Func) {
+                NodeFuncDoubleToDouble.Func func = (NodeFuncDoubleToDouble.Func) node;
+                emitFunction(func.function, NodeFuncDoubleToDouble.IFuncDoubleToDouble.class, "(D)D", func.arg);
+            } else if (node instanceof NodeFuncDoubleDoubleToDouble.Func) {
+                NodeFuncDoubleDoubleToDouble.Func func = (NodeFuncDoubleDoubleToDouble.Func) node;
+                emitFunction(func.function, NodeFuncDoubleDoubleToDouble.IFuncDoubleDoubleToDouble.class, "(DD)D",
+                    func.a, func.b);
+            } else if (node instanceof NodeFuncDoubleToLong.Func) {
+                NodeFuncDoubleToLong.Func func = (NodeFuncDoubleToLong.Func) node;
+                emitFunction(func.function, NodeFuncDoubleToLong.IFuncDoubleToLong.class, "(D)J", func.arg);
+            } else if (node instanceof NodeFuncLongToLong.Func) {
+                NodeFuncLongToLong.Func func = (NodeFuncLongToLong.Func) node;
+                emitFunction(func.function, NodeFuncLongToLong.IFuncLongToLong.class, "(J)J", func.arg);
+            } else if (node instanceof NodeFuncLongLongToLong.Func) {
+                NodeFuncLongLongToLong.Func func = (NodeFuncLongLongToLong.Func) node;
+                emitFunction(func.function, NodeFuncLongLongToLong.IFuncLongLongToLong.class, "(JJ)J", func.a,
+                    func.b);
+            } else {
+                throw new IllegalStateException("Unhandled compilable node " + node.getClass());
+            }
+        }
+
+        void emitVariable(IExpressionNode node, Class<?> cls, String desc) {
+            String owner = Type.getInternalName(cls);
+            loadField(node, owner);
+            mv.visitFieldInsn(Opcodes.GETFIELD, owner, "value", desc);
+        }
+
+        void emitCall(IExpressionNode node) {
+            if (node instanceof INodeDouble) {
+                loadField(node, TYPE_DOUBLE);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, TYPE_DOUBLE, "evaluate", "()D", true);
+            } else if (node instanceof INodeLong) {
+                loadField(node, TYPE_LONG);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, TYPE_LONG, "evaluate", "()J", true);
+            } else if (node instanceof INodeBoolean) {
+                loadField(node, TYPE_BOOLEAN);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, TYPE_BOOLEAN, "evaluate", "()Z", true);
+            } else {
+                throw new IllegalStateException("Unknown node type " + node.getClass());
+            }
+        }
+
+        /** Calls the {@code apply} method of the given function object with the values of the given arguments, in the
+         * same order as the tree evaluates them. */
+        void emitFunction(Object function, Class<?> type, String desc, IExpressionNode... args) {
+            String owner = Type.getInternalName(type);
+            loadField(function, owner);
+            for (IExpressionNode arg : args) {
+                emit(arg);
+            }
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, owner, "apply", desc, true);
+        }
+
+        /** Converts the int left by a compare instruction (-1, 0 or 1) into the boolean result of the comparison. */
+        void emitCompareResult(BiNodeToBooleanType type) {
+            int falseJump;
+            switch (type) {
+                case EQUAL:
+                    falseJump = Opcodes.IFNE;
+                    break;
+                case NOT_EQUAL:
+                    falseJump = Opcodes.IFEQ;
+                    break;
+                case LESS_THAN:
+                    falseJump = Opcodes.IFGE;
+                    break;
+                case GREATER_THAN:
+                    falseJump = Opcodes.IFLE;
+                    break;
+                case LESS_THAN_OR_EQUAL:
+                    falseJump = Opcodes.IFGT;
+                    break;
+                case GREATER_THAN_OR_EQUAL:
+                    falseJump = Opcodes.IFLT;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown comparison " + type);
+            }
+            Label isFalse = new Label();
+            Label end = new Label();
+            mv.visitJumpInsn(falseJump, isFalse);
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(isFalse);
+            mv.visitInsn(Opcodes.ICONST_0);
+            mv.visitLabel(end);
+        }
+
+        void emitConditional(INodeBoolean condition, IExpressionNode ifTrue, IExpressionNode ifFalse) {
+            Label isFalse = new Label();
+            Label end = new Label();
+            emit(condition);
+            mv.visitJumpInsn(Opcodes.IFEQ, isFalse);
+            emit(ifTrue);
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(isFalse);
+            emit(ifFalse);
+            mv.visitLabel(end);
+        }
+    }
+
+    /** Defines a single generated class. A new loader is used for every class as a class can only be unloaded along
+     * with the loader that defined it. */
+    private static final class DefiningClassLoader extends ClassLoader {
+        DefiningClassLoader() {
+            super(BytecodeExpressionCompiler.class.getClassLoader());
+        }
+
+        Class<?> define(String internalName, byte[] bytes) {
+            return defineClass(internalName.replace('/', '.'), bytes, 0, bytes.length);
+        }
+    }
+
+    /** The base class of every generated class. */
+    public abstract static class CompiledNode {
+        /** The tree that this was compiled from. */
+        public final IExpressionNode source;
+
+        protected CompiledNode(IExpressionNode source) {
+            this.source = source;
+        }
+
+        @Override
+        public String toString() {
+            return source.toString();
+        }
+    }
+
+    public abstract static class CompiledDouble extends CompiledNode implements INodeDouble {
+        protected CompiledDouble(IExpressionNode source) {
+            super(source);
+        }
+
+        @Override
+        public INodeDouble inline() {
+            return this;
+        }
+    }
+
+    public abstract static class CompiledLong extends CompiledNode implements INodeLong {
+        protected CompiledLong(IExpressionNode source) {
+            super(source);
+        }
+
+        @Override
+        public INodeLong inline() {
+            return this;
+        }
+    }
+
+    public abstract static class CompiledBoolean extends CompiledNode implements INodeBoolean {
+        protected CompiledBoolean(IExpressionNode source) {
+            super(source);
+        }
+
+        @Override
+        public INodeBoolean inline() {
+            return this;
+        }
+    }
+}
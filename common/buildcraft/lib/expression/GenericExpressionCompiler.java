@@ -30,7 +30,7 @@ public class GenericExpressionCompiler {
     public static INodeLong compileExpressionLong(String function, FunctionContext context) throws InvalidExpressionException {
         IExpressionNode node = InternalCompiler.compileExpression(function, context);
         if (node instanceof INodeLong) {
-            return (INodeLong) node;
+            return BytecodeExpressionCompiler.compile((INodeLong) node);
         } else {
             throw new InvalidExpressionException("Not a long " + node);
         }
@@ -57,7 +57,8 @@ public class GenericExpressionCompiler {
     }
 
     public static INodeDouble compileExpressionDouble(String function, FunctionContext context) throws InvalidExpressionException {
-        return NodeCasting.castToDouble(InternalCompiler.compileExpression(function, context)).inline();
+        INodeDouble node = NodeCasting.castToDouble(InternalCompiler.compileExpression(function, context)).inline();
+        return BytecodeExpressionCompiler.compile(node);
     }
 
     public static INodeFuncDouble compileFunctionDouble(String function, Argument... args) throws InvalidExpressionException {
@@ -77,7 +78,7 @@ public class GenericExpressionCompiler {
     public static INodeBoolean compileExpressionBoolean(String function, FunctionContext context) throws InvalidExpressionException {
         IExpressionNode node = InternalCompiler.compileExpression(function, context);
         if (node instanceof INodeBoolean) {
-            return (INodeBoolean) node;
+            return BytecodeExpressionCompiler.compile((INodeBoolean) node);
         } else {
             throw new InvalidExpressionException("Not a boolean " + node);
         }
@@ -16,8 +16,8 @@ public class NodeBinaryBoolean implements INodeBoolean {
         boolean apply(boolean left, boolean right);
     }
 
-    private final INodeBoolean left, right;
-    private final BiBooleanPredicate func;
+    public final INodeBoolean left, right;
+    public final BiBooleanPredicate func;
     private final String op;
 
     public NodeBinaryBoolean(INodeBoolean left, INodeBoolean right, BiBooleanPredicate func, String op) {
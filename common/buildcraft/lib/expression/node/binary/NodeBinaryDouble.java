@@ -13,8 +13,8 @@ import buildcraft.lib.expression.api.IExpressionNode.INodeDouble;
 import buildcraft.lib.expression.node.value.NodeConstantDouble;
 
 public class NodeBinaryDouble implements INodeDouble {
-    private final INodeDouble left, right;
-    private final DoubleBinaryOperator func;
+    public final INodeDouble left, right;
+    public final DoubleBinaryOperator func;
     private final String op;
 
     public NodeBinaryDouble(INodeDouble left, INodeDouble right, DoubleBinaryOperator func, String op) {
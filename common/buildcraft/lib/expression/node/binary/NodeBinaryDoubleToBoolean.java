@@ -16,8 +16,8 @@ public class NodeBinaryDoubleToBoolean implements INodeBoolean {
         boolean apply(double l, double r);
     }
 
-    private final INodeDouble left, right;
-    private final BiDoubleToBooleanFunction func;
+    public final INodeDouble left, right;
+    public final BiDoubleToBooleanFunction func;
     private final String op;
 
     public NodeBinaryDoubleToBoolean(INodeDouble left, INodeDouble right, BiDoubleToBooleanFunction func, String op) {
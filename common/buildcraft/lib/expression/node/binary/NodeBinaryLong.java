@@ -13,8 +13,8 @@ import buildcraft.lib.expression.api.IExpressionNode.INodeLong;
 import buildcraft.lib.expression.node.value.NodeConstantLong;
 
 public class NodeBinaryLong implements INodeLong {
-    private final INodeLong left, right;
-    private final LongBinaryOperator func;
+    public final INodeLong left, right;
+    public final LongBinaryOperator func;
     private final String op;
 
     public NodeBinaryLong(INodeLong left, INodeLong right, LongBinaryOperator func, String op) {
@@ -16,8 +16,8 @@ public class NodeBinaryLongToBoolean implements INodeBoolean {
         boolean apply(long l, long r);
     }
 
-    private final INodeLong left, right;
-    private final BiLongToBooleanFunction func;
+    public final INodeLong left, right;
+    public final BiLongToBooleanFunction func;
     private final String op;
 
     public NodeBinaryLongToBoolean(INodeLong left, INodeLong right, BiLongToBooleanFunction func, String op) {
@@ -11,7 +11,7 @@ import buildcraft.lib.expression.api.IExpressionNode.INodeDouble;
 import buildcraft.lib.expression.node.value.NodeConstantDouble;
 
 public class NodeCastLongToDouble implements INodeDouble {
-    private final INodeLong from;
+    public final INodeLong from;
 
     public NodeCastLongToDouble(INodeLong from) {
         this.from = from;
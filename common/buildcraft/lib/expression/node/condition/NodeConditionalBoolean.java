@@ -10,8 +10,8 @@ import buildcraft.lib.expression.api.IExpressionNode.INodeBoolean;
 import buildcraft.lib.expression.node.value.NodeConstantBoolean;
 
 public class NodeConditionalBoolean implements INodeBoolean {
-    private final INodeBoolean condition;
-    private final INodeBoolean ifTrue, ifFalse;
+    public final INodeBoolean condition;
+    public final INodeBoolean ifTrue, ifFalse;
 
     public NodeConditionalBoolean(INodeBoolean condition, INodeBoolean ifTrue, INodeBoolean ifFalse) {
         this.condition = condition;
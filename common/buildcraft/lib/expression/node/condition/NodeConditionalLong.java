@@ -11,8 +11,8 @@ import buildcraft.lib.expression.node.value.NodeConstantBoolean;
 import buildcraft.lib.expression.node.value.NodeConstantLong;
 
 public class NodeConditionalLong implements INodeLong {
-    private final INodeBoolean condition;
-    private final INodeLong ifTrue, ifFalse;
+    public final INodeBoolean condition;
+    public final INodeLong ifTrue, ifFalse;
 
     public NodeConditionalLong(INodeBoolean condition, INodeLong ifTrue, INodeLong ifFalse) {
         this.condition = condition;
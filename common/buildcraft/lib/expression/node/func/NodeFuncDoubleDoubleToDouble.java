@@ -44,9 +44,9 @@ public class NodeFuncDoubleDoubleToDouble implements INodeFuncDouble {
         return new Func(a, b, function, stringFunction);
     }
 
-    private static class Func implements INodeDouble {
-        private final INodeDouble a, b;
-        private final IFuncDoubleDoubleToDouble function;
+    public static class Func implements INodeDouble {
+        public final INodeDouble a, b;
+        public final IFuncDoubleDoubleToDouble function;
         private final StringFunctionTri stringFunction;
 
         public Func(INodeDouble a, INodeDouble b, IFuncDoubleDoubleToDouble function, StringFunctionTri stringFunction) {
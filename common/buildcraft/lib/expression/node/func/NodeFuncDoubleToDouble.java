@@ -52,9 +52,9 @@ public class NodeFuncDoubleToDouble implements INodeFuncDouble {
         return new Func(stack.popDouble(), function, stringFunction);
     }
 
-    private static class Func implements INodeDouble {
-        private final INodeDouble arg;
-        private final IFuncDoubleToDouble function;
+    public static class Func implements INodeDouble {
+        public final INodeDouble arg;
+        public final IFuncDoubleToDouble function;
         private final StringFunctionBi stringFunction;
 
         public Func(INodeDouble arg, IFuncDoubleToDouble function, StringFunctionBi stringFunction) {
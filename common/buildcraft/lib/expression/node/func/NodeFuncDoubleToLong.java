@@ -42,9 +42,9 @@ public class NodeFuncDoubleToLong implements INodeFuncLong {
         return new Func(stack.popDouble(), function, stringFunction);
     }
 
-    private static class Func implements INodeLong {
-        private final INodeDouble arg;
-        private final IFuncDoubleToLong function;
+    public static class Func implements INodeLong {
+        public final INodeDouble arg;
+        public final IFuncDoubleToLong function;
         private final StringFunctionBi stringFunction;
 
         public Func(INodeDouble arg, IFuncDoubleToLong function, StringFunctionBi stringFunction) {
@@ -44,9 +44,9 @@ public class NodeFuncLongLongToLong implements INodeFuncLong {
         return new Func(a, b, function, stringFunction);
     }
 
-    private static class Func implements INodeLong {
-        private final INodeLong a, b;
-        private final IFuncLongLongToLong function;
+    public static class Func implements INodeLong {
+        public final INodeLong a, b;
+        public final IFuncLongLongToLong function;
         private final StringFunctionTri stringFunction;
 
         public Func(INodeLong a, INodeLong b, IFuncLongLongToLong function, StringFunctionTri stringFunction) {
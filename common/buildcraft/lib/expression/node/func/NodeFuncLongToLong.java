@@ -52,9 +52,9 @@ public class NodeFuncLongToLong implements INodeFuncLong {
         return new Func(stack.popLong(), function, stringFunction);
     }
 
-    private static class Func implements INodeLong {
-        private final INodeLong arg;
-        private final IFuncLongToLong function;
+    public static class Func implements INodeLong {
+        public final INodeLong arg;
+        public final IFuncLongToLong function;
         private final StringFunctionBi stringFunction;
 
         public Func(INodeLong arg, IFuncLongToLong function, StringFunctionBi stringFunction) {
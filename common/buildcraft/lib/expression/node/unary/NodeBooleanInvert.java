@@ -11,7 +11,7 @@ import buildcraft.lib.expression.api.IExpressionNode.INodeBoolean;
 import buildcraft.lib.expression.node.value.NodeConstantBoolean;
 
 public class NodeBooleanInvert implements INodeBoolean {
-    private final INodeBoolean from;
+    public final INodeBoolean from;
 
     public NodeBooleanInvert(INodeBoolean from) {
         this.from = from;
@@ -13,8 +13,8 @@ import buildcraft.lib.expression.api.IExpressionNode.INodeDouble;
 import buildcraft.lib.expression.node.value.NodeConstantDouble;
 
 public class NodeUnaryDouble implements INodeDouble {
-    private final INodeDouble from;
-    private final DoubleUnaryOperator func;
+    public final INodeDouble from;
+    public final DoubleUnaryOperator func;
     private final String op;
 
     public NodeUnaryDouble(INodeDouble from, DoubleUnaryOperator func, String op) {
@@ -13,8 +13,8 @@ import buildcraft.lib.expression.api.IExpressionNode.INodeLong;
 import buildcraft.lib.expression.node.value.NodeConstantLong;
 
 public class NodeUnaryLong implements INodeLong {
-    private final INodeLong from;
-    private final LongUnaryOperator func;
+    public final INodeLong from;
+    public final LongUnaryOperator func;
     private final String op;
 
     public NodeUnaryLong(INodeLong from, LongUnaryOperator func, String op) {
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import buildcraft.lib.misc.StackUtil;
+
+/** Counts how many of each item are in a list of stacks (usually the stacks of an inventory). The counts are kept up to
+ * date by {@link #update(List)}, which only looks at the slots that have changed since it was last called - so it is
+ * cheap to call every tick. Stacks are the same item if {@link StackUtil#canMerge(ItemStack, ItemStack)} returns
+ * true. */
+public class InventoryCounter {
+    /** A copy of every stack that was given to the last call to {@link #update(List)}. */
+    private final List<ItemStack> snapshot = new ArrayList<>();
+    /** The total count of every item, stored as a stack with the total count. */
+    private final Map<Item, List<ItemStack>> totals = new IdentityHashMap<>();
+
+    /** Updates the counts to match the given stacks. Changes are found by comparing every stack to a copy of it that
+     * was taken on the last call, so this works even if the stacks were modified in-place.
+     *
+     * @return True if any of the stacks have changed since the last call. */
+    public boolean update(List<ItemStack> stacks) {
+        boolean changed = false;
+        while (snapshot.size() > stacks.size()) {
+            remove(snapshot.remove(snapshot.size() - 1));
+            changed = true;
+        }
+        while (snapshot.size() < stacks.size()) {
+            snapshot.add(StackUtil.EMPTY);
+            changed = true;
+        }
+        for (int i = 0; i < stacks.size(); i++) {
+            ItemStack current = stacks.get(i);
+            ItemStack last = snapshot.get(i);
+            if (!ItemStack.areItemStacksEqual(current, last)) {
+                remove(last);
+                ItemStack copy = current.copy();
+                add(copy);
+                snapshot.set(i, copy);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void add(@Nonnull ItemStack stack) {
+        if (stack.isEmpty()) {
+            return;
+        }
+        List<ItemStack> list = totals.computeIfAbsent(stack.getItem(), item -> new ArrayList<>(1));
+        for (ItemStack total : list) {
+            if (StackUtil.canMerge(total, stack)) {
+                total.grow(stack.getCount());
+                return;
+            }
+        }
+        list.add(stack.copy());
+    }
+
+    private void remove(@Nonnull ItemStack stack) {
+        if (stack.isEmpty()) {
+            return;
+        }
+        List<ItemStack> list = totals.get(stack.getItem());
+        if (list == null) {
+            return;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            ItemStack total = list.get(i);
+            if (StackUtil.canMerge(total, stack)) {
+                total.shrink(stack.getCount());
+                if (total.isEmpty()) {
+                    list.remove(i);
+                    if (list.isEmpty()) {
+                        totals.remove(stack.getItem());
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /** @return The total count of every stack that can merge with the given stack. */
+    public int getCount(@Nonnull ItemStack stack) {
+        if (stack.isEmpty()) {
+            return 0;
+        }
+        List<ItemStack> list = totals.get(stack.getItem());
+        if (list != null) {
+            for (ItemStack total : list) {
+                if (StackUtil.canMerge(total, stack)) {
+                    return total.getCount();
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** @return True if there are at least as many of every required stack. Note that this assumes that all of the
+     *         required stacks are different. */
+    public boolean containsAll(Collection<ItemStack> required) {
+        for (ItemStack req : required) {
+            if (!req.isEmpty() && getCount(req) < req.getCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return A new list containing a copy of the total of every different item. */
+    public List<ItemStack> getTotals() {
+        List<ItemStack> list = new ArrayList<>();
+        for (List<ItemStack> stacks : totals.values()) {
+            for (ItemStack total : stacks) {
+                list.add(total.copy());
+            }
+        }
+        return list;
+    }
+}
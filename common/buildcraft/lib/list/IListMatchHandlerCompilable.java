@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.list;
+
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.item.ItemStack;
+
+import buildcraft.api.lists.ListMatchHandler;
+import buildcraft.api.lists.ListMatchHandler.Type;
+
+/** A {@link ListMatchHandler} that can do all of the work that only depends on the list's stack once, when a
+ * {@link ListFilter} is created, rather than for every item that is checked. */
+interface IListMatchHandlerCompilable {
+    /** @return A predicate that returns the same as
+     *         {@link ListMatchHandler#matches(Type, ItemStack, ItemStack, boolean)} would for the given type, stack and
+     *         precision. */
+    Predicate<ItemStack> compile(Type type, @Nonnull ItemStack stack, boolean precise);
+}
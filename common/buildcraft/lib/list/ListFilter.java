@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.list;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagList;
+
+import buildcraft.api.lists.ListMatchHandler;
+import buildcraft.api.lists.ListRegistry;
+
+import buildcraft.lib.list.ListHandler.Line;
+import buildcraft.lib.misc.StackUtil;
+
+/** The lines of a list, read once and turned into a form that is quick to check items against. Use
+ * {@link ListHandler#getFilter(ItemStack)} to get the (cached) filter for a list.
+ * <p>
+ * Lines that match exact items are stored by the item, so checking them only looks at the entries for the same item.
+ * Lines that match by type or material have the work that only depends on the line done once, by any handlers that
+ * implement {@link IListMatchHandlerCompilable}. */
+public final class ListFilter {
+    public static final ListFilter EMPTY = new ListFilter(new Line[0]);
+
+    private final Map<Item, ItemStack[]> exact = new IdentityHashMap<>();
+    private final Map<Item, ItemStack[]> exactPrecise = new IdentityHashMap<>();
+    private final List<Predicate<ItemStack>> predicates = new ArrayList<>();
+
+    ListFilter(NBTTagList lines) {
+        this(readLines(lines));
+    }
+
+    ListFilter(Line[] lines) {
+        Map<Item, List<ItemStack>> exactLists = new IdentityHashMap<>();
+        Map<Item, List<ItemStack>> preciseLists = new IdentityHashMap<>();
+        for (Line line : lines) {
+            if (line.isOneStackMode()) {
+                ItemStack stack = line.stacks.get(0);
+                if (stack.isEmpty()) {
+                    continue;
+                }
+                ListMatchHandler.Type type = line.getSortingType();
+                ItemStack source = stack.copy();
+                boolean precise = line.precise;
+                for (ListMatchHandler handler : ListRegistry.getHandlers()) {
+                    if (handler instanceof IListMatchHandlerCompilable) {
+                        predicates.add(((IListMatchHandlerCompilable) handler).compile(type, source, precise));
+                    } else {
+                        predicates.add(target -> handler.matches(type, source, target, precise));
+                    }
+                }
+            } else {
+                Map<Item, List<ItemStack>> to = line.precise ? preciseLists : exactLists;
+                for (ItemStack stack : line.stacks) {
+                    if (!stack.isEmpty()) {
+                        to.computeIfAbsent(stack.getItem(), i -> new ArrayList<>()).add(stack.copy());
+                    }
+                }
+            }
+        }
+        exactLists.forEach((item, list) -> exact.put(item, list.toArray(new ItemStack[list.size()])));
+        preciseLists.forEach((item, list) -> exactPrecise.put(item, list.toArray(new ItemStack[list.size()])));
+    }
+
+    private static Line[] readLines(NBTTagList list) {
+        Line[] lines = new Line[list.tagCount()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = Line.fromNBT(list.getCompoundTagAt(i));
+        }
+        return lines;
+    }
+
+    public boolean matches(@Nonnull ItemStack target) {
+        ItemStack[] stacks = exact.get(target.getItem());
+        if (stacks != null) {
+            for (ItemStack stack : stacks) {
+                if (StackUtil.isMatchingItem(stack, target, true, false)) {
+                    return true;
+                }
+            }
+        }
+        stacks = exactPrecise.get(target.getItem());
+        if (stacks != null) {
+            for (ItemStack stack : stacks) {
+                if (StackUtil.isMatchingItem(stack, target, true, true)
+                    && stack.getItemDamage() == target.getItemDamage()) {
+                    return true;
+                }
+            }
+        }
+        for (Predicate<ItemStack> predicate : predicates) {
+            if (predicate.test(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -12,6 +12,10 @@ import java.util.List;
 
 import javax.annotation.Nonnull;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -31,6 +35,12 @@ public final class ListHandler {
     public static final int WIDTH = 9;
     public static final int HEIGHT = 2;
 
+    /** Filters for every list that has been checked recently. This is keyed by the identity of the lines tag, as
+     * {@link #saveLines(ItemStack, Line[])} always replaces it rather than changing it. */
+    private static final LoadingCache<NBTTagList, ListFilter> FILTERS = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(CacheLoader.from(ListFilter::new));
+
     public static class Line {
         public final NonNullList<ItemStack> stacks;
         public boolean precise, byType, byMaterial;
@@ -271,18 +281,16 @@ public final class ListHandler {
         }
     }
 
-    public static boolean matches(@Nonnull ItemStack stackList, @Nonnull ItemStack item) {
+    /** @return The filter for the given list, which is only read from the list's NBT the first time. */
+    public static ListFilter getFilter(@Nonnull ItemStack stackList) {
         NBTTagCompound data = NBTUtilBC.getItemData(stackList);
         if (data.hasKey("written") && data.hasKey("lines")) {
-            NBTTagList list = data.getTagList("lines", 10);
-            for (int i = 0; i < list.tagCount(); i++) {
-                Line line = Line.fromNBT(list.getCompoundTagAt(i));
-                if (line.matches(item)) {
-                    return true;
-                }
-            }
+            return FILTERS.getUnchecked(data.getTagList("lines", 10));
         }
+        return ListFilter.EMPTY;
+    }
 
-        return false;
+    public static boolean matches(@Nonnull ItemStack stackList, @Nonnull ItemStack item) {
+        return getFilter(stackList).matches(item);
     }
 }
@@ -6,6 +6,8 @@
 
 package buildcraft.lib.list;
 
+import java.util.function.Predicate;
+
 import javax.annotation.Nonnull;
 
 import net.minecraft.item.ItemStack;
@@ -13,14 +15,21 @@ import net.minecraft.item.ItemStack;
 import buildcraft.api.lists.ListMatchHandler;
 import buildcraft.api.lists.ListRegistry;
 
-public class ListMatchHandlerClass extends ListMatchHandler {
+public class ListMatchHandlerClass extends ListMatchHandler implements IListMatchHandlerCompilable {
     @Override
     public boolean matches(Type type, @Nonnull ItemStack stack, @Nonnull ItemStack target, boolean precise) {
+        return compile(type, stack, precise).test(target);
+    }
+
+    @Override
+    public Predicate<ItemStack> compile(Type type, @Nonnull ItemStack stack, boolean precise) {
         if (type == Type.TYPE) {
             Class<?> kl = stack.getItem().getClass();
-            return ListRegistry.itemClassAsType.contains(kl) && kl.equals(target.getClass());
+            if (ListRegistry.itemClassAsType.contains(kl)) {
+                return target -> kl.equals(target.getItem().getClass());
+            }
         }
-        return false;
+        return target -> false;
     }
 
     @Override
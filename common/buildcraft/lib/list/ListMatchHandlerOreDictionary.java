@@ -7,6 +7,7 @@
 package buildcraft.lib.list;
 
 import java.util.Set;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 
@@ -20,7 +21,9 @@ import buildcraft.api.lists.ListMatchHandler;
 
 import buildcraft.lib.misc.StackUtil;
 
-public class ListMatchHandlerOreDictionary extends ListMatchHandler {
+import gnu.trove.set.hash.TIntHashSet;
+
+public class ListMatchHandlerOreDictionary extends ListMatchHandler implements IListMatchHandlerCompilable {
     private static int getUppercaseCount(String s) {
         int j = 0;
         for (int i = 0; i < s.length(); i++) {
@@ -33,32 +36,28 @@ public class ListMatchHandlerOreDictionary extends ListMatchHandler {
 
     @Override
     public boolean matches(Type type, @Nonnull ItemStack stack, @Nonnull ItemStack target, boolean precise) {
-        int[] oreIds = OreDictionary.getOreIDs(stack);
+        return compile(type, stack, precise).test(target);
+    }
 
+    @Override
+    public Predicate<ItemStack> compile(Type type, @Nonnull ItemStack stack, boolean precise) {
+        int[] oreIds = OreDictionary.getOreIDs(stack);
         if (oreIds.length == 0) {
             // No ore IDs? Time for the best effort plan of METADATA!
             if (type == Type.TYPE) {
-                return StackUtil.isMatchingItem(stack, target, false, false);
+                ItemStack copy = stack.copy();
+                return target -> StackUtil.isMatchingItem(copy, target, false, false);
             }
-            return false;
+            return target -> false;
         }
-
-        int[] matchesIds = OreDictionary.getOreIDs(target);
-
-        String[] oreNames = new String[oreIds.length];
-        for (int i = 0; i < oreIds.length; i++) {
-            oreNames[i] = OreDictionary.getOreName(oreIds[i]);
-        }
-
+        TIntHashSet matchingIds = new TIntHashSet();
         if (type == Type.CLASS) {
-            for (int i : oreIds) {
-                for (int j : matchesIds) {
-                    if (i == j) {
-                        return true;
-                    }
-                }
-            }
+            matchingIds.addAll(oreIds);
         } else {
+            String[] oreNames = new String[oreIds.length];
+            for (int i = 0; i < oreIds.length; i++) {
+                oreNames[i] = OreDictionary.getOreName(oreIds[i]);
+            }
             // Always pick only the longest OreDictionary string for matching.
             // It's ugly, but should give us the most precise result for the
             // cases in which a given stone is also used for crafting equivalents.
@@ -66,18 +65,21 @@ public class ListMatchHandlerOreDictionary extends ListMatchHandler {
             if (s != null) {
                 Set<Integer> stackIds = ListOreDictionaryCache.INSTANCE.getListOfPartialMatches(type == Type.MATERIAL ? ListOreDictionaryCache.getMaterial(s) : ListOreDictionaryCache.getType(s));
                 if (stackIds != null) {
-                    for (int j : stackIds) {
-                        for (int k : matchesIds) {
-                            if (j == k) {
-                                return true;
-                            }
-                        }
-                    }
+                    matchingIds.addAll(stackIds);
                 }
             }
         }
-
-        return false;
+        if (matchingIds.isEmpty()) {
+            return target -> false;
+        }
+        return target -> {
+            for (int id : OreDictionary.getOreIDs(target)) {
+                if (matchingIds.contains(id)) {
+                    return true;
+                }
+            }
+            return false;
+        };
     }
 
     @Override
@@ -7,34 +7,42 @@
 package buildcraft.lib.list;
 
 import java.util.Set;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 
+import com.google.common.collect.ImmutableSet;
+
 import net.minecraft.item.ItemStack;
 
 import buildcraft.api.lists.ListMatchHandler;
 
-public class ListMatchHandlerTools extends ListMatchHandler {
+public class ListMatchHandlerTools extends ListMatchHandler implements IListMatchHandlerCompilable {
     @Override
     public boolean matches(Type type, @Nonnull ItemStack stack, @Nonnull ItemStack target, boolean precise) {
-        if (type == Type.TYPE) {
-            Set<String> toolClassesSource = stack.getItem().getToolClasses(stack);
-            Set<String> toolClassesTarget = target.getItem().getToolClasses(stack);
-            if (toolClassesSource.size() > 0 && toolClassesTarget.size() > 0) {
-                if (precise) {
-                    if (toolClassesSource.size() != toolClassesTarget.size()) {
-                        return false;
-                    }
-                }
-                for (String s : toolClassesSource) {
-                    if (!toolClassesTarget.contains(s)) {
-                        return false;
-                    }
-                }
-                return true;
-            }
+        return compile(type, stack, precise).test(target);
+    }
+
+    @Override
+    public Predicate<ItemStack> compile(Type type, @Nonnull ItemStack stack, boolean precise) {
+        if (type != Type.TYPE) {
+            return target -> false;
+        }
+        Set<String> toolClassesSource = stack.getItem().getToolClasses(stack);
+        if (toolClassesSource.isEmpty()) {
+            return target -> false;
         }
-        return false;
+        Set<String> sourceClasses = ImmutableSet.copyOf(toolClassesSource);
+        return target -> {
+            Set<String> toolClassesTarget = target.getItem().getToolClasses(target);
+            if (toolClassesTarget.isEmpty()) {
+                return false;
+            }
+            if (precise && sourceClasses.size() != toolClassesTarget.size()) {
+                return false;
+            }
+            return toolClassesTarget.containsAll(sourceClasses);
+        };
     }
 
     @Override
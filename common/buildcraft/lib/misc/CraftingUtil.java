@@ -5,17 +5,30 @@
  */
 package buildcraft.lib.misc;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.CraftingManager;
 import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
 import net.minecraft.item.crafting.ShapelessRecipes;
 import net.minecraft.world.World;
 
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
 public final class CraftingUtil {
 
+    private static volatile RecipeIndex recipeIndex;
+
     /** Deactivate constructor */
     private CraftingUtil() {}
 
@@ -56,8 +69,8 @@ public final class CraftingUtil {
         } else if (itemNum > 0) {
             // End repair recipe handler
 
-            List<IRecipe> recipes = CraftingManager.getInstance().getRecipeList();
-            for (IRecipe recipe : recipes) {
+            // Every recipe that could match must accept the first item
+            for (IRecipe recipe : getRecipeIndex().getCandidates(item1.getItem())) {
 
                 if (recipe.matches(par1InventoryCrafting, par2World)) {
                     return recipe;
@@ -72,4 +85,111 @@ public final class CraftingUtil {
         }
     }
 
+    private static RecipeIndex getRecipeIndex() {
+        List<IRecipe> recipes = CraftingManager.getInstance().getRecipeList();
+        RecipeIndex index = recipeIndex;
+        if (index == null || !index.isFor(recipes)) {
+            synchronized (CraftingUtil.class) {
+                index = recipeIndex;
+                if (index == null || !index.isFor(recipes)) {
+                    recipeIndex = index = new RecipeIndex(recipes);
+                }
+            }
+        }
+        return index;
+    }
+
+    /** Forces the recipe index to be rebuilt the next time that it is used. This is needed whenever the inputs of a
+     * recipe change without the recipe list itself changing (for example when an item is added to an ore dictionary
+     * entry). */
+    public static void invalidateRecipeIndex() {
+        recipeIndex = null;
+    }
+
+    /** Maps every item to the recipes that might use it, so that finding a recipe doesn't need to check every single
+     * recipe in the game. Recipes that we don't know the inputs of are included as candidates for every item. The
+     * candidates are kept in the same order as the recipe list, so the first match is the same as it would be without
+     * the index.
+     * <p>
+     * This is rebuilt whenever the recipe list is changed (as checked by {@link #isFor(List)}), or
+     * {@link #invalidateRecipeIndex()} is called. Ore dictionary entries are only read when the index is built, so
+     * {@link buildcraft.lib.BCLibEventDist} invalidates it whenever a new ore is registered. */
+    private static final class RecipeIndex {
+        final List<IRecipe> recipeList;
+        final int recipeCount;
+        final int recipeHash;
+        final Map<Item, List<IRecipe>> candidates = new IdentityHashMap<>();
+        final List<IRecipe> unknown = new ArrayList<>();
+
+        RecipeIndex(List<IRecipe> recipes) {
+            recipeList = recipes;
+            recipeCount = recipes.size();
+            recipeHash = hashRecipes(recipes);
+            for (IRecipe recipe : recipes) {
+                Set<Item> inputs = getInputs(recipe);
+                if (inputs == null) {
+                    unknown.add(recipe);
+                    for (List<IRecipe> list : candidates.values()) {
+                        list.add(recipe);
+                    }
+                } else {
+                    for (Item item : inputs) {
+                        candidates.computeIfAbsent(item, i -> new ArrayList<>(unknown)).add(recipe);
+                    }
+                }
+            }
+        }
+
+        List<IRecipe> getCandidates(Item item) {
+            return candidates.getOrDefault(item, unknown);
+        }
+
+        /** @return True if the given list contains exactly the same recipes (in the same order) as when this was
+         *         built. This is a lot cheaper than matching against every recipe, so it is checked on every use. */
+        boolean isFor(List<IRecipe> recipes) {
+            return recipes == recipeList && recipes.size() == recipeCount && hashRecipes(recipes) == recipeHash;
+        }
+
+        /** @return An order-dependent hash of the identity of every recipe, as recipes don't override hashCode. */
+        private static int hashRecipes(List<IRecipe> recipes) {
+            int hash = 1;
+            for (IRecipe recipe : recipes) {
+                hash = hash * 31 + System.identityHashCode(recipe);
+            }
+            return hash;
+        }
+
+        /** @return Every item that the recipe could use, or null if the inputs of the recipe are unknown. */
+        private static Set<Item> getInputs(IRecipe recipe) {
+            // Subclasses might match differently, so only the exact classes are trusted
+            Class<?> cls = recipe.getClass();
+            Set<Item> items = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (cls == ShapedRecipes.class) {
+                addInputs(items, Arrays.asList(((ShapedRecipes) recipe).recipeItems));
+            } else if (cls == ShapelessRecipes.class) {
+                addInputs(items, ((ShapelessRecipes) recipe).recipeItems);
+            } else if (cls == ShapedOreRecipe.class) {
+                addInputs(items, Arrays.asList(((ShapedOreRecipe) recipe).getInput()));
+            } else if (cls == ShapelessOreRecipe.class) {
+                addInputs(items, ((ShapelessOreRecipe) recipe).getInput());
+            } else {
+                return null;
+            }
+            return items;
+        }
+
+        private static void addInputs(Set<Item> to, List<?> inputs) {
+            for (Object input : inputs) {
+                if (input instanceof ItemStack) {
+                    ItemStack stack = (ItemStack) input;
+                    if (!stack.isEmpty()) {
+                        to.add(stack.getItem());
+                    }
+                } else if (input instanceof List) {
+                    // Ore dictionary entries
+                    addInputs(to, (List<?>) input);
+                }
+            }
+        }
+    }
 }
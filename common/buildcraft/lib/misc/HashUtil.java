@@ -28,16 +28,13 @@ import net.minecraft.nbt.NBTTagList;
 
 public class HashUtil {
     public static final int DIGEST_LENGTH = 32;
-    private static final MessageDigest SHA_256;
+    /** {@link MessageDigest}'s aren't thread safe, and hashes are computed on both the client and (integrated) server
+     * threads. */
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(HashUtil::createSha256);
     private static final MethodHandle HANDLE_NBT_WRITE;
 
     static {
-        try {
-            SHA_256 = MessageDigest.getInstance("sha-256");
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException(e);
-        }
-        int realLength = SHA_256.getDigestLength();
+        int realLength = SHA_256.get().getDigestLength();
         if (realLength != DIGEST_LENGTH) {
             // Just in case
             throw new IllegalStateException("Digest length of sha-256 is meant to be 32, but returned " + realLength);
@@ -68,25 +65,35 @@ public class HashUtil {
         computeHash(nbt);
     }
 
+    private static MessageDigest createSha256() {
+        try {
+            return MessageDigest.getInstance("sha-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public static byte[] computeHash(byte[] data) {
-        return SHA_256.digest(data);
+        return SHA_256.get().digest(data);
     }
 
     public static byte[] computeHash(NBTTagCompound nbt) {
         // Order is important here - we have to use a stable algorithm for the order
         // (Otherwise we depend on the order that HashMap assigns us)
-        try (DigestOutputStream dos = createDigestStream()) {
+        MessageDigest digest = SHA_256.get();
+        try (DigestOutputStream dos = new DigestOutputStream(ByteStreams.nullOutputStream(), digest)) {
 
             writeStableCompound(nbt, new DataOutputStream(dos));
 
         } catch (IOException io) {
             throw new RuntimeException("Failed to write to a perfectly good DigestOutputStream!", io);
         }
-        return SHA_256.digest();
+        return digest.digest();
     }
 
+    /** @return A stream that digests everything written to it, using a new digest. */
     public static DigestOutputStream createDigestStream() {
-        return new DigestOutputStream(ByteStreams.nullOutputStream(), SHA_256);
+        return new DigestOutputStream(ByteStreams.nullOutputStream(), createSha256());
     }
 
     public static String convertHashToString(byte[] hash) {
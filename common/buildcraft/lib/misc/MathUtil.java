@@ -53,6 +53,22 @@ public class MathUtil {
         return Math.max(Math.min(toClamp, max), min);
     }
 
+    /** Splits a total between several consecutive ranges of weights, in proportion to their size. Unlike rounding
+     * {@code total * weight / totalWeight} down, the shares of every range (from 0 to {@code totalWeight}) always add up
+     * to exactly {@code total}.
+     *
+     * @param weightBefore The sum of the weights of every range before this one.
+     * @param weight The weight of this range.
+     * @return The part of the total that belongs to this range. */
+    public static int getProportionalShare(int total, long weightBefore, long weight, long totalWeight) {
+        if (totalWeight <= 0) {
+            return 0;
+        }
+        long start = total * weightBefore / totalWeight;
+        long end = total * (weightBefore + weight) / totalWeight;
+        return (int) (end - start);
+    }
+
     public static int findHighestCommonFactor(int a, int b) {
         if (b > a) {
             int t = b;
@@ -71,6 +71,16 @@ public class MessageUtil {
         }
     }
 
+    /** @return True if at least one player is watching the chunk that contains the given position. */
+    public static boolean isWatched(World world, BlockPos pos) {
+        if (world instanceof WorldServer) {
+            WorldServer server = (WorldServer) world;
+            PlayerChunkMapEntry playerChunkMap = server.getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
+            return playerChunkMap != null && playerChunkMap.hasPlayerMatching(player -> true);
+        }
+        return false;
+    }
+
     public static void sendToPlayers(Iterable<EntityPlayer> players, IMessage message) {
         for (EntityPlayer player : players) {
             if (player instanceof EntityPlayerMP) {
@@ -8,7 +8,10 @@ package buildcraft.lib.nbt;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import gnu.trove.list.array.TByteArrayList;
 import gnu.trove.list.array.TDoubleArrayList;
@@ -16,6 +19,11 @@ import gnu.trove.list.array.TFloatArrayList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.list.array.TLongArrayList;
 import gnu.trove.list.array.TShortArrayList;
+import gnu.trove.map.hash.TByteIntHashMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import gnu.trove.map.hash.TShortIntHashMap;
 
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagByte;
@@ -36,9 +44,9 @@ import buildcraft.api.core.InvalidInputDataException;
 
 /** Defines a map of commonly used tags. */
 public class NbtSquishMap {
-    // TODO: Try adding "ImmutableTagCompound" and "ImmutableTagList" to see if the equals() and hashCode() of compounds
-    // is a problem atm
-    // perhaps use "TCustomHashSet" with a simalir deduplicating functionality of FoamFix?
+    private static final int NO_INDEX = -1;
+    private static final int CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
 
     // I'm not completely convinced that this one is necessary.
     // However it completes the set so, meh
@@ -56,135 +64,199 @@ public class NbtSquishMap {
     final List<String> strings = new ArrayList<>();
     final List<NBTBase> complex = new ArrayList<>();
 
+    // The index of every value in the lists above, so that adding and finding tags doesn't need to search the lists.
+    // These are only filled by addTag, as reading never needs to look up an index.
+    // Floats and doubles are keyed by their bits so that every value (including NaN and -0) is kept exactly.
+
+    private final TByteIntHashMap byteIndices = new TByteIntHashMap(CAPACITY, LOAD_FACTOR, (byte) 0, NO_INDEX);
+    private final TShortIntHashMap shortIndices = new TShortIntHashMap(CAPACITY, LOAD_FACTOR, (short) 0, NO_INDEX);
+    private final TIntIntHashMap intIndices = new TIntIntHashMap(CAPACITY, LOAD_FACTOR, 0, NO_INDEX);
+    private final TLongIntHashMap longIndices = new TLongIntHashMap(CAPACITY, LOAD_FACTOR, 0, NO_INDEX);
+    private final TIntIntHashMap floatIndices = new TIntIntHashMap(CAPACITY, LOAD_FACTOR, 0, NO_INDEX);
+    private final TLongIntHashMap doubleIndices = new TLongIntHashMap(CAPACITY, LOAD_FACTOR, 0, NO_INDEX);
+
+    private final TObjectIntHashMap<TByteArrayList> byteArrayIndices = new TObjectIntHashMap<>(CAPACITY, LOAD_FACTOR, NO_INDEX);
+    private final TObjectIntHashMap<TIntArrayList> intArrayIndices = new TObjectIntHashMap<>(CAPACITY, LOAD_FACTOR, NO_INDEX);
+
+    private final TObjectIntHashMap<String> stringIndices = new TObjectIntHashMap<>(CAPACITY, LOAD_FACTOR, NO_INDEX);
+    /** The same tag objects tend to be used many times (for example every air block in a blueprint) so these are
+     * checked first, as the structural hash of a compound or list has to visit every tag inside of it. */
+    private final Map<NBTBase, Integer> complexIdentityIndices = new IdentityHashMap<>();
+    private final Map<NBTBase, Integer> complexIndices = new HashMap<>();
+
     public NbtSquishMap() {}
 
     public void addTag(NBTBase nbt) {
         if (nbt instanceof NBTTagString) {
-            String val = ((NBTTagString) nbt).getString();
-            if (!strings.contains(val)) {
-                strings.add(val);
-            }
+            addString(((NBTTagString) nbt).getString());
         } else if (nbt instanceof NBTTagByte) {
             byte val = ((NBTTagByte) nbt).getByte();
-            if (!bytes.contains(val)) {
+            if (!byteIndices.containsKey(val)) {
+                byteIndices.put(val, bytes.size());
                 bytes.add(val);
             }
         } else if (nbt instanceof NBTTagShort) {
             short val = ((NBTTagShort) nbt).getShort();
-            if (!shorts.contains(val)) {
+            if (!shortIndices.containsKey(val)) {
+                shortIndices.put(val, shorts.size());
                 shorts.add(val);
             }
         } else if (nbt instanceof NBTTagInt) {
             int val = ((NBTTagInt) nbt).getInt();
-            if (!ints.contains(val)) {
+            if (!intIndices.containsKey(val)) {
+                intIndices.put(val, ints.size());
                 ints.add(val);
             }
         } else if (nbt instanceof NBTTagLong) {
             long val = ((NBTTagLong) nbt).getLong();
-            if (!longs.contains(val)) {
+            if (!longIndices.containsKey(val)) {
+                longIndices.put(val, longs.size());
                 longs.add(val);
             }
         } else if (nbt instanceof NBTTagFloat) {
             float val = ((NBTTagFloat) nbt).getFloat();
-            if (!floats.contains(val)) {
+            int bits = Float.floatToRawIntBits(val);
+            if (!floatIndices.containsKey(bits)) {
+                floatIndices.put(bits, floats.size());
                 floats.add(val);
             }
         } else if (nbt instanceof NBTTagDouble) {
             double val = ((NBTTagDouble) nbt).getDouble();
-            if (!doubles.contains(val)) {
+            long bits = Double.doubleToRawLongBits(val);
+            if (!doubleIndices.containsKey(bits)) {
+                doubleIndices.put(bits, doubles.size());
                 doubles.add(val);
             }
         } else if (nbt instanceof NBTTagByteArray) {
             byte[] val = ((NBTTagByteArray) nbt).getByteArray();
             TByteArrayList array = new TByteArrayList(val);
-            if (!byteArrays.contains(array)) {
+            if (!byteArrayIndices.containsKey(array)) {
+                byteArrayIndices.put(array, byteArrays.size());
                 byteArrays.add(array);
             }
         } else if (nbt instanceof NBTTagIntArray) {
             int[] val = ((NBTTagIntArray) nbt).getIntArray();
             TIntArrayList array = new TIntArrayList(val);
-            if (!intArrays.contains(array)) {
+            if (!intArrayIndices.containsKey(array)) {
+                intArrayIndices.put(array, intArrays.size());
                 intArrays.add(array);
             }
         } else if (nbt instanceof NBTTagList) {
             NBTTagList list = (NBTTagList) nbt;
-            if (!complex.contains(list)) {
+            if (!containsComplex(list)) {
                 for (int i = 0; i < list.tagCount(); i++) {
                     addTag(list.get(i));
                 }
-                complex.add(list);
+                addComplex(list);
             }
         } else if (nbt instanceof NBTTagCompound) {
             NBTTagCompound compound = (NBTTagCompound) nbt;
-            if (!complex.contains(compound)) {
+            if (!containsComplex(compound)) {
                 for (String key : compound.getKeySet()) {
-                    if (!strings.contains(key)) {
-                        strings.add(key);
-                    }
+                    addString(key);
                     addTag(compound.getTag(key));
                 }
-                complex.add(compound);
+                addComplex(compound);
             }
         } else {
             throw new IllegalArgumentException("Cannot handle tag " + nbt);
         }
     }
 
+    private void addString(String val) {
+        if (!stringIndices.containsKey(val)) {
+            stringIndices.put(val, strings.size());
+            strings.add(val);
+        }
+    }
+
+    private boolean containsComplex(NBTBase nbt) {
+        if (complexIdentityIndices.containsKey(nbt)) {
+            return true;
+        }
+        Integer index = complexIndices.get(nbt);
+        if (index != null) {
+            complexIdentityIndices.put(nbt, index);
+            return true;
+        }
+        return false;
+    }
+
+    private void addComplex(NBTBase nbt) {
+        Integer index = complex.size();
+        complexIdentityIndices.put(nbt, index);
+        complexIndices.put(nbt, index);
+        complex.add(nbt);
+    }
+
+    private int indexOfComplex(NBTBase nbt) {
+        Integer index = complexIdentityIndices.get(nbt);
+        if (index == null) {
+            index = complexIndices.get(nbt);
+        }
+        return index == null ? NO_INDEX : index;
+    }
+
+    /** @return The index of the given string (as used for the keys of compounds), or -1 if it hasn't been added. */
+    public int indexOfString(String string) {
+        return stringIndices.get(string);
+    }
+
     public int indexOfTag(NBTBase nbt) {
         int offset = 0;
         if (nbt instanceof NBTTagByte) {
-            return bytes.indexOf(((NBTTagByte) nbt).getByte());
+            return byteIndices.get(((NBTTagByte) nbt).getByte());
         } else {
             offset += bytes.size();
         }
         if (nbt instanceof NBTTagShort) {
-            return offset + shorts.indexOf(((NBTTagShort) nbt).getShort());
+            return offset + shortIndices.get(((NBTTagShort) nbt).getShort());
         } else {
             offset += shorts.size();
         }
         if (nbt instanceof NBTTagInt) {
-            return offset + ints.indexOf(((NBTTagInt) nbt).getInt());
+            return offset + intIndices.get(((NBTTagInt) nbt).getInt());
         } else {
             offset += ints.size();
         }
         if (nbt instanceof NBTTagLong) {
-            return offset + longs.indexOf(((NBTTagLong) nbt).getLong());
+            return offset + longIndices.get(((NBTTagLong) nbt).getLong());
         } else {
             offset += longs.size();
         }
         if (nbt instanceof NBTTagFloat) {
-            return offset + floats.indexOf(((NBTTagFloat) nbt).getFloat());
+            return offset + floatIndices.get(Float.floatToRawIntBits(((NBTTagFloat) nbt).getFloat()));
         } else {
             offset += floats.size();
         }
         if (nbt instanceof NBTTagDouble) {
-            return offset + doubles.indexOf(((NBTTagDouble) nbt).getDouble());
+            return offset + doubleIndices.get(Double.doubleToRawLongBits(((NBTTagDouble) nbt).getDouble()));
         } else {
             offset += doubles.size();
         }
         if (nbt instanceof NBTTagByteArray) {
             byte[] val = ((NBTTagByteArray) nbt).getByteArray();
             TByteArrayList array = new TByteArrayList(val);
-            return offset + byteArrays.indexOf(array);
+            return offset + byteArrayIndices.get(array);
         } else {
             offset += byteArrays.size();
         }
         if (nbt instanceof NBTTagIntArray) {
             int[] val = ((NBTTagIntArray) nbt).getIntArray();
             TIntArrayList array = new TIntArrayList(val);
-            return offset + intArrays.indexOf(array);
+            return offset + intArrayIndices.get(array);
         } else {
             offset += intArrays.size();
         }
         if (nbt instanceof NBTTagString) {
-            return offset + strings.indexOf(((NBTTagString) nbt).getString());
+            return offset + stringIndices.get(((NBTTagString) nbt).getString());
         } else {
             offset += strings.size();
         }
         if (nbt instanceof NBTTagList) {
-            return offset + complex.indexOf(nbt);
+            return offset + indexOfComplex(nbt);
         } else if (nbt instanceof NBTTagCompound) {
-            return offset + complex.indexOf(nbt);
+            return offset + indexOfComplex(nbt);
         }
         throw new IllegalArgumentException("Cannot handle tag " + nbt);
     }
@@ -241,7 +241,7 @@ class NbtSquishMapWriter {
             profiler.endSection();
             if (debug) log("\n             \"" + key + "\" -> " + index + " (" + safeToString(nbt) + ")");
             profiler.startSection("index_key");
-            stringType.writeIndex(to, map.strings.indexOf(key));
+            stringType.writeIndex(to, map.indexOfString(key));
             profiler.endSection();
             type.writeIndex(to, index);
             profiler.endSection();
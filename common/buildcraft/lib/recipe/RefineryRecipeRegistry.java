@@ -8,10 +8,11 @@ package buildcraft.lib.recipe;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -28,6 +29,8 @@ public enum RefineryRecipeRegistry implements IRefineryRecipeManager {
     public final IRefineryRegistry<IHeatableRecipe> heatableRegistry = new SingleRegistry<>();
     public final IRefineryRegistry<ICoolableRecipe> coolableRegistry = new SingleRegistry<>();
 
+    private int changeCount = 0;
+
     @Override
     public IHeatableRecipe createHeatingRecipe(FluidStack in, FluidStack out, int heatFrom, int heatTo, int ticks) {
         return new HeatableRecipe(ticks, in, out, heatFrom, heatTo);
@@ -58,8 +61,20 @@ public enum RefineryRecipeRegistry implements IRefineryRecipeManager {
         return distillationRegistry;
     }
 
-    private static class SingleRegistry<R extends IRefineryRecipe> implements IRefineryRegistry<R> {
-        private final List<R> allRecipes = new LinkedList<>();
+    /** @return A number that changes whenever a recipe is added to or removed from any of the registries. Machines can
+     *         keep the recipe that they found for their current input fluid until either the fluid or this changes. */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    private class SingleRegistry<R extends IRefineryRecipe> implements IRefineryRegistry<R> {
+        private final List<R> allRecipes = new ArrayList<>();
+        private final Collection<R> allRecipesView = Collections.unmodifiableCollection(allRecipes);
+        /** Every recipe in {@link #allRecipes}, stored by the name of its input fluid. Recipes for the same fluid only
+         * differ by the NBT of the input, so each list is usually just a single recipe. This uses the name rather than
+         * the {@link net.minecraftforge.fluids.Fluid} object because forge can replace the fluid that a stack refers
+         * to when the default fluids change. */
+        private final Map<String, List<R>> recipesByFluid = new HashMap<>();
 
         @Override
         public Stream<R> getRecipes(Predicate<R> filter) {
@@ -68,7 +83,7 @@ public enum RefineryRecipeRegistry implements IRefineryRecipeManager {
 
         @Override
         public Collection<R> getAllRecipes() {
-            return allRecipes;
+            return allRecipesView;
         }
 
         @Override
@@ -77,9 +92,12 @@ public enum RefineryRecipeRegistry implements IRefineryRecipeManager {
             if (fluid == null) {
                 return null;
             }
-            for (R recipe : allRecipes) {
-                if (recipe.in().isFluidEqual(fluid)) {
-                    return recipe;
+            List<R> recipes = recipesByFluid.get(fluid.getFluid().getName());
+            if (recipes != null) {
+                for (R recipe : recipes) {
+                    if (recipe.in().isFluidEqual(fluid)) {
+                        return recipe;
+                    }
                 }
             }
             return null;
@@ -96,23 +114,39 @@ public enum RefineryRecipeRegistry implements IRefineryRecipeManager {
                     removed.add(recipe);
                 }
             }
+            if (!removed.isEmpty()) {
+                recipesByFluid.clear();
+                for (R recipe : allRecipes) {
+                    index(recipe);
+                }
+                changeCount++;
+            }
             return removed;
         }
 
         @Override
         public R addRecipe(R recipe) {
             if (recipe == null) throw new NullPointerException("recipe");
-            ListIterator<R> iter = allRecipes.listIterator();
-            while (iter.hasNext()) {
-                R existing = iter.next();
-                if (existing.in().isFluidEqual(recipe.in())) {
-                    iter.set(recipe);
-                    return recipe;
+            changeCount++;
+            List<R> sameFluid = recipesByFluid.get(recipe.in().getFluid().getName());
+            if (sameFluid != null) {
+                for (int i = 0; i < sameFluid.size(); i++) {
+                    R existing = sameFluid.get(i);
+                    if (existing.in().isFluidEqual(recipe.in())) {
+                        sameFluid.set(i, recipe);
+                        allRecipes.set(allRecipes.indexOf(existing), recipe);
+                        return recipe;
+                    }
                 }
             }
             allRecipes.add(recipe);
+            index(recipe);
             return recipe;
         }
+
+        private void index(R recipe) {
+            recipesByFluid.computeIfAbsent(recipe.in().getFluid().getName(), f -> new ArrayList<>(1)).add(recipe);
+        }
     }
 
     public static abstract class RefineryRecipe implements IRefineryRecipe {
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorldEventListener;
+import net.minecraft.world.World;
+
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.LoaderState;
+
+/** Tells every registered {@link IBlockChangeListener} about every block that changes in a server world. A single
+ * {@link IWorldEventListener} is added to each world when it loads (and removed when it unloads), so modules don't
+ * need to add their own. */
+public class BlockChangeListeners {
+    /** How many of the positions (or objects) that something tracks through block changes it should re-check every
+     * tick anyway. Blocks can be changed without notifying the world's listeners (for example by a chunk being
+     * regenerated, or by another mod writing to a chunk directly), so every tracker slowly re-verifies everything it
+     * tracks with this budget. */
+    public static final int VERIFY_PER_TICK = 16;
+
+    private static final List<IBlockChangeListener> LISTENERS = new ArrayList<>();
+    private static final Map<World, IWorldEventListener> WORLD_LISTENERS = new WeakHashMap<>();
+
+    /** Adds a listener that will be called for every block change in every server world. This must be called before
+     * post-init. */
+    public static void addListener(IBlockChangeListener listener) {
+        if (Loader.instance().hasReachedState(LoaderState.POSTINITIALIZATION)) {
+            throw new IllegalStateException("Registered too late!");
+        }
+        LISTENERS.add(listener);
+    }
+
+    public static void onWorldLoad(World world) {
+        if (world.isRemote || LISTENERS.isEmpty()) {
+            return;
+        }
+        IWorldEventListener listener = new WorldEventListenerAdapter() {
+            @Override
+            public void notifyBlockUpdate(World w, BlockPos pos, IBlockState oldState, IBlockState newState,
+                int flags) {
+                if (oldState != newState) {
+                    for (IBlockChangeListener l : LISTENERS) {
+                        l.onBlockChange(w, pos);
+                    }
+                }
+            }
+        };
+        world.addEventListener(listener);
+        WORLD_LISTENERS.put(world, listener);
+    }
+
+    public static void onWorldUnload(World world) {
+        IWorldEventListener listener = WORLD_LISTENERS.remove(world);
+        if (listener != null) {
+            world.removeEventListener(listener);
+        }
+    }
+
+    @FunctionalInterface
+    public interface IBlockChangeListener {
+        /** Called whenever the block state at the given position changes. */
+        void onBlockChange(World world, BlockPos pos);
+    }
+}
@@ -8,10 +8,12 @@ package buildcraft.robotics;
 
 import java.util.function.Consumer;
 
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppedEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 
@@ -25,6 +27,7 @@ import buildcraft.lib.registry.TagManager.TagEntry;
 import buildcraft.core.BCCore;
 import buildcraft.robotics.zone.MessageZoneMapRequest;
 import buildcraft.robotics.zone.MessageZoneMapResponse;
+import buildcraft.robotics.zone.ZonePlannerMapDataServer;
 
 //@formatter:off
 @Mod(modid = BCRobotics.MODID,
@@ -46,6 +49,7 @@ public class BCRobotics {
         BCRoboticsBlocks.preInit();
 
         NetworkRegistry.INSTANCE.registerGuiHandler(INSTANCE, BCRoboticsProxy.getProxy());
+        MinecraftForge.EVENT_BUS.register(BCRoboticsEventDist.INSTANCE);
 
         MessageManager.addMessageType(MessageZoneMapRequest.class, MessageZoneMapRequest.HANDLER, Side.SERVER);
         MessageManager.addMessageType(MessageZoneMapResponse.class, MessageZoneMapResponse.HANDLER, Side.CLIENT);
@@ -62,6 +66,12 @@ public class BCRobotics {
 
     }
 
+    @Mod.EventHandler
+    public static void serverStop(FMLServerStoppedEvent event) {
+        // The map chunks are keyed by dimension, so another save would otherwise see the old one's maps
+        ZonePlannerMapDataServer.INSTANCE.clear();
+    }
+
     static {
         startBatch();
 
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.robotics;
+
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import buildcraft.robotics.zone.ZonePlannerMapDataServer;
+
+public enum BCRoboticsEventDist {
+    INSTANCE;
+
+    @SubscribeEvent
+    public void onChunkSave(ChunkDataEvent.Save event) {
+        if (!event.getWorld().isRemote) {
+            ZonePlannerMapDataServer.INSTANCE.onChunkSave(event.getChunk(), event.getData());
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkLoad(ChunkDataEvent.Load event) {
+        if (!event.getWorld().isRemote) {
+            ZonePlannerMapDataServer.INSTANCE.onChunkLoad(event.getChunk(), event.getData());
+        }
+    }
+}
@@ -254,17 +254,15 @@ public class GuiZonePlanner extends GuiBC8<ContainerZonePlanner> {
         int chunkBaseX = posX >> 4;
         int chunkBaseZ = posZ >> 4;
         int radius = 8;
-        for (int chunkX = chunkBaseX - radius; chunkX < chunkBaseX + radius; chunkX++) {
-            for (int chunkZ = chunkBaseZ - radius; chunkZ < chunkBaseZ + radius; chunkZ++) {
-                ZonePlannerMapRenderer.INSTANCE.getChunkGlList(
-                        new ZonePlannerMapChunkKey(
-                                new ChunkPos(chunkX, chunkZ),
-                                dimension,
-                                container.tile.getLevel()
-                        )
-                ).ifPresent(GlStateManager::callList);
-            }
-        }
+        ZonePlannerMapRenderer.INSTANCE.renderChunks(
+                mc.world,
+                dimension,
+                container.tile.getLevel(),
+                chunkBaseX - radius,
+                chunkBaseZ - radius,
+                chunkBaseX + radius - 1,
+                chunkBaseZ + radius - 1
+        );
 
         BlockPos found = null;
         int foundColor = 0;
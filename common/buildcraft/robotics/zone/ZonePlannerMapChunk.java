@@ -8,63 +8,121 @@ package buildcraft.robotics.zone;
 
 import javax.annotation.Nullable;
 
+import io.netty.handler.codec.DecoderException;
+
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntIntHashMap;
 
 public class ZonePlannerMapChunk {
-    private final MapColourData[][] data = new MapColourData[16][16];
+    /** The height of the top block of each column (indexed by {@code z * 16 + x}), or 0 if nothing was found. */
+    private final int[] heights = new int[256];
+    private final int[] colours = new int[256];
 
     public ZonePlannerMapChunk(World world, ZonePlannerMapChunkKey key) {
-        Chunk chunk = world.getChunkFromChunkCoords(key.chunkPos.chunkXPos, key.chunkPos.chunkZPos);
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
+        this(world.getChunkFromChunkCoords(key.chunkPos.chunkXPos, key.chunkPos.chunkZPos), key.level);
+    }
+
+    public ZonePlannerMapChunk(Chunk chunk, int level) {
+        ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+        // Everything above the top filled section is air, so there is no need to scan it
+        int top = Math.min(level * ZonePlannerMapChunkKey.LEVEL_HEIGHT, chunk.getTopFilledSegment() + 15);
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
                 // Scan down from the max height value of a chunk until we find a block
-                for (int y = key.level * ZonePlannerMapChunkKey.LEVEL_HEIGHT; y > 0; y--) {
-                    int colour = chunk.getBlockState(x, y, z).getMapColor().colorValue;
+                int y = top;
+                while (y > 0) {
+                    ExtendedBlockStorage section = sections[y >> 4];
+                    if (section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty()) {
+                        // Skip straight to the top of the section below
+                        y = (y & ~15) - 1;
+                        continue;
+                    }
+                    int colour = section.get(x, y & 15, z).getMapColor().colorValue;
                     if (colour != 0) {
-                        data[x][z] = new MapColourData(y, colour);
+                        heights[z * 16 + x] = y;
+                        colours[z * 16 + x] = colour;
                         break;
                     }
+                    y--;
                 }
             }
         }
     }
 
+    /** Reads the format written by {@link #write(PacketBuffer)}. */
     public ZonePlannerMapChunk(PacketBuffer buffer) {
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                int posY = buffer.readInt();
-                if (posY > 0) {
-                    int colour = buffer.readInt();
-                    data[x][z] = new MapColourData(posY, colour);
-                }
+        int paletteSize = buffer.readVarInt();
+        if (paletteSize < 0 || paletteSize > 256) {
+            throw new DecoderException("Invalid palette size " + paletteSize);
+        }
+        int[] palette = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            palette[i] = buffer.readVarInt();
+        }
+        int lastHeight = 0;
+        for (int i = 0; i < 256; i++) {
+            int index = buffer.readVarInt();
+            if (index == 0) {
+                continue;
             }
+            if (index > paletteSize) {
+                throw new DecoderException("Invalid palette index " + index + " (palette size = " + paletteSize + ")");
+            }
+            int delta = buffer.readVarInt();
+            lastHeight += (delta >>> 1) ^ -(delta & 1);
+            heights[i] = lastHeight;
+            colours[i] = palette[index - 1];
         }
     }
 
+    /** Writes a palette of every colour used, followed by the palette index (or 0 for nothing) and the (zigzag
+     * encoded) difference in height from the previous column for each column. As neighbouring columns are usually
+     * about the same height this is normally only 2 bytes per column. */
     public void write(PacketBuffer buffer) {
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                MapColourData colour = data[x][z];
-                if (colour == null) {
-                    buffer.writeInt(-1);
-                } else {
-                    buffer.writeInt(colour.posY);
-                    buffer.writeInt(colour.colour);
-                }
+        TIntIntHashMap paletteIndices = new TIntIntHashMap();
+        TIntArrayList palette = new TIntArrayList();
+        for (int i = 0; i < 256; i++) {
+            if (heights[i] > 0 && !paletteIndices.containsKey(colours[i])) {
+                paletteIndices.put(colours[i], palette.size() + 1);
+                palette.add(colours[i]);
             }
         }
+        buffer.writeVarInt(palette.size());
+        for (int i = 0; i < palette.size(); i++) {
+            buffer.writeVarInt(palette.get(i));
+        }
+        int lastHeight = 0;
+        for (int i = 0; i < 256; i++) {
+            if (heights[i] <= 0) {
+                buffer.writeVarInt(0);
+                continue;
+            }
+            buffer.writeVarInt(paletteIndices.get(colours[i]));
+            int delta = heights[i] - lastHeight;
+            buffer.writeVarInt((delta << 1) ^ (delta >> 31));
+            lastHeight = heights[i];
+        }
     }
 
     public int getColour(int x, int z) {
-        MapColourData col = getData(x, z);
-        return col == null ? -1 : col.colour;
+        int i = (z & 15) * 16 + (x & 15);
+        return heights[i] > 0 ? colours[i] : -1;
+    }
+
+    /** @return The height of the top block in the given column, or 0 if there isn't one. */
+    public int getHeight(int x, int z) {
+        return heights[(z & 15) * 16 + (x & 15)];
     }
 
     @Nullable
     public MapColourData getData(int x, int z) {
-        return data[x & 15][z & 15];
+        int i = (z & 15) * 16 + (x & 15);
+        return heights[i] > 0 ? new MapColourData(heights[i], colours[i]) : null;
     }
 
     public static final class MapColourData {
@@ -8,15 +8,23 @@ package buildcraft.robotics.zone;
 
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 
 import net.minecraft.world.World;
 
 public abstract class ZonePlannerMapData {
-    protected final Cache<ZonePlannerMapChunkKey, ZonePlannerMapChunk> data = CacheBuilder.newBuilder()
-            .expireAfterWrite(2, TimeUnit.MINUTES)
-            .build();
+    protected final Cache<ZonePlannerMapChunkKey, ZonePlannerMapChunk> data;
+
+    protected ZonePlannerMapData() {
+        this(CacheBuilder.newBuilder().expireAfterWrite(2, TimeUnit.MINUTES).build());
+    }
+
+    protected ZonePlannerMapData(Cache<ZonePlannerMapChunkKey, ZonePlannerMapChunk> data) {
+        this.data = data;
+    }
 
     /** Use {@link #getChunk(World, ZonePlannerMapChunkKey)} for a cached version */
     protected abstract ZonePlannerMapChunk loadChunk(World world, ZonePlannerMapChunkKey key);
@@ -33,4 +41,15 @@ public abstract class ZonePlannerMapData {
         }
         return null;
     }
+
+    /** Forgets every chunk, for when the world (or server) that they came from goes away. */
+    public void clear() {
+        data.invalidateAll();
+    }
+
+    /** @return The chunk for the given key, if it has already been loaded. This never loads (or requests) it. */
+    @Nullable
+    public final ZonePlannerMapChunk getLoadedChunk(ZonePlannerMapChunkKey key) {
+        return data.getIfPresent(key);
+    }
 }
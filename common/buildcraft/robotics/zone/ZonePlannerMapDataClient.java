@@ -27,9 +27,9 @@ public class ZonePlannerMapDataClient extends ZonePlannerMapData {
         return null;
     }
 
-
     public void onChunkReceived(ZonePlannerMapChunkKey key, ZonePlannerMapChunk zonePlannerMapChunk) {
         pending.remove(key);
         data.put(key, zonePlannerMapChunk);
+        ZonePlannerMapRenderer.INSTANCE.onChunkReceived(key);
     }
 }
@@ -6,13 +6,83 @@
 
 package buildcraft.robotics.zone;
 
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.CacheBuilder;
+
+import io.netty.buffer.Unpooled;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
+import net.minecraftforge.common.util.Constants;
+
+import buildcraft.api.core.BCLog;
+
+/** The server keeps every map chunk until it hasn't been asked for in a while, rather than regenerating them. They are
+ * regenerated whenever their world chunk is saved (as that is when it has changed), and stored in the world chunk so
+ * that they are still available after it has been unloaded and loaded again. */
 public class ZonePlannerMapDataServer extends ZonePlannerMapData {
     public static final ZonePlannerMapDataServer INSTANCE = new ZonePlannerMapDataServer();
 
+    private static final String NBT_KEY = "buildcraft:zone_planner_map";
+    private static final int LEVEL_COUNT = 256 / ZonePlannerMapChunkKey.LEVEL_HEIGHT;
+
+    private ZonePlannerMapDataServer() {
+        super(CacheBuilder.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).build());
+    }
+
     @Override
     public ZonePlannerMapChunk loadChunk(World world, ZonePlannerMapChunkKey key) {
         return new ZonePlannerMapChunk(world, key);
     }
+
+    public void onChunkSave(Chunk chunk, NBTTagCompound chunkNbt) {
+        int dimension = chunk.getWorld().provider.getDimension();
+        ChunkPos chunkPos = chunk.getPos();
+        NBTTagList list = new NBTTagList();
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            ZonePlannerMapChunkKey key = new ZonePlannerMapChunkKey(chunkPos, dimension, level);
+            if (data.getIfPresent(key) == null) {
+                continue;
+            }
+            ZonePlannerMapChunk mapChunk = new ZonePlannerMapChunk(chunk, level);
+            data.put(key, mapChunk);
+            PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+            mapChunk.write(buffer);
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.readBytes(bytes);
+            NBTTagCompound nbt = new NBTTagCompound();
+            nbt.setInteger("level", level);
+            nbt.setByteArray("data", bytes);
+            list.appendTag(nbt);
+        }
+        if (!list.hasNoTags()) {
+            chunkNbt.setTag(NBT_KEY, list);
+        }
+    }
+
+    public void onChunkLoad(Chunk chunk, NBTTagCompound chunkNbt) {
+        if (!chunkNbt.hasKey(NBT_KEY, Constants.NBT.TAG_LIST)) {
+            return;
+        }
+        int dimension = chunk.getWorld().provider.getDimension();
+        NBTTagList list = chunkNbt.getTagList(NBT_KEY, Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound nbt = list.getCompoundTagAt(i);
+            ZonePlannerMapChunkKey key = new ZonePlannerMapChunkKey(chunk.getPos(), dimension, nbt.getInteger("level"));
+            try {
+                PacketBuffer buffer = new PacketBuffer(Unpooled.wrappedBuffer(nbt.getByteArray("data")));
+                data.put(key, new ZonePlannerMapChunk(buffer));
+            } catch (RuntimeException e) {
+                // It will just be regenerated when it is next needed
+                BCLog.logger.warn("[robotics.zone] Ignoring an invalid stored map for " + chunk.getPos() + ": "
+                    + e.getMessage());
+            }
+        }
+    }
 }
@@ -6,37 +6,47 @@
 
 package buildcraft.robotics.zone;
 
-import java.util.OptionalInt;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalNotification;
 
 import org.lwjgl.opengl.GL11;
 
-import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.VertexBuffer;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
 
 import buildcraft.lib.client.model.MutableVertex;
 
-import buildcraft.robotics.zone.ZonePlannerMapChunk.MapColourData;
-
 public enum ZonePlannerMapRenderer {
     INSTANCE;
 
-    private static final Cache<ZonePlannerMapChunkKey, Integer> CHUNK_GL_CACHE = CacheBuilder.newBuilder()
+    /** How many chunks wide (and long) each tile is. Every tile is drawn with a single VBO (or display list). */
+    private static final int TILE_SIZE = 4;
+    /** The most tiles that will be (re)built each frame, so that lots of chunks arriving at once doesn't freeze the
+     * gui. */
+    private static final int MAX_BUILDS_PER_FRAME = 2;
+
+    /** Keyed by the tile position rather than the chunk position. */
+    private static final Cache<ZonePlannerMapChunkKey, MapTile> TILE_CACHE = CacheBuilder.newBuilder()
             .expireAfterAccess(20, TimeUnit.SECONDS)
             .removalListener(ZonePlannerMapRenderer::onRemove)
             .build();
     private final MutableVertex vertex = new MutableVertex();
 
-    private static void onRemove(RemovalNotification<ZonePlannerMapChunkKey, Integer> notification) {
-        Integer glList = notification.getValue();
-        if (glList != null) {
-            GL11.glDeleteLists(glList, 1);
+    private static void onRemove(RemovalNotification<ZonePlannerMapChunkKey, MapTile> notification) {
+        MapTile tile = notification.getValue();
+        if (tile != null) {
+            tile.delete();
         }
     }
 
@@ -97,47 +107,243 @@ public enum ZonePlannerMapRenderer {
         drawBlockCuboid(builder, x, y, z, 1);
     }
 
-    public OptionalInt getChunkGlList(ZonePlannerMapChunkKey key) {
-        Integer glList = CHUNK_GL_CACHE.getIfPresent(key);
-        if (glList == null) {
-            genChunk(key);
-            glList = CHUNK_GL_CACHE.getIfPresent(key);
+    /** Draws every chunk between the given chunk positions (inclusive), requesting any that haven't been received
+     * yet. */
+    public void renderChunks(World world, int dimension, int level, int minChunkX, int minChunkZ, int maxChunkX,
+        int maxChunkZ) {
+        int builds = 0;
+        int minTileX = Math.floorDiv(minChunkX, TILE_SIZE);
+        int minTileZ = Math.floorDiv(minChunkZ, TILE_SIZE);
+        int maxTileX = Math.floorDiv(maxChunkX, TILE_SIZE);
+        int maxTileZ = Math.floorDiv(maxChunkZ, TILE_SIZE);
+        for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+            for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                ChunkPos tilePos = new ChunkPos(tileX, tileZ);
+                ZonePlannerMapChunkKey tileKey = new ZonePlannerMapChunkKey(tilePos, dimension, level);
+                MapTile tile = TILE_CACHE.getIfPresent(tileKey);
+                ZonePlannerMapChunk[] chunks = getChunks(world, tileKey);
+                if (tile == null || (!tile.isUpToDate(chunks) && builds < MAX_BUILDS_PER_FRAME)) {
+                    // The cache's removal listener deletes the old tile when it's replaced
+                    tile = buildTile(tileKey, chunks);
+                    TILE_CACHE.put(tileKey, tile);
+                    builds++;
+                }
+                tile.render();
+            }
+        }
+    }
+
+    /** Marks the tiles next to the given chunk as out of date, as they draw the sides of their edge columns using the
+     * heights in it. The tile that contains the chunk notices by itself (in {@link MapTile#isUpToDate}). */
+    public void onChunkReceived(ZonePlannerMapChunkKey key) {
+        int chunkX = key.chunkPos.chunkXPos;
+        int chunkZ = key.chunkPos.chunkZPos;
+        int tileX = Math.floorDiv(chunkX, TILE_SIZE);
+        int tileZ = Math.floorDiv(chunkZ, TILE_SIZE);
+        markDirty(key, Math.floorDiv(chunkX - 1, TILE_SIZE), tileZ);
+        markDirty(key, Math.floorDiv(chunkX + 1, TILE_SIZE), tileZ);
+        markDirty(key, tileX, Math.floorDiv(chunkZ - 1, TILE_SIZE));
+        markDirty(key, tileX, Math.floorDiv(chunkZ + 1, TILE_SIZE));
+    }
+
+    private static void markDirty(ZonePlannerMapChunkKey chunkKey, int tileX, int tileZ) {
+        ZonePlannerMapChunkKey tileKey = new ZonePlannerMapChunkKey(new ChunkPos(tileX, tileZ),
+            chunkKey.dimensionalId, chunkKey.level);
+        MapTile tile = TILE_CACHE.getIfPresent(tileKey);
+        if (tile != null) {
+            tile.dirty = true;
+        }
+    }
+
+    private static ZonePlannerMapChunk[] getChunks(World world, ZonePlannerMapChunkKey tileKey) {
+        ZonePlannerMapChunk[] chunks = new ZonePlannerMapChunk[TILE_SIZE * TILE_SIZE];
+        for (int z = 0; z < TILE_SIZE; z++) {
+            for (int x = 0; x < TILE_SIZE; x++) {
+                ChunkPos chunkPos = new ChunkPos(tileKey.chunkPos.chunkXPos * TILE_SIZE + x,
+                    tileKey.chunkPos.chunkZPos * TILE_SIZE + z);
+                ZonePlannerMapChunkKey key = new ZonePlannerMapChunkKey(chunkPos, tileKey.dimensionalId, tileKey.level);
+                chunks[z * TILE_SIZE + x] = ZonePlannerMapDataClient.INSTANCE.getChunk(world, key);
+            }
         }
-        return glList != null
-                ? OptionalInt.of(glList)
-                : OptionalInt.empty();
+        return chunks;
     }
 
     public void setColor(int color) {
         vertex.colouri(color >> 16, color >> 8, color, color >> 24);
     }
 
-    private void genChunk(ZonePlannerMapChunkKey key) {
-        ZonePlannerMapChunk zonePlannerMapChunk = ZonePlannerMapDataClient.INSTANCE.getChunk(Minecraft.getMinecraft().world, key);
-        if (zonePlannerMapChunk == null) {
-            return;
-        }
+    private MapTile buildTile(ZonePlannerMapChunkKey tileKey, ZonePlannerMapChunk[] chunks) {
         VertexBuffer builder = Tessellator.getInstance().getBuffer();
         builder.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR); // TODO: normals
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                MapColourData data = zonePlannerMapChunk.getData(x, z);
-                if (data != null) {
-                    setColor(data.colour);
-                    drawBlockCuboid(
-                            builder,
-                            key.chunkPos.getXStart() + x,
-                            data.posY,
-                            key.chunkPos.getZStart() + z,
-                            data.posY
-                    );
+        int baseX = tileKey.chunkPos.chunkXPos * TILE_SIZE * 16;
+        int baseZ = tileKey.chunkPos.chunkZPos * TILE_SIZE * 16;
+        int blocks = TILE_SIZE * 16;
+        for (int cz = 0; cz < TILE_SIZE; cz++) {
+            for (int cx = 0; cx < TILE_SIZE; cx++) {
+                ZonePlannerMapChunk chunk = chunks[cz * TILE_SIZE + cx];
+                if (chunk == null) {
+                    continue;
+                }
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        int height = chunk.getHeight(x, z);
+                        if (height <= 0) {
+                            continue;
+                        }
+                        int tx = cx * 16 + x;
+                        int tz = cz * 16 + z;
+                        setColor(chunk.getColour(x, z));
+                        drawColumn(builder, baseX + tx, baseZ + tz, height, //
+                            getHeight(tileKey, chunks, tx - 1, tz, blocks), //
+                            getHeight(tileKey, chunks, tx + 1, tz, blocks), //
+                            getHeight(tileKey, chunks, tx, tz - 1, blocks), //
+                            getHeight(tileKey, chunks, tx, tz + 1, blocks));
+                    }
+                }
+            }
+        }
+        return new MapTile(chunks, compile(builder));
+    }
+
+    /** @return The height of the given column, relative to the start of the given tile. This can be just outside of
+     *         the tile, in which case it is only used if that chunk has already been received. */
+    private static int getHeight(ZonePlannerMapChunkKey tileKey, ZonePlannerMapChunk[] chunks, int x, int z,
+        int blocks) {
+        ZonePlannerMapChunk chunk;
+        if (x >= 0 && z >= 0 && x < blocks && z < blocks) {
+            chunk = chunks[(z >> 4) * TILE_SIZE + (x >> 4)];
+        } else {
+            ChunkPos chunkPos = new ChunkPos(tileKey.chunkPos.chunkXPos * TILE_SIZE + Math.floorDiv(x, 16),
+                tileKey.chunkPos.chunkZPos * TILE_SIZE + Math.floorDiv(z, 16));
+            chunk = ZonePlannerMapDataClient.INSTANCE.getLoadedChunk(
+                new ZonePlannerMapChunkKey(chunkPos, tileKey.dimensionalId, tileKey.level));
+        }
+        return chunk == null ? 0 : chunk.getHeight(x, z);
+    }
+
+    /** Draws a column from 0 up to the given height, like {@link #drawBlockCuboid(VertexBuffer, double, double,
+     * double, double)}, but only the parts of each side that are above the neighbouring column. */
+    private void drawColumn(VertexBuffer builder, double x, double z, int height, int heightNX, int heightPX,
+        int heightNZ, int heightPZ) {
+        double r = 0.5;
+
+        vertex.normalf(0, 1, 0);
+        vertex(builder, x - r, height, z + r);
+        vertex(builder, x + r, height, z + r);
+        vertex(builder, x + r, height, z - r);
+        vertex(builder, x - r, height, z - r);
+
+        vertex.multColourd(0.6);
+        if (heightNX < height) {
+            vertex.normalf(-1, 0, 0);
+            vertex(builder, x - r, heightNX, z + r);
+            vertex(builder, x - r, height, z + r);
+            vertex(builder, x - r, height, z - r);
+            vertex(builder, x - r, heightNX, z - r);
+        }
+        if (heightPX < height) {
+            vertex.normalf(1, 0, 0);
+            vertex(builder, x + r, heightPX, z - r);
+            vertex(builder, x + r, height, z - r);
+            vertex(builder, x + r, height, z + r);
+            vertex(builder, x + r, heightPX, z + r);
+        }
+        vertex.multColourd(1 / 0.6);
+
+        vertex.multColourd(0.8);
+        if (heightNZ < height) {
+            vertex.normalf(0, 0, -1);
+            vertex(builder, x - r, heightNZ, z - r);
+            vertex(builder, x - r, height, z - r);
+            vertex(builder, x + r, height, z - r);
+            vertex(builder, x + r, heightNZ, z - r);
+        }
+        if (heightPZ < height) {
+            vertex.normalf(0, 0, 1);
+            vertex(builder, x + r, heightPZ, z + r);
+            vertex(builder, x + r, height, z + r);
+            vertex(builder, x - r, height, z + r);
+            vertex(builder, x - r, heightPZ, z + r);
+        }
+        vertex.multColourd(1 / 0.8);
+    }
+
+    @Nullable
+    private static Object compile(VertexBuffer builder) {
+        if (builder.getVertexCount() == 0) {
+            builder.finishDrawing();
+            builder.reset();
+            return null;
+        }
+        if (OpenGlHelper.useVbo()) {
+            net.minecraft.client.renderer.vertex.VertexBuffer vbo =
+                new net.minecraft.client.renderer.vertex.VertexBuffer(builder.getVertexFormat());
+            builder.finishDrawing();
+            builder.reset();
+            vbo.bufferData(builder.getByteBuffer());
+            return vbo;
+        } else {
+            int glList = GLAllocation.generateDisplayLists(1);
+            GL11.glNewList(glList, GL11.GL_COMPILE);
+            Tessellator.getInstance().draw();
+            GL11.glEndList();
+            return glList;
+        }
+    }
+
+    /** The compiled vertices of {@link #TILE_SIZE} by {@link #TILE_SIZE} chunks. */
+    private static final class MapTile {
+        /** The chunks that this was built from, so that it can be rebuilt when any of them change (or arrive). */
+        private final ZonePlannerMapChunk[] chunks;
+        /** Either a {@link net.minecraft.client.renderer.vertex.VertexBuffer}, a display list id, or null if there
+         * was nothing to draw. */
+        private final Object compiled;
+        /** Set when a neighbouring chunk (outside of this tile) arrives, as the edges need to be drawn again. This can
+         * be set from the network thread. */
+        volatile boolean dirty = false;
+
+        MapTile(ZonePlannerMapChunk[] chunks, @Nullable Object compiled) {
+            this.chunks = chunks;
+            this.compiled = compiled;
+        }
+
+        boolean isUpToDate(ZonePlannerMapChunk[] current) {
+            if (dirty) {
+                return false;
+            }
+            for (int i = 0; i < chunks.length; i++) {
+                if (chunks[i] != current[i]) {
+                    return false;
                 }
             }
+            return true;
+        }
+
+        void render() {
+            if (compiled instanceof Integer) {
+                GlStateManager.callList((Integer) compiled);
+            } else if (compiled != null) {
+                net.minecraft.client.renderer.vertex.VertexBuffer vbo =
+                    (net.minecraft.client.renderer.vertex.VertexBuffer) compiled;
+                vbo.bindBuffer();
+                GlStateManager.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+                GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, 16, 0);
+                GlStateManager.glEnableClientState(GL11.GL_COLOR_ARRAY);
+                GlStateManager.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, 16, 12);
+                vbo.drawArrays(GL11.GL_QUADS);
+                vbo.unbindBuffer();
+                GlStateManager.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+                GlStateManager.glDisableClientState(GL11.GL_COLOR_ARRAY);
+                GlStateManager.color(1, 1, 1, 1);
+            }
+        }
+
+        void delete() {
+            if (compiled instanceof Integer) {
+                GL11.glDeleteLists((Integer) compiled, 1);
+            } else if (compiled != null) {
+                ((net.minecraft.client.renderer.vertex.VertexBuffer) compiled).deleteGlBuffers();
+            }
         }
-        int glList = GL11.glGenLists(1);
-        GL11.glNewList(glList, GL11.GL_COMPILE);
-        Tessellator.getInstance().draw();
-        GL11.glEndList();
-        CHUNK_GL_CACHE.put(key, glList);
     }
 }
@@ -16,6 +16,7 @@ import net.minecraft.world.World;
 import buildcraft.api.core.EnumPipePart;
 import buildcraft.api.mj.MjAPI;
 
+import buildcraft.lib.inventory.InventoryCounter;
 import buildcraft.lib.tile.item.ItemHandlerManager;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
 
@@ -29,6 +30,7 @@ public class TileAdvancedCraftingTable extends TileLaserTableBase implements IAu
     public final ItemHandlerSimple invMaterials = itemManager.addInvHandler("materials", 5 * 3, ItemHandlerManager.EnumAccess.INSERT, EnumPipePart.VALUES);
     public final ItemHandlerSimple invResults = itemManager.addInvHandler("result", 3 * 3, ItemHandlerManager.EnumAccess.EXTRACT, EnumPipePart.VALUES);
     private final WorkbenchCrafting crafting = new WorkbenchCrafting(3, 3, invBlueprint);
+    private final InventoryCounter materialCounter = new InventoryCounter();
     public IRecipe currentRecipe;
     private List<ItemStack> requirements = null;
 
@@ -71,6 +73,11 @@ public class TileAdvancedCraftingTable extends TileLaserTableBase implements IAu
         return crafting;
     }
 
+    @Override
+    public InventoryCounter getMaterialCounter() {
+        return materialCounter;
+    }
+
     @Override
     public IRecipe getCurrentRecipe() {
         return currentRecipe;
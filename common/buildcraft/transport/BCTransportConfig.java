@@ -43,11 +43,17 @@ public class BCTransportConfig {
     public static long mjPerItem = MjAPI.MJ;
     public static int baseFlowRate = 10;
     public static PowerLossMode lossMode = PowerLossMode.DEFAULT;
+    /** If true then connected kinesis pipes are ticked together as a single network (see PowerNetwork). */
+    public static boolean powerNetworks = false;
+    /** If true then connected fluid pipes are ticked together as a single network (see FluidNetwork). */
+    public static boolean fluidNetworks = false;
 
     private static Property propMjPerMillibucket;
     private static Property propMjPerItem;
     private static Property propBaseFlowRate;
     private static Property propLossMode;
+    private static Property propPowerNetworks;
+    private static Property propFluidNetworks;
 
     public static void preInit() {
         Configuration config = BCCoreConfig.config;
@@ -64,6 +70,14 @@ public class BCTransportConfig {
         ConfigUtil.setEnumProperty(propLossMode, PowerLossMode.VALUES);
         EnumRestartRequirement.WORLD.setTo(propLossMode);
 
+        propPowerNetworks = config.get("experimental", "kinesisNetworks", powerNetworks);
+        propPowerNetworks.setComment("Tick connected kinesis pipes together as a single network, rather than moving power one pipe per tick.");
+        EnumRestartRequirement.WORLD.setTo(propPowerNetworks);
+
+        propFluidNetworks = config.get("experimental", "fluidNetworks", fluidNetworks);
+        propFluidNetworks.setComment("Tick connected fluid pipes together as a single network, rather than moving fluid one section per tick.");
+        EnumRestartRequirement.WORLD.setTo(propFluidNetworks);
+
         MinecraftForge.EVENT_BUS.register(BCTransportConfig.class);
     }
 
@@ -83,6 +97,8 @@ public class BCTransportConfig {
             int basePowerRate = 4;
 
             lossMode = ConfigUtil.parseEnumForConfig(propLossMode.getString(), PowerLossMode.VALUES, PowerLossMode.DEFAULT);
+            powerNetworks = propPowerNetworks.getBoolean();
+            fluidNetworks = propFluidNetworks.getBoolean();
 
             fluidTransfer(BCTransportPipes.cobbleFluid, baseFlowRate, 10);
             fluidTransfer(BCTransportPipes.woodFluid, baseFlowRate, 10);
@@ -6,34 +6,72 @@
 
 package buildcraft.transport;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.world.World;
+
+import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.event.world.ChunkWatchEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import buildcraft.transport.client.render.PipeFlowSectionRenderer;
 import buildcraft.transport.client.render.PipeWireRenderer;
+import buildcraft.transport.tile.PipeTickScheduler;
 import buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 public enum BCTransportEventDist {
     INSTANCE;
 
+    private final Map<World, PipeTickScheduler> tickSchedulers = new WeakHashMap<>();
+
+    public PipeTickScheduler getTickScheduler(World world) {
+        return tickSchedulers.computeIfAbsent(world, PipeTickScheduler::new);
+    }
+
     @SubscribeEvent
     public void onWorldTick(TickEvent.WorldTickEvent event) {
         if (!event.world.isRemote && event.world.getMinecraftServer() != null) {
             WorldSavedDataWireSystems.get(event.world).tick();
+            if (event.phase == TickEvent.Phase.END) {
+                PipeTickScheduler scheduler = tickSchedulers.get(event.world);
+                if (scheduler != null) {
+                    scheduler.tick();
+                }
+            }
         }
     }
 
     @SubscribeEvent
-    public void onChunkWatch(ChunkWatchEvent event) {
-        WorldSavedDataWireSystems.get(event.getPlayer().world).changedPlayers.add(event.getPlayer());
+    public void onWorldUnload(WorldEvent.Unload event) {
+        tickSchedulers.remove(event.getWorld());
+    }
+
+    @SubscribeEvent
+    public void onChunkWatch(ChunkWatchEvent.Watch event) {
+        WorldSavedDataWireSystems.get(event.getPlayer().world).onChunkWatch(event.getPlayer(), event.getChunk());
+    }
+
+    @SubscribeEvent
+    public void onChunkUnWatch(ChunkWatchEvent.UnWatch event) {
+        WorldSavedDataWireSystems.get(event.getPlayer().world).onChunkUnWatch(event.getPlayer(), event.getChunk());
     }
 
     @SubscribeEvent
     @SideOnly(Side.CLIENT)
     public void onTextureStitch(TextureStitchEvent.Post event) {
         PipeWireRenderer.clearWireCache();
+        PipeFlowSectionRenderer.INSTANCE.clear();
+    }
+
+    @SubscribeEvent
+    @SideOnly(Side.CLIENT)
+    public void onRenderWorldLast(RenderWorldLastEvent event) {
+        PipeFlowSectionRenderer.INSTANCE.endFrame();
     }
 }
@@ -65,6 +65,7 @@ import buildcraft.lib.misc.InventoryUtil;
 import buildcraft.lib.misc.VecUtil;
 import buildcraft.lib.prop.UnlistedNonNullProperty;
 
+import buildcraft.core.statements.IChangeDrivenTrigger;
 import buildcraft.transport.BCTransportItems;
 import buildcraft.transport.item.ItemWire;
 import buildcraft.transport.pipe.Pipe;
@@ -368,7 +369,10 @@ public class BlockPipeHolder extends BlockBCTile_Neptune implements ICustomPaint
     public void neighborChanged(IBlockState state, World world, BlockPos pos, Block blockIn, BlockPos fromPos) {
         TilePipeHolder pipe = getPipe(world, pos, true);
         if (pipe != null) {
+            pipe.wakeUp();
             pipe.refreshNeighbours();
+            pipe.onGateInputChanged(IChangeDrivenTrigger.Input.NEIGHBOUR);
+            pipe.onGateInputChanged(IChangeDrivenTrigger.Input.REDSTONE);
             if (pipe.getPipe() != null) {
                 pipe.getPipe().markForUpdate();
             }
@@ -26,10 +26,12 @@ public enum PipeBehaviourRendererStripes implements IPipeBehaviourRenderer<PipeB
         MutableQuad[] quads = BCTransportModels.getStripesDynQuads(dir);
         vb.setTranslation(x, y, z);
         int light = stripes.pipe.getHolder().getPipeWorld().getCombinedLight(stripes.pipe.getHolder().getPipePos(), 0);
+        MutableQuad copy = new MutableQuad();
         for (MutableQuad q : quads) {
-            q.multShade();
-            q.lighti(light);
-            q.render(vb);
+            copy.copyFrom(q);
+            copy.multShade();
+            copy.lighti(light);
+            copy.render(vb);
         }
         vb.setTranslation(0, 0, 0);
     }
@@ -41,6 +41,30 @@ public enum PipeFlowRendererFluids implements IPipeFlowRenderer<PipeFlowFluids>
 
     @Override
     public void render(PipeFlowFluids flow, double x, double y, double z, float partialTicks, VertexBuffer vb) {
+        if (flow.getFluidStackForRender() == null) {
+            return;
+        }
+
+        VertexBuffer fluidBuffer = Tessellator.getInstance().getBuffer();
+        fluidBuffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+        buildMesh(flow, x, y, z, partialTicks, fluidBuffer);
+
+        // gl state setup
+        RenderHelper.disableStandardItemLighting();
+        Minecraft.getMinecraft().getTextureManager().bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
+        GlStateManager.enableBlend();
+        GlStateManager.blendFunc(SourceFactor.SRC_ALPHA, DestFactor.ONE_MINUS_SRC_ALPHA);
+        GlStateManager.enableCull();
+
+        Tessellator.getInstance().draw();
+
+        RenderHelper.enableStandardItemLighting();
+    }
+
+    /** Adds the fluid in the given pipe to the given buffer, which must already have been started with
+     * {@link DefaultVertexFormats#BLOCK}. Unlike {@link #render} this doesn't draw anything, so the fluid of many pipes
+     * can be put into the same buffer. */
+    void buildMesh(PipeFlowFluids flow, double x, double y, double z, float partialTicks, VertexBuffer fluidBuffer) {
         FluidStack forRender = flow.getFluidStackForRender();
         if (forRender == null) {
             return;
@@ -58,8 +82,6 @@ public enum PipeFlowRendererFluids implements IPipeFlowRenderer<PipeFlowFluids>
 
         FluidRenderer.vertex.lighti(combinedLight);
 
-        VertexBuffer fluidBuffer = Tessellator.getInstance().getBuffer();
-        fluidBuffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
         fluidBuffer.setTranslation(x, y, z);
 
         boolean horizontal = false;
@@ -130,20 +152,8 @@ public enum PipeFlowRendererFluids implements IPipeFlowRenderer<PipeFlowFluids>
             FluidRenderer.renderFluid(FluidSpriteType.FROZEN, forRender, 1, 1, min, max, fluidBuffer, sides);
         }
 
-        // gl state setup
-        RenderHelper.disableStandardItemLighting();
-        Minecraft.getMinecraft().getTextureManager().bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
-        GlStateManager.enableBlend();
-        GlStateManager.blendFunc(SourceFactor.SRC_ALPHA, DestFactor.ONE_MINUS_SRC_ALPHA);
-        GlStateManager.enableCull();
-
         fluidBuffer.setTranslation(0, 0, 0);
-        Tessellator.getInstance().draw();
-
-        RenderHelper.enableStandardItemLighting();
-
         FluidRenderer.vertex.lighti(0xF, 0xF);
-
     }
 
     private static void drawFluidCenter(FluidStack fluid, double percentage, boolean horizontal, boolean above, VertexBuffer vb) {
@@ -6,8 +6,9 @@
 
 package buildcraft.transport.client.render;
 
-import java.util.List;
+import java.util.function.Consumer;
 
+import javax.vecmath.Point3d;
 import javax.vecmath.Point3f;
 import javax.vecmath.Tuple3f;
 import javax.vecmath.Vector3f;
@@ -15,12 +16,11 @@ import javax.vecmath.Vector3f;
 import net.minecraft.client.renderer.VertexBuffer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumFacing;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
 import buildcraft.api.transport.pipe.IPipeFlowRenderer;
 
+import buildcraft.lib.BCLibConfig;
 import buildcraft.lib.client.model.ModelUtil;
 import buildcraft.lib.client.model.ModelUtil.UvFaceData;
 import buildcraft.lib.client.model.MutableQuad;
@@ -37,6 +37,18 @@ public enum PipeFlowRendererItems implements IPipeFlowRenderer<PipeFlowItems> {
 
     private static final MutableQuad[] COLOURED_QUADS = new MutableQuad[6];
 
+    // The state of the pipe that is currently being rendered, so that every item can be rendered by the same consumer
+    // rather than allocating a new list (or lambda) for every pipe, every frame.
+    private final Consumer<TravellingItem> itemRenderer = this::renderItem;
+    private final MutableQuad renderQuad = new MutableQuad();
+    private final Point3d pos = new Point3d();
+    private double x, y, z;
+    private float partialTicks;
+    private long now;
+    private int lightc;
+    private boolean simple;
+    private VertexBuffer vb;
+
     public static void onModelBake() {
         Tuple3f center = new Point3f();
         Tuple3f radius = new Vector3f(0.2f, 0.2f, 0.2f);
@@ -53,44 +65,56 @@ public enum PipeFlowRendererItems implements IPipeFlowRenderer<PipeFlowItems> {
             q.setCalculatedDiffuse();
             COLOURED_QUADS[face.ordinal()] = q;
         }
+        ItemRenderUtil.clearItemCache();
     }
 
     @Override
     public void render(PipeFlowItems flow, double x, double y, double z, float partialTicks, VertexBuffer vb) {
         World world = flow.pipe.getHolder().getPipeWorld();
-        long now = world.getTotalWorldTime();
-        int lightc = world.getCombinedLight(flow.pipe.getHolder().getPipePos(), 0);
-
-        List<TravellingItem> toRender = flow.getAllItemsForRender();
-
-        for (TravellingItem item : toRender) {
-            Vec3d pos = item.getRenderPosition(BlockPos.ORIGIN, now, partialTicks);
-
-            ItemStack stack = item.clientItemLink.get();
-            if (stack != null && !stack.isEmpty()) {
-                if (item.stackSize != stack.getCount()) {
-                    stack = stack.copy();
-                    stack.setCount(item.stackSize);
-                }
-                ItemRenderUtil.renderItemStack(x + pos.xCoord, y + pos.yCoord, z + pos.zCoord,//
-                        stack, lightc, item.getRenderDirection(now, partialTicks), vb);
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.partialTicks = partialTicks;
+        this.vb = vb;
+        now = world.getTotalWorldTime();
+        lightc = world.getCombinedLight(flow.pipe.getHolder().getPipePos(), 0);
+        int detailDistance = BCLibConfig.itemRenderDetailDistance;
+        double distanceSq = (x + 0.5) * (x + 0.5) + (y + 0.5) * (y + 0.5) + (z + 0.5) * (z + 0.5);
+        simple = detailDistance > 0 && distanceSq > detailDistance * detailDistance;
+
+        flow.forEachItemForRender(itemRenderer);
+
+        this.vb = null;
+        ItemRenderUtil.endItemBatch();
+    }
+
+    private void renderItem(TravellingItem item) {
+        item.getRenderPosition(now, partialTicks, pos);
+        double px = x + pos.x;
+        double py = y + pos.y;
+        double pz = z + pos.z;
+
+        ItemStack stack = item.clientItemLink.get();
+        if (stack != null && !stack.isEmpty()) {
+            if (simple) {
+                ItemRenderUtil.renderItemStackSimple(px, py, pz, stack, lightc, vb);
+            } else {
+                ItemRenderUtil.renderItemStack(px, py, pz, stack, lightc, item.getRenderDirection(now, partialTicks), vb);
             }
-            if (item.colour != null) {
-                vb.setTranslation(x + pos.xCoord, y + pos.yCoord, z + pos.zCoord);
-                int col = ColourUtil.getLightHex(item.colour);
-                int r = (col >> 16) & 0xFF;
-                int g = (col >> 8) & 0xFF;
-                int b = col & 0xFF;
-                for (MutableQuad q : COLOURED_QUADS) {
-                    MutableQuad q2 = new MutableQuad(q);
-                    q2.lighti(lightc);
-                    q2.multColouri(r, g, b, 255);
-                    q2.render(vb);
-                }
-                vb.setTranslation(0, 0, 0);
+        }
+        if (item.colour != null) {
+            vb.setTranslation(px, py, pz);
+            int col = ColourUtil.getLightHex(item.colour);
+            int r = (col >> 16) & 0xFF;
+            int g = (col >> 8) & 0xFF;
+            int b = col & 0xFF;
+            for (MutableQuad q : COLOURED_QUADS) {
+                renderQuad.copyFrom(q);
+                renderQuad.lighti(lightc);
+                renderQuad.multColouri(r, g, b, 255);
+                renderQuad.render(vb);
             }
+            vb.setTranslation(0, 0, 0);
         }
-
-        ItemRenderUtil.endItemBatch();
     }
 }
@@ -29,13 +29,23 @@ public enum PipeFlowRendererPower implements IPipeFlowRenderer<PipeFlowPower> {
 
     @Override
     public void render(PipeFlowPower flow, double x, double y, double z, float partialTicks, VertexBuffer vb) {
-        float r = (float) flow.clientPowerAmounts.values().stream()
-            .mapToDouble(Double::valueOf)
-            .average()
-            .orElse(0) / PipeFlowPower.DEFAULT_MAX_POWER * 0.8F;
+        float r = getRadius(flow);
         if (r == 0) {
             return;
         }
+        buildMesh(flow, r, x, y, z, vb);
+    }
+
+    /** @return The radius of the power beams in the given pipe, or 0 if there is no power to show. */
+    static float getRadius(PipeFlowPower flow) {
+        return (float) flow.clientPowerAmounts.values().stream()
+            .mapToDouble(Double::valueOf)
+            .average()
+            .orElse(0) / PipeFlowPower.DEFAULT_MAX_POWER * 0.8F;
+    }
+
+    /** Adds the power beams of the given pipe to the given buffer, without drawing anything. */
+    void buildMesh(PipeFlowPower flow, float r, double x, double y, double z, VertexBuffer vb) {
         List<Triple<Pair<EnumFacing, EnumFacing>, Point3f, Point3f>> facesSidesCentersRadiuses = new ArrayList<>();
         for (EnumFacing face : EnumFacing.VALUES) {
             facesSidesCentersRadiuses.add(
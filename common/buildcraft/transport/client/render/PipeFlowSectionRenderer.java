@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.client.render;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.lwjgl.opengl.GL11;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.GlStateManager.DestFactor;
+import net.minecraft.client.renderer.GlStateManager.SourceFactor;
+import net.minecraft.client.renderer.RenderHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.VertexBuffer;
+import net.minecraft.client.renderer.texture.TextureMap;
+import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import buildcraft.api.transport.pipe.PipeFlow;
+
+import buildcraft.transport.pipe.Pipe;
+import buildcraft.transport.pipe.flow.PipeFlowFluids;
+import buildcraft.transport.pipe.flow.PipeFlowPower;
+import buildcraft.transport.tile.TilePipeHolder;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/** Renders the contents of fluid and power pipes from meshes that are cached for every chunk section (16x16x16 blocks)
+ * rather than building the geometry of every pipe every frame (and in the case of fluids, drawing every pipe
+ * separately).
+ * <p>
+ * {@link RenderPipeHolder} still visits every visible pipe, but mostly to record a quantised key of what its contents
+ * look like. A section is drawn (with one display list per layer) when the first of its pipes is visited in a frame, so
+ * it is drawn along with every other tile entity, before translucent blocks such as water and glass. It is only rebuilt
+ * when the key of one of its pipes changes. Fluid that is flowing scrolls its texture every frame, so those pipes are
+ * left out of the cached meshes and drawn with their current offsets whenever their section is drawn instead. Items
+ * aren't cached here as they move every frame, but they are already batched together into the shared fast TESR
+ * buffer. */
+@SideOnly(Side.CLIENT)
+public enum PipeFlowSectionRenderer {
+    INSTANCE;
+
+    /** How finely fluid amounts, fluid offsets and power levels are split up. Changes smaller than this don't cause
+     * the section to be rebuilt. */
+    private static final int QUANTISE = 32;
+    private static final int MAX_BUILDS_PER_FRAME = 4;
+    /** How many frames a section can go without being seen before its meshes are deleted. */
+    private static final int UNSEEN_FRAMES = 200;
+
+    private static final int KIND_FLUID = 1;
+    private static final int KIND_POWER = 2;
+    /** Fluid that is flowing, which is never cached as it changes every frame. */
+    private static final int KIND_FLUID_FLOWING = 3;
+
+    private final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
+    /** Scratch space for the key of the pipe that is currently being looked at. */
+    private final int[] key = new int[64];
+    private World world;
+    private int frame = 0;
+    private int builds = 0;
+
+    /** Records that the given pipe is visible this frame, drawing its section if this is the first pipe in it that has
+     * been visited this frame. This must only be called while tile entities are being rendered.
+     *
+     * @return True if the contents of the pipe have been (or will be) rendered by this, false if they should be
+     *         rendered normally. */
+    public boolean addPipe(TilePipeHolder holder, PipeFlow flow, float partialTicks) {
+        int length;
+        if (flow instanceof PipeFlowFluids) {
+            length = computeFluidKey((PipeFlowFluids) flow, partialTicks);
+        } else if (flow instanceof PipeFlowPower) {
+            length = computePowerKey((PipeFlowPower) flow);
+        } else {
+            return false;
+        }
+        World pipeWorld = holder.getPipeWorld();
+        if (pipeWorld != world) {
+            clear();
+            world = pipeWorld;
+        }
+        BlockPos pos = holder.getPipePos();
+        long sectionKey = getSectionKey(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        Section section = sections.get(sectionKey);
+        if (section == null) {
+            if (length == 0) {
+                return true;
+            }
+            section = new Section(new BlockPos(pos.getX() & ~15, pos.getY() & ~15, pos.getZ() & ~15));
+            sections.put(sectionKey, section);
+        }
+        section.lastSeen = frame;
+
+        int[] existing = section.pipes.get(holder);
+        if (length == 0) {
+            if (existing != null) {
+                section.pipes.remove(holder);
+                section.dirty = true;
+            }
+        } else if (existing == null || existing.length != length || !equals(existing, key, length)) {
+            section.pipes.put(holder, Arrays.copyOf(key, length));
+            section.dirty = true;
+        }
+        if (section.drawnFrame != frame) {
+            drawSection(section, partialTicks);
+        }
+        // Pipes that weren't in the section when it was drawn this frame have to draw themselves
+        return length == 0 || section.drawn.contains(holder);
+    }
+
+    private static boolean equals(int[] a, int[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getSectionKey(int sx, int sy, int sz) {
+        return ((long) sx << 40) | (((long) sz & 0xFF_FF_FF) << 8) | (sy & 0xFF);
+    }
+
+    /** @return The length of the key, or 0 if the pipe has nothing to render. */
+    private int computeFluidKey(PipeFlowFluids flow, float partialTicks) {
+        FluidStack fluid = flow.getFluidStackForRender();
+        if (fluid == null) {
+            return 0;
+        }
+        if (flow.isFlowingForRender()) {
+            // The offsets (and probably the amounts) are applied when the section is drawn
+            key[0] = KIND_FLUID_FLOWING;
+            return 1;
+        }
+        Pipe pipe = (Pipe) flow.pipe;
+        double[] amounts = flow.getAmountsForRender(partialTicks);
+        Vec3d[] offsets = flow.getOffsetsForRender(partialTicks);
+        int i = 0;
+        key[i++] = KIND_FLUID;
+        key[i++] = System.identityHashCode(fluid.getFluid());
+        key[i++] = fluid.tag == null ? 0 : fluid.tag.hashCode();
+        int blocklight = fluid.getFluid().getLuminosity(fluid);
+        key[i++] = pipe.getHolder().getPipeWorld().getCombinedLight(pipe.getHolder().getPipePos(), blocklight);
+        int connections = 0;
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if (pipe.isConnected(face)) {
+                connections |= 1 << face.ordinal();
+            }
+            key[i++] = (int) (pipe.getConnectedDist(face) * QUANTISE);
+        }
+        key[i++] = connections;
+        for (int p = 0; p < amounts.length; p++) {
+            key[i++] = (int) (amounts[p] * QUANTISE / flow.capacity);
+            Vec3d offset = offsets[p];
+            if (offset != null) {
+                key[i++] = (int) Math.floor(offset.xCoord * QUANTISE);
+                key[i++] = (int) Math.floor(offset.yCoord * QUANTISE);
+                key[i++] = (int) Math.floor(offset.zCoord * QUANTISE);
+            } else {
+                key[i++] = 0;
+                key[i++] = 0;
+                key[i++] = 0;
+            }
+        }
+        return i;
+    }
+
+    /** @return The length of the key, or 0 if the pipe has nothing to render. */
+    private int computePowerKey(PipeFlowPower flow) {
+        int r = (int) (PipeFlowRendererPower.getRadius(flow) * QUANTISE * 4);
+        if (r == 0) {
+            return 0;
+        }
+        int connections = 0;
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if (flow.pipe.isConnected(face)) {
+                connections |= 1 << face.ordinal();
+            }
+        }
+        key[0] = KIND_POWER;
+        key[1] = r;
+        key[2] = connections;
+        return 3;
+    }
+
+    /** Deletes the meshes of sections that haven't been seen for a while. This should be called once per frame, after
+     * every tile entity has been rendered. */
+    public void endFrame() {
+        int thisFrame = frame++;
+        builds = 0;
+        Iterator<Section> iter = sections.values().iterator();
+        while (iter.hasNext()) {
+            Section section = iter.next();
+            if (thisFrame - section.lastSeen > UNSEEN_FRAMES) {
+                section.delete();
+                iter.remove();
+            }
+        }
+    }
+
+    private void drawSection(Section section, float partialTicks) {
+        section.drawnFrame = frame;
+        section.drawn.clear();
+        if (section.removeInvalid()) {
+            section.dirty = true;
+        }
+        if (section.pipes.isEmpty()) {
+            section.delete();
+            section.meshed.clear();
+            return;
+        }
+        Minecraft mc = Minecraft.getMinecraft();
+        mc.mcProfiler.startSection("bc_pipe_section");
+
+        // Sections that haven't been built at all are always built, so pipes never flicker out of existence
+        if (section.dirty && (builds < MAX_BUILDS_PER_FRAME || !section.built)) {
+            section.build(partialTicks);
+            builds++;
+        }
+
+        // Everything that isn't in the cached meshes (flowing fluid, and pipes added since the last build)
+        Set<TilePipeHolder> immediate = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TilePipeHolder holder : section.pipes.keySet()) {
+            if (!section.meshed.contains(holder)) {
+                immediate.add(holder);
+            }
+        }
+        section.drawn.addAll(section.meshed);
+        section.drawn.addAll(immediate);
+
+        mc.getTextureManager().bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
+        RenderHelper.disableStandardItemLighting();
+        GlStateManager.enableBlend();
+        GlStateManager.blendFunc(SourceFactor.SRC_ALPHA, DestFactor.ONE_MINUS_SRC_ALPHA);
+
+        GlStateManager.pushMatrix();
+        BlockPos origin = section.origin;
+        GlStateManager.translate(origin.getX() - TileEntityRendererDispatcher.staticPlayerX,
+            origin.getY() - TileEntityRendererDispatcher.staticPlayerY,
+            origin.getZ() - TileEntityRendererDispatcher.staticPlayerZ);
+
+        GlStateManager.enableCull();
+        if (section.fluidList != -1) {
+            GlStateManager.callList(section.fluidList);
+        }
+        VertexBuffer vb = Tessellator.getInstance().getBuffer();
+        vb.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+        if (section.addFluids(immediate, partialTicks, vb)) {
+            Tessellator.getInstance().draw();
+        } else {
+            Section.discard();
+        }
+
+        // The power beams are drawn from both sides, as they were when they were part of the fast TESR
+        GlStateManager.disableCull();
+        if (section.powerList != -1) {
+            GlStateManager.callList(section.powerList);
+        }
+        vb.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+        if (section.addPower(immediate, vb)) {
+            Tessellator.getInstance().draw();
+        } else {
+            Section.discard();
+        }
+
+        GlStateManager.popMatrix();
+        GlStateManager.enableCull();
+        GlStateManager.disableBlend();
+        RenderHelper.enableStandardItemLighting();
+        mc.mcProfiler.endSection();
+    }
+
+    /** Deletes every cached mesh. This should be called whenever the world changes or textures are stitched. */
+    public void clear() {
+        for (Section section : sections.values()) {
+            section.delete();
+        }
+        sections.clear();
+        world = null;
+    }
+
+    private static final class Section {
+        final BlockPos origin;
+        /** The key (as computed by {@link PipeFlowSectionRenderer#computeFluidKey} or
+         * {@link PipeFlowSectionRenderer#computePowerKey}) of every pipe in this section that has something to
+         * render, as of the last time that it was visible. */
+        final Map<TilePipeHolder, int[]> pipes = new IdentityHashMap<>();
+        /** Every pipe whose contents are in the display lists. */
+        final Set<TilePipeHolder> meshed = Collections.newSetFromMap(new IdentityHashMap<>());
+        /** Every pipe that was drawn the last time that this section was drawn. */
+        final Set<TilePipeHolder> drawn = Collections.newSetFromMap(new IdentityHashMap<>());
+        int lastSeen;
+        int drawnFrame = -1;
+        boolean dirty = true;
+        int fluidList = -1, powerList = -1;
+        boolean built = false;
+
+        Section(BlockPos origin) {
+            this.origin = origin;
+        }
+
+        /** @return True if any pipes were removed. */
+        boolean removeInvalid() {
+            boolean removed = pipes.keySet().removeIf(holder -> holder.isInvalid() || holder.getPipe() == null);
+            meshed.removeIf(holder -> !pipes.containsKey(holder));
+            return removed;
+        }
+
+        void build(float partialTicks) {
+            delete();
+            dirty = false;
+            built = true;
+            meshed.clear();
+            for (Map.Entry<TilePipeHolder, int[]> entry : pipes.entrySet()) {
+                if (entry.getValue()[0] != KIND_FLUID_FLOWING) {
+                    meshed.add(entry.getKey());
+                }
+            }
+            VertexBuffer vb = Tessellator.getInstance().getBuffer();
+
+            vb.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+            fluidList = addFluids(meshed, partialTicks, vb) ? compile() : discard();
+
+            vb.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+            powerList = addPower(meshed, vb) ? compile() : discard();
+        }
+
+        /** @return True if anything was added to the buffer. */
+        boolean addFluids(Set<TilePipeHolder> holders, float partialTicks, VertexBuffer vb) {
+            boolean any = false;
+            for (TilePipeHolder holder : holders) {
+                PipeFlow flow = holder.getPipe().flow;
+                if (flow instanceof PipeFlowFluids) {
+                    BlockPos pos = holder.getPipePos().subtract(origin);
+                    PipeFlowRendererFluids.INSTANCE.buildMesh((PipeFlowFluids) flow, pos.getX(), pos.getY(), pos.getZ(),
+                        partialTicks, vb);
+                    any = true;
+                }
+            }
+            return any;
+        }
+
+        /** @return True if anything was added to the buffer. */
+        boolean addPower(Set<TilePipeHolder> holders, VertexBuffer vb) {
+            boolean any = false;
+            for (TilePipeHolder holder : holders) {
+                PipeFlow flow = holder.getPipe().flow;
+                if (flow instanceof PipeFlowPower) {
+                    PipeFlowPower power = (PipeFlowPower) flow;
+                    float r = PipeFlowRendererPower.getRadius(power);
+                    if (r != 0) {
+                        BlockPos pos = holder.getPipePos().subtract(origin);
+                        PipeFlowRendererPower.INSTANCE.buildMesh(power, r, pos.getX(), pos.getY(), pos.getZ(), vb);
+                        any = true;
+                    }
+                }
+            }
+            return any;
+        }
+
+        private static int compile() {
+            int glList = GLAllocation.generateDisplayLists(1);
+            GlStateManager.glNewList(glList, GL11.GL_COMPILE);
+            Tessellator.getInstance().draw();
+            GlStateManager.glEndList();
+            return glList;
+        }
+
+        static int discard() {
+            VertexBuffer vb = Tessellator.getInstance().getBuffer();
+            vb.finishDrawing();
+            vb.reset();
+            return -1;
+        }
+
+        void delete() {
+            if (fluidList != -1) {
+                GLAllocation.deleteDisplayLists(fluidList);
+                fluidList = -1;
+            }
+            if (powerList != -1) {
+                GLAllocation.deleteDisplayLists(powerList);
+                powerList = -1;
+            }
+        }
+    }
+}
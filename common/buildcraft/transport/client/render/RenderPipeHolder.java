@@ -70,7 +70,8 @@ public class RenderPipeHolder extends FastTESR<TilePipeHolder> {
         if (p == null) {
             return;
         }
-        if (p.flow != null) {
+        // Fluids and power are drawn from cached per-section meshes, so only need to be recorded here
+        if (p.flow != null && !PipeFlowSectionRenderer.INSTANCE.addPipe(pipe, p.flow, partialTicks)) {
             renderFlow(p.flow, x, y, z, partialTicks, vb);
         }
         if (p.behaviour != null) {
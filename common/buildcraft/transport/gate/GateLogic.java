@@ -8,6 +8,7 @@ package buildcraft.transport.gate;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.SortedSet;
@@ -43,6 +44,7 @@ import buildcraft.api.transport.pipe.PipeEventActionActivate;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.net.IPayloadWriter;
 
+import buildcraft.core.statements.IChangeDrivenTrigger;
 import buildcraft.transport.gate.ActionWrapper.ActionWrapperExternal;
 import buildcraft.transport.gate.ActionWrapper.ActionWrapperInternal;
 import buildcraft.transport.gate.ActionWrapper.ActionWrapperInternalSided;
@@ -79,6 +81,16 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
     /** Used on the client to determine if this gate should glow or not. */
     public boolean isOn;
 
+    /** The inputs that might have changed since the triggers were last evaluated. */
+    private final EnumSet<IChangeDrivenTrigger.Input> changedInputs = EnumSet.noneOf(IChangeDrivenTrigger.Input.class);
+    /** If true then every trigger is evaluated on the next tick, regardless of its inputs. */
+    private boolean triggersChanged = true;
+
+    /** Cached results of {@link #getAllValidTriggers()} and {@link #getAllValidActions()}, or null if they need to be
+     * recalculated. */
+    private SortedSet<TriggerWrapper> validTriggers;
+    private SortedSet<ActionWrapper> validActions;
+
     public GateLogic(PluggableGate pluggable, GateVariant variant) {
         this.pluggable = pluggable;
         this.variant = variant;
@@ -323,6 +335,7 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
 
     public void setTrigger(int index, TriggerWrapper trigger) {
         setStatementInternal(index, triggers, triggerParameters, trigger);
+        triggersChanged = true;
     }
 
     public StatementWrapper getTrigger(int index) {
@@ -331,6 +344,7 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
 
     public void setTriggerParam(int index, int pIndex, IStatementParameter param) {
         triggerParameters[index][pIndex] = param;
+        triggersChanged = true;
     }
 
     public IStatementParameter getTriggerParam(int index, int pIndex) {
@@ -414,7 +428,13 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
             TriggerWrapper trigger = triggers[triggerIndex];
             groupCount++;
             if (trigger != null) {
-                if (trigger.isTriggerActive(this, triggerParameters[triggerIndex])) {
+                boolean active;
+                if (needsEvaluation(trigger)) {
+                    active = trigger.isTriggerActive(this, triggerParameters[triggerIndex]);
+                } else {
+                    active = prevTriggers[triggerIndex];
+                }
+                if (active) {
                     groupActive++;
                     triggerOn[triggerIndex] = true;
                 }
@@ -443,6 +463,8 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
                 groupCount = 0;
             }
         }
+        triggersChanged = false;
+        changedInputs.clear();
 
         if (!previousBroadcasts.equals(wireBroadcasts)) {
             IWireManager wires = getPipeHolder().getWireManager();
@@ -464,6 +486,22 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
         }
     }
 
+    /** @return True if the given trigger might have a different result to the last time it was evaluated. */
+    private boolean needsEvaluation(TriggerWrapper trigger) {
+        if (triggersChanged || !(trigger.delegate instanceof IChangeDrivenTrigger)) {
+            return true;
+        }
+        return !Collections.disjoint(((IChangeDrivenTrigger) trigger.delegate).getInputs(), changedInputs);
+    }
+
+    /** Marks the given input as (possibly) changed, so any triggers that depend on it are evaluated on the next tick.
+     * This also clears the cached lists of valid triggers and actions, as they also depend on these inputs. */
+    public void onInputChanged(IChangeDrivenTrigger.Input input) {
+        changedInputs.add(input);
+        validTriggers = null;
+        validActions = null;
+    }
+
     public void onTick() {
         if (getPipeHolder().getPipeWorld().isRemote) {
             return;
@@ -472,6 +510,13 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
     }
 
     public SortedSet<TriggerWrapper> getAllValidTriggers() {
+        if (validTriggers == null) {
+            validTriggers = Collections.unmodifiableSortedSet(computeValidTriggers());
+        }
+        return validTriggers;
+    }
+
+    private SortedSet<TriggerWrapper> computeValidTriggers() {
         SortedSet<TriggerWrapper> set = new TreeSet<>();
         for (ITriggerInternal trigger : StatementManager.getInternalTriggers(this)) {
             if (isValidTrigger(trigger)) {
@@ -497,6 +542,13 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
     }
 
     public SortedSet<ActionWrapper> getAllValidActions() {
+        if (validActions == null) {
+            validActions = Collections.unmodifiableSortedSet(computeValidActions());
+        }
+        return validActions;
+    }
+
+    private SortedSet<ActionWrapper> computeValidActions() {
         SortedSet<ActionWrapper> set = new TreeSet<>();
         for (IActionInternal trigger : StatementManager.getInternalActions(this)) {
             if (isValidAction(trigger)) {
@@ -45,6 +45,9 @@ import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.net.PacketBufferBC;
 
 import buildcraft.transport.client.model.key.PipeModelKey;
+import buildcraft.transport.pipe.flow.INetworkedFlow;
+import buildcraft.transport.pipe.flow.ISleepableFlow;
+import buildcraft.transport.tile.PipeTickScheduler;
 
 public final class Pipe implements IPipe, IDebuggable {
     public final IPipeHolder holder;
@@ -287,6 +290,9 @@ public final class Pipe implements IPipe, IDebuggable {
                 }
             }
         }
+        if (flow instanceof INetworkedFlow) {
+            ((INetworkedFlow) flow).onConnectionsChanged();
+        }
         getHolder().scheduleNetworkUpdate(PipeMessageReceiver.BEHAVIOUR);
     }
 
@@ -318,6 +324,18 @@ public final class Pipe implements IPipe, IDebuggable {
     @Override
     public void markForUpdate() {
         updateMarked = true;
+        PipeTickScheduler.wakeUp(holder);
+    }
+
+    /** @return True if neither the behaviour nor the flow need to be ticked right now. */
+    public boolean canSleep() {
+        if (updateMarked || PipeTickScheduler.needsTicking(behaviour, PipeBehaviour.class)) {
+            return false;
+        }
+        if (flow instanceof ISleepableFlow) {
+            return ((ISleepableFlow) flow).canSleep();
+        }
+        return !PipeTickScheduler.needsTicking(flow, PipeFlow.class);
     }
 
     @SideOnly(Side.CLIENT)
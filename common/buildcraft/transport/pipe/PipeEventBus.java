@@ -6,19 +6,22 @@
 
 package buildcraft.transport.pipe;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import buildcraft.api.core.BCDebugging;
+import buildcraft.api.core.BCLog;
 import buildcraft.api.transport.pipe.PipeEvent;
 import buildcraft.api.transport.pipe.PipeEventHandler;
 import buildcraft.api.transport.pipe.PipeEventPriority;
@@ -27,8 +30,13 @@ public class PipeEventBus {
     public static final boolean DEBUG = BCDebugging.shouldDebugLog("transport.pipe.event_bus");
 
     private static final Map<Class<?>, List<Handler>> allHandlers = new HashMap<>();
+    private static final LocalHandler[] NO_HANDLERS = new LocalHandler[0];
 
+    /** Every handler, sorted by priority. */
     private final List<LocalHandler> currentHandlers = new ArrayList<>();
+    /** A cache of concrete event class to every handler (in priority order) that can receive it. This is cleared
+     * whenever the handlers change. */
+    private final Map<Class<?>, LocalHandler[]> dispatchCache = new HashMap<>();
 
     private static List<LocalHandler> getAndBindHandlers(Object obj) {
         Class<?> cls = obj instanceof Class ? (Class<?>) obj : obj.getClass();
@@ -71,7 +79,8 @@ public class PipeEventBus {
                 }
                 boolean isStatic = Modifier.isStatic(m.getModifiers());
                 String methodName = m.toString();
-                list.add(new Handler(annot.priority(), annot.receiveCancelled(), isStatic, methodName, mh, p.getType()));
+                MethodHandle factory = createListenerFactory(m, p.getType(), isStatic);
+                list.add(new Handler(annot.priority(), annot.receiveCancelled(), isStatic, methodName, mh, factory, p.getType()));
             }
 
             Class<?> superCls = cls.getSuperclass();
@@ -84,12 +93,42 @@ public class PipeEventBus {
         return allHandlers.get(cls);
     }
 
+    /** Creates a {@link MethodHandle} that will return an {@link IEventListener} that calls the given method directly
+     * (through {@link LambdaMetafactory}) so that the JIT can inline it. For non-static methods the returned handle
+     * takes the instance to bind to.
+     * 
+     * @return The factory, or null if the method couldn't be used by {@link LambdaMetafactory} (for example if the
+     *         declaring class isn't public), in which case the slower {@link MethodHandle} should be used instead. */
+    private static MethodHandle createListenerFactory(Method m, Class<?> eventClass, boolean isStatic) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle impl = lookup.unreflect(m);
+            MethodType invokedType = isStatic ? MethodType.methodType(IEventListener.class)
+                : MethodType.methodType(IEventListener.class, m.getDeclaringClass());
+            CallSite site = LambdaMetafactory.metafactory(lookup, "handle", invokedType, //
+                MethodType.methodType(void.class, PipeEvent.class), impl, MethodType.methodType(void.class, eventClass));
+            return site.getTarget();
+        } catch (Throwable t) {
+            if (DEBUG) {
+                BCLog.logger.info("[transport.pipe.event_bus] Unable to create a direct listener for " + m + ", using a method handle instead.", t);
+            }
+            return null;
+        }
+    }
+
     public void registerHandler(Object obj) {
         if (obj == null) {
             return;
         }
-        currentHandlers.addAll(getAndBindHandlers(obj));
-        Collections.sort(currentHandlers);
+        for (LocalHandler handler : getAndBindHandlers(obj)) {
+            // Insert after every handler of the same priority, to keep the order that they were registered in
+            int idx = currentHandlers.size();
+            while (idx > 0 && currentHandlers.get(idx - 1).compareTo(handler) > 0) {
+                idx--;
+            }
+            currentHandlers.add(idx, handler);
+        }
+        dispatchCache.clear();
     }
 
     public void unregisterHandler(Object obj) {
@@ -97,13 +136,39 @@ public class PipeEventBus {
             return;
         }
 
-        currentHandlers.removeIf(next -> next.target == obj);
+        if (currentHandlers.removeIf(next -> next.target == obj)) {
+            dispatchCache.clear();
+        }
+    }
+
+    private LocalHandler[] getHandlersFor(Class<?> eventClass) {
+        LocalHandler[] handlers = dispatchCache.get(eventClass);
+        if (handlers == null) {
+            List<LocalHandler> list = new ArrayList<>();
+            for (LocalHandler handler : currentHandlers) {
+                if (handler.classHandled.isAssignableFrom(eventClass)) {
+                    list.add(handler);
+                }
+            }
+            handlers = list.isEmpty() ? NO_HANDLERS : list.toArray(new LocalHandler[list.size()]);
+            dispatchCache.put(eventClass, handlers);
+        }
+        return handlers;
+    }
+
+    /** @return True if at least 1 registered handler would be called if an event of the given class was fired. */
+    public boolean hasHandlersFor(Class<? extends PipeEvent> eventClass) {
+        return getHandlersFor(eventClass).length > 0;
     }
 
     /** Sends this event to all of the registered handlers.
      * 
      * @return True if at least 1 event handler was called, 0 if no handlers were called. */
     public boolean fireEvent(PipeEvent event) {
+        LocalHandler[] handlers = getHandlersFor(event.getClass());
+        if (handlers.length == 0) {
+            return false;
+        }
         boolean handled = false;
         if (DEBUG) {
             String error = event.checkStateForErrors();
@@ -112,7 +177,7 @@ public class PipeEventBus {
                     + "(error = " + error + ")");
             }
         }
-        for (LocalHandler handler : currentHandlers) {
+        for (LocalHandler handler : handlers) {
             handled |= handler.handleEvent(event);
             if (DEBUG) {
                 String error = event.checkStateForErrors();
@@ -130,14 +195,17 @@ public class PipeEventBus {
         final boolean receiveCanceled, isStatic;
         final String methodName;
         final MethodHandle handle;
+        /** A handle that creates an {@link IEventListener} for this method, or null if one couldn't be generated. */
+        final MethodHandle listenerFactory;
         final Class<?> eventClassHandled;
 
-        public Handler(PipeEventPriority priority, boolean receiveCanceled, boolean isStatic, String methodName, MethodHandle handle, Class<?> eventClassHandled) {
+        public Handler(PipeEventPriority priority, boolean receiveCanceled, boolean isStatic, String methodName, MethodHandle handle, MethodHandle listenerFactory, Class<?> eventClassHandled) {
             this.priority = priority;
             this.receiveCanceled = receiveCanceled;
             this.isStatic = isStatic;
             this.methodName = methodName;
             this.handle = handle;
+            this.listenerFactory = listenerFactory;
             this.eventClassHandled = eventClassHandled;
         }
 
@@ -146,42 +214,58 @@ public class PipeEventBus {
             if (!isStatic && obj instanceof Class<?>) {
                 return null;
             }
-            MethodHandle bound = isStatic ? handle : handle.bindTo(obj);
-            return new LocalHandler(priority, receiveCanceled, obj, methodName, eventClassHandled, bound);
+            IEventListener listener = null;
+            if (listenerFactory != null) {
+                try {
+                    listener = (IEventListener) (isStatic ? listenerFactory.invoke() : listenerFactory.invoke(obj));
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Unable to bind " + methodName + " to " + obj, t);
+                }
+            }
+            if (listener == null) {
+                MethodHandle bound = isStatic ? handle : handle.bindTo(obj);
+                listener = event -> {
+                    try {
+                        bound.invoke(event);
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                };
+            }
+            return new LocalHandler(priority, receiveCanceled, obj, methodName, eventClassHandled, listener);
         }
     }
 
+    /** A single bound handler method. */
+    @FunctionalInterface
+    public interface IEventListener {
+        void handle(PipeEvent event);
+    }
+
     public static class LocalHandler implements Comparable<LocalHandler> {
         final PipeEventPriority priority;
         final boolean receiveCanceled;
         final Object target;
         final String methodName;
         final Class<?> classHandled;
-        final MethodHandle handle;
+        final IEventListener listener;
 
-        public LocalHandler(PipeEventPriority priority, boolean receiveCanceled, Object target, String methodName, Class<?> classHandled, MethodHandle handle) {
+        public LocalHandler(PipeEventPriority priority, boolean receiveCanceled, Object target, String methodName, Class<?> classHandled, IEventListener listener) {
             this.priority = priority;
             this.receiveCanceled = receiveCanceled;
             this.target = target;
             this.methodName = methodName;
             this.classHandled = classHandled;
-            this.handle = handle;
+            this.listener = listener;
         }
 
+        /** Passes the event to this handler. This assumes that the event is an instance of {@link #classHandled}. */
         public boolean handleEvent(PipeEvent event) {
             if (!receiveCanceled && event.isCanceled()) {
                 return false;
             }
-
-            if (classHandled.isAssignableFrom(event.getClass())) {
-                try {
-                    handle.invoke(event);
-                    return true;
-                } catch (Throwable e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-            return false;
+            listener.handle(event);
+            return true;
         }
 
         @Override
@@ -23,6 +23,7 @@ import buildcraft.api.transport.pluggable.PluggableDefinition;
 
 import buildcraft.lib.net.PacketBufferBC;
 
+import buildcraft.transport.tile.PipeTickScheduler;
 import buildcraft.transport.tile.TilePipeHolder;
 
 public final class PluggableHolder {
@@ -139,4 +140,8 @@ public final class PluggableHolder {
             pluggable.onTick();
         }
     }
+
+    public boolean canSleep() {
+        return pluggable == null || !PipeTickScheduler.needsTicking(pluggable, PipePluggable.class);
+    }
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.util.EnumFacing;
+
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+
+import buildcraft.api.transport.pipe.PipeBehaviour;
+import buildcraft.api.transport.pipe.PipeEventFluid;
+
+import buildcraft.lib.misc.CapUtil;
+import buildcraft.lib.misc.MathUtil;
+
+import buildcraft.transport.tile.PipeTickScheduler;
+import buildcraft.transport.tile.TilePipeHolder;
+
+/** A {@link PipeFlowNetwork} of fluid pipes. Rather than moving fluid from section to section every tick, the whole
+ * network is treated as a single tank (with the combined capacity of every member) that fluid is inserted into by
+ * whichever member it enters, and pushed out of every connected tank at once.
+ * <p>
+ * Only plain pipes can be members: anything that listens to fluid events (like iron, wooden or void pipes) or ticks
+ * its own behaviour is left to the normal per-section logic, and is connected to networks like any other tank. */
+final class FluidNetwork extends PipeFlowNetwork<PipeFlowFluids> {
+    private FluidStack fluid;
+    private int amount;
+    private int capacity;
+    /** For every member (by index) the combined capacity of every member before it. */
+    private final List<Integer> capacityBefore = new ArrayList<>();
+
+    /** For every member (by index) the endpoint on each face (by ordinal), or null if that face isn't one. */
+    private final List<Endpoint[]> endpointsByMember = new ArrayList<>();
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private boolean endpointsDirty = true;
+
+    FluidNetwork(PipeFlowFluids start) {
+        super(PipeFlowFluids.class);
+        build(start);
+    }
+
+    /** @return True if the given flow is in a pipe that could ever be a member of a network. */
+    static boolean canBeMember(PipeFlowFluids flow) {
+        if (!(flow.pipe.getHolder() instanceof TilePipeHolder)) {
+            return false;
+        }
+        if (PipeTickScheduler.needsTicking(flow.pipe.getBehaviour(), PipeBehaviour.class)) {
+            return false;
+        }
+        TilePipeHolder holder = (TilePipeHolder) flow.pipe.getHolder();
+        return !holder.eventBus.hasHandlersFor(PipeEventFluid.SideCheck.class)//
+            && !holder.eventBus.hasHandlersFor(PipeEventFluid.TryInsert.class)//
+            && !holder.eventBus.hasHandlersFor(PipeEventFluid.PreMoveToCentre.class)//
+            && !holder.eventBus.hasHandlersFor(PipeEventFluid.OnMoveToCentre.class);
+    }
+
+    @Override
+    protected boolean canJoin(PipeFlowFluids flow) {
+        if (!canBeMember(flow)) {
+            return false;
+        }
+        FluidStack other = flow.getNetworkFluid();
+        return fluid == null || other == null || fluid.isFluidEqual(other);
+    }
+
+    @Override
+    protected void onMemberAdded(PipeFlowFluids flow, int index) {
+        if (flow.network != null && flow.network != this) {
+            // Merging: this writes back every member's share of the old network so it can be added to this one
+            flow.network.invalidate();
+        }
+        flow.moveSectionsToNetwork();
+        flow.network = this;
+        flow.networkIndex = index;
+        capacityBefore.add(capacity);
+        capacity += flow.capacity;
+        if (flow.networkFluid != null && flow.networkAmount > 0) {
+            if (fluid == null) {
+                fluid = new FluidStack(flow.networkFluid, 0);
+            }
+            if (fluid.isFluidEqual(flow.networkFluid)) {
+                amount += flow.networkAmount;
+            }
+        }
+        flow.networkFluid = null;
+        flow.networkAmount = 0;
+
+        endpointsByMember.add(new Endpoint[6]);
+        refreshEndpoints(index);
+        for (int n : neighbours.get(index)) {
+            if (n >= 0) {
+                refreshEndpoints(n);
+            }
+        }
+    }
+
+    @Override
+    protected PipeFlowNetwork<PipeFlowFluids> getNetworkOf(PipeFlowFluids flow) {
+        return flow.network;
+    }
+
+    @Override
+    public boolean onConnectionsChanged(PipeFlowFluids flow) {
+        if (!super.onConnectionsChanged(flow)) {
+            return false;
+        }
+        int index = indexOf(flow);
+        refreshEndpoints(index);
+        for (int n : neighbours.get(index)) {
+            if (n >= 0) {
+                refreshEndpoints(n);
+            }
+        }
+        return true;
+    }
+
+    /** Recalculates which faces of the given member are connected to something other than another member. */
+    private void refreshEndpoints(int index) {
+        PipeFlowFluids flow = members.get(index);
+        Endpoint[] existing = endpointsByMember.get(index);
+        int[] links = neighbours.get(index);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            int i = face.ordinal();
+            boolean isEndpoint = links[i] < 0 && flow.pipe.isConnected(face);
+            if (isEndpoint != (existing[i] != null)) {
+                existing[i] = isEndpoint ? new Endpoint(flow, face) : null;
+                endpointsDirty = true;
+            }
+        }
+    }
+
+    private List<Endpoint> getEndpoints() {
+        if (endpointsDirty) {
+            endpointsDirty = false;
+            endpoints.clear();
+            for (Endpoint[] array : endpointsByMember) {
+                for (Endpoint e : array) {
+                    if (e != null) {
+                        endpoints.add(e);
+                    }
+                }
+            }
+        }
+        return endpoints;
+    }
+
+    @Nullable
+    FluidStack getFluid() {
+        return fluid;
+    }
+
+    /** @return The amount of fluid that the given member holds, if this network was split back up into pipes. The
+     *         shares of every member add up to exactly the amount in this network, so saving every member (or
+     *         splitting the network up) never loses anything to rounding. */
+    int getShare(PipeFlowFluids flow) {
+        return MathUtil.getProportionalShare(amount, capacityBefore.get(flow.networkIndex), flow.capacity, capacity);
+    }
+
+    @Override
+    protected void onInvalidated() {
+        int remaining = amount;
+        for (PipeFlowFluids flow : members) {
+            if (flow.network != this) {
+                continue;
+            }
+            int share = Math.min(getShare(flow), remaining);
+            remaining -= share;
+            flow.networkAmount = share;
+            flow.networkFluid = share > 0 ? new FluidStack(fluid, 0) : null;
+            if (share > 0) {
+                // So that it can be added to a new network, even if none of its neighbours are awake
+                PipeTickScheduler.wakeUp(flow.pipe.getHolder());
+            }
+        }
+        if (remaining > 0) {
+            // Members that have since joined another network don't take their share: give it to the first member
+            // that can hold it
+            for (PipeFlowFluids flow : members) {
+                if (flow.network != this || flow.pipe.getHolder().getPipeTile().isInvalid()) {
+                    continue;
+                }
+                flow.networkAmount += remaining;
+                flow.networkFluid = new FluidStack(fluid, 0);
+                break;
+            }
+        }
+    }
+
+    /** Inserts fluid into this network from the given face of a member.
+     *
+     * @return The amount of fluid that was (or would have been) inserted. */
+    int fill(PipeFlowFluids flow, EnumFacing face, FluidStack resource, boolean doFill) {
+        if (!isValid() || resource == null || resource.amount <= 0) {
+            return 0;
+        }
+        if (fluid != null && !fluid.isFluidEqual(resource)) {
+            return 0;
+        }
+        long now = flow.pipe.getHolder().getPipeWorld().getTotalWorldTime();
+        Endpoint endpoint = endpointsByMember.get(flow.networkIndex)[face.ordinal()];
+        if (endpoint != null && now - endpoint.lastOutput < PipeFlowFluids.DIRECTION_COOLDOWN) {
+            return 0;
+        }
+        int filled = Math.min(resource.amount, Math.min(capacity - amount, flow.getInputSpace(now)));
+        if (filled <= 0) {
+            return 0;
+        }
+        if (doFill) {
+            if (fluid == null) {
+                fluid = new FluidStack(resource, 0);
+            }
+            if (amount <= 0) {
+                // Every member needs to be awake to show the fluid moving through it
+                for (PipeFlowFluids member : members) {
+                    PipeTickScheduler.wakeUp(member.pipe.getHolder());
+                }
+            }
+            amount += filled;
+            flow.recordInput(now, filled);
+            if (endpoint != null) {
+                endpoint.lastInput = now;
+            }
+            PipeTickScheduler.wakeUp(flow.pipe.getHolder());
+        }
+        return filled;
+    }
+
+    @Override
+    protected void onTick(long now) {
+        if (amount <= 0) {
+            return;
+        }
+        List<Endpoint> list = getEndpoints();
+        // Ask everything how much it wants first, so the fluid can be shared out fairly
+        long offered = 0;
+        for (Endpoint e : list) {
+            e.handler = null;
+            e.offer = 0;
+            if (now - e.lastInput < PipeFlowFluids.DIRECTION_COOLDOWN) {
+                continue;
+            }
+            IFluidHandler handler = e.flow.pipe.getHolder().getCapabilityFromPipe(e.face, CapUtil.CAP_FLUIDS);
+            if (handler == null) {
+                continue;
+            }
+            int max = Math.min(amount, e.flow.getTransferPerTick());
+            int accepted = handler.fill(new FluidStack(fluid, max), false);
+            if (accepted > 0) {
+                e.handler = handler;
+                e.offer = accepted;
+                offered += accepted;
+            }
+        }
+        if (offered <= 0) {
+            return;
+        }
+        double scale = Math.min(1, amount / (double) offered);
+        for (Endpoint e : list) {
+            if (e.handler == null || amount <= 0) {
+                continue;
+            }
+            int toPush = Math.min(amount, Math.max(1, (int) (e.offer * scale)));
+            int filled = e.handler.fill(new FluidStack(fluid, toPush), true);
+            if (filled > 0) {
+                amount -= filled;
+                e.lastOutput = now;
+            }
+            e.handler = null;
+        }
+        if (amount <= 0) {
+            amount = 0;
+            fluid = null;
+        }
+    }
+
+    boolean isEmpty() {
+        return amount <= 0;
+    }
+
+    /** @return The direction that fluid last went through the given face of the given member, as used by
+     *         {@link PipeFlowFluids.Section#ticksInDirection}. */
+    int getDisplayDirection(PipeFlowFluids flow, EnumFacing face, long now) {
+        Endpoint e = endpointsByMember.get(flow.networkIndex)[face.ordinal()];
+        if (e == null) {
+            return 0;
+        }
+        if (now - e.lastOutput < PipeFlowFluids.DIRECTION_COOLDOWN) {
+            return (int) (PipeFlowFluids.DIRECTION_COOLDOWN - (now - e.lastOutput));
+        }
+        if (now - e.lastInput < PipeFlowFluids.DIRECTION_COOLDOWN) {
+            return (int) (now - e.lastInput - PipeFlowFluids.DIRECTION_COOLDOWN);
+        }
+        return 0;
+    }
+
+    /** A face of a member that is connected to something that isn't a member. */
+    private static final class Endpoint {
+        final PipeFlowFluids flow;
+        final EnumFacing face;
+        long lastInput = Long.MIN_VALUE / 2, lastOutput = Long.MIN_VALUE / 2;
+
+        // Only used during a single tick
+        IFluidHandler handler;
+        int offer;
+
+        Endpoint(PipeFlowFluids flow, EnumFacing face) {
+            this.flow = flow;
+            this.face = face;
+        }
+    }
+}
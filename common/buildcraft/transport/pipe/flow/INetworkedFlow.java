@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+/** A pipe flow that might be part of a {@link PipeFlowNetwork}. */
+public interface INetworkedFlow {
+    /** Called whenever the connections of the pipe that holds this flow have been re-calculated, as the network that
+     * this is in might now be out of date. */
+    void onConnectionsChanged();
+
+    /** Called when the pipe that holds this flow is removed or unloaded. */
+    void invalidateNetwork();
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import buildcraft.transport.tile.PipeTickScheduler;
+
+/** A pipe flow that doesn't need to be ticked while it is empty. Flows that implement this must wake up their pipe
+ * (with {@link PipeTickScheduler#wakeUp(buildcraft.api.transport.pipe.IPipeHolder)}) whenever something is added to
+ * them. */
+public interface ISleepableFlow {
+    /** @return True if ticking this flow would do nothing. */
+    boolean canSleep();
+}
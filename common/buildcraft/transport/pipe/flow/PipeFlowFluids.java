@@ -57,10 +57,13 @@ import buildcraft.lib.net.cache.BuildCraftObjectCaches;
 import buildcraft.lib.net.cache.NetworkedObjectCache;
 
 import buildcraft.core.BCCoreConfig;
+import buildcraft.transport.BCTransportConfig;
+import buildcraft.transport.tile.PipeTickScheduler;
 
-public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable {
+public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable, ISleepableFlow, INetworkedFlow {
 
-    private static final int DIRECTION_COOLDOWN = 60;
+    /** The number of ticks that a section keeps showing the direction that fluid last went through it. */
+    static final int DIRECTION_COOLDOWN = 60;
     private static final int COOLDOWN_INPUT = -DIRECTION_COOLDOWN;
     private static final int COOLDOWN_OUTPUT = DIRECTION_COOLDOWN;
 
@@ -80,6 +83,17 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     private int currentDelay;
     private final SafeTimeTracker tracker = new SafeTimeTracker(BCCoreConfig.networkUpdateRate, 4);
 
+    // Network fields (see FluidNetwork)
+    FluidNetwork network;
+    int networkIndex;
+    /** The fluid that this pipe holds while it isn't in a valid network. */
+    FluidStack networkFluid;
+    int networkAmount;
+    /** If true then the sections only show what the network is doing, rather than holding any fluid. */
+    private boolean sectionsAreDisplay;
+    private long inputTick;
+    private int inputThisTick;
+
     // Client fields for interpolating amounts
     private long lastMessage, lastMessageMinus1;
     private NetworkedObjectCache<FluidStack>.Link clientFluid = null;
@@ -96,7 +110,11 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         for (EnumPipePart part : EnumPipePart.VALUES) {
             sections.put(part, new Section(part));
         }
-        if (nbt.hasKey("fluid")) {
+        if (nbt.hasKey("networkAmount")) {
+            networkFluid = FluidStack.loadFluidStackFromNBT(nbt.getCompoundTag("fluid"));
+            networkAmount = networkFluid == null ? 0 : nbt.getInteger("networkAmount");
+            setFluid(null);
+        } else if (nbt.hasKey("fluid")) {
             setFluid(FluidStack.loadFluidStackFromNBT(nbt.getCompoundTag("fluid")));
         } else {
             setFluid(null);
@@ -125,7 +143,18 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     public NBTTagCompound writeToNbt() {
         NBTTagCompound nbt = super.writeToNbt();
 
-        if (currentFluid != null) {
+        if (sectionsAreDisplay || networkAmount > 0) {
+            // The sections (if they hold anything) only show the network's fluid, so only this pipe's share is saved
+            boolean inNetwork = network != null && network.isValid();
+            FluidStack netFluid = inNetwork ? network.getFluid() : networkFluid;
+            int netAmount = inNetwork ? network.getShare(this) : networkAmount;
+            if (netFluid != null && netAmount > 0) {
+                NBTTagCompound fluidTag = new NBTTagCompound();
+                netFluid.writeToNBT(fluidTag);
+                nbt.setTag("fluid", fluidTag);
+                nbt.setInteger("networkAmount", netAmount);
+            }
+        } else if (currentFluid != null) {
             NBTTagCompound fluidTag = new NBTTagCompound();
             currentFluid.writeToNBT(fluidTag);
             nbt.setTag("fluid", fluidTag);
@@ -256,6 +285,9 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
         FluidStack fluid = isRemote ? getFluidStackForRender() : currentFluid;
         left.add(" - FluidType = " + (fluid == null ? "empty" : fluid.getLocalizedName()));
+        if (!isRemote && network != null) {
+            left.add(" - network = " + network.getSize() + " pipes" + (network.isValid() ? "" : " (invalid)"));
+        }
 
         for (EnumPipePart part : EnumPipePart.VALUES) {
             Section section = sections.get(part);
@@ -323,6 +355,18 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         return arr;
     }
 
+    /** @return True if the fluid in any section is moving, so {@link #getOffsetsForRender(float)} changes every
+     *         frame. */
+    @SideOnly(Side.CLIENT)
+    public boolean isFlowingForRender() {
+        for (Section s : sections.values()) {
+            if (s.offsetLast != null && !s.offsetLast.equals(s.offsetThis)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // Internal logic
 
     private void setFluid(FluidStack fluid) {
@@ -340,6 +384,181 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         }
     }
 
+    @Override
+    public boolean canSleep() {
+        if (currentFluid != null || networkAmount > 0) {
+            return false;
+        }
+        if (network != null && network.isValid() && !network.isEmpty()) {
+            return false;
+        }
+        return !hasChangedSinceSent();
+    }
+
+    /** @return True if any of the sections have a different amount or direction to what was last sent to clients. */
+    private boolean hasChangedSinceSent() {
+        for (Section section : sections.values()) {
+            if (section.amount != section.lastSentAmount) {
+                return true;
+            }
+            if (section.lastSentDirection != Dir.get(section.ticksInDirection)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Networks
+
+    @Override
+    public void onConnectionsChanged() {
+        if (network != null && network.isValid()) {
+            network.onConnectionsChanged(this);
+        }
+    }
+
+    @Override
+    public void invalidateNetwork() {
+        if (network != null) {
+            network.invalidate();
+            network = null;
+        }
+    }
+
+    /** @return True if this pipe should be (or is) part of a {@link FluidNetwork} rather than ticking its own
+     *         sections. */
+    private boolean usesNetwork() {
+        return BCTransportConfig.fluidNetworks && !pipe.getHolder().getPipeWorld().isRemote
+            && FluidNetwork.canBeMember(this);
+    }
+
+    private FluidNetwork getNetwork() {
+        if (network == null || !network.isValid()) {
+            network = new FluidNetwork(this);
+        }
+        return network;
+    }
+
+    /** @return The fluid held by this pipe's network, or the fluid that this pipe will add to a network. */
+    FluidStack getNetworkFluid() {
+        if (network != null && network.isValid()) {
+            return network.getFluid();
+        }
+        if (networkAmount > 0) {
+            return networkFluid;
+        }
+        // Sections that aren't only for display will be moved into the network when this joins it
+        return sectionsAreDisplay ? null : currentFluid;
+    }
+
+    int getTransferPerTick() {
+        return fluidTransferInfo.transferPerTick;
+    }
+
+    /** @return How much more fluid can be inserted into the network through this pipe on the given tick. */
+    int getInputSpace(long now) {
+        return inputTick == now ? fluidTransferInfo.transferPerTick - inputThisTick : fluidTransferInfo.transferPerTick;
+    }
+
+    void recordInput(long now, int amount) {
+        if (inputTick != now) {
+            inputTick = now;
+            inputThisTick = 0;
+        }
+        inputThisTick += amount;
+    }
+
+    /** Moves any fluid in the sections (from before this pipe was in a network) into {@link #networkAmount}, and marks
+     * the sections as only being for display. This must be called before a pipe joins a network, as the sections are
+     * overwritten by {@link #updateDisplay(FluidNetwork, long)} afterwards. Does nothing if the sections are already
+     * only for display. */
+    void moveSectionsToNetwork() {
+        if (sectionsAreDisplay) {
+            return;
+        }
+        if (currentFluid != null) {
+            int total = 0;
+            for (Section section : sections.values()) {
+                total += section.amount;
+            }
+            if (networkAmount <= 0) {
+                networkFluid = new FluidStack(currentFluid, 0);
+                networkAmount = 0;
+            }
+            if (networkFluid.isFluidEqual(currentFluid)) {
+                networkAmount += total;
+            }
+        }
+        clearSections();
+        sectionsAreDisplay = true;
+    }
+
+    /** Moves any fluid in {@link #networkAmount} (from when this pipe was in a network) into the sections. */
+    private void moveNetworkToSections() {
+        if (currentFluid == null) {
+            setFluid(new FluidStack(networkFluid, 0));
+        }
+        if (currentFluid.isFluidEqual(networkFluid)) {
+            int left = networkAmount;
+            for (EnumPipePart part : EnumPipePart.VALUES) {
+                Section section = sections.get(part);
+                int added = Math.min(left, capacity - section.amount);
+                if (added > 0) {
+                    section.amount += added;
+                    left -= added;
+                }
+            }
+        }
+        networkFluid = null;
+        networkAmount = 0;
+    }
+
+    private void clearSections() {
+        setFluid(null);
+        for (Section section : sections.values()) {
+            section.amount = 0;
+        }
+    }
+
+    private void tickNetwork(World world) {
+        FluidNetwork net = getNetwork();
+        net.tick();
+        if (tracker.markTimeIfDelay(world)) {
+            updateDisplay(net, world.getTotalWorldTime());
+            if (hasChangedSinceSent()) {
+                sendPayload(NET_FLUID_AMOUNTS);
+            }
+        }
+    }
+
+    /** Sets the sections to show this pipe's share of the network's fluid, spread evenly over the centre and every
+     * connected face. */
+    private void updateDisplay(FluidNetwork net, long now) {
+        FluidStack fluid = net.isValid() ? net.getFluid() : null;
+        int share = fluid == null ? 0 : net.getShare(this);
+        currentFluid = share > 0 ? fluid : null;
+        int connected = 0;
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if (pipe.isConnected(face)) {
+                connected++;
+            }
+        }
+        int perSection = share / (connected + 1);
+        for (EnumPipePart part : EnumPipePart.VALUES) {
+            Section section = sections.get(part);
+            if (part.face == null) {
+                section.amount = share - perSection * connected;
+                section.ticksInDirection = 0;
+            } else if (pipe.isConnected(part.face)) {
+                section.amount = perSection;
+                section.ticksInDirection = net.isValid() ? net.getDisplayDirection(this, part.face, now) : 0;
+            } else {
+                section.amount = 0;
+                section.ticksInDirection = 0;
+            }
+        }
+    }
+
     @Override
     public void onTick() {
         World world = pipe.getHolder().getPipeWorld();
@@ -350,6 +569,19 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             return;
         }
 
+        if (usesNetwork()) {
+            tickNetwork(world);
+            return;
+        }
+        if (sectionsAreDisplay) {
+            invalidateNetwork();
+            clearSections();
+            sectionsAreDisplay = false;
+        }
+        if (networkAmount > 0) {
+            moveNetworkToSections();
+        }
+
         if (currentFluid != null) {
             // int timeSlot = (int) (world.getTotalWorldTime() % currentDelay);
             int totalFluid = 0;
@@ -390,23 +622,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             }
         }
 
-        boolean send = false;
-
-        for (EnumPipePart part : EnumPipePart.VALUES) {
-            Section section = sections.get(part);
-            if (section.amount != section.lastSentAmount) {
-                send = true;
-                break;
-            } else {
-                Dir should = Dir.get(section.ticksInDirection);
-                if (section.lastSentDirection != should) {
-                    send = true;
-                    break;
-                }
-            }
-        }
-
-        if (send && tracker.markTimeIfDelay(world)) {
+        if (hasChangedSinceSent() && tracker.markTimeIfDelay(world)) {
             // send a net update
             sendPayload(NET_FLUID_AMOUNTS);
         }
@@ -706,6 +922,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             if (doFill) {
                 incoming[currentTime] += amountToFill;
                 amount += amountToFill;
+                PipeTickScheduler.wakeUp(pipe.getHolder());
             }
             return amountToFill;
         }
@@ -813,6 +1030,12 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
         @Override
         public int fill(FluidStack resource, boolean doFill) {
+            if (part.face != null && usesNetwork()) {
+                if (!pipe.isConnected(part.face)) {
+                    return 0;
+                }
+                return getNetwork().fill(PipeFlowFluids.this, part.face, resource, doFill);
+            }
             if (!getCurrentDirection().canInput() || !pipe.isConnected(part.face) || resource == null) {
                 return 0;
             }
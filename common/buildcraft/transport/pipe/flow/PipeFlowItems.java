@@ -7,9 +7,9 @@
 package buildcraft.transport.pipe.flow;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
@@ -49,15 +49,16 @@ import buildcraft.lib.inventory.NoSpaceTransactor;
 import buildcraft.lib.misc.CapUtil;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.StackUtil;
-import buildcraft.lib.misc.data.DelayedList;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.net.cache.BuildCraftObjectCaches;
 
-public final class PipeFlowItems extends PipeFlow implements IFlowItems {
+import buildcraft.transport.tile.PipeTickScheduler;
+
+public final class PipeFlowItems extends PipeFlow implements IFlowItems, ISleepableFlow {
     private static final double EXTRACT_SPEED = 0.08;
     public static final int NET_CREATE_ITEM = 2;
 
-    private final DelayedList<TravellingItem> items = new DelayedList<>();
+    private final TravellingItemWheel items = new TravellingItemWheel();
 
     public PipeFlowItems(IPipe pipe) {
         super(pipe);
@@ -78,15 +79,10 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
     @Override
     public NBTTagCompound writeToNbt() {
         NBTTagCompound nbt = super.writeToNbt();
-        List<List<TravellingItem>> allItems = items.getAllElements();
         NBTTagList list = new NBTTagList();
 
         long tickNow = pipe.getHolder().getPipeWorld().getTotalWorldTime();
-        for (List<TravellingItem> l : allItems) {
-            for (TravellingItem item : l) {
-                list.appendTag(item.writeToNbt(tickNow));
-            }
-        }
+        items.forEach(item -> list.appendTag(item.writeToNbt(tickNow)));
         nbt.setTag("items", list);
         return nbt;
     }
@@ -190,6 +186,11 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         return ItemTransactorHelper.getTransactor(oTile, face.getOpposite()) != NoSpaceTransactor.INSTANCE;
     }
 
+    @Override
+    public boolean canSleep() {
+        return items.isEmpty();
+    }
+
     @Override
     public void onTick() {
         World world = pipe.getHolder().getPipeWorld();
@@ -200,7 +201,8 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
             return;
         }
 
-        for (TravellingItem item : toTick) {
+        for (int i = 0; i < toTick.size(); i++) {
+            TravellingItem item = toTick.get(i);
             if (item.toCenter) {
                 onItemReachCenter(item);
             } else {
@@ -248,17 +250,22 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
 
         World world = holder.getPipeWorld();
         long now = world.getTotalWorldTime();
+        // The item that reached the center is reused for the first destination, so keep what we need from it
+        EnumFacing from = item.side;
+        double speed = item.speed;
+        EnumSet<EnumFacing> tried = item.tried;
+        boolean reused = false;
         for (PipeEventItem.ItemEntry itemEntry : findDest.items) {
             if (itemEntry.stack.isEmpty()) {
                 continue;
             }
-            PipeEventItem.ModifySpeed modifySpeed = new PipeEventItem.ModifySpeed(holder, this, itemEntry, item.speed);
+            PipeEventItem.ModifySpeed modifySpeed = new PipeEventItem.ModifySpeed(holder, this, itemEntry, speed);
             modifySpeed.modifyTo(0.04, 0.01);
             holder.fireEvent(modifySpeed);
 
             double target = modifySpeed.targetSpeed;
             double maxDelta = modifySpeed.maxSpeedChange;
-            double nSpeed = item.speed;
+            double nSpeed = speed;
             if (nSpeed < target) {
                 nSpeed += maxDelta;
                 if (nSpeed > target) {
@@ -276,10 +283,17 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
                 destinations = findDest.generateRandomOrder();
             }
             if (destinations.size() == 0) {
-                dropItem(itemEntry.stack, null, item.side.getOpposite(), nSpeed);
+                dropItem(itemEntry.stack, null, from.getOpposite(), nSpeed);
             } else {
-                TravellingItem newItem = new TravellingItem(itemEntry.stack);
-                newItem.tried.addAll(item.tried);
+                TravellingItem newItem;
+                if (reused) {
+                    newItem = new TravellingItem(itemEntry.stack);
+                    newItem.tried.addAll(tried);
+                } else {
+                    newItem = item;
+                    newItem.stack = itemEntry.stack;
+                    reused = true;
+                }
                 newItem.toCenter = false;
                 newItem.colour = itemEntry.colour;
                 newItem.side = destinations.get(0);
@@ -466,12 +480,9 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
     }
     
     private void addItemTryMerge(TravellingItem item) {
-        for (List<TravellingItem> list : items.getAllElements()) {
-            for (TravellingItem item2 : list) {
-                if (item2.mergeWith(item)) {
-                    return;
-                }
-            }
+        PipeTickScheduler.wakeUp(pipe.getHolder());
+        if (items.tryMerge(item)) {
+            return;
         }
         items.add(item.timeToDest, item);
         sendItemDataToClient(item);
@@ -499,12 +510,9 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         }
     }
 
+    /** Passes every item to the given consumer, without creating a list of them. */
     @SideOnly(Side.CLIENT)
-    public List<TravellingItem> getAllItemsForRender() {
-        List<TravellingItem> all = new ArrayList<>();
-        for (List<TravellingItem> innerList : items.getAllElements()) {
-            all.addAll(innerList);
-        }
-        return all;
+    public void forEachItemForRender(Consumer<TravellingItem> consumer) {
+        items.forEach(consumer);
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.util.EnumFacing;
+
+import buildcraft.api.transport.pipe.IPipe;
+import buildcraft.api.transport.pipe.PipeFlow;
+
+/** A group of connected pipes that all have the same type of flow, which are ticked together as a single object
+ * rather than each pipe passing its contents to its neighbours one tick at a time.
+ * <p>
+ * Networks can have new members added to them (see {@link #onConnectionsChanged(PipeFlow)}), but if anything else
+ * changes then the whole network is invalidated, and the next member to need it builds a new one. */
+public abstract class PipeFlowNetwork<F extends PipeFlow> {
+    /** How many members are checked for being invalid every tick. Members invalidate the network themselves when they
+     * are removed or unloaded, so this is only a backup for when they don't. */
+    private static final int VERIFY_PER_TICK = 16;
+
+    private final Class<F> flowClass;
+    /** Every pipe in this network, in the order that they were found. */
+    protected final List<F> members = new ArrayList<>();
+    private final Map<F, Integer> indices = new IdentityHashMap<>();
+    /** For every member (by index) the index of the member that is connected on each face (by ordinal), or -1 if
+     * there isn't one. */
+    protected final List<int[]> neighbours = new ArrayList<>();
+    private boolean valid = true;
+    private long lastTick = Long.MIN_VALUE;
+    private int verifyIndex = 0;
+
+    protected PipeFlowNetwork(Class<F> flowClass) {
+        this.flowClass = flowClass;
+    }
+
+    /** Finds every member of this network, starting from the given flow. This should be called once, by the subclass
+     * constructor. */
+    protected final void build(F start) {
+        addMember(start);
+        for (int i = 0; i < members.size(); i++) {
+            F flow = members.get(i);
+            for (EnumFacing face : EnumFacing.VALUES) {
+                F other = getConnectedFlow(flow, face);
+                if (other != null && !indices.containsKey(other)) {
+                    addMember(other);
+                }
+            }
+        }
+    }
+
+    private int addMember(F flow) {
+        int index = members.size();
+        members.add(flow);
+        indices.put(flow, index);
+        int[] links = new int[6];
+        Arrays.fill(links, -1);
+        neighbours.add(links);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            F other = getConnectedFlow(flow, face);
+            Integer otherIndex = other == null ? null : indices.get(other);
+            if (otherIndex != null) {
+                links[face.ordinal()] = otherIndex;
+                neighbours.get(otherIndex)[face.getOpposite().ordinal()] = index;
+            }
+        }
+        onMemberAdded(flow, index);
+        return index;
+    }
+
+    @Nullable
+    private F getConnectedFlow(F flow, EnumFacing face) {
+        IPipe other = flow.pipe.getConnectedPipe(face);
+        if (other == null || !other.isConnected(face.getOpposite())) {
+            return null;
+        }
+        PipeFlow oFlow = other.getFlow();
+        if (!flowClass.isInstance(oFlow)) {
+            return null;
+        }
+        F cast = flowClass.cast(oFlow);
+        return canJoin(cast) ? cast : null;
+    }
+
+    /** @return True if the given flow may be a member of this network. */
+    protected boolean canJoin(F flow) {
+        return true;
+    }
+
+    /** Called whenever a new member is added to this network, including while it is being built. */
+    protected abstract void onMemberAdded(F flow, int index);
+
+    /** @return The (possibly invalid) network that the given flow is a member of, or null if it's not in one. */
+    @Nullable
+    protected abstract PipeFlowNetwork<F> getNetworkOf(F flow);
+
+    /** @return The index of the given flow, or -1 if it isn't a member of this network. */
+    protected int indexOf(F flow) {
+        Integer index = indices.get(flow);
+        return index == null ? -1 : index;
+    }
+
+    /** Called when the connections of one of the members have been re-calculated. Newly connected pipes that are not
+     * part of any other network are added to this one, but anything else (a connection being removed, or another
+     * network being connected) invalidates this network.
+     *
+     * @return True if this network is still valid. */
+    public boolean onConnectionsChanged(F flow) {
+        int index = indexOf(flow);
+        if (!valid || index < 0 || !canJoin(flow)) {
+            invalidate();
+            return false;
+        }
+        for (EnumFacing face : EnumFacing.VALUES) {
+            int recorded = neighbours.get(index)[face.ordinal()];
+            F actual = getConnectedFlow(flow, face);
+            if (actual == null) {
+                if (recorded != -1) {
+                    invalidate();
+                    return false;
+                }
+                continue;
+            }
+            int actualIndex = indexOf(actual);
+            if (actualIndex < 0) {
+                PipeFlowNetwork<F> other = getNetworkOf(actual);
+                if (recorded != -1 || (other != null && other.isValid())) {
+                    if (other != null) {
+                        other.invalidate();
+                    }
+                    invalidate();
+                    return false;
+                }
+                addMember(actual);
+            } else if (recorded != actualIndex) {
+                if (recorded != -1) {
+                    invalidate();
+                    return false;
+                }
+                neighbours.get(index)[face.ordinal()] = actualIndex;
+                neighbours.get(actualIndex)[face.getOpposite().ordinal()] = index;
+            }
+        }
+        return true;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void invalidate() {
+        if (valid) {
+            valid = false;
+            onInvalidated();
+        }
+    }
+
+    /** Called once, when this network is invalidated. */
+    protected void onInvalidated() {}
+
+    public int getSize() {
+        return members.size();
+    }
+
+    /** Ticks this network, if it hasn't already been ticked this tick. Every member should call this every tick, as
+     * only the first one will actually tick the network. */
+    public final void tick() {
+        if (!valid) {
+            return;
+        }
+        long now = members.get(0).pipe.getHolder().getPipeWorld().getTotalWorldTime();
+        if (lastTick == now) {
+            return;
+        }
+        lastTick = now;
+        // Members should invalidate this when they are removed or unloaded, but check a few every tick just in case
+        for (int i = 0; i < VERIFY_PER_TICK && i < members.size(); i++) {
+            if (verifyIndex >= members.size()) {
+                verifyIndex = 0;
+            }
+            if (members.get(verifyIndex++).pipe.getHolder().getPipeTile().isInvalid()) {
+                invalidate();
+                return;
+            }
+        }
+        onTick(now);
+    }
+
+    protected abstract void onTick(long now);
+}
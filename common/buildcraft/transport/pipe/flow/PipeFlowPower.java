@@ -22,6 +22,7 @@ import net.minecraft.network.PacketBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.world.World;
 
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.fml.relauncher.Side;
@@ -44,19 +45,29 @@ import buildcraft.api.transport.pipe.PipeFlow;
 
 import buildcraft.lib.misc.LocaleUtil;
 import buildcraft.lib.misc.MathUtil;
+import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.data.AverageInt;
 
-public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
+import buildcraft.transport.BCTransportConfig;
+
+public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable, INetworkedFlow {
     public static final long DEFAULT_MAX_POWER = MjAPI.MJ * 10;
     public static final int NET_POWER_AMOUNTS = 2;
 
-    private long maxPower = -1;
+    long maxPower = -1;
     private long powerLoss = -1;
-    private long powerResistance = -1;
+    long powerResistance = -1;
 
     private long currentWorldTime;
 
-    private boolean isReceiver = false;
+    boolean isReceiver = false;
+
+    // Network mode (see BCTransportConfig.powerNetworks)
+    PowerNetwork network;
+    int networkIndex;
+    /** The power that this (receiving) pipe holds, waiting to be shared out by the network. */
+    long networkPower;
+
     private final EnumMap<EnumFacing, Section> sections = Arrays.stream(EnumFacing.VALUES)
         .collect(Collectors.toMap(
             Function.identity(),
@@ -158,6 +169,39 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         } else if (powerResistance < 0) {
             powerResistance = powerLoss * MjAPI.MJ / maxPower;
         }
+        invalidateNetwork();
+    }
+
+    void ensureConfigured() {
+        if (maxPower == -1) {
+            reconfigure();
+        }
+    }
+
+    @Override
+    public void onConnectionsChanged() {
+        invalidateNetwork();
+    }
+
+    @Override
+    public void invalidateNetwork() {
+        if (network != null) {
+            network.invalidate();
+            network = null;
+        }
+    }
+
+    private PowerNetwork getNetwork() {
+        if (network == null || !network.isValid()) {
+            network = new PowerNetwork(this);
+        }
+        return network;
+    }
+
+    void setDisplay(EnumFacing face, long power, EnumFlow flow) {
+        Section section = sections.get(face);
+        section.displayPower = Math.min(DEFAULT_MAX_POWER, power * DEFAULT_MAX_POWER / maxPower);
+        section.displayFlow = flow;
     }
 
     @Override
@@ -206,6 +250,9 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         left.add("- powerQuery: " + arrayToString(s -> s.powerQuery) + " <- " + arrayToString(s -> s.nextPowerQuery));
         left.add("- power: IN " + arrayToString(s -> s.debugPowerInput) + ", OUT " + arrayToString(s -> s.debugPowerOutput));
         left.add("- power: OFFERED " + arrayToString(s -> s.debugPowerOffered));
+        if (BCTransportConfig.powerNetworks) {
+            left.add("network = " + (network == null ? "null" : network.getSize() + " pipes") + ", stored = " + LocaleUtil.localizeMj(networkPower));
+        }
     }
 
     private String arrayToString(ToLongFunction<Section> getter) {
@@ -225,6 +272,19 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
             reconfigure();
         }
 
+        if (BCTransportConfig.powerNetworks) {
+            PowerNetwork net = getNetwork();
+            net.tick();
+            World world = pipe.getHolder().getPipeWorld();
+            if (tracker.markTimeIfDelay(world) && MessageUtil.isWatched(world, pipe.getHolder().getPipePos())) {
+                if (net.isValid()) {
+                    net.updateDisplay(this);
+                }
+                sendPayload(NET_POWER_AMOUNTS);
+            }
+            return;
+        }
+
         step();
 
         init();
@@ -388,6 +448,12 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         @Override
         public long getPowerRequested() {
+            if (BCTransportConfig.powerNetworks) {
+                if (!isReceiver || network == null) {
+                    return 0;
+                }
+                return Math.max(0, Math.min(network.getRequested(), maxPower - networkPower));
+            }
             long req = 0;
             for (EnumFacing face : EnumFacing.VALUES) {
                 if (face != this.side) {
@@ -408,6 +474,14 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         @Override
         public long receivePower(long microJoules, boolean simulate) {
+            if (isReceiver && BCTransportConfig.powerNetworks) {
+                long accepted = Math.max(0, Math.min(microJoules, maxPower - networkPower));
+                if (!simulate) {
+                    networkPower += accepted;
+                    debugPowerOffered += accepted;
+                }
+                return microJoules - accepted;
+            }
             if (isReceiver) {
                 PipeFlowPower.this.step();
                 if (!simulate) {
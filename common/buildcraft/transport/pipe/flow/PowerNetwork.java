@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.minecraft.util.EnumFacing;
+
+import buildcraft.api.mj.IMjReceiver;
+import buildcraft.api.mj.MjAPI;
+import buildcraft.api.transport.pipe.IPipe.ConnectedType;
+
+import buildcraft.transport.BCTransportConfig;
+
+/** A {@link PipeFlowNetwork} of kinesis pipes. When this is built it works out the route from the nearest receiving
+ * pipe to every machine that is connected to the network (along with how much power is lost along that route, and the
+ * most that the route can carry). Then every tick all of the power held by the receiving pipes is shared out between
+ * every machine in a single pass, rather than moving one pipe per tick.
+ * <p>
+ * Routes are only limited by the smallest pipe along them, so two machines sharing a small pipe can receive more than
+ * that pipe could carry on its own. */
+final class PowerNetwork extends PipeFlowNetwork<PipeFlowPower> {
+    /** The indices of every member that can receive power from engines. */
+    private final int[] entries;
+    private final Consumer[] consumers;
+    /** The index of the member that each member receives its power from, or -1 if it's an entry (or unreachable). */
+    private final int[] parents;
+    /** The face of each member that its power comes in through, or null if it's an entry (or unreachable). */
+    private final EnumFacing[] parentFaces;
+    /** Every reachable member, in the order that they were reached from the entries. */
+    private final int[] order;
+
+    /** How much more power the network could have used last tick. */
+    private long requested = 0;
+
+    private final long[] throughput;
+    private long lastDisplayTick = Long.MIN_VALUE;
+
+    PowerNetwork(PipeFlowPower start) {
+        super(PipeFlowPower.class);
+        build(start);
+        int size = members.size();
+        parents = new int[size];
+        Arrays.fill(parents, -1);
+        parentFaces = new EnumFacing[size];
+        throughput = new long[size];
+        double[] costs = new double[size];
+        long[] bottlenecks = new long[size];
+        boolean[] reached = new boolean[size];
+        int[] queue = new int[size];
+        int head = 0, tail = 0;
+
+        for (int i = 0; i < size; i++) {
+            PipeFlowPower flow = members.get(i);
+            if (flow.isReceiver) {
+                reached[i] = true;
+                costs[i] = addHopCost(1, flow);
+                bottlenecks[i] = flow.maxPower;
+                queue[tail++] = i;
+            }
+        }
+        entries = Arrays.copyOf(queue, tail);
+
+        // Breadth first, so every member gets its power from the closest entry
+        while (head < tail) {
+            int i = queue[head++];
+            for (EnumFacing face : EnumFacing.VALUES) {
+                int n = neighbours.get(i)[face.ordinal()];
+                if (n < 0 || reached[n]) {
+                    continue;
+                }
+                PipeFlowPower flow = members.get(n);
+                reached[n] = true;
+                parents[n] = i;
+                parentFaces[n] = face.getOpposite();
+                costs[n] = addHopCost(costs[i], flow);
+                bottlenecks[n] = Math.min(bottlenecks[i], flow.maxPower);
+                queue[tail++] = n;
+            }
+        }
+        order = Arrays.copyOf(queue, tail);
+
+        List<Consumer> found = new ArrayList<>();
+        for (int i : order) {
+            PipeFlowPower flow = members.get(i);
+            for (EnumFacing face : EnumFacing.VALUES) {
+                if (flow.pipe.getConnectedType(face) != ConnectedType.TILE) {
+                    continue;
+                }
+                IMjReceiver receiver = flow.pipe.getHolder().getCapabilityFromPipe(face, MjAPI.CAP_RECEIVER);
+                if (receiver != null) {
+                    found.add(new Consumer(i, face, receiver, costs[i], bottlenecks[i]));
+                }
+            }
+        }
+        consumers = found.toArray(new Consumer[found.size()]);
+    }
+
+    /** @return The cost (in power taken from an entry per unit of power delivered) after going through the given
+     *         pipe. */
+    private static double addHopCost(double cost, PipeFlowPower flow) {
+        double resistance = flow.powerResistance / (double) MjAPI.MJ;
+        switch (BCTransportConfig.lossMode) {
+            case PERCENTAGE:
+                return cost / (1 - Math.min(resistance, 0.99));
+            case ABSOLUTE:
+                return cost + resistance;
+            default:
+                return cost;
+        }
+    }
+
+    @Override
+    protected void onMemberAdded(PipeFlowPower flow, int index) {
+        flow.ensureConfigured();
+        flow.network = this;
+        flow.networkIndex = index;
+    }
+
+    @Override
+    protected PipeFlowNetwork<PipeFlowPower> getNetworkOf(PipeFlowPower flow) {
+        return flow.network;
+    }
+
+    @Override
+    protected void onTick(long now) {
+        long available = 0;
+        for (int e : entries) {
+            available += members.get(e).networkPower;
+        }
+
+        double required = 0;
+        for (Consumer c : consumers) {
+            c.delivered = 0;
+            c.demand = c.receiver.canReceive() ? Math.min(c.receiver.getPowerRequested(), c.bottleneck) : 0;
+            if (c.demand > 0) {
+                required += c.demand * c.cost;
+            }
+        }
+
+        long spent = 0;
+        if (available > 0 && required > 0) {
+            double scale = Math.min(1, available / required);
+            for (Consumer c : consumers) {
+                long send = (long) (c.demand * scale);
+                if (send <= 0) {
+                    continue;
+                }
+                long used = send - c.receiver.receivePower(send, false);
+                c.delivered = used;
+                spent += (long) Math.ceil(used * c.cost);
+            }
+            spent = Math.min(spent, available);
+            long remaining = spent;
+            for (int e : entries) {
+                PipeFlowPower flow = members.get(e);
+                long taken = Math.min(flow.networkPower, remaining);
+                flow.networkPower -= taken;
+                remaining -= taken;
+                if (remaining <= 0) {
+                    break;
+                }
+            }
+        }
+        requested = Math.max(0, (long) Math.ceil(required) - (available - spent));
+    }
+
+    /** @return How much more power the network could have used last tick. */
+    long getRequested() {
+        return requested;
+    }
+
+    /** Sets the display power of every section in the given member from what happened last tick. This is only needed
+     * by members that a player is watching, so the (whole network) throughput is only calculated when one of them
+     * needs it. */
+    void updateDisplay(PipeFlowPower flow) {
+        long now = flow.pipe.getHolder().getPipeWorld().getTotalWorldTime();
+        if (lastDisplayTick != now) {
+            lastDisplayTick = now;
+            Arrays.fill(throughput, 0);
+            for (Consumer c : consumers) {
+                throughput[c.member] += c.delivered;
+            }
+            for (int k = order.length - 1; k >= 0; k--) {
+                int i = order[k];
+                if (parents[i] >= 0) {
+                    throughput[parents[i]] += throughput[i];
+                }
+            }
+        }
+
+        int index = flow.networkIndex;
+        for (EnumFacing face : EnumFacing.VALUES) {
+            flow.setDisplay(face, 0, PipeFlowPower.EnumFlow.STATIONARY);
+            int n = neighbours.get(index)[face.ordinal()];
+            if (n >= 0 && parents[n] == index) {
+                flow.setDisplay(face, throughput[n], PipeFlowPower.EnumFlow.OUT);
+            }
+        }
+        if (parentFaces[index] != null) {
+            flow.setDisplay(parentFaces[index], throughput[index], PipeFlowPower.EnumFlow.IN);
+        }
+        for (Consumer c : consumers) {
+            if (c.member == index) {
+                flow.setDisplay(c.face, c.delivered, PipeFlowPower.EnumFlow.OUT);
+            }
+        }
+    }
+
+    private static final class Consumer {
+        final int member;
+        final EnumFacing face;
+        final IMjReceiver receiver;
+        final double cost;
+        final long bottleneck;
+        long demand, delivered;
+
+        Consumer(int member, EnumFacing face, IMjReceiver receiver, double cost, long bottleneck) {
+            this.member = member;
+            this.face = face;
+            this.receiver = receiver;
+            this.cost = cost;
+            this.bottleneck = bottleneck;
+        }
+    }
+}
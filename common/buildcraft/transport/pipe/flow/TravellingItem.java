@@ -10,17 +10,16 @@ import java.util.EnumSet;
 import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
+import javax.vecmath.Tuple3d;
 
 import net.minecraft.item.EnumDyeColor;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 
 import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.misc.StackUtil;
-import buildcraft.lib.misc.VecUtil;
 
 public class TravellingItem {
     // Client fields - public for rendering
@@ -168,27 +167,23 @@ public class TravellingItem {
         return new Vec3d(x, y, z);
     }
 
-    public Vec3d getRenderPosition(BlockPos pos, long tick, float partialTicks) {
+    /** Sets the given tuple to the position of this item relative to the pipe that it is in, without allocating
+     * anything. */
+    public void getRenderPosition(long tick, float partialTicks, Tuple3d into) {
         long diff = tickFinished - tickStarted;
         long afterTick = tick - tickStarted;
 
         float interp = (afterTick + partialTicks) / diff;
         interp = Math.max(0, Math.min(1, interp));
 
-        Vec3d center = new Vec3d(pos).addVector(0.5, 0.5, 0.5);
-        Vec3d vecSide = side == null ? center : VecUtil.offset(center, side, 0.5);
-
-        Vec3d vecFrom;
-        Vec3d vecTo;
-        if (toCenter) {
-            vecFrom = vecSide;
-            vecTo = center;
-        } else {
-            vecFrom = center;
-            vecTo = vecSide;
+        into.set(0.5, 0.5, 0.5);
+        if (side != null) {
+            // How far from the center towards the side the item is
+            double along = 0.5 * (toCenter ? 1 - interp : interp);
+            into.x += side.getFrontOffsetX() * along;
+            into.y += side.getFrontOffsetY() * along;
+            into.z += side.getFrontOffsetZ() * along;
         }
-
-        return VecUtil.scale(vecFrom, 1 - interp).add(VecUtil.scale(vecTo, interp));
     }
 
     public EnumFacing getRenderDirection(long tick, float partialTicks) {
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/** A timing wheel of {@link TravellingItem}'s: a ring buffer of buckets, where each bucket holds every item that
+ * reaches its destination on the same tick. This also keeps an index of every item by the properties that
+ * {@link TravellingItem#canMerge(TravellingItem)} requires to be equal, so finding an item to merge with only looks at
+ * a few candidates rather than every item in the pipe.
+ * <p>
+ * None of the lists used internally are ever thrown away, so the wheel doesn't allocate anything in the steady
+ * state. */
+final class TravellingItemWheel {
+    /** The maximum difference in {@link TravellingItem#tickFinished} that two items can have and still merge. This
+     * must match {@link TravellingItem#canMerge(TravellingItem)}. */
+    private static final int MERGE_TICK_WINDOW = 10;
+
+    private List<TravellingItem>[] buckets;
+    /** The index of the bucket that the next call to {@link #advance()} will return. */
+    private int head = 0;
+    private List<TravellingItem> processing = new ArrayList<>();
+    private int size = 0;
+
+    private final Int2ObjectMap<List<TravellingItem>> mergeIndex = new Int2ObjectOpenHashMap<>();
+    private final Deque<List<TravellingItem>> spareLists = new ArrayDeque<>();
+
+    TravellingItemWheel() {
+        buckets = createBuckets(16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TravellingItem>[] createBuckets(int size) {
+        List<TravellingItem>[] array = new List[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = new ArrayList<>();
+        }
+        return array;
+    }
+
+    /** Adds an item that will be returned by {@link #advance()} after it has been called delay times.
+     *
+     * @param delay The number of times that advance needs to be called for the *next* advance to return this element.
+     *            Negative numbers default up to 0. */
+    void add(int delay, TravellingItem item) {
+        if (delay < 0) {
+            delay = 0;
+        }
+        if (delay >= buckets.length) {
+            grow(delay + 1);
+        }
+        buckets[(head + delay) & (buckets.length - 1)].add(item);
+        size++;
+        addToIndex(item);
+    }
+
+    /** Advances the wheel by one, returning every item that has reached its destination. The returned list is only
+     * valid until the next call to this method, and must not be modified. */
+    List<TravellingItem> advance() {
+        List<TravellingItem> next = buckets[head];
+        processing.clear();
+        buckets[head] = processing;
+        processing = next;
+        head = (head + 1) & (buckets.length - 1);
+        size -= next.size();
+        for (TravellingItem item : next) {
+            removeFromIndex(item);
+        }
+        return next;
+    }
+
+    /** Attempts to merge the given item into one that is already in this wheel.
+     *
+     * @return True if the item was merged (and so shouldn't be added). */
+    boolean tryMerge(TravellingItem item) {
+        long bucket = Math.floorDiv(item.tickFinished, MERGE_TICK_WINDOW);
+        for (long b = bucket - 1; b <= bucket + 1; b++) {
+            List<TravellingItem> candidates = mergeIndex.get(getMergeKey(item, b));
+            if (candidates == null) {
+                continue;
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                if (candidates.get(i).mergeWith(item)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void forEach(Consumer<TravellingItem> consumer) {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[(head + i) & (buckets.length - 1)].forEach(consumer);
+        }
+    }
+
+    private void grow(int minSize) {
+        int newSize = buckets.length;
+        while (newSize < minSize) {
+            newSize <<= 1;
+        }
+        List<TravellingItem>[] newBuckets = createBuckets(newSize);
+        for (int i = 0; i < buckets.length; i++) {
+            newBuckets[i] = buckets[(head + i) & (buckets.length - 1)];
+        }
+        buckets = newBuckets;
+        head = 0;
+    }
+
+    private void addToIndex(TravellingItem item) {
+        int key = getMergeKey(item, Math.floorDiv(item.tickFinished, MERGE_TICK_WINDOW));
+        List<TravellingItem> list = mergeIndex.get(key);
+        if (list == null) {
+            list = spareLists.isEmpty() ? new ArrayList<>() : spareLists.pop();
+            mergeIndex.put(key, list);
+        }
+        list.add(item);
+    }
+
+    private void removeFromIndex(TravellingItem item) {
+        int key = getMergeKey(item, Math.floorDiv(item.tickFinished, MERGE_TICK_WINDOW));
+        List<TravellingItem> list = mergeIndex.get(key);
+        if (list == null) {
+            return;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == item) {
+                list.remove(i);
+                break;
+            }
+        }
+        if (list.isEmpty()) {
+            mergeIndex.remove(key);
+            spareLists.push(list);
+        }
+    }
+
+    /** Hashes together every property of an item that must be equal for it to merge with another. Collisions are fine
+     * as every candidate is checked with {@link TravellingItem#canMerge(TravellingItem)} anyway. */
+    private static int getMergeKey(TravellingItem item, long tickBucket) {
+        int key = System.identityHashCode(item.stack.getItem());
+        key = key * 31 + item.stack.getMetadata();
+        key = key * 31 + (item.colour == null ? -1 : item.colour.ordinal());
+        key = key * 31 + (item.side == null ? -1 : item.side.ordinal());
+        key = key * 31 + (item.toCenter ? 1 : 0);
+        key = key * 31 + Long.hashCode(tickBucket);
+        return key;
+    }
+}
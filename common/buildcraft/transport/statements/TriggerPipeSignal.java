@@ -5,7 +5,9 @@
  */
 package buildcraft.transport.statements;
 
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.Set;
 
 import net.minecraft.item.EnumDyeColor;
 
@@ -21,10 +23,12 @@ import buildcraft.lib.misc.ColourUtil;
 import buildcraft.lib.misc.LocaleUtil;
 
 import buildcraft.core.statements.BCStatement;
+import buildcraft.core.statements.IChangeDrivenTrigger;
 import buildcraft.transport.BCTransportSprites;
 import buildcraft.transport.BCTransportStatements;
 
-public class TriggerPipeSignal extends BCStatement implements ITriggerInternal {
+public class TriggerPipeSignal extends BCStatement implements ITriggerInternal, IChangeDrivenTrigger {
+    private static final Set<Input> INPUTS = EnumSet.of(Input.WIRE);
 
     private final boolean active;
     private final EnumDyeColor colour;
@@ -84,6 +88,11 @@ public class TriggerPipeSignal extends BCStatement implements ITriggerInternal {
         return true;
     }
 
+    @Override
+    public Set<Input> getInputs() {
+        return INPUTS;
+    }
+
     @Override
     public IStatementParameter createParameter(int index) {
         return new TriggerParameterSignal();
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.tile;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+
+import buildcraft.api.transport.pipe.IPipeHolder;
+
+/** Keeps track of which {@link TilePipeHolder}'s in a single (server) world are "asleep": removed from the world's list
+ * of ticking tiles because nothing in them needs to be ticked. Pipes are woken up by anything that might give them
+ * something to do (an item or fluid being inserted, a neighbour changing, a wire signal changing, or one of its
+ * pluggables changing).
+ * <p>
+ * The world's ticking list cannot be modified while the world is iterating over it, so pipes are only actually removed
+ * from (or added back to) it in {@link #tick()}, which is called at the end of every world tick. */
+public class PipeTickScheduler {
+    /** A cache of every class to whether it overrides "onTick", and so needs to be ticked. */
+    private static final Map<Class<?>, Boolean> TICKING_CLASSES = new ConcurrentHashMap<>();
+
+    private final World world;
+    private final Set<TilePipeHolder> allPipes = new HashSet<>();
+    private final Set<TilePipeHolder> asleep = new HashSet<>();
+    private final Set<TilePipeHolder> toSleep = new HashSet<>();
+    private final Set<TilePipeHolder> toWake = new HashSet<>();
+
+    public PipeTickScheduler(World world) {
+        this.world = world;
+    }
+
+    /** Wakes up the given holder, if it is a {@link TilePipeHolder}. */
+    public static void wakeUp(IPipeHolder holder) {
+        if (holder instanceof TilePipeHolder) {
+            ((TilePipeHolder) holder).wakeUp();
+        }
+    }
+
+    /** @return True if the given object's class overrides the "onTick" method declared in the given base class. */
+    public static boolean needsTicking(Object obj, Class<?> base) {
+        return TICKING_CLASSES.computeIfAbsent(obj.getClass(), cls -> {
+            try {
+                return cls.getMethod("onTick").getDeclaringClass() != base;
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        });
+    }
+
+    void addPipe(TilePipeHolder pipe) {
+        allPipes.add(pipe);
+    }
+
+    void removePipe(TilePipeHolder pipe) {
+        allPipes.remove(pipe);
+        asleep.remove(pipe);
+        toSleep.remove(pipe);
+        toWake.remove(pipe);
+    }
+
+    void requestSleep(TilePipeHolder pipe) {
+        toSleep.add(pipe);
+    }
+
+    void wake(TilePipeHolder pipe) {
+        toSleep.remove(pipe);
+        if (asleep.contains(pipe)) {
+            toWake.add(pipe);
+        }
+    }
+
+    public void tick() {
+        if (!toSleep.isEmpty()) {
+            Set<TileEntity> removed = new HashSet<>();
+            for (TilePipeHolder pipe : toSleep) {
+                if (!pipe.isInvalid() && allPipes.contains(pipe) && pipe.canSleep()) {
+                    asleep.add(pipe);
+                    removed.add(pipe);
+                } else {
+                    pipe.sleeping = false;
+                }
+            }
+            toSleep.clear();
+            if (!removed.isEmpty()) {
+                world.tickableTileEntities.removeAll(removed);
+            }
+        }
+        if (!toWake.isEmpty()) {
+            for (TilePipeHolder pipe : toWake) {
+                if (asleep.remove(pipe) && !pipe.isInvalid()) {
+                    world.tickableTileEntities.add(pipe);
+                }
+            }
+            toWake.clear();
+        }
+    }
+
+    public int getPipeCount() {
+        return allPipes.size();
+    }
+
+    public int getAwakeCount() {
+        return allPipes.size() - asleep.size();
+    }
+}
@@ -51,10 +51,14 @@ import buildcraft.lib.misc.data.IdAllocator;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
 
+import buildcraft.core.statements.IChangeDrivenTrigger;
+import buildcraft.transport.BCTransportEventDist;
 import buildcraft.transport.pipe.Pipe;
 import buildcraft.transport.pipe.PipeEventBus;
 import buildcraft.transport.pipe.PluggableHolder;
+import buildcraft.transport.pipe.flow.INetworkedFlow;
 import buildcraft.transport.plug.FilterEventHandler;
+import buildcraft.transport.plug.PluggableGate;
 import buildcraft.transport.wire.WireManager;
 
 public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITickable, IDebuggable {
@@ -84,6 +88,9 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
         NET_UPDATE_PLUG_WEST, NET_UPDATE_PLUG_EAST,//
     };
 
+    /** The number of ticks that a pipe must have had nothing to do before it goes to sleep. */
+    private static final int SLEEP_DELAY = 20;
+
     private static int getReceiverId(PipeMessageReceiver type) {
         return NET_UPDATE_MULTI + 1 + type.ordinal();
     }
@@ -97,6 +104,9 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
     private final Set<PipeMessageReceiver> networkGuiUpdates = EnumSet.noneOf(PipeMessageReceiver.class);
     private final Map<EnumFacing, WeakReference<TileEntity>> neighbourTiles = new EnumMap<>(EnumFacing.class);
     private NBTTagCompound unknownData;
+    private int idleTicks = 0;
+    /** True if this has asked to be (or has been) removed from the world's ticking list. */
+    boolean sleeping = false;
 
     public TilePipeHolder() {
         for (EnumFacing side : EnumFacing.VALUES) {
@@ -193,10 +203,37 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
         }
     }
 
+    @Override
+    public void validate() {
+        super.validate();
+        if (world != null && !world.isRemote) {
+            BCTransportEventDist.INSTANCE.getTickScheduler(world).addPipe(this);
+        }
+    }
+
     @Override
     public void invalidate() {
         super.invalidate();
         wireManager.removeParts(new ArrayList<>(wireManager.parts.keySet()));
+        if (!world.isRemote) {
+            BCTransportEventDist.INSTANCE.getTickScheduler(world).removePipe(this);
+            invalidateFlowNetwork();
+        }
+    }
+
+    @Override
+    public void onChunkUnload() {
+        super.onChunkUnload();
+        if (!world.isRemote) {
+            BCTransportEventDist.INSTANCE.getTickScheduler(world).removePipe(this);
+            invalidateFlowNetwork();
+        }
+    }
+
+    private void invalidateFlowNetwork() {
+        if (pipe != null && pipe.flow instanceof INetworkedFlow) {
+            ((INetworkedFlow) pipe.flow).invalidateNetwork();
+        }
     }
 
     @Override
@@ -249,6 +286,54 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
             wireManager.updateBetweens(false);
             wireManager.inited = true;
         }
+
+        if (!world.isRemote && !sleeping) {
+            if (canSleep()) {
+                if (++idleTicks >= SLEEP_DELAY) {
+                    sleeping = true;
+                    BCTransportEventDist.INSTANCE.getTickScheduler(world).requestSleep(this);
+                }
+            } else {
+                idleTicks = 0;
+            }
+        }
+    }
+
+    /** @return True if ticking this would currently do nothing. */
+    boolean canSleep() {
+        if (pipe == null || !pipe.canSleep()) {
+            return false;
+        }
+        if (scheduleRenderUpdate || !wireManager.inited) {
+            return false;
+        }
+        if (!networkUpdates.isEmpty() || !networkGuiUpdates.isEmpty()) {
+            return false;
+        }
+        for (PluggableHolder holder : pluggables.values()) {
+            if (!holder.canSleep()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Ensures that this pipe will be ticked, if it was asleep or about to go to sleep. */
+    public void wakeUp() {
+        idleTicks = 0;
+        if (sleeping) {
+            sleeping = false;
+            BCTransportEventDist.INSTANCE.getTickScheduler(world).wake(this);
+        }
+    }
+
+    /** Tells every gate in this pipe that the given input might have changed. */
+    public void onGateInputChanged(IChangeDrivenTrigger.Input input) {
+        for (PluggableHolder holder : pluggables.values()) {
+            if (holder.pluggable instanceof PluggableGate) {
+                ((PluggableGate) holder.pluggable).logic.onInputChanged(input);
+            }
+        }
     }
 
     // Network
@@ -379,6 +464,8 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
         PluggableHolder holder = pluggables.get(side);
         PipePluggable old = holder.pluggable;
         holder.pluggable = with;
+        wakeUp();
+        onGateInputChanged(IChangeDrivenTrigger.Input.NEIGHBOUR);
 
         eventBus.unregisterHandler(old);
         eventBus.registerHandler(with);
@@ -427,16 +514,19 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
     @Override
     public void scheduleRenderUpdate() {
         scheduleRenderUpdate = true;
+        wakeUp();
     }
 
     @Override
     public void scheduleNetworkUpdate(PipeMessageReceiver... parts) {
         Collections.addAll(networkUpdates, parts);
+        wakeUp();
     }
 
     @Override
     public void scheduleNetworkGuiUpdate(PipeMessageReceiver... parts) {
         Collections.addAll(networkGuiUpdates, parts);
+        wakeUp();
     }
 
     @Override
@@ -511,6 +601,11 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
             .isPowered(part)));
         left.add("All wire systems in world count = " + (world.isRemote ? 0 : wireManager.getWireSystems().wireSystems
             .size()));
+        if (!world.isRemote) {
+            PipeTickScheduler scheduler = BCTransportEventDist.INSTANCE.getTickScheduler(world);
+            left.add("Sleeping = " + sleeping);
+            left.add("Awake pipes in world = " + scheduler.getAwakeCount() + " / " + scheduler.getPipeCount());
+        }
         if (unknownData != null) {
             left.add(unknownData.toString());
         }
@@ -12,6 +12,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -48,9 +50,18 @@ import buildcraft.lib.misc.NBTUtilBC;
 
 import buildcraft.transport.plug.PluggableGate;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
 public class WireSystem {
-    public final List<WireElement> elements = new ArrayList<>();
+    /** Every element in this system. This is a set so that adding, removing and finding elements is fast even in very
+     * large systems. */
+    public final Set<WireElement> elements = new LinkedHashSet<>();
     public EnumDyeColor color = null;
+    /** The chunks that this system has elements in, and every player that is watching at least one of them. These are
+     * only maintained on the server, by {@link WorldSavedDataWireSystems}. */
+    final LongSet chunks = new LongOpenHashSet();
+    final Set<EntityPlayerMP> watchers = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public boolean hasElement(WireElement element) {
         return elements.contains(element);
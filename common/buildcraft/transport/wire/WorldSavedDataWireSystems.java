@@ -6,23 +6,28 @@
 
 package buildcraft.transport.wire;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.google.common.base.Predicates;
-
-import org.apache.commons.lang3.tuple.Pair;
+import javax.annotation.Nullable;
 
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.EnumDyeColor;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldSavedData;
 import net.minecraft.world.storage.MapStorage;
@@ -31,21 +36,45 @@ import net.minecraftforge.common.util.Constants;
 
 import buildcraft.api.core.BCLog;
 import buildcraft.api.transport.EnumWirePart;
+import buildcraft.api.transport.WireNode;
 import buildcraft.api.transport.pipe.IPipeHolder;
 
 import buildcraft.lib.net.MessageManager;
 
+import buildcraft.core.statements.IChangeDrivenTrigger;
 import buildcraft.transport.plug.PluggableGate;
+import buildcraft.transport.tile.TilePipeHolder;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 
 public class WorldSavedDataWireSystems extends WorldSavedData {
     public static final String DATA_NAME = "buildcraft_wire_systems";
     public World world;
-    public final Map<WireSystem, Boolean> wireSystems = new HashMap<>();
+    /** Every wire system to whether it is powered. This is an identity map as systems are modified in place when wires
+     * are added or removed. */
+    public final Map<WireSystem, Boolean> wireSystems = new IdentityHashMap<>();
     public boolean gatesChanged = true;
     public boolean structureChanged = true;
     public final List<WireSystem> changedSystems = new ArrayList<>();
-    public final List<EntityPlayerMP> changedPlayers = new ArrayList<>();
+    /** Players that need to be sent every system that they are watching again. */
+    public final Set<EntityPlayerMP> changedPlayers = Collections.newSetFromMap(new IdentityHashMap<>());
     public final Map<WireSystem.WireElement, IWireEmitter> emittersCache = new HashMap<>();
+    /** The system that every wire part is in, by {@link BlockPos#toLong()} and then {@link EnumWirePart#ordinal()}. */
+    private final Long2ObjectMap<WireSystem[]> wireIndex = new Long2ObjectOpenHashMap<>();
+    /** Every system that every emitter is in. */
+    private final Map<WireSystem.WireElement, List<WireSystem>> emitterIndex = new HashMap<>();
+    /** Every system that has an element in each chunk, by {@link ChunkPos#asLong(int, int)}. */
+    private final Long2ObjectMap<List<WireSystem>> systemsByChunk = new Long2ObjectOpenHashMap<>();
+    /** Every chunk that each player is watching, as told by {@link #onChunkWatch(EntityPlayerMP, ChunkPos)} and
+     * {@link #onChunkUnWatch(EntityPlayerMP, ChunkPos)}. */
+    private final Map<EntityPlayerMP, LongSet> watchedChunks = new IdentityHashMap<>();
+    /** Systems that have been added or changed since the last tick, so their chunks and watchers need to be
+     * re-calculated. */
+    private final Set<WireSystem> movedSystems = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public WorldSavedDataWireSystems() {
         super(DATA_NAME);
@@ -62,28 +91,385 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
     }
 
     public List<WireSystem> getWireSystemsWithElement(WireSystem.WireElement element) {
-        return wireSystems.keySet().stream().filter(wireSystem -> wireSystem.hasElement(element)).collect(Collectors.toList());
+        if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+            WireSystem wireSystem = getWireSystemOf(element);
+            return wireSystem == null ? Collections.emptyList() : Collections.singletonList(wireSystem);
+        }
+        List<WireSystem> list = emitterIndex.get(element);
+        return list == null ? Collections.emptyList() : new ArrayList<>(list);
+    }
+
+    /** @return The system that the given wire part is in, or null if it isn't in one. */
+    @Nullable
+    public WireSystem getWireSystemOf(WireSystem.WireElement wirePart) {
+        WireSystem[] systems = wireIndex.get(wirePart.blockPos.toLong());
+        return systems == null ? null : systems[wirePart.wirePart.ordinal()];
+    }
+
+    private void addWireSystem(WireSystem wireSystem, boolean powered) {
+        wireSystems.put(wireSystem, powered);
+        movedSystems.add(wireSystem);
+        for (WireSystem.WireElement element : wireSystem.elements) {
+            indexElement(wireSystem, element);
+        }
+    }
+
+    private void indexElement(WireSystem wireSystem, WireSystem.WireElement element) {
+        if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+            long key = element.blockPos.toLong();
+            WireSystem[] systems = wireIndex.get(key);
+            if (systems == null) {
+                systems = new WireSystem[EnumWirePart.VALUES.length];
+                wireIndex.put(key, systems);
+            }
+            systems[element.wirePart.ordinal()] = wireSystem;
+        } else {
+            List<WireSystem> list = emitterIndex.computeIfAbsent(element, e -> new ArrayList<>(2));
+            if (indexOfIdentity(list, wireSystem) == -1) {
+                list.add(wireSystem);
+            }
+        }
+    }
+
+    private void unindexElement(WireSystem wireSystem, WireSystem.WireElement element) {
+        if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+            long key = element.blockPos.toLong();
+            WireSystem[] systems = wireIndex.get(key);
+            if (systems != null && systems[element.wirePart.ordinal()] == wireSystem) {
+                systems[element.wirePart.ordinal()] = null;
+                for (WireSystem other : systems) {
+                    if (other != null) {
+                        return;
+                    }
+                }
+                wireIndex.remove(key);
+            }
+        } else {
+            List<WireSystem> list = emitterIndex.get(element);
+            if (list != null) {
+                int index = indexOfIdentity(list, wireSystem);
+                if (index != -1) {
+                    list.remove(index);
+                }
+                if (list.isEmpty()) {
+                    emitterIndex.remove(element);
+                }
+            }
+        }
+    }
+
+    private static int indexOfIdentity(List<WireSystem> list, WireSystem wireSystem) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == wireSystem) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     public void removeWireSystem(WireSystem wireSystem) {
-        wireSystems.remove(wireSystem);
+        if (wireSystems.remove(wireSystem) != null) {
+            for (WireSystem.WireElement element : wireSystem.elements) {
+                unindexElement(wireSystem, element);
+            }
+            forgetWatchers(wireSystem);
+        }
         markStructureChanged();
+        notifyPipes(wireSystem);
     }
 
+    /** Builds a whole new wire system by walking every wire connected to the given element, replacing any systems
+     * that it overlaps. Prefer {@link #addWireElement(WireSystem.WireElement)} and
+     * {@link #removeWireElement(WireSystem.WireElement)} when only a single wire has changed. */
     public void buildAndAddWireSystem(WireSystem.WireElement element) {
         WireSystem wireSystem = new WireSystem().build(this, element);
         if(!wireSystem.isEmpty()) {
-            wireSystems.put(wireSystem, false);
-            wireSystems.put(wireSystem, wireSystem.update(this));
+            addWireSystem(wireSystem, wireSystem.update(this));
+            notifyPipes(wireSystem);
+        }
+        markStructureChanged();
+    }
+
+    /** Adds a newly placed wire part to the system of every wire it connects to, merging them together if it connects
+     * to more than one. Smaller systems are merged into the largest one, so this only costs as much as the smaller
+     * systems rather than walking every connected wire. */
+    public void addWireElement(WireSystem.WireElement element) {
+        TileEntity tile = world.getTileEntity(element.blockPos);
+        if (!(tile instanceof IPipeHolder) || getWireSystemOf(element) != null) {
+            return;
+        }
+        IPipeHolder holder = (IPipeHolder) tile;
+        EnumDyeColor colour = holder.getWireManager().getColorOfPart(element.wirePart);
+        if (colour == null) {
+            return;
+        }
+        List<WireSystem> connected = new ArrayList<>();
+        for (WireSystem.WireElement other : WireSystem.getConnectedElementsOfElement(holder, element)) {
+            WireSystem wireSystem = getWireSystemOf(other);
+            if (wireSystem != null && wireSystem.color == colour && indexOfIdentity(connected, wireSystem) == -1) {
+                connected.add(wireSystem);
+            }
+        }
+
+        WireSystem target;
+        boolean wasPowered;
+        if (connected.isEmpty()) {
+            target = new WireSystem();
+            target.color = colour;
+            wasPowered = false;
+        } else {
+            target = connected.get(0);
+            for (WireSystem wireSystem : connected) {
+                if (wireSystem.elements.size() > target.elements.size()) {
+                    target = wireSystem;
+                }
+            }
+            wasPowered = wireSystems.get(target);
+        }
+        List<WireSystem> merged = new ArrayList<>();
+        for (WireSystem wireSystem : connected) {
+            if (wireSystem == target) {
+                continue;
+            }
+            boolean powered = wireSystems.remove(wireSystem);
+            forgetWatchers(wireSystem);
+            for (WireSystem.WireElement e : wireSystem.elements) {
+                unindexElement(wireSystem, e);
+                if (target.elements.add(e)) {
+                    indexElement(target, e);
+                }
+            }
+            if (powered != wasPowered) {
+                merged.add(wireSystem);
+            }
+        }
+        target.elements.add(element);
+        indexElement(target, element);
+        addEmitters(target, holder);
+        boolean powered = target.update(this);
+        wireSystems.put(target, powered);
+        movedSystems.add(target);
+
+        // Only the pipes that actually see a different signal need to be told about it
+        if (powered != wasPowered) {
+            notifyPipes(target);
+        } else {
+            for (WireSystem wireSystem : merged) {
+                notifyPipes(wireSystem);
+            }
+            notifyPipe(element.blockPos);
+        }
+        markStructureChanged();
+    }
+
+    /** Removes a wire part from its system, splitting the system up if that disconnected it. The remaining wires that
+     * were connected to the removed part are searched in parallel (merging searches when they meet) until at most one
+     * search is still going, so only the parts that are split off are walked completely. */
+    public void removeWireElement(WireSystem.WireElement element) {
+        WireSystem wireSystem = getWireSystemOf(element);
+        if (wireSystem == null) {
+            return;
+        }
+        boolean wasPowered = wireSystems.get(wireSystem);
+        wireSystem.elements.remove(element);
+        unindexElement(wireSystem, element);
+
+        List<WireSystem.WireElement> starts = new ArrayList<>();
+        WireNode node = new WireNode(element.blockPos, element.wirePart);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            WireNode oNode = node.offset(face);
+            WireSystem.WireElement other = new WireSystem.WireElement(oNode.pos, oNode.part);
+            if (wireSystem.hasElement(other)) {
+                starts.add(other);
+            }
+        }
+
+        Set<BlockPos> touched = new HashSet<>();
+        touched.add(element.blockPos);
+        if (starts.isEmpty()) {
+            wireSystems.remove(wireSystem);
+            for (WireSystem.WireElement e : wireSystem.elements) {
+                unindexElement(wireSystem, e);
+            }
+            forgetWatchers(wireSystem);
+        } else if (starts.size() > 1) {
+            for (List<WireSystem.WireElement> split : findSplitParts(wireSystem, starts)) {
+                WireSystem newSystem = new WireSystem();
+                newSystem.color = wireSystem.color;
+                Set<BlockPos> positions = new HashSet<>();
+                for (WireSystem.WireElement e : split) {
+                    wireSystem.elements.remove(e);
+                    newSystem.elements.add(e);
+                    indexElement(newSystem, e);
+                    positions.add(e.blockPos);
+                }
+                touched.addAll(positions);
+                for (BlockPos pos : positions) {
+                    TileEntity tile = world.getTileEntity(pos);
+                    if (tile instanceof IPipeHolder) {
+                        addEmitters(newSystem, (IPipeHolder) tile);
+                    }
+                }
+                boolean powered = newSystem.update(this);
+                wireSystems.put(newSystem, powered);
+                movedSystems.add(newSystem);
+                if (powered != wasPowered) {
+                    notifyPipes(newSystem);
+                }
+            }
         }
+
+        if (!starts.isEmpty()) {
+            for (BlockPos pos : touched) {
+                removeOrphanedEmitters(wireSystem, pos);
+            }
+            boolean powered = wireSystem.update(this);
+            wireSystems.put(wireSystem, powered);
+            movedSystems.add(wireSystem);
+            if (powered != wasPowered) {
+                notifyPipes(wireSystem);
+            }
+        }
+        notifyPipe(element.blockPos);
         markStructureChanged();
     }
 
+    /** Searches outwards from every start element at once, only following elements in the given system.
+     *
+     * @return Every part of the system that isn't connected to the (largest, or still growing) remainder. */
+    private List<List<WireSystem.WireElement>> findSplitParts(WireSystem wireSystem, List<WireSystem.WireElement> starts) {
+        int count = starts.size();
+        int[] parents = new int[count];
+        List<Deque<WireSystem.WireElement>> queues = new ArrayList<>();
+        List<List<WireSystem.WireElement>> found = new ArrayList<>();
+        Map<WireSystem.WireElement, Integer> owners = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            parents[i] = i;
+            queues.add(new ArrayDeque<>());
+            found.add(new ArrayList<>());
+            WireSystem.WireElement start = starts.get(i);
+            Integer owner = owners.get(start);
+            if (owner == null) {
+                owners.put(start, i);
+                queues.get(i).add(start);
+                found.get(i).add(start);
+            } else {
+                parents[i] = findRoot(parents, owner);
+            }
+        }
+
+        while (true) {
+            int searching = 0;
+            for (int i = 0; i < count; i++) {
+                if (parents[i] == i && !queues.get(i).isEmpty()) {
+                    searching++;
+                }
+            }
+            if (searching <= 1) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                int root = findRoot(parents, i);
+                if (root != i || queues.get(root).isEmpty()) {
+                    continue;
+                }
+                WireSystem.WireElement next = queues.get(root).poll();
+                for (WireSystem.WireElement other : WireSystem.getConnectedElementsOfElement(world, next)) {
+                    if (!wireSystem.hasElement(other)) {
+                        continue;
+                    }
+                    Integer owner = owners.get(other);
+                    if (owner == null) {
+                        owners.put(other, root);
+                        queues.get(root).add(other);
+                        found.get(root).add(other);
+                    } else {
+                        int otherRoot = findRoot(parents, owner);
+                        if (otherRoot != root) {
+                            // The searches met, so merge the smaller one into the larger one
+                            int big = found.get(root).size() >= found.get(otherRoot).size() ? root : otherRoot;
+                            int small = big == root ? otherRoot : root;
+                            parents[small] = big;
+                            queues.get(big).addAll(queues.get(small));
+                            found.get(big).addAll(found.get(small));
+                            queues.get(small).clear();
+                            found.get(small).clear();
+                            root = big;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Every finished search found a whole part. The remainder stays in the original system: either the search that
+        // is still going, or (if they all finished) the largest part
+        int keep = -1;
+        for (int i = 0; i < count; i++) {
+            if (parents[i] != i) {
+                continue;
+            }
+            if (!queues.get(i).isEmpty()) {
+                keep = i;
+                break;
+            }
+            if (keep == -1 || found.get(i).size() > found.get(keep).size()) {
+                keep = i;
+            }
+        }
+        List<List<WireSystem.WireElement>> split = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (parents[i] == i && i != keep) {
+                split.add(found.get(i));
+            }
+        }
+        return split;
+    }
+
+    private static int findRoot(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    /** Adds an emitter element for every gate in the given holder to the given system. */
+    private void addEmitters(WireSystem wireSystem, IPipeHolder holder) {
+        for (EnumFacing side : EnumFacing.VALUES) {
+            if (holder.getPluggable(side) instanceof PluggableGate) {
+                WireSystem.WireElement emitter = new WireSystem.WireElement(holder.getPipePos(), side);
+                if (wireSystem.elements.add(emitter)) {
+                    indexElement(wireSystem, emitter);
+                }
+            }
+        }
+    }
+
+    /** Removes every emitter at the given position from the given system, if it no longer has any wires there. */
+    private void removeOrphanedEmitters(WireSystem wireSystem, BlockPos pos) {
+        for (EnumWirePart part : EnumWirePart.VALUES) {
+            if (wireSystem.hasElement(new WireSystem.WireElement(pos, part))) {
+                return;
+            }
+        }
+        for (EnumFacing side : EnumFacing.VALUES) {
+            WireSystem.WireElement emitter = new WireSystem.WireElement(pos, side);
+            if (wireSystem.elements.remove(emitter)) {
+                unindexElement(wireSystem, emitter);
+            }
+        }
+    }
+
+    /** Re-adds every wire in the given holder, as its connections (or gates) might have changed. */
     public void rebuildWireSystemsAround(IPipeHolder holder) {
-        Arrays.stream(EnumWirePart.values())
-                .flatMap(part -> WireSystem.getConnectedElementsOfElement(world, new WireSystem.WireElement(holder.getPipePos(), part)).stream())
-                .distinct()
-                .forEach(this::buildAndAddWireSystem);
+        for (EnumWirePart part : EnumWirePart.VALUES) {
+            removeWireElement(new WireSystem.WireElement(holder.getPipePos(), part));
+        }
+        for (EnumWirePart part : EnumWirePart.VALUES) {
+            if (holder.getWireManager().getColorOfPart(part) != null) {
+                addWireElement(new WireSystem.WireElement(holder.getPipePos(), part));
+            }
+        }
     }
 
     public IWireEmitter getEmitter(WireSystem.WireElement element) {
@@ -117,33 +503,202 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
         return false;
     }
 
+    /** Wakes up every pipe that the given wire system runs through, and tells their gates that the wires might have
+     * changed. */
+    private void notifyPipes(WireSystem wireSystem) {
+        for (WireSystem.WireElement element : wireSystem.elements) {
+            notifyPipe(element.blockPos);
+        }
+    }
+
+    private void notifyPipe(BlockPos pos) {
+        if (world.isBlockLoaded(pos)) {
+            TileEntity tile = world.getTileEntity(pos);
+            if (tile instanceof TilePipeHolder) {
+                ((TilePipeHolder) tile).wakeUp();
+                ((TilePipeHolder) tile).onGateInputChanged(IChangeDrivenTrigger.Input.WIRE);
+            }
+        }
+    }
+
+    public void onChunkWatch(EntityPlayerMP player, ChunkPos chunkPos) {
+        long key = ChunkPos.asLong(chunkPos.chunkXPos, chunkPos.chunkZPos);
+        if (watchedChunks.computeIfAbsent(player, p -> new LongOpenHashSet()).add(key)) {
+            List<WireSystem> systems = systemsByChunk.get(key);
+            if (systems != null) {
+                for (WireSystem wireSystem : systems) {
+                    if (wireSystem.watchers.add(player)) {
+                        changedPlayers.add(player);
+                    }
+                }
+            }
+        }
+    }
+
+    public void onChunkUnWatch(EntityPlayerMP player, ChunkPos chunkPos) {
+        long key = ChunkPos.asLong(chunkPos.chunkXPos, chunkPos.chunkZPos);
+        LongSet chunks = watchedChunks.get(player);
+        if (chunks == null || !chunks.remove(key)) {
+            return;
+        }
+        List<WireSystem> systems = systemsByChunk.get(key);
+        if (systems != null) {
+            for (WireSystem wireSystem : systems) {
+                if (!isWatchingAny(chunks, wireSystem.chunks) && wireSystem.watchers.remove(player)) {
+                    changedPlayers.add(player);
+                }
+            }
+        }
+        if (chunks.isEmpty()) {
+            watchedChunks.remove(player);
+        }
+    }
+
+    private static boolean isWatchingAny(LongSet watched, LongSet chunks) {
+        LongIterator iter = chunks.iterator();
+        while (iter.hasNext()) {
+            if (watched.contains(iter.nextLong())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Re-calculates the chunks that the given system is in, and which players are watching it. */
+    private void refreshWatchers(WireSystem wireSystem) {
+        LongSet chunks = new LongOpenHashSet();
+        for (WireSystem.WireElement element : wireSystem.elements) {
+            chunks.add(ChunkPos.asLong(element.blockPos.getX() >> 4, element.blockPos.getZ() >> 4));
+        }
+        LongIterator iter = wireSystem.chunks.iterator();
+        while (iter.hasNext()) {
+            long key = iter.nextLong();
+            if (!chunks.contains(key)) {
+                removeFromChunk(wireSystem, key);
+            }
+        }
+        iter = chunks.iterator();
+        while (iter.hasNext()) {
+            long key = iter.nextLong();
+            if (!wireSystem.chunks.contains(key)) {
+                systemsByChunk.computeIfAbsent(key, k -> new ArrayList<>(2)).add(wireSystem);
+            }
+        }
+        wireSystem.chunks.clear();
+        wireSystem.chunks.addAll(chunks);
+
+        // Its elements have changed, so everyone that could see it before or can see it now needs it again
+        changedPlayers.addAll(wireSystem.watchers);
+        wireSystem.watchers.clear();
+        watchedChunks.forEach((player, watched) -> {
+            if (isWatchingAny(watched, chunks)) {
+                wireSystem.watchers.add(player);
+            }
+        });
+        changedPlayers.addAll(wireSystem.watchers);
+    }
+
+    /** Removes a system that is no longer in this world from the chunk index, telling everyone that could see it. */
+    private void forgetWatchers(WireSystem wireSystem) {
+        movedSystems.remove(wireSystem);
+        LongIterator iter = wireSystem.chunks.iterator();
+        while (iter.hasNext()) {
+            removeFromChunk(wireSystem, iter.nextLong());
+        }
+        wireSystem.chunks.clear();
+        changedPlayers.addAll(wireSystem.watchers);
+        wireSystem.watchers.clear();
+    }
+
+    private void removeFromChunk(WireSystem wireSystem, long key) {
+        List<WireSystem> systems = systemsByChunk.get(key);
+        if (systems != null) {
+            int index = indexOfIdentity(systems, wireSystem);
+            if (index != -1) {
+                systems.remove(index);
+            }
+            if (systems.isEmpty()) {
+                systemsByChunk.remove(key);
+            }
+        }
+    }
+
+    /** @return Every system that the given player is watching. */
+    private Set<WireSystem> getWatchedSystems(EntityPlayerMP player) {
+        Set<WireSystem> systems = Collections.newSetFromMap(new IdentityHashMap<>());
+        LongSet chunks = watchedChunks.get(player);
+        if (chunks != null) {
+            LongIterator iter = chunks.iterator();
+            while (iter.hasNext()) {
+                List<WireSystem> inChunk = systemsByChunk.get(iter.nextLong());
+                if (inChunk != null) {
+                    systems.addAll(inChunk);
+                }
+            }
+        }
+        return systems;
+    }
+
     public void tick() {
+        for (WireSystem wireSystem : movedSystems) {
+            refreshWatchers(wireSystem);
+        }
+        movedSystems.clear();
+        // Players that have left this world won't always have been told to stop watching its chunks
+        if (!watchedChunks.isEmpty()) {
+            List<EntityPlayerMP> gone = watchedChunks.keySet().stream()
+                    .filter(player -> player.isDead || player.world != world)
+                    .collect(Collectors.toList());
+            for (EntityPlayerMP player : gone) {
+                watchedChunks.remove(player);
+                changedPlayers.remove(player);
+                wireSystems.keySet().forEach(wireSystem -> wireSystem.watchers.remove(player));
+            }
+        }
+
         if(gatesChanged) {
+            gatesChanged = false;
             wireSystems.keySet().stream()
                     .filter(wireSystem -> {
                         boolean newPowered = wireSystem.update(this);
                         return wireSystems.put(wireSystem, newPowered) != newPowered;
                     })
                     .forEach(changedSystems::add);
+            changedSystems.forEach(this::notifyPipes);
         }
-        world.getPlayers(EntityPlayerMP.class, Predicates.alwaysTrue()).forEach(player -> {
-            Map<Integer, WireSystem> changedWires = this.wireSystems.keySet().stream()
-                    .filter(wireSystem -> wireSystem.isPlayerWatching(player) && (structureChanged || changedPlayers.contains(player)))
-                    .collect(Collectors.toMap(WireSystem::getWiresHashCode, Function.identity()));
-            if(!changedWires.isEmpty()) {
-                MessageManager.sendTo(new MessageWireSystems(changedWires), player);
-            }
-            Map<Integer, Boolean> hashesPowered = this.wireSystems.entrySet().stream()
-                    .filter(systemPower ->
-                            systemPower.getKey().isPlayerWatching(player) &&
-                                    (structureChanged || changedSystems.contains(systemPower.getKey()) || changedPlayers.contains(player))
-                    )
-                    .map(systemPowered -> Pair.of(systemPowered.getKey().getWiresHashCode(), systemPowered.getValue()))
-                    .collect(Collectors.toMap(Pair::getLeft, Pair::getRight));
-            if(!hashesPowered.isEmpty()) {
+
+        // Players that have been changed get everything that they can see, and everyone else only gets the systems
+        // that they are watching whose power has changed
+        for (EntityPlayerMP player : changedPlayers) {
+            if (player.isDead || player.world != world) {
+                continue;
+            }
+            Map<Integer, WireSystem> wires = new HashMap<>();
+            Map<Integer, Boolean> hashesPowered = new HashMap<>();
+            for (WireSystem wireSystem : getWatchedSystems(player)) {
+                int hash = wireSystem.getWiresHashCode();
+                wires.put(hash, wireSystem);
+                hashesPowered.put(hash, wireSystems.get(wireSystem));
+            }
+            MessageManager.sendTo(new MessageWireSystems(wires), player);
+            if (!hashesPowered.isEmpty()) {
                 MessageManager.sendTo(new MessageWireSystemsPowered(hashesPowered), player);
             }
-        });
+        }
+        Map<EntityPlayerMP, Map<Integer, Boolean>> poweredChanges = new IdentityHashMap<>();
+        for (WireSystem wireSystem : changedSystems) {
+            Boolean powered = wireSystems.get(wireSystem);
+            if (powered == null) {
+                continue;
+            }
+            for (EntityPlayerMP player : wireSystem.watchers) {
+                if (!changedPlayers.contains(player)) {
+                    poweredChanges.computeIfAbsent(player, p -> new HashMap<>()).put(wireSystem.getWiresHashCode(), powered);
+                }
+            }
+        }
+        poweredChanges.forEach((player, hashesPowered) -> MessageManager.sendTo(new MessageWireSystemsPowered(hashesPowered), player));
+
         if(structureChanged || !changedSystems.isEmpty()) {
             markDirty();
         }
@@ -167,11 +722,14 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
 
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
+        wireSystems.keySet().forEach(this::forgetWatchers);
         wireSystems.clear();
+        wireIndex.clear();
+        emitterIndex.clear();
         NBTTagList entriesList = nbt.getTagList("entries", Constants.NBT.TAG_COMPOUND);
         for(int i = 0; i < entriesList.tagCount(); i++) {
             NBTTagCompound entry = entriesList.getCompoundTagAt(i);
-            wireSystems.put(new WireSystem().readFromNBT(entry.getCompoundTag("wireSystem")), entry.getBoolean("powered"));
+            addWireSystem(new WireSystem().readFromNBT(entry.getCompoundTag("wireSystem")), entry.getBoolean("powered"));
         }
     }
 
@@ -0,0 +1,201 @@
+package buildcraft.test.lib.expression;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import buildcraft.lib.expression.BytecodeExpressionCompiler;
+import buildcraft.lib.expression.DefaultContexts;
+import buildcraft.lib.expression.FunctionContext;
+import buildcraft.lib.expression.GenericExpressionCompiler;
+import buildcraft.lib.expression.api.IExpressionNode.INodeBoolean;
+import buildcraft.lib.expression.api.IExpressionNode.INodeDouble;
+import buildcraft.lib.expression.api.IExpressionNode.INodeLong;
+import buildcraft.lib.expression.api.InvalidExpressionException;
+import buildcraft.lib.expression.node.value.NodeVariableBoolean;
+import buildcraft.lib.expression.node.value.NodeVariableDouble;
+import buildcraft.lib.expression.node.value.NodeVariableLong;
+
+/** Checks that expressions compiled to bytecode give exactly the same results as the trees that they were compiled
+ * from, and compares how long each of them take to evaluate. */
+public class ExpressionCompilerTester {
+    private static final String[] DOUBLE_EXPRESSIONS = { //
+        "a + b * c - a / b", //
+        "a % b + -c", //
+        "(a - b) / (c - c)", //
+        "a > b ? a : b", //
+        "flag ? sin(a) * 2 : cos(b) + i", //
+        "(a <= b) == (b >= a) ? i * j : i / 2", //
+        "i << 2 | j >> 1", //
+        "~i & j ^ 3", //
+        "a * 0.5 + b * 0.25 + c * 0.125 + i", //
+        "sin(a * 2)", //
+        "atan2(a, b) + pow(c, 2)", //
+        "max_double(a, b) - sqrt(abs_double(c))", //
+    };
+
+    private static final String[] LONG_EXPRESSIONS = { //
+        "i + j * 3 - i % 7", //
+        "i / j", //
+        "flag ? i : -j", //
+        "i < j ? 1 : i == j ? 2 : 3", //
+        "abs_long(i - j)", //
+        "max_long(i, j) * 2 + round(a * 3)", //
+    };
+
+    private static final String[] BOOLEAN_EXPRESSIONS = { //
+        "a < b", "a <= b", "a > b", "a >= b", "a == b", "a != b", //
+        "i < j && flag", "i != j || !flag", "flag == (a < c)", "flag != (i > 0)", //
+        "a / c < b", //
+    };
+
+    private final FunctionContext ctx = new FunctionContext(DefaultContexts.createWithAll());
+    private final NodeVariableDouble a = ctx.putVariableDouble("a");
+    private final NodeVariableDouble b = ctx.putVariableDouble("b");
+    private final NodeVariableDouble c = ctx.putVariableDouble("c");
+    private final NodeVariableLong i = ctx.putVariableLong("i");
+    private final NodeVariableLong j = ctx.putVariableLong("j");
+    private final NodeVariableBoolean flag = ctx.putVariableBoolean("flag");
+    private final Random rand = new Random(42);
+
+    private void randomise() {
+        a.value = randomDouble();
+        b.value = randomDouble();
+        c.value = randomDouble();
+        i.value = rand.nextInt(21) - 10;
+        j.value = rand.nextInt(21) - 10;
+        flag.value = rand.nextBoolean();
+    }
+
+    private double randomDouble() {
+        switch (rand.nextInt(8)) {
+            case 0:
+                return 0;
+            case 1:
+                return Double.NaN;
+            case 2:
+                return rand.nextInt(5) - 2;
+            default:
+                return rand.nextDouble() * 20 - 10;
+        }
+    }
+
+    private <T> T compile(Compiler<T> compiler, String expr, boolean bytecode) throws InvalidExpressionException {
+        boolean before = BytecodeExpressionCompiler.enabled;
+        BytecodeExpressionCompiler.enabled = bytecode;
+        try {
+            return compiler.compile(expr, ctx);
+        } finally {
+            BytecodeExpressionCompiler.enabled = before;
+        }
+    }
+
+    @Test
+    public void testDoubles() throws InvalidExpressionException {
+        for (String expr : DOUBLE_EXPRESSIONS) {
+            INodeDouble tree = compile(GenericExpressionCompiler::compileExpressionDouble, expr, false);
+            INodeDouble compiled = compile(GenericExpressionCompiler::compileExpressionDouble, expr, true);
+            for (int n = 0; n < 1000; n++) {
+                randomise();
+                String expected = evaluate(() -> Double.doubleToLongBits(tree.evaluate()));
+                String got = evaluate(() -> Double.doubleToLongBits(compiled.evaluate()));
+                Assert.assertEquals(expr + " with " + tree, expected, got);
+            }
+        }
+    }
+
+    @Test
+    public void testLongs() throws InvalidExpressionException {
+        for (String expr : LONG_EXPRESSIONS) {
+            INodeLong tree = compile(GenericExpressionCompiler::compileExpressionLong, expr, false);
+            INodeLong compiled = compile(GenericExpressionCompiler::compileExpressionLong, expr, true);
+            for (int n = 0; n < 1000; n++) {
+                randomise();
+                String expected = evaluate(tree::evaluate);
+                Assert.assertEquals(expr + " with " + tree, expected, evaluate(compiled::evaluate));
+            }
+        }
+    }
+
+    @Test
+    public void testBooleans() throws InvalidExpressionException {
+        for (String expr : BOOLEAN_EXPRESSIONS) {
+            INodeBoolean tree = compile(GenericExpressionCompiler::compileExpressionBoolean, expr, false);
+            INodeBoolean compiled = compile(GenericExpressionCompiler::compileExpressionBoolean, expr, true);
+            for (int n = 0; n < 1000; n++) {
+                randomise();
+                String expected = evaluate(tree::evaluate);
+                Assert.assertEquals(expr + " with " + tree, expected, evaluate(compiled::evaluate));
+            }
+        }
+    }
+
+    @Test
+    public void testFunctionRoots() throws InvalidExpressionException {
+        INodeDouble sin = compile(GenericExpressionCompiler::compileExpressionDouble, "sin(a * 2)", true);
+        Assert.assertTrue(sin.toString(), sin instanceof BytecodeExpressionCompiler.CompiledNode);
+        INodeLong max = compile(GenericExpressionCompiler::compileExpressionLong, "max_long(i, j)", true);
+        Assert.assertTrue(max.toString(), max instanceof BytecodeExpressionCompiler.CompiledNode);
+    }
+
+    /** Not a proper benchmark (there is no fork or warmup control), but enough to see if the compiled form is actually
+     * faster than the tree. */
+    @Test
+    public void testSpeed() throws InvalidExpressionException {
+        String expr = "flag ? a * b + c / 2 - (i > j ? a : b) : sin(a) + i * 0.5";
+        INodeDouble tree = compile(GenericExpressionCompiler::compileExpressionDouble, expr, false);
+        INodeDouble compiled = compile(GenericExpressionCompiler::compileExpressionDouble, expr, true);
+        Assert.assertTrue(compiled.toString(), compiled instanceof BytecodeExpressionCompiler.CompiledNode);
+        // So that the first round doesn't only measure the JIT
+        sum(tree);
+        sum(compiled);
+        for (int round = 0; round < 3; round++) {
+            Stopwatch watch = Stopwatch.createStarted();
+            double treeTotal = sum(tree);
+            watch.stop();
+            String treeTime = watch.toString();
+            watch.reset().start();
+            double compiledTotal = sum(compiled);
+            watch.stop();
+            System.out.println("Round " + round + ": tree took " + treeTime + ", compiled took " + watch);
+            // This also stops the loops from being removed
+            Assert.assertEquals(expr, Double.doubleToLongBits(treeTotal), Double.doubleToLongBits(compiledTotal));
+        }
+    }
+
+    private double sum(INodeDouble node) {
+        b.value = 3;
+        c.value = 5;
+        j.value = 7;
+        double total = 0;
+        for (int n = 0; n < 1_000_000; n++) {
+            a.value = n * 0.001;
+            i.value = n % 13;
+            flag.value = (n & 1) == 0;
+            total += node.evaluate();
+        }
+        return total;
+    }
+
+    /** @return The result of the given evaluation, or the type of exception that it threw. */
+    private static String evaluate(Evaluation eval) {
+        try {
+            return String.valueOf(eval.get());
+        } catch (ArithmeticException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    @FunctionalInterface
+    interface Evaluation {
+        Object get();
+    }
+
+    @FunctionalInterface
+    interface Compiler<T> {
+        T compile(String expr, FunctionContext ctx) throws InvalidExpressionException;
+    }
+}
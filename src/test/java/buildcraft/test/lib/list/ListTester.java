@@ -1,17 +1,37 @@
 package buildcraft.test.lib.list;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
 import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemFood;
 import net.minecraft.item.ItemStack;
 
 import buildcraft.api.lists.ListMatchHandler.Type;
+import buildcraft.api.lists.ListRegistry;
 
+import buildcraft.lib.list.ListFilter;
+import buildcraft.lib.list.ListHandler;
+import buildcraft.lib.list.ListHandler.Line;
+import buildcraft.lib.list.ListMatchHandlerClass;
 import buildcraft.lib.list.ListMatchHandlerTools;
 import buildcraft.test.VanillaSetupBaseTester;
 
 public class ListTester extends VanillaSetupBaseTester {
+    @BeforeClass
+    public static void registerHandlers() {
+        if (ListRegistry.getHandlers().stream().noneMatch(ListMatchHandlerClass.class::isInstance)) {
+            ListRegistry.registerHandler(new ListMatchHandlerClass());
+            ListRegistry.registerHandler(new ListMatchHandlerTools());
+            ListRegistry.itemClassAsType.add(ItemFood.class);
+        }
+    }
+
     @Test
     public void testTools() {
         ListMatchHandlerTools matcher = new ListMatchHandlerTools();
@@ -31,4 +51,93 @@ public class ListTester extends VanillaSetupBaseTester {
         Assert.assertFalse(matcher.matches(Type.TYPE, woodenAxe, woodenShovel, false));
         Assert.assertFalse(matcher.matches(Type.TYPE, woodenAxe, apple, false));
     }
+
+    /** The tool classes of the target used to be read with the source stack, which is wrong for items that only have
+     * tool classes for some stacks. */
+    @Test
+    public void testToolsUseTargetStack() {
+        Item drill = new Item() {
+            @Override
+            public Set<String> getToolClasses(ItemStack stack) {
+                return stack.getItemDamage() == 1 ? Collections.singleton("pickaxe") : Collections.emptySet();
+            }
+        };
+        ListMatchHandlerTools matcher = new ListMatchHandlerTools();
+        ItemStack pickaxe = new ItemStack(Items.IRON_PICKAXE);
+
+        Assert.assertTrue(matcher.matches(Type.TYPE, pickaxe, new ItemStack(drill, 1, 1), false));
+        Assert.assertTrue(matcher.matches(Type.TYPE, pickaxe, new ItemStack(drill, 1, 1), true));
+        Assert.assertFalse(matcher.matches(Type.TYPE, pickaxe, new ItemStack(drill, 1, 0), false));
+    }
+
+    /** Class type lines used to compare against the class of the target ItemStack, so they never matched anything. */
+    @Test
+    public void testClass() {
+        ListMatchHandlerClass matcher = new ListMatchHandlerClass();
+        ItemStack apple = new ItemStack(Items.APPLE);
+
+        Assert.assertTrue(matcher.isValidSource(Type.TYPE, apple));
+        Assert.assertFalse(matcher.isValidSource(Type.TYPE, new ItemStack(Items.STICK)));
+
+        Assert.assertTrue(matcher.matches(Type.TYPE, apple, new ItemStack(Items.BREAD), false));
+        Assert.assertTrue(matcher.matches(Type.TYPE, apple, new ItemStack(Items.APPLE), false));
+        // Golden apples are a subclass of ItemFood, and only the exact class is matched
+        Assert.assertFalse(matcher.matches(Type.TYPE, apple, new ItemStack(Items.GOLDEN_APPLE), false));
+        Assert.assertFalse(matcher.matches(Type.TYPE, apple, new ItemStack(Items.STICK), false));
+        Assert.assertFalse(matcher.matches(Type.MATERIAL, apple, new ItemStack(Items.BREAD), false));
+    }
+
+    /** Checks that the compiled filter of a list matches exactly the same items as checking each of its lines. */
+    @Test
+    public void testFilterMatchesLines() {
+        ItemStack woodenAxeDamaged = new ItemStack(Items.WOODEN_AXE);
+        woodenAxeDamaged.setItemDamage(26);
+
+        Line exact = new Line();
+        exact.setStack(0, new ItemStack(Items.STICK));
+        exact.setStack(1, new ItemStack(Items.WOODEN_AXE));
+
+        Line precise = new Line();
+        precise.precise = true;
+        precise.setStack(0, woodenAxeDamaged);
+        precise.setStack(1, new ItemStack(Items.DYE, 1, 4));
+
+        Line tools = new Line();
+        tools.byType = true;
+        tools.setStack(0, new ItemStack(Items.IRON_SHOVEL));
+
+        Line food = new Line();
+        food.byType = true;
+        food.setStack(0, new ItemStack(Items.APPLE));
+
+        Line[] lines = { exact, precise, tools, food };
+        ItemStack list = new ItemStack(Items.PAPER);
+        ListHandler.saveLines(list, lines);
+        ListFilter filter = ListHandler.getFilter(list);
+
+        ItemStack[] targets = { //
+            new ItemStack(Items.STICK), new ItemStack(Items.WOODEN_AXE), woodenAxeDamaged, //
+            new ItemStack(Items.WOODEN_AXE, 1, 25), new ItemStack(Items.DYE, 1, 4), new ItemStack(Items.DYE, 1, 3), //
+            new ItemStack(Items.WOODEN_SHOVEL), new ItemStack(Items.DIAMOND_SHOVEL), //
+            new ItemStack(Items.IRON_PICKAXE), //
+            new ItemStack(Items.BREAD), new ItemStack(Items.GOLDEN_APPLE), new ItemStack(Items.DIAMOND), //
+        };
+        for (ItemStack target : targets) {
+            boolean expected = false;
+            for (Line line : lines) {
+                expected |= line.matches(target);
+            }
+            Assert.assertEquals(target.toString(), expected, filter.matches(target));
+            Assert.assertEquals(target.toString(), expected, ListHandler.matches(list, target));
+        }
+
+        Assert.assertTrue(filter.matches(new ItemStack(Items.BREAD)));
+        Assert.assertTrue(filter.matches(new ItemStack(Items.DIAMOND_SHOVEL)));
+        Assert.assertFalse(filter.matches(new ItemStack(Items.DIAMOND)));
+
+        // Saving the list again replaces the lines, so it gets a new filter
+        ListHandler.saveLines(list, new Line[] { food });
+        Assert.assertFalse(ListHandler.matches(list, new ItemStack(Items.STICK)));
+        Assert.assertTrue(ListHandler.matches(list, new ItemStack(Items.BREAD)));
+    }
 }
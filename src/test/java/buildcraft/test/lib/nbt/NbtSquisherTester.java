@@ -26,9 +26,12 @@ import net.minecraft.nbt.NBTTagFloat;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.profiler.Profiler;
 
+import net.minecraftforge.common.util.Constants;
+
 import buildcraft.api.data.NbtSquishConstants;
 
 import buildcraft.lib.misc.HashUtil;
+import buildcraft.lib.nbt.NbtSquishMap;
 import buildcraft.lib.nbt.NbtSquisher;
 
 public class NbtSquisherTester {
@@ -77,6 +80,27 @@ public class NbtSquisherTester {
         test(true, nbt);
     }
 
+    @Test
+    public void testMapIndices() {
+        Stopwatch watch = Stopwatch.createStarted();
+        NbtSquishMap map = new NbtSquishMap();
+        map.addTag(nbt);
+        watch.stop();
+        System.out.println("Built a squish map of " + map.size() + " tags in " + padMicroseconds(watch.elapsed(
+            TimeUnit.MICROSECONDS), 10));
+
+        NBTTagList bpt = nbt.getTagList("bpt", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < bpt.tagCount(); i++) {
+            NBTBase tag = bpt.get(i);
+            // A copy has a different identity, so this also checks the structural lookup
+            Assert.assertEquals(tag, map.getTagForWriting(map.indexOfTag(tag.copy())));
+        }
+        for (String key : nbt.getKeySet()) {
+            NBTBase tag = nbt.getTag(key);
+            Assert.assertEquals(tag, map.getTagForWriting(map.indexOfTag(tag)));
+        }
+    }
+
     private static NBTTagCompound genNbt(int bptSize) {
         Random rand = new Random(0x517123);
 
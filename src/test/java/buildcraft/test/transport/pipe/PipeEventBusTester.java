@@ -32,6 +32,36 @@ public class PipeEventBusTester {
         Assert.assertEquals(0, event.targetSpeed, 0.00001);
     }
 
+    @Test
+    public void testSuperclassHandler() {
+        PipeEventBus bus = new PipeEventBus();
+        SuperclassHandler handler = new SuperclassHandler();
+        bus.registerHandler(handler);
+
+        Assert.assertTrue(bus.fireEvent(new PipeEventItem.ModifySpeed(null, null, null, 1)));
+        Assert.assertEquals(1, handler.count);
+
+        // Make sure the dispatch cache is cleared when a new handler is registered
+        bus.registerHandler(this);
+        PipeEventItem.ModifySpeed event = new PipeEventItem.ModifySpeed(null, null, null, 1);
+        bus.fireEvent(event);
+        Assert.assertEquals(1, event.targetSpeed, 0.00001);
+        Assert.assertEquals(2, handler.count);
+
+        bus.unregisterHandler(handler);
+        bus.fireEvent(new PipeEventItem.ModifySpeed(null, null, null, 1));
+        Assert.assertEquals(2, handler.count);
+    }
+
+    public static class SuperclassHandler {
+        public int count = 0;
+
+        @PipeEventHandler
+        public void onItemEvent(PipeEventItem event) {
+            count++;
+        }
+    }
+
     @PipeEventHandler
     public void modifySpeed(PipeEventItem.ModifySpeed event) {
         event.targetSpeed = 1;
@@ -0,0 +1,177 @@
+package buildcraft.test.transport.pipe;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.minecraft.item.EnumDyeColor;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+
+import buildcraft.api.transport.pipe.PipeApi;
+import buildcraft.api.transport.pipe.PipeDefinition;
+import buildcraft.api.transport.pipe.PipeDefinition.PipeDefinitionBuilder;
+import buildcraft.api.transport.pipe.PipeFlowType;
+
+import buildcraft.lib.misc.MathUtil;
+import buildcraft.lib.misc.NBTUtilBC;
+
+import buildcraft.test.VanillaSetupBaseTester;
+import buildcraft.transport.BCTransportConfig;
+import buildcraft.transport.pipe.PipeRegistry;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourStone;
+import buildcraft.transport.pipe.flow.PipeFlowFluids;
+import buildcraft.transport.tile.TilePipeHolder;
+
+/** Checks that fluid pipes keep exactly the fluid that they were saved with when they are moved into (and back out of)
+ * a fluid network, and that saving a pipe that is in a network doesn't save the fluid that its sections only show. */
+public class PipeFlowFluidsTester extends VanillaSetupBaseTester {
+    private static final int SECTION_AMOUNT = 40;
+    private static final int TOTAL = SECTION_AMOUNT * 7;
+
+    private static PipeDefinition definition;
+
+    private final World world = new TestWorld();
+
+    @BeforeClass
+    public static void registerPipe() {
+        if (PipeApi.flowFluids == null) {
+            PipeApi.flowFluids = new PipeFlowType(PipeFlowFluids::new, PipeFlowFluids::new);
+        }
+        PipeDefinitionBuilder builder = new PipeDefinitionBuilder();
+        builder.identifier = new ResourceLocation("buildcrafttest", "fluid_network_test");
+        builder.texturePrefix = "buildcrafttest:pipes/fluid_network_test";
+        builder.textureSuffixes = new String[] { "" };
+        builder.logic(PipeBehaviourStone::new, PipeBehaviourStone::new);
+        builder.flow(PipeApi.flowFluids);
+        definition = new PipeDefinition(builder);
+        PipeRegistry.INSTANCE.registerPipe(definition);
+        PipeApi.fluidTransferData.put(definition, new PipeApi.FluidTransferInfo(10, 10));
+    }
+
+    @After
+    public void resetConfig() {
+        BCTransportConfig.fluidNetworks = false;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        BCTransportConfig.fluidNetworks = true;
+
+        // Old (per-section) data must be moved into the network without losing any of it
+        NBTTagCompound saved = tickAndSave(createOldFormat(), 10);
+        Assert.assertEquals(TOTAL, saved.getInteger("networkAmount"));
+        Assert.assertFalse("Saved the display sections as well as the network", saved.hasKey("tank[0]"));
+
+        // Loading and saving the new format again mustn't duplicate anything
+        saved = tickAndSave(saved, 10);
+        Assert.assertEquals(TOTAL, saved.getInteger("networkAmount"));
+        Assert.assertFalse(saved.hasKey("tank[0]"));
+
+        // And turning networks off moves the fluid back into real sections
+        BCTransportConfig.fluidNetworks = false;
+        saved = tickAndSave(saved, 1);
+        Assert.assertFalse(saved.hasKey("networkAmount"));
+        int total = 0;
+        for (int i = 0; i < 7; i++) {
+            total += saved.getCompoundTag("tank[" + i + "]").getShort("capacity");
+        }
+        Assert.assertEquals(TOTAL, total);
+    }
+
+    @Test
+    public void testNetworkShares() {
+        BCTransportConfig.fluidNetworks = true;
+        // The test world can't connect pipes together, so every pipe is saved with the share that a network of all of
+        // them would give it, in the same way as FluidNetwork.getShare
+        int members = 5;
+        int capacity = 10 * 10;
+        // Fewer mB than members, an amount that doesn't divide evenly, and a full network
+        for (int total : new int[] { 3, 1001, members * capacity }) {
+            // Saving, loading and saving again must keep every mB
+            int amount = total;
+            for (int cycle = 0; cycle < 3; cycle++) {
+                int saved = 0;
+                for (int i = 0; i < members; i++) {
+                    int share = MathUtil.getProportionalShare(amount, i * capacity, capacity, members * capacity);
+                    NBTTagCompound nbt = tickAndSave(createNetworkFormat(share), 1);
+                    saved += nbt.getInteger("networkAmount");
+                }
+                Assert.assertEquals("Lost fluid after " + (cycle + 1) + " saves", total, saved);
+                amount = saved;
+            }
+        }
+    }
+
+    private static NBTTagCompound createNetworkFormat(int amount) {
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setTag("fluid", new FluidStack(FluidRegistry.WATER, 1).writeToNBT(new NBTTagCompound()));
+        nbt.setInteger("networkAmount", amount);
+        return nbt;
+    }
+
+    private static NBTTagCompound createOldFormat() {
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setTag("fluid", new FluidStack(FluidRegistry.WATER, 1).writeToNBT(new NBTTagCompound()));
+        for (int i = 0; i < 7; i++) {
+            NBTTagCompound section = new NBTTagCompound();
+            section.setShort("capacity", (short) SECTION_AMOUNT);
+            nbt.setTag("tank[" + i + "]", section);
+        }
+        return nbt;
+    }
+
+    /** Loads a pipe with the given flow data, ticks it a few times and then saves it again.
+     *
+     * @return The saved flow data. */
+    private NBTTagCompound tickAndSave(NBTTagCompound flowNbt, int ticks) {
+        NBTTagCompound pipeNbt = new NBTTagCompound();
+        pipeNbt.setTag("col", NBTUtilBC.writeEnum((EnumDyeColor) null));
+        pipeNbt.setString("def", definition.identifier.toString());
+        pipeNbt.setTag("beh", new NBTTagCompound());
+        pipeNbt.setTag("flow", flowNbt);
+        NBTTagCompound holderNbt = new NBTTagCompound();
+        holderNbt.setTag("pipe", pipeNbt);
+
+        TilePipeHolder holder = new TilePipeHolder();
+        holder.setWorld(world);
+        holder.readFromNBT(holderNbt);
+        Assert.assertNotNull(holder.getPipe());
+
+        for (int i = 0; i < ticks; i++) {
+            world.getWorldInfo().setWorldTotalTime(world.getTotalWorldTime() + 1);
+            holder.getPipe().flow.onTick();
+        }
+        return holder.getPipe().writeToNbt().getCompoundTag("flow");
+    }
+
+    /** A server world without any chunks, which is all that a pipe without any neighbours needs. */
+    private static class TestWorld extends World {
+        TestWorld() {
+            super(null, new WorldInfo(new WorldSettings(0, GameType.SURVIVAL, false, false, WorldType.DEFAULT), "test"),
+                new WorldProviderSurface(), new Profiler(), false);
+        }
+
+        @Override
+        protected IChunkProvider createChunkProvider() {
+            return null;
+        }
+
+        @Override
+        protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+            return false;
+        }
+    }
+}